@@ -2,17 +2,20 @@ package dev.langchain4j.model.cohere;
 
 import dev.langchain4j.data.embedding.Embedding;
 import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.TokenCountEstimator;
 import dev.langchain4j.model.embedding.DimensionAwareEmbeddingModel;
 import dev.langchain4j.model.embedding.EmbeddingModel;
 import dev.langchain4j.model.output.Response;
 import dev.langchain4j.model.output.TokenUsage;
 
 import java.time.Duration;
-import java.util.ArrayList;
 import java.util.List;
 
+import static dev.langchain4j.internal.EmbeddingBatchUtils.embedBatches;
+import static dev.langchain4j.internal.EmbeddingBatchUtils.partition;
 import static dev.langchain4j.internal.Utils.getOrDefault;
 import static dev.langchain4j.internal.ValidationUtils.ensureNotBlank;
+import static dev.langchain4j.internal.ValidationUtils.ensureNotNull;
 import static java.time.Duration.ofSeconds;
 import static java.util.Arrays.stream;
 import static java.util.stream.Collectors.toList;
@@ -30,6 +33,8 @@ public class CohereEmbeddingModel extends DimensionAwareEmbeddingModel {
     private final String modelName;
     private final String inputType;
     private final int maxSegmentsPerBatch;
+    private final Integer maxTokensPerBatch;
+    private final TokenCountEstimator tokenCountEstimator;
 
     public CohereEmbeddingModel(String baseUrl,
                                 String apiKey,
@@ -39,6 +44,19 @@ public class CohereEmbeddingModel extends DimensionAwareEmbeddingModel {
                                 Boolean logRequests,
                                 Boolean logResponses,
                                 Integer maxSegmentsPerBatch) {
+        this(baseUrl, apiKey, modelName, inputType, timeout, logRequests, logResponses, maxSegmentsPerBatch, null, null);
+    }
+
+    public CohereEmbeddingModel(String baseUrl,
+                                String apiKey,
+                                String modelName,
+                                String inputType,
+                                Duration timeout,
+                                Boolean logRequests,
+                                Boolean logResponses,
+                                Integer maxSegmentsPerBatch,
+                                Integer maxTokensPerBatch,
+                                TokenCountEstimator tokenCountEstimator) {
         this.client = CohereClient.builder()
                 .baseUrl(getOrDefault(baseUrl, DEFAULT_BASE_URL))
                 .apiKey(ensureNotBlank(apiKey, "apiKey"))
@@ -49,6 +67,10 @@ public class CohereEmbeddingModel extends DimensionAwareEmbeddingModel {
         this.modelName = modelName;
         this.inputType = inputType;
         this.maxSegmentsPerBatch = getOrDefault(maxSegmentsPerBatch, DEFAULT_MAX_SEGMENTS_PER_BATCH);
+        this.maxTokensPerBatch = maxTokensPerBatch;
+        this.tokenCountEstimator = maxTokensPerBatch == null
+                ? null
+                : ensureNotNull(tokenCountEstimator, "tokenCountEstimator");
     }
 
     /**
@@ -67,40 +89,28 @@ public class CohereEmbeddingModel extends DimensionAwareEmbeddingModel {
     @Override
     public Response<List<Embedding>> embedAll(List<TextSegment> textSegments) {
 
-        List<String> texts = textSegments.stream()
-                .map(TextSegment::text)
-                .collect(toList());
+        List<List<TextSegment>> batches =
+                partition(textSegments, maxSegmentsPerBatch, maxTokensPerBatch, tokenCountEstimator);
 
-        return embedTexts(texts);
+        return embedBatches(batches, 1, null, batch -> embedTexts(batch.stream()
+                .map(TextSegment::text)
+                .collect(toList())));
     }
 
-
     private Response<List<Embedding>> embedTexts(List<String> texts) {
 
-        List<Embedding> embeddings = new ArrayList<>();
-        Integer totalTokenUsage = 0;
-
-        for (int i = 0; i < texts.size(); i += maxSegmentsPerBatch) {
-
-            List<String> batch = texts.subList(i, Math.min(i + maxSegmentsPerBatch, texts.size()));
-
-            EmbedRequest request = EmbedRequest.builder()
-                    .texts(batch)
-                    .inputType(inputType)
-                    .model(modelName)
-                    .build();
-
-            EmbedResponse response = this.client.embed(request);
+        EmbedRequest request = EmbedRequest.builder()
+                .texts(texts)
+                .inputType(inputType)
+                .model(modelName)
+                .build();
 
-            embeddings.addAll(getEmbeddings(response));
-            totalTokenUsage += getTokenUsage(response);
-        }
+        EmbedResponse response = this.client.embed(request);
 
         return Response.from(
-                embeddings,
-                new TokenUsage(totalTokenUsage, 0)
+                getEmbeddings(response),
+                new TokenUsage(getTokenUsage(response), 0)
         );
-
     }
 
     private static List<Embedding> getEmbeddings(EmbedResponse response) {
@@ -127,6 +137,8 @@ public class CohereEmbeddingModel extends DimensionAwareEmbeddingModel {
         private Boolean logRequests;
         private Boolean logResponses;
         private Integer maxSegmentsPerBatch;
+        private Integer maxTokensPerBatch;
+        private TokenCountEstimator tokenCountEstimator;
 
         CohereEmbeddingModelBuilder() {
         }
@@ -171,12 +183,34 @@ public class CohereEmbeddingModel extends DimensionAwareEmbeddingModel {
             return this;
         }
 
+        /**
+         * Maximum number of tokens sent in a single request, in addition to {@code maxSegmentsPerBatch}.
+         * Defaults to null: batches are only limited by their size.
+         * When set, a {@link #tokenCountEstimator(TokenCountEstimator)} is required.
+         *
+         * @param maxTokensPerBatch Maximum number of tokens per request.
+         */
+        public CohereEmbeddingModelBuilder maxTokensPerBatch(Integer maxTokensPerBatch) {
+            this.maxTokensPerBatch = maxTokensPerBatch;
+            return this;
+        }
+
+        /**
+         * Estimator of the number of tokens of the input texts, used to enforce {@code maxTokensPerBatch}.
+         *
+         * @param tokenCountEstimator Estimator of the number of tokens.
+         */
+        public CohereEmbeddingModelBuilder tokenCountEstimator(TokenCountEstimator tokenCountEstimator) {
+            this.tokenCountEstimator = tokenCountEstimator;
+            return this;
+        }
+
         public CohereEmbeddingModel build() {
-            return new CohereEmbeddingModel(this.baseUrl, this.apiKey, this.modelName, this.inputType, this.timeout, this.logRequests, this.logResponses, this.maxSegmentsPerBatch);
+            return new CohereEmbeddingModel(this.baseUrl, this.apiKey, this.modelName, this.inputType, this.timeout, this.logRequests, this.logResponses, this.maxSegmentsPerBatch, this.maxTokensPerBatch, this.tokenCountEstimator);
         }
 
         public String toString() {
-            return "CohereEmbeddingModel.CohereEmbeddingModelBuilder(baseUrl=" + this.baseUrl + ", apiKey=" + this.apiKey + ", modelName=" + this.modelName + ", inputType=" + this.inputType + ", timeout=" + this.timeout + ", logRequests=" + this.logRequests + ", logResponses=" + this.logResponses + ", maxSegmentsPerBatch=" + this.maxSegmentsPerBatch + ")";
+            return "CohereEmbeddingModel.CohereEmbeddingModelBuilder(baseUrl=" + this.baseUrl + ", apiKey=" + this.apiKey + ", modelName=" + this.modelName + ", inputType=" + this.inputType + ", timeout=" + this.timeout + ", logRequests=" + this.logRequests + ", logResponses=" + this.logResponses + ", maxSegmentsPerBatch=" + this.maxSegmentsPerBatch + ", maxTokensPerBatch=" + this.maxTokensPerBatch + ")";
         }
     }
 }
@@ -5,6 +5,7 @@ import static dev.langchain4j.internal.Exceptions.runtime;
 import static dev.langchain4j.internal.ValidationUtils.ensureNotBlank;
 import static dev.langchain4j.internal.ValidationUtils.ensureNotNull;
 
+import dev.langchain4j.Internal;
 import dev.langchain4j.data.segment.TextSegment;
 import dev.langchain4j.store.embedding.EmbeddingStore;
 import java.util.HashMap;
@@ -281,6 +282,19 @@ public class Metadata {
                 key, value, value.getClass().getName());
     }
 
+    /**
+     * Returns the value associated with the given key as is, without copying the whole map like {@link #toMap()}.
+     * Used by {@link dev.langchain4j.store.embedding.filter.Filter}s, which test the metadata of many entries.
+     *
+     * @param key the key
+     * @return the value associated with the given key, or {@code null} if the key is not present.
+     */
+    @Internal
+    @Nullable
+    public Object getObject(String key) {
+        return metadata.get(key);
+    }
+
     /**
      * Check whether this {@code Metadata} contains a given key.
      *
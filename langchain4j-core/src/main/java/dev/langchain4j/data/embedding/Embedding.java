@@ -25,6 +25,14 @@ public class Embedding {
         this.vector = ensureNotNull(vector, "vector");
     }
 
+    /**
+     * For subclasses that store their values in another representation, see {@link HalfPrecisionEmbedding}.
+     * They must override all methods accessing the vector.
+     */
+    Embedding() {
+        this.vector = null;
+    }
+
     /**
      * Returns the vector.
      * @return the vector.
@@ -33,6 +41,18 @@ public class Embedding {
         return vector;
     }
 
+    /**
+     * Copies {@code length} values of the vector, starting at {@code from}, into the given array.
+     * Unlike {@link #vector()}, this never allocates, whatever the representation of the values.
+     * @param from the index of the first value to copy.
+     * @param destination the array to copy the values into.
+     * @param destinationOffset the index in {@code destination} of the first copied value.
+     * @param length the number of values to copy.
+     */
+    public void copyTo(int from, float[] destination, int destinationOffset, int length) {
+        System.arraycopy(vector, from, destination, destinationOffset, length);
+    }
+
     /**
      * Returns a copy of the vector as a list.
      * @return the vector as a list.
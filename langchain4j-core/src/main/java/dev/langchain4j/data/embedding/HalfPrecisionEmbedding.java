@@ -0,0 +1,316 @@
+package dev.langchain4j.data.embedding;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+import static dev.langchain4j.internal.Exceptions.illegalArgument;
+import static dev.langchain4j.internal.ValidationUtils.ensureNotNull;
+
+/**
+ * An {@link Embedding} whose values are stored with 16 bits each instead of 32,
+ * which halves the memory used by large collections of embeddings (caches, in-memory stores, classifier examples)
+ * and the memory bandwidth needed to scan them.
+ * <p>
+ * Values are widened to {@code float} lazily: {@link #vector()} returns a new widened array on every call,
+ * while {@link #get(int)}, {@link #copyTo(int, float[], int, int)}, {@link #dotProduct(float[])}
+ * and {@link #norm()} widen one value at a time, without allocating.
+ * Narrowing rounds to the nearest representable value (ties to even).
+ *
+ * @see Format
+ */
+public class HalfPrecisionEmbedding extends Embedding {
+
+    /**
+     * The 16-bit floating point format of the values.
+     */
+    public enum Format {
+
+        /**
+         * IEEE 754 half precision: 5 exponent bits and 10 mantissa bits.
+         * More precise than {@link #BFLOAT16}, but values beyond ±65504 overflow to infinity.
+         */
+        FLOAT16,
+
+        /**
+         * bfloat16: the upper 16 bits of a {@code float}, with 8 exponent bits and 7 mantissa bits.
+         * Has the range of {@code float}, with less precision than {@link #FLOAT16}.
+         */
+        BFLOAT16
+    }
+
+    private final Format format;
+    private final short[] bits;
+
+    /**
+     * Creates a new HalfPrecisionEmbedding.
+     * @param bits the 16-bit values, takes ownership of the array.
+     * @param format the format of the values.
+     */
+    public HalfPrecisionEmbedding(short[] bits, Format format) {
+        this.bits = ensureNotNull(bits, "bits");
+        this.format = ensureNotNull(format, "format");
+    }
+
+    /**
+     * Returns the format of the values.
+     * @return the format.
+     */
+    public Format format() {
+        return format;
+    }
+
+    /**
+     * Returns the 16-bit values.
+     * @return the values, not a copy.
+     */
+    public short[] bits() {
+        return bits;
+    }
+
+    /**
+     * Returns the value at the given index, widened to {@code float}.
+     * @param index the index.
+     * @return the value.
+     */
+    public float get(int index) {
+        return widen(bits[index], format);
+    }
+
+    /**
+     * Returns a new array with all values widened to {@code float}.
+     * Changes to the returned array are not reflected in this embedding.
+     * @return the vector.
+     */
+    @Override
+    public float[] vector() {
+        float[] vector = new float[bits.length];
+        for (int i = 0; i < bits.length; i++) {
+            vector[i] = widen(bits[i], format);
+        }
+        return vector;
+    }
+
+    /**
+     * Widens {@code length} values, starting at {@code from}, into the given array, without allocating.
+     */
+    @Override
+    public void copyTo(int from, float[] destination, int destinationOffset, int length) {
+        if (from < 0 || length < 0 || from + length > bits.length) {
+            throw new IndexOutOfBoundsException(
+                    "Range [" + from + ", " + (from + length) + ") out of bounds for length " + bits.length);
+        }
+        for (int i = 0; i < length; i++) {
+            destination[destinationOffset + i] = widen(bits[from + i], format);
+        }
+    }
+
+    @Override
+    public List<Float> vectorAsList() {
+        List<Float> list = new ArrayList<>(bits.length);
+        for (short b : bits) {
+            list.add(widen(b, format));
+        }
+        return list;
+    }
+
+    /**
+     * Normalize vector. The normalized values are rounded to the format of this embedding.
+     */
+    @Override
+    public void normalize() {
+        double norm = norm();
+        if (Math.abs(norm) < 1e-10) {
+            return;
+        }
+        for (int i = 0; i < bits.length; i++) {
+            bits[i] = narrow(widen(bits[i], format) / (float) norm, format);
+        }
+    }
+
+    @Override
+    public int dimension() {
+        return bits.length;
+    }
+
+    /**
+     * Calculates the dot product of this embedding and the given vector, widening one value at a time.
+     * @param vector the other vector, of the same dimension.
+     * @return the dot product.
+     */
+    public float dotProduct(float[] vector) {
+        if (vector.length != bits.length) {
+            throw illegalArgument("Length of vector a (%s) must be equal to the length of vector b (%s)",
+                    bits.length, vector.length);
+        }
+        float s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+        int bound = bits.length & ~3;
+        int i = 0;
+        for (; i < bound; i += 4) {
+            s0 += widen(bits[i], format) * vector[i];
+            s1 += widen(bits[i + 1], format) * vector[i + 1];
+            s2 += widen(bits[i + 2], format) * vector[i + 2];
+            s3 += widen(bits[i + 3], format) * vector[i + 3];
+        }
+        for (; i < bits.length; i++) {
+            s0 += widen(bits[i], format) * vector[i];
+        }
+        return (s0 + s1) + (s2 + s3);
+    }
+
+    /**
+     * Calculates the Euclidean (L2) norm of this embedding, widening one value at a time.
+     * @return the norm.
+     */
+    public double norm() {
+        double sum = 0;
+        for (short b : bits) {
+            float value = widen(b, format);
+            sum += value * value;
+        }
+        return Math.sqrt(sum);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        HalfPrecisionEmbedding that = (HalfPrecisionEmbedding) o;
+        return this.format == that.format
+                && Arrays.equals(this.bits, that.bits);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(format, Arrays.hashCode(bits));
+    }
+
+    @Override
+    public String toString() {
+        return "HalfPrecisionEmbedding {" +
+                " format = " + format +
+                ", vector = " + Arrays.toString(vector()) +
+                " }";
+    }
+
+    /**
+     * Creates a new HalfPrecisionEmbedding by narrowing the given vector.
+     * @param vector the vector.
+     * @param format the format to narrow to.
+     * @return the new HalfPrecisionEmbedding.
+     */
+    public static HalfPrecisionEmbedding from(float[] vector, Format format) {
+        ensureNotNull(vector, "vector");
+        ensureNotNull(format, "format");
+        short[] bits = new short[vector.length];
+        for (int i = 0; i < vector.length; i++) {
+            bits[i] = narrow(vector[i], format);
+        }
+        return new HalfPrecisionEmbedding(bits, format);
+    }
+
+    /**
+     * Creates a new HalfPrecisionEmbedding by narrowing the values of the given embedding.
+     * @param embedding the embedding.
+     * @param format the format to narrow to.
+     * @return the new HalfPrecisionEmbedding.
+     */
+    public static HalfPrecisionEmbedding from(Embedding embedding, Format format) {
+        ensureNotNull(embedding, "embedding");
+        if (embedding instanceof HalfPrecisionEmbedding half && half.format == format) {
+            return new HalfPrecisionEmbedding(half.bits.clone(), format);
+        }
+        return from(embedding.vector(), format);
+    }
+
+    /**
+     * Widens a single 16-bit value to {@code float}, for callers that keep the values outside of an embedding,
+     * e.g. in a memory-mapped file.
+     * @param bits the 16-bit value.
+     * @param format the format of the value.
+     * @return the value.
+     */
+    public static float widen(short bits, Format format) {
+        return format == Format.BFLOAT16
+                ? Float.intBitsToFloat(bits << 16)
+                : Float16Table.VALUES[bits & 0xFFFF];
+    }
+
+    static short narrow(float value, Format format) {
+        return format == Format.BFLOAT16 ? toBFloat16(value) : toFloat16(value);
+    }
+
+    private static short toBFloat16(float value) {
+        int bits = Float.floatToRawIntBits(value);
+        if (Float.isNaN(value)) {
+            return (short) ((bits >>> 16) | 0x40); // keeps the NaN quiet
+        }
+        int roundingBias = 0x7FFF + ((bits >>> 16) & 1);
+        return (short) ((bits + roundingBias) >>> 16);
+    }
+
+    private static short toFloat16(float value) {
+        int bits = Float.floatToRawIntBits(value);
+        int sign = (bits >>> 16) & 0x8000;
+        int exponent = (bits >>> 23) & 0xFF;
+        int mantissa = bits & 0x7FFFFF;
+
+        if (exponent == 0xFF) { // infinity or NaN
+            return (short) (sign | 0x7C00 | (mantissa != 0 ? 0x200 : 0));
+        }
+        int halfExponent = exponent - 127 + 15;
+        if (halfExponent >= 0x1F) { // overflow
+            return (short) (sign | 0x7C00);
+        }
+        if (halfExponent <= 0) { // subnormal or zero
+            if (halfExponent < -10) {
+                return (short) sign;
+            }
+            mantissa |= 0x800000;
+            int shift = 14 - halfExponent;
+            int halfMantissa = mantissa >> shift;
+            int remainder = mantissa & ((1 << shift) - 1);
+            int halfway = 1 << (shift - 1);
+            if (remainder > halfway || (remainder == halfway && (halfMantissa & 1) != 0)) {
+                halfMantissa++;
+            }
+            return (short) (sign | halfMantissa);
+        }
+        int half = sign | (halfExponent << 10) | (mantissa >> 13);
+        int remainder = mantissa & 0x1FFF;
+        if (remainder > 0x1000 || (remainder == 0x1000 && (half & 1) != 0)) {
+            half++; // a carry into the exponent is correct, up to infinity
+        }
+        return (short) half;
+    }
+
+    private static float float16ToFloat(int half) {
+        int sign = (half & 0x8000) << 16;
+        int exponent = (half >>> 10) & 0x1F;
+        int mantissa = half & 0x3FF;
+        if (exponent == 0x1F) {
+            return Float.intBitsToFloat(sign | 0x7F800000 | (mantissa << 13));
+        }
+        if (exponent == 0) {
+            float subnormal = mantissa * 0x1p-24f;
+            return sign == 0 ? subnormal : -subnormal;
+        }
+        return Float.intBitsToFloat(sign | ((exponent - 15 + 127) << 23) | (mantissa << 13));
+    }
+
+    /**
+     * All 65536 float16 values widened to {@code float}, so that widening is a single lookup.
+     * Initialized on first use of the {@link Format#FLOAT16} format.
+     */
+    private static class Float16Table {
+
+        static final float[] VALUES = new float[1 << 16];
+
+        static {
+            for (int i = 0; i < VALUES.length; i++) {
+                VALUES[i] = float16ToFloat(i);
+            }
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package dev.langchain4j.internal;
+
+import static dev.langchain4j.internal.ValidationUtils.ensureGreaterThanZero;
+import static dev.langchain4j.internal.ValidationUtils.ensureNotNull;
+
+import dev.langchain4j.Internal;
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.TokenCountEstimator;
+import dev.langchain4j.model.output.Response;
+import dev.langchain4j.model.output.TokenUsage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Utility methods for embedding models that split their input into batches, one request per batch.
+ */
+@Internal
+public class EmbeddingBatchUtils {
+
+    private EmbeddingBatchUtils() {}
+
+    /**
+     * Splits the given list into consecutive sub-lists of {@code size} elements, the last one possibly smaller.
+     * The sub-lists are views of the given list.
+     *
+     * @param list the list to split
+     * @param size the maximum size of the sub-lists
+     * @return the sub-lists, in order
+     */
+    public static <T> List<List<T>> partition(List<T> list, int size) {
+        ensureGreaterThanZero(size, "size");
+        List<List<T>> result = new ArrayList<>();
+        for (int i = 0; i < list.size(); i += size) {
+            result.add(list.subList(i, Math.min(i + size, list.size())));
+        }
+        return result;
+    }
+
+    /**
+     * Splits the given segments into consecutive batches of at most {@code maxSegmentsPerBatch} segments
+     * and at most {@code maxTokensPerBatch} tokens, as estimated by the {@code tokenCountEstimator}.
+     * A segment that exceeds {@code maxTokensPerBatch} on its own is put in a batch of its own,
+     * leaving it to the provider to truncate or reject it.
+     * <p>
+     * When {@code maxTokensPerBatch} is {@code null}, the segments are only split by count,
+     * and the {@code tokenCountEstimator} is not needed.
+     *
+     * @param segments            the segments to split
+     * @param maxSegmentsPerBatch the maximum number of segments per batch
+     * @param maxTokensPerBatch   the maximum number of tokens per batch, or {@code null} if unlimited
+     * @param tokenCountEstimator the estimator of the number of tokens of a segment
+     * @return the batches, in order
+     */
+    public static List<List<TextSegment>> partition(
+            List<TextSegment> segments,
+            int maxSegmentsPerBatch,
+            @Nullable Integer maxTokensPerBatch,
+            @Nullable TokenCountEstimator tokenCountEstimator) {
+        if (maxTokensPerBatch == null) {
+            return partition(segments, maxSegmentsPerBatch);
+        }
+        ensureGreaterThanZero(maxSegmentsPerBatch, "maxSegmentsPerBatch");
+        ensureGreaterThanZero(maxTokensPerBatch, "maxTokensPerBatch");
+        ensureNotNull(tokenCountEstimator, "tokenCountEstimator");
+
+        List<List<TextSegment>> result = new ArrayList<>();
+        int from = 0;
+        int tokens = 0;
+        for (int i = 0; i < segments.size(); i++) {
+            int segmentTokens = tokenCountEstimator.estimateTokenCountInText(segments.get(i).text());
+            boolean full = i - from == maxSegmentsPerBatch || (i > from && tokens + segmentTokens > maxTokensPerBatch);
+            if (full) {
+                result.add(segments.subList(from, i));
+                from = i;
+                tokens = 0;
+            }
+            tokens += segmentTokens;
+        }
+        if (from < segments.size()) {
+            result.add(segments.subList(from, segments.size()));
+        }
+        return result;
+    }
+
+    /**
+     * Embeds the given inputs in batches of {@code batchSize}, with up to {@code maxConcurrency} batches in flight.
+     *
+     * @see #embedBatches(List, int, Executor, Function)
+     */
+    public static <T> Response<List<Embedding>> embedInBatches(
+            List<T> inputs,
+            int batchSize,
+            int maxConcurrency,
+            @Nullable Executor executor,
+            Function<List<T>, Response<List<Embedding>>> embedBatch) {
+        return embedBatches(partition(inputs, batchSize), maxConcurrency, executor, embedBatch);
+    }
+
+    /**
+     * Embeds the given batches, with up to {@code maxConcurrency} batches in flight.
+     * <p>
+     * The embeddings are returned in the order of the batches, and the token usages of the batches are summed.
+     * Retries, if any, are the responsibility of {@code embedBatch}, so that a failed batch is retried alone.
+     * When a batch fails, no further batch is started and its exception is rethrown.
+     *
+     * @param batches        the batches to embed,
+     *                       e.g. planned by {@link #partition(List, int, Integer, TokenCountEstimator)}
+     * @param maxConcurrency the maximum number of batches embedded at the same time; 1 embeds them sequentially
+     *                       on the calling thread
+     * @param executor       the executor running the batches; when {@code null}, a virtual thread executor
+     *                       (or a fixed thread pool before Java 21) is created for the call
+     * @param embedBatch     embeds one batch
+     * @return the embeddings of all the inputs
+     */
+    public static <T> Response<List<Embedding>> embedBatches(
+            List<List<T>> batches,
+            int maxConcurrency,
+            @Nullable Executor executor,
+            Function<List<T>, Response<List<Embedding>>> embedBatch) {
+        ensureGreaterThanZero(maxConcurrency, "maxConcurrency");
+        ensureNotNull(embedBatch, "embedBatch");
+
+        if (batches.size() <= 1 || maxConcurrency == 1) {
+            List<Response<List<Embedding>>> responses = new ArrayList<>(batches.size());
+            for (List<T> batch : batches) {
+                responses.add(embedBatch.apply(batch));
+            }
+            return merge(responses);
+        }
+
+        if (executor != null) {
+            return embedConcurrently(batches, maxConcurrency, executor, embedBatch);
+        }
+        int threads = Math.min(maxConcurrency, batches.size());
+        ExecutorService executorService =
+                VirtualThreadUtils.createVirtualThreadExecutor(() -> Executors.newFixedThreadPool(threads));
+        try {
+            return embedConcurrently(batches, maxConcurrency, executorService, embedBatch);
+        } finally {
+            executorService.shutdown();
+        }
+    }
+
+    private static <T> Response<List<Embedding>> embedConcurrently(
+            List<List<T>> batches,
+            int maxConcurrency,
+            Executor executor,
+            Function<List<T>, Response<List<Embedding>>> embedBatch) {
+
+        Semaphore permits = new Semaphore(maxConcurrency);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        List<CompletableFuture<Response<List<Embedding>>>> futures = new ArrayList<>(batches.size());
+        for (List<T> batch : batches) {
+            try {
+                permits.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(e);
+            }
+            if (failure.get() != null) {
+                permits.release();
+                break;
+            }
+            CompletableFuture<Response<List<Embedding>>> future;
+            try {
+                future = CompletableFuture.supplyAsync(() -> embedBatch.apply(batch), executor);
+            } catch (RuntimeException e) {
+                permits.release();
+                throw e;
+            }
+            futures.add(future.whenComplete((response, error) -> {
+                if (error != null) {
+                    failure.compareAndSet(null, error);
+                }
+                permits.release();
+            }));
+        }
+
+        List<Response<List<Embedding>>> responses = new ArrayList<>(futures.size());
+        for (CompletableFuture<Response<List<Embedding>>> future : futures) {
+            try {
+                responses.add(future.join());
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException runtimeException) {
+                    throw runtimeException;
+                }
+                throw e;
+            }
+        }
+        return merge(responses);
+    }
+
+    private static Response<List<Embedding>> merge(List<Response<List<Embedding>>> responses) {
+        return Response.from(
+                responses.stream()
+                        .flatMap(response -> response.content().stream())
+                        .toList(),
+                responses.stream()
+                        .map(Response::tokenUsage)
+                        .filter(Objects::nonNull)
+                        .reduce(TokenUsage::add)
+                        .orElse(null));
+    }
+}
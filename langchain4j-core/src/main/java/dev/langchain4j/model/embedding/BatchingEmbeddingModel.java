@@ -0,0 +1,266 @@
+package dev.langchain4j.model.embedding;
+
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.output.Response;
+import dev.langchain4j.rag.content.retriever.EmbeddingStoreContentRetriever;
+
+import java.io.Closeable;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import static dev.langchain4j.internal.Utils.getOrDefault;
+import static dev.langchain4j.internal.ValidationUtils.ensureGreaterThanZero;
+import static dev.langchain4j.internal.ValidationUtils.ensureNotNull;
+import static dev.langchain4j.internal.ValidationUtils.ensureTrue;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * An {@link EmbeddingModel} that coalesces concurrent {@link #embed(TextSegment)} calls
+ * into a single {@link EmbeddingModel#embedAll(List)} call to another {@link EmbeddingModel}.
+ * <br>
+ * It is meant for applications where many threads embed one text at a time, e.g. the queries of
+ * an {@link EmbeddingStoreContentRetriever} under load: instead of one round trip (or one inference) per query,
+ * the queries that arrive within {@code maxWait} of each other are embedded together.
+ * A background thread collects the queued texts until {@code maxBatchSize} texts are queued
+ * or the first of them has waited for {@code maxWait}, then embeds them and completes each caller.
+ * <br>
+ * Calls to {@link #embedAll(List)} are already batched, so they are sent to the delegate model directly.
+ * <br>
+ * The {@link Response}s of {@link #embed(TextSegment)} do not hold any token usage,
+ * since the usage of a batch cannot be attributed to its texts.
+ * <br>
+ * The model must be closed to stop its background thread.
+ * <br>
+ * <br>
+ * Configurable parameters:
+ * <br>
+ * - {@code embeddingModel}: The {@link EmbeddingModel} embedding the batches. Mandatory.
+ * <br>
+ * - {@code maxBatchSize}: The maximum number of texts embedded together. Default: 64.
+ * <br>
+ * - {@code maxWait}: How long a text may wait for other texts to join its batch. Default: 10 ms.
+ * <br>
+ * - {@code maxQueueSize}: The maximum number of texts waiting to be embedded.
+ * When it is reached, {@link #embed(TextSegment)} blocks until there is room in the queue. Default: 10,000.
+ * <br>
+ * - {@code executor}: The {@link Executor} calling the delegate model, allowing several batches to be in flight.
+ * Default: none, batches are embedded one after another on the background thread.
+ */
+public class BatchingEmbeddingModel implements EmbeddingModel, Closeable {
+
+    public static final int DEFAULT_MAX_BATCH_SIZE = 64;
+    public static final Duration DEFAULT_MAX_WAIT = Duration.ofMillis(10);
+    public static final int DEFAULT_MAX_QUEUE_SIZE = 10_000;
+
+    private final EmbeddingModel delegate;
+    private final int maxBatchSize;
+    private final long maxWaitNanos;
+    private final Executor executor;
+    private final BlockingQueue<PendingEmbedding> queue;
+    private final Thread dispatcher;
+
+    private volatile boolean closed;
+
+    private BatchingEmbeddingModel(EmbeddingModel embeddingModel,
+                                   Integer maxBatchSize,
+                                   Duration maxWait,
+                                   Integer maxQueueSize,
+                                   Executor executor) {
+        this.delegate = ensureNotNull(embeddingModel, "embeddingModel");
+        this.maxBatchSize = ensureGreaterThanZero(getOrDefault(maxBatchSize, DEFAULT_MAX_BATCH_SIZE), "maxBatchSize");
+        Duration wait = getOrDefault(maxWait, DEFAULT_MAX_WAIT);
+        ensureTrue(!wait.isNegative(), "maxWait must not be negative");
+        this.maxWaitNanos = wait.toNanos();
+        this.queue = new ArrayBlockingQueue<>(
+                ensureGreaterThanZero(getOrDefault(maxQueueSize, DEFAULT_MAX_QUEUE_SIZE), "maxQueueSize"));
+        this.executor = executor;
+        this.dispatcher = new Thread(this::dispatch, "batching-embedding-model");
+        this.dispatcher.setDaemon(true);
+        this.dispatcher.start();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    @Override
+    public Response<Embedding> embed(TextSegment textSegment) {
+        ensureNotNull(textSegment, "textSegment");
+        ensureOpen();
+        PendingEmbedding pending = new PendingEmbedding(textSegment);
+        try {
+            queue.put(pending);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+        if (closed) {
+            // close() may have drained the queue before the put
+            pending.future.completeExceptionally(closedException());
+        }
+        try {
+            return Response.from(pending.future.join());
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public Response<List<Embedding>> embedAll(List<TextSegment> textSegments) {
+        ensureOpen();
+        return delegate.embedAll(textSegments);
+    }
+
+    @Override
+    public int dimension() {
+        return delegate.dimension();
+    }
+
+    /**
+     * Stops the background thread. The texts that are still queued are not embedded, their callers fail.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        dispatcher.interrupt();
+        failQueued();
+    }
+
+    private void dispatch() {
+        List<PendingEmbedding> batch = new ArrayList<>(maxBatchSize);
+        while (!closed) {
+            try {
+                PendingEmbedding first = queue.take();
+                batch.add(first);
+                long deadline = first.enqueuedAt + maxWaitNanos;
+                while (batch.size() < maxBatchSize) {
+                    if (queue.drainTo(batch, maxBatchSize - batch.size()) > 0) {
+                        continue;
+                    }
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        break;
+                    }
+                    PendingEmbedding next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                batch.forEach(pending -> pending.future.completeExceptionally(closedException()));
+                break;
+            }
+
+            List<PendingEmbedding> toEmbed = List.copyOf(batch);
+            batch.clear();
+            if (executor == null) {
+                embed(toEmbed);
+            } else {
+                try {
+                    executor.execute(() -> embed(toEmbed));
+                } catch (RuntimeException e) {
+                    toEmbed.forEach(pending -> pending.future.completeExceptionally(e));
+                }
+            }
+        }
+        failQueued();
+    }
+
+    private void embed(List<PendingEmbedding> batch) {
+        try {
+            List<Embedding> embeddings = delegate.embedAll(batch.stream()
+                    .map(pending -> pending.segment)
+                    .collect(toList())).content();
+            if (embeddings.size() != batch.size()) {
+                throw new IllegalStateException(String.format(
+                        "Expected %s embeddings, but got %s", batch.size(), embeddings.size()));
+            }
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).future.complete(embeddings.get(i));
+            }
+        } catch (Throwable e) {
+            batch.forEach(pending -> pending.future.completeExceptionally(e));
+        }
+    }
+
+    private void failQueued() {
+        PendingEmbedding pending;
+        while ((pending = queue.poll()) != null) {
+            pending.future.completeExceptionally(closedException());
+        }
+    }
+
+    private void ensureOpen() {
+        if (closed) {
+            throw closedException();
+        }
+    }
+
+    private static IllegalStateException closedException() {
+        return new IllegalStateException("The embedding model is closed");
+    }
+
+    private static class PendingEmbedding {
+
+        private final TextSegment segment;
+        private final long enqueuedAt = System.nanoTime();
+        private final CompletableFuture<Embedding> future = new CompletableFuture<>();
+
+        private PendingEmbedding(TextSegment segment) {
+            this.segment = segment;
+        }
+    }
+
+    public static class Builder {
+
+        private EmbeddingModel embeddingModel;
+        private Integer maxBatchSize;
+        private Duration maxWait;
+        private Integer maxQueueSize;
+        private Executor executor;
+
+        Builder() {
+        }
+
+        public Builder embeddingModel(EmbeddingModel embeddingModel) {
+            this.embeddingModel = embeddingModel;
+            return this;
+        }
+
+        public Builder maxBatchSize(Integer maxBatchSize) {
+            this.maxBatchSize = maxBatchSize;
+            return this;
+        }
+
+        public Builder maxWait(Duration maxWait) {
+            this.maxWait = maxWait;
+            return this;
+        }
+
+        public Builder maxQueueSize(Integer maxQueueSize) {
+            this.maxQueueSize = maxQueueSize;
+            return this;
+        }
+
+        public Builder executor(Executor executor) {
+            this.executor = executor;
+            return this;
+        }
+
+        public BatchingEmbeddingModel build() {
+            return new BatchingEmbeddingModel(embeddingModel, maxBatchSize, maxWait, maxQueueSize, executor);
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package dev.langchain4j.model.embedding;
+
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.embedding.cache.EmbeddingCache;
+import dev.langchain4j.model.embedding.cache.InMemoryEmbeddingCache;
+import dev.langchain4j.model.embedding.cache.MappedFileEmbeddingCache;
+import dev.langchain4j.model.embedding.cache.TieredEmbeddingCache;
+import dev.langchain4j.model.output.Response;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import static dev.langchain4j.internal.ValidationUtils.ensureEq;
+import static dev.langchain4j.internal.ValidationUtils.ensureNotBlank;
+import static dev.langchain4j.internal.ValidationUtils.ensureNotNull;
+
+/**
+ * An {@link EmbeddingModel} that caches the embeddings computed by another {@link EmbeddingModel},
+ * so that the same text is embedded only once.
+ * <br>
+ * Embeddings are cached by content: the key is a SHA-256 digest of the {@code modelId} and of the text.
+ * The {@code modelId} must therefore identify the delegate model and all the settings affecting its embeddings
+ * (e.g. the model name and the dimension), especially when the cache is persistent or shared between models.
+ * The metadata of the {@link TextSegment}s is not part of the key.
+ * <br>
+ * {@link #embedAll(List)} embeds all the texts that are not cached in a single call to the delegate model,
+ * and returns the embeddings in the order of the given segments.
+ * The returned {@link Response} holds the token usage and finish reason of that call,
+ * or no token usage when all the embeddings were cached.
+ * <br>
+ * <br>
+ * Configurable parameters:
+ * <br>
+ * - {@code embeddingModel}: The {@link EmbeddingModel} whose embeddings are cached. Mandatory.
+ * <br>
+ * - {@code modelId}: Identifies the embeddings of the delegate model.
+ * Mandatory when a {@code cache} is given, since that cache may be persistent or shared between models.
+ * Default (with the private default cache): the class name of the delegate model.
+ * <br>
+ * - {@code cache}: The {@link EmbeddingCache}, e.g. an {@link InMemoryEmbeddingCache},
+ * a {@link MappedFileEmbeddingCache}, or both combined with a {@link TieredEmbeddingCache}.
+ * Default: an {@link InMemoryEmbeddingCache} keeping up to 10,000 embeddings.
+ */
+public class CachingEmbeddingModel implements EmbeddingModel {
+
+    public static final int DEFAULT_CACHE_SIZE = 10_000;
+
+    private final EmbeddingModel delegate;
+    private final byte[] modelId;
+    private final EmbeddingCache cache;
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+
+    private CachingEmbeddingModel(EmbeddingModel embeddingModel, String modelId, EmbeddingCache cache) {
+        this.delegate = ensureNotNull(embeddingModel, "embeddingModel");
+        String id;
+        if (cache == null) {
+            id = modelId == null ? embeddingModel.getClass().getName() : ensureNotBlank(modelId, "modelId");
+            this.cache = new InMemoryEmbeddingCache(DEFAULT_CACHE_SIZE);
+        } else {
+            // a class name does not tell apart two models (or dimensions) of the same provider sharing this cache
+            id = ensureNotBlank(modelId, "modelId");
+            this.cache = cache;
+        }
+        this.modelId = id.getBytes(StandardCharsets.UTF_8);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    @Override
+    public Response<List<Embedding>> embedAll(List<TextSegment> textSegments) {
+        ensureNotNull(textSegments, "textSegments");
+
+        List<String> keys = new ArrayList<>(textSegments.size());
+        Embedding[] embeddings = new Embedding[textSegments.size()];
+        Map<String, TextSegment> misses = new LinkedHashMap<>();
+        for (int i = 0; i < textSegments.size(); i++) {
+            TextSegment segment = textSegments.get(i);
+            String key = key(segment.text());
+            keys.add(key);
+            embeddings[i] = cache.get(key);
+            if (embeddings[i] == null) {
+                misses.putIfAbsent(key, segment);
+                missCount.increment();
+            } else {
+                hitCount.increment();
+            }
+        }
+
+        if (misses.isEmpty()) {
+            return Response.from(List.of(embeddings));
+        }
+
+        Response<List<Embedding>> response = delegate.embedAll(new ArrayList<>(misses.values()));
+        List<Embedding> computed = response.content();
+        ensureEq(computed.size(), misses.size(),
+                "Expected %s embeddings, but got %s", misses.size(), computed.size());
+
+        Map<String, Embedding> computedByKey = new LinkedHashMap<>();
+        int index = 0;
+        for (String key : misses.keySet()) {
+            Embedding embedding = computed.get(index++);
+            computedByKey.put(key, embedding);
+            cache.put(key, embedding);
+        }
+        for (int i = 0; i < embeddings.length; i++) {
+            if (embeddings[i] == null) {
+                embeddings[i] = computedByKey.get(keys.get(i));
+            }
+        }
+        return Response.from(List.of(embeddings), response.tokenUsage(), response.finishReason());
+    }
+
+    @Override
+    public int dimension() {
+        return delegate.dimension();
+    }
+
+    /**
+     * @return the number of texts whose embedding was found in the cache
+     */
+    public long hitCount() {
+        return hitCount.sum();
+    }
+
+    /**
+     * @return the number of texts whose embedding was not found in the cache.
+     * Duplicates within the same call are all counted, although they are embedded once.
+     */
+    public long missCount() {
+        return missCount.sum();
+    }
+
+    private String key(String text) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            // the length prefix keeps ("ab", "c") and ("a", "bc") apart
+            digest.update(ByteBuffer.allocate(Integer.BYTES).putInt(modelId.length).array());
+            digest.update(modelId);
+            digest.update(text.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public static class Builder {
+
+        private EmbeddingModel embeddingModel;
+        private String modelId;
+        private EmbeddingCache cache;
+
+        Builder() {
+        }
+
+        public Builder embeddingModel(EmbeddingModel embeddingModel) {
+            this.embeddingModel = embeddingModel;
+            return this;
+        }
+
+        public Builder modelId(String modelId) {
+            this.modelId = modelId;
+            return this;
+        }
+
+        public Builder cache(EmbeddingCache cache) {
+            this.cache = cache;
+            return this;
+        }
+
+        public CachingEmbeddingModel build() {
+            return new CachingEmbeddingModel(embeddingModel, modelId, cache);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package dev.langchain4j.model.embedding.cache;
+
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.model.embedding.CachingEmbeddingModel;
+
+/**
+ * A cache of {@link Embedding}s, used by {@link CachingEmbeddingModel}.
+ * <br>
+ * Keys are opaque to the cache. {@link CachingEmbeddingModel} uses lower-case hexadecimal SHA-256 digests,
+ * which identify both the embedding model and the embedded text.
+ * <br>
+ * Implementations must be thread-safe.
+ *
+ * @see InMemoryEmbeddingCache
+ * @see MappedFileEmbeddingCache
+ * @see TieredEmbeddingCache
+ */
+public interface EmbeddingCache {
+
+    /**
+     * @param key the key of the embedding
+     * @return the cached embedding, or {@code null} if there is none
+     */
+    Embedding get(String key);
+
+    /**
+     * Caches the given embedding. Implementations may decide not to cache it, e.g. when they are full.
+     *
+     * @param key       the key of the embedding
+     * @param embedding the embedding
+     */
+    void put(String key, Embedding embedding);
+}
@@ -0,0 +1,84 @@
+package dev.langchain4j.model.embedding.cache;
+
+import dev.langchain4j.data.embedding.Embedding;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static dev.langchain4j.internal.ValidationUtils.ensureGreaterThanZero;
+import static dev.langchain4j.internal.ValidationUtils.ensureTrue;
+
+/**
+ * An {@link EmbeddingCache} that keeps up to {@code maxSize} embeddings in the heap,
+ * evicting the least recently used one when it is full.
+ * Optionally, embeddings also expire once they have been cached for longer than a time-to-live.
+ */
+public class InMemoryEmbeddingCache implements EmbeddingCache {
+
+    private final int maxSize;
+    private final long ttlNanos;
+    private final Map<String, Entry> embeddings;
+
+    /**
+     * @param maxSize the maximum number of embeddings to keep
+     */
+    public InMemoryEmbeddingCache(int maxSize) {
+        this(maxSize, null);
+    }
+
+    /**
+     * @param maxSize the maximum number of embeddings to keep
+     * @param ttl     how long an embedding is kept after it was cached, or {@code null} to keep it until evicted
+     */
+    public InMemoryEmbeddingCache(int maxSize, Duration ttl) {
+        this.maxSize = ensureGreaterThanZero(maxSize, "maxSize");
+        if (ttl != null) {
+            ensureTrue(!ttl.isNegative() && !ttl.isZero(), "ttl must be positive");
+        }
+        this.ttlNanos = ttl == null ? 0 : ttl.toNanos();
+        this.embeddings = new LinkedHashMap<>(16, 0.75f, true) {
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > InMemoryEmbeddingCache.this.maxSize;
+            }
+        };
+    }
+
+    @Override
+    public synchronized Embedding get(String key) {
+        Entry entry = embeddings.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (ttlNanos > 0 && System.nanoTime() - entry.cachedAt > ttlNanos) {
+            embeddings.remove(key);
+            return null;
+        }
+        return entry.embedding;
+    }
+
+    @Override
+    public synchronized void put(String key, Embedding embedding) {
+        embeddings.put(key, new Entry(embedding, System.nanoTime()));
+    }
+
+    /**
+     * @return the number of cached embeddings
+     */
+    public synchronized int size() {
+        return embeddings.size();
+    }
+
+    private static class Entry {
+
+        private final Embedding embedding;
+        private final long cachedAt;
+
+        private Entry(Embedding embedding, long cachedAt) {
+            this.embedding = embedding;
+            this.cachedAt = cachedAt;
+        }
+    }
+}
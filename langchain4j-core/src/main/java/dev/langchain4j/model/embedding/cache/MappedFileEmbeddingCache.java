@@ -0,0 +1,255 @@
+package dev.langchain4j.model.embedding.cache;
+
+import dev.langchain4j.data.embedding.Embedding;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static dev.langchain4j.internal.Exceptions.illegalArgument;
+import static dev.langchain4j.internal.ValidationUtils.ensureBetween;
+import static dev.langchain4j.internal.ValidationUtils.ensureGreaterThanZero;
+import static dev.langchain4j.internal.ValidationUtils.ensureNotNull;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * An {@link EmbeddingCache} that persists embeddings in a memory-mapped file, so they survive restarts
+ * and are shared by the page cache instead of occupying the heap.
+ * <br>
+ * The file is an append-only log of records, mapped in regions of 64 MB. When the cache is opened,
+ * the file is scanned once to rebuild the index of the records; only this index is kept in the heap.
+ * Embeddings are never evicted: once {@code maxBytes} would be exceeded, new embeddings are simply not cached.
+ * <br>
+ * Records are published atomically: a record that was only partially written when the process stopped
+ * is ignored and overwritten when the cache is opened again. Records are flushed to disk by the operating system,
+ * or explicitly by {@link #close()}.
+ * <br>
+ * The file must not be opened by several {@code MappedFileEmbeddingCache}s at the same time.
+ */
+public class MappedFileEmbeddingCache implements EmbeddingCache, Closeable {
+
+    static final int DEFAULT_REGION_SIZE = 64 * 1024 * 1024;
+
+    private static final int MAGIC = 0x4C34_4A45; // "L4JE"
+    private static final int VERSION = 1;
+    // magic, version and region size
+    private static final int HEADER_SIZE = 3 * Integer.BYTES;
+    private static final int KEY_SIZE = 32;
+    private static final int RECORD_HEADER_SIZE = Integer.BYTES + KEY_SIZE;
+
+    private final FileChannel channel;
+    private final long maxBytes;
+    private final int regionSize;
+    private final List<MappedByteBuffer> regions = new CopyOnWriteArrayList<>();
+    private final Map<String, Long> offsets = new ConcurrentHashMap<>();
+
+    private long writeOffset;
+    private volatile boolean closed;
+
+    /**
+     * Opens the cache stored in the given file, creating it if needed. The size of the file is not limited.
+     *
+     * @param path the file
+     */
+    public MappedFileEmbeddingCache(Path path) {
+        this(path, Long.MAX_VALUE);
+    }
+
+    /**
+     * Opens the cache stored in the given file, creating it if needed.
+     *
+     * @param path     the file
+     * @param maxBytes the maximum size of the file; it grows by regions of 64 MB
+     */
+    public MappedFileEmbeddingCache(Path path, long maxBytes) {
+        this(path, maxBytes, DEFAULT_REGION_SIZE);
+    }
+
+    MappedFileEmbeddingCache(Path path, long maxBytes, int regionSize) {
+        ensureNotNull(path, "path");
+        this.maxBytes = ensureBetween(maxBytes, 1, Long.MAX_VALUE, "maxBytes");
+        this.regionSize = ensureGreaterThanZero(regionSize, "regionSize");
+        try {
+            this.channel = FileChannel.open(path, CREATE, READ, WRITE);
+            load();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private void load() throws IOException {
+        long fileSize = channel.size();
+        if (fileSize == 0) {
+            MappedByteBuffer region = mapRegion(0);
+            region.putInt(0, MAGIC);
+            region.putInt(Integer.BYTES, VERSION);
+            region.putInt(2 * Integer.BYTES, regionSize);
+            writeOffset = HEADER_SIZE;
+            return;
+        }
+
+        // the header is checked before mapping anything, which would grow a foreign file to a whole region
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        while (header.hasRemaining()) {
+            if (channel.read(header, header.position()) < 0) {
+                throw illegalArgument("Not an embedding cache file");
+            }
+        }
+        if (header.getInt(0) != MAGIC || header.getInt(Integer.BYTES) != VERSION) {
+            throw illegalArgument("Not an embedding cache file");
+        }
+        int fileRegionSize = header.getInt(2 * Integer.BYTES);
+        if (fileRegionSize != regionSize) {
+            throw illegalArgument("The embedding cache file was written with regions of %s bytes, not %s",
+                    fileRegionSize, regionSize);
+        }
+
+        int regionCount = (int) ((fileSize + regionSize - 1) / regionSize);
+        for (int i = 0; i < regionCount; i++) {
+            mapRegion(i);
+        }
+
+        byte[] key = new byte[KEY_SIZE];
+        long offset = HEADER_SIZE;
+        while (true) {
+            int regionIndex = (int) (offset / regionSize);
+            int position = (int) (offset % regionSize);
+            MappedByteBuffer region = regions.get(regionIndex);
+            int dimension = position + RECORD_HEADER_SIZE <= regionSize ? region.getInt(position) : 0;
+            if (dimension == 0) {
+                // end of a region, or a record that was not completely written
+                if (regionIndex + 1 < regions.size()) {
+                    offset = (long) (regionIndex + 1) * regionSize;
+                    continue;
+                }
+                break;
+            }
+            region.get(position + Integer.BYTES, key);
+            offsets.put(HexFormat.of().formatHex(key), offset);
+            offset += recordSize(dimension);
+        }
+        writeOffset = offset;
+    }
+
+    private MappedByteBuffer mapRegion(int index) throws IOException {
+        MappedByteBuffer region = channel.map(FileChannel.MapMode.READ_WRITE, (long) index * regionSize, regionSize);
+        regions.add(region);
+        return region;
+    }
+
+    @Override
+    public Embedding get(String key) {
+        ensureOpen();
+        Long offset = offsets.get(digest(key));
+        if (offset == null) {
+            return null;
+        }
+        MappedByteBuffer region = regions.get((int) (offset / regionSize));
+        int position = (int) (offset % regionSize);
+        float[] vector = new float[region.getInt(position)];
+        region.slice(position + RECORD_HEADER_SIZE, vector.length * Float.BYTES)
+                .asFloatBuffer()
+                .get(vector);
+        return Embedding.from(vector);
+    }
+
+    @Override
+    public synchronized void put(String key, Embedding embedding) {
+        ensureOpen();
+        String digest = digest(key);
+        if (offsets.containsKey(digest)) {
+            return;
+        }
+        float[] vector = embedding.vector();
+        int recordSize = recordSize(vector.length);
+        if (vector.length == 0 || recordSize > regionSize - HEADER_SIZE) {
+            return;
+        }
+
+        long offset = writeOffset;
+        if (offset % regionSize + recordSize > regionSize) {
+            // records never span two regions, the remainder of the current one is left unused
+            offset = (offset / regionSize + 1) * regionSize;
+        }
+        int regionIndex = (int) (offset / regionSize);
+        if (regionIndex == regions.size()) {
+            if ((long) (regionIndex + 1) * regionSize > maxBytes) {
+                return;
+            }
+            try {
+                mapRegion(regionIndex);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+
+        MappedByteBuffer region = regions.get(regionIndex);
+        int position = (int) (offset % regionSize);
+        region.put(position + Integer.BYTES, HexFormat.of().parseHex(digest));
+        region.slice(position + RECORD_HEADER_SIZE, vector.length * Float.BYTES)
+                .asFloatBuffer()
+                .put(vector);
+        // the dimension is written last: it marks the record as complete
+        region.putInt(position, vector.length);
+
+        writeOffset = offset + recordSize;
+        offsets.put(digest, offset);
+    }
+
+    /**
+     * @return the number of cached embeddings
+     */
+    public int size() {
+        return offsets.size();
+    }
+
+    /**
+     * Flushes the cached embeddings to disk and closes the file.
+     */
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        regions.forEach(MappedByteBuffer::force);
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private void ensureOpen() {
+        if (closed) {
+            throw new IllegalStateException("The embedding cache is closed");
+        }
+    }
+
+    private static int recordSize(int dimension) {
+        return RECORD_HEADER_SIZE + dimension * Float.BYTES;
+    }
+
+    private static String digest(String key) {
+        ensureNotNull(key, "key");
+        try {
+            MessageDigest messageDigest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(messageDigest.digest(key.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package dev.langchain4j.model.embedding.cache;
+
+import dev.langchain4j.data.embedding.Embedding;
+
+import static dev.langchain4j.internal.ValidationUtils.ensureNotNull;
+
+/**
+ * An {@link EmbeddingCache} made of a small, fast first tier in front of a larger, slower second tier,
+ * typically an {@link InMemoryEmbeddingCache} in front of a {@link MappedFileEmbeddingCache}.
+ * <br>
+ * Embeddings are looked up in the first tier, then in the second one, in which case they are copied
+ * into the first tier. New embeddings are put in both tiers.
+ */
+public class TieredEmbeddingCache implements EmbeddingCache {
+
+    private final EmbeddingCache first;
+    private final EmbeddingCache second;
+
+    public TieredEmbeddingCache(EmbeddingCache first, EmbeddingCache second) {
+        this.first = ensureNotNull(first, "first");
+        this.second = ensureNotNull(second, "second");
+    }
+
+    @Override
+    public Embedding get(String key) {
+        Embedding embedding = first.get(key);
+        if (embedding == null) {
+            embedding = second.get(key);
+            if (embedding != null) {
+                first.put(key, embedding);
+            }
+        }
+        return embedding;
+    }
+
+    @Override
+    public void put(String key, Embedding embedding) {
+        first.put(key, embedding);
+        second.put(key, embedding);
+    }
+}
@@ -3,6 +3,8 @@ package dev.langchain4j.rag.content.retriever;
 import dev.langchain4j.data.embedding.Embedding;
 import dev.langchain4j.data.segment.TextSegment;
 import dev.langchain4j.model.embedding.EmbeddingModel;
+import dev.langchain4j.model.embedding.cache.EmbeddingCache;
+import dev.langchain4j.model.embedding.cache.InMemoryEmbeddingCache;
 import dev.langchain4j.rag.content.Content;
 import dev.langchain4j.rag.content.ContentMetadata;
 import dev.langchain4j.rag.query.Query;
@@ -12,6 +14,7 @@ import dev.langchain4j.store.embedding.EmbeddingSearchResult;
 import dev.langchain4j.store.embedding.EmbeddingStore;
 import dev.langchain4j.store.embedding.filter.Filter;
 
+import java.time.Duration;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
@@ -54,6 +57,12 @@ import static dev.langchain4j.spi.ServiceHelper.loadFactories;
  * - {@code dynamicFilter}: It is a {@link Function} that accepts a {@link Query} and returns a {@code filter} value.
  * It can be used to dynamically define {@code filter} value, depending on factors such as the query,
  * the user (using Metadata#chatMemoryId()} from {@link Query#metadata()}), etc.
+ * <br>
+ * - {@code queryEmbeddingCacheSize}: The maximum number of query embeddings to cache, so that repeated queries
+ * are searched without calling the {@link EmbeddingModel}. Default: none, every query is embedded.
+ * <br>
+ * - {@code queryEmbeddingCacheTtl}: How long a cached query embedding is used. Default: until it is evicted.
+ * Only used when {@code queryEmbeddingCacheSize} is set.
  */
 public class EmbeddingStoreContentRetriever implements ContentRetriever {
 
@@ -69,6 +78,7 @@ public class EmbeddingStoreContentRetriever implements ContentRetriever {
     private final Function<Query, Integer> maxResultsProvider;
     private final Function<Query, Double> minScoreProvider;
     private final Function<Query, Filter> filterProvider;
+    private final EmbeddingCache queryEmbeddingCache;
 
     private final String displayName;
 
@@ -80,7 +90,9 @@ public class EmbeddingStoreContentRetriever implements ContentRetriever {
                 embeddingModel,
                 DEFAULT_MAX_RESULTS,
                 DEFAULT_MIN_SCORE,
-                DEFAULT_FILTER
+                DEFAULT_FILTER,
+                null,
+                null
         );
     }
 
@@ -93,7 +105,9 @@ public class EmbeddingStoreContentRetriever implements ContentRetriever {
                 embeddingModel,
                 (query) -> maxResults,
                 DEFAULT_MIN_SCORE,
-                DEFAULT_FILTER
+                DEFAULT_FILTER,
+                null,
+                null
         );
     }
 
@@ -107,7 +121,9 @@ public class EmbeddingStoreContentRetriever implements ContentRetriever {
                 embeddingModel,
                 (query) -> maxResults,
                 (query) -> minScore,
-                DEFAULT_FILTER
+                DEFAULT_FILTER,
+                null,
+                null
         );
     }
 
@@ -116,7 +132,9 @@ public class EmbeddingStoreContentRetriever implements ContentRetriever {
                                            EmbeddingModel embeddingModel,
                                            Function<Query, Integer> dynamicMaxResults,
                                            Function<Query, Double> dynamicMinScore,
-                                           Function<Query, Filter> dynamicFilter) {
+                                           Function<Query, Filter> dynamicFilter,
+                                           Integer queryEmbeddingCacheSize,
+                                           Duration queryEmbeddingCacheTtl) {
         this.displayName = getOrDefault(displayName, DEFAULT_DISPLAY_NAME);
         this.embeddingStore = ensureNotNull(embeddingStore, "embeddingStore");
         this.embeddingModel = ensureNotNull(
@@ -126,6 +144,9 @@ public class EmbeddingStoreContentRetriever implements ContentRetriever {
         this.maxResultsProvider = getOrDefault(dynamicMaxResults, DEFAULT_MAX_RESULTS);
         this.minScoreProvider = getOrDefault(dynamicMinScore, DEFAULT_MIN_SCORE);
         this.filterProvider = getOrDefault(dynamicFilter, DEFAULT_FILTER);
+        this.queryEmbeddingCache = queryEmbeddingCacheSize == null
+                ? null
+                : new InMemoryEmbeddingCache(queryEmbeddingCacheSize, queryEmbeddingCacheTtl);
     }
 
     private static EmbeddingModel loadEmbeddingModel() {
@@ -154,6 +175,8 @@ public class EmbeddingStoreContentRetriever implements ContentRetriever {
         private Function<Query, Integer> dynamicMaxResults;
         private Function<Query, Double> dynamicMinScore;
         private Function<Query, Filter> dynamicFilter;
+        private Integer queryEmbeddingCacheSize;
+        private Duration queryEmbeddingCacheTtl;
 
         EmbeddingStoreContentRetrieverBuilder() {
         }
@@ -209,8 +232,20 @@ public class EmbeddingStoreContentRetriever implements ContentRetriever {
             return this;
         }
 
+        public EmbeddingStoreContentRetrieverBuilder queryEmbeddingCacheSize(Integer queryEmbeddingCacheSize) {
+            this.queryEmbeddingCacheSize = queryEmbeddingCacheSize;
+            return this;
+        }
+
+        public EmbeddingStoreContentRetrieverBuilder queryEmbeddingCacheTtl(Duration queryEmbeddingCacheTtl) {
+            this.queryEmbeddingCacheTtl = queryEmbeddingCacheTtl;
+            return this;
+        }
+
         public EmbeddingStoreContentRetriever build() {
-            return new EmbeddingStoreContentRetriever(this.displayName, this.embeddingStore, this.embeddingModel, this.dynamicMaxResults, this.dynamicMinScore, this.dynamicFilter);
+            return new EmbeddingStoreContentRetriever(this.displayName, this.embeddingStore, this.embeddingModel,
+                    this.dynamicMaxResults, this.dynamicMinScore, this.dynamicFilter,
+                    this.queryEmbeddingCacheSize, this.queryEmbeddingCacheTtl);
         }
     }
 
@@ -225,7 +260,7 @@ public class EmbeddingStoreContentRetriever implements ContentRetriever {
     @Override
     public List<Content> retrieve(Query query) {
 
-        Embedding embeddedQuery = embeddingModel.embed(query.text()).content();
+        Embedding embeddedQuery = embed(query.text());
 
         EmbeddingSearchRequest searchRequest = EmbeddingSearchRequest.builder()
                 .queryEmbedding(embeddedQuery)
@@ -247,6 +282,18 @@ public class EmbeddingStoreContentRetriever implements ContentRetriever {
                 .collect(Collectors.toList());
     }
 
+    private Embedding embed(String text) {
+        if (queryEmbeddingCache == null) {
+            return embeddingModel.embed(text).content();
+        }
+        Embedding embedding = queryEmbeddingCache.get(text);
+        if (embedding == null) {
+            embedding = embeddingModel.embed(text).content();
+            queryEmbeddingCache.put(text, embedding);
+        }
+        return embedding;
+    }
+
     @Override
     public String toString() {
         return "EmbeddingStoreContentRetriever{" +
@@ -0,0 +1,134 @@
+package dev.langchain4j.rag.content.retriever;
+
+import dev.langchain4j.rag.content.Content;
+import dev.langchain4j.rag.content.aggregator.ReciprocalRankFuser;
+import dev.langchain4j.rag.content.retriever.bm25.Bm25ContentRetriever;
+import dev.langchain4j.rag.query.Query;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import static dev.langchain4j.internal.Utils.getOrDefault;
+import static dev.langchain4j.internal.ValidationUtils.ensureBetween;
+import static dev.langchain4j.internal.ValidationUtils.ensureGreaterThanZero;
+import static dev.langchain4j.internal.ValidationUtils.ensureNotEmpty;
+import static java.util.Arrays.asList;
+import static java.util.concurrent.CompletableFuture.supplyAsync;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * A {@link ContentRetriever} that retrieves from several {@link ContentRetriever}s
+ * and fuses their results with {@link ReciprocalRankFuser}.
+ * <br>
+ * It is typically used for hybrid search, combining a lexical retriever ({@link Bm25ContentRetriever})
+ * with a semantic one ({@link EmbeddingStoreContentRetriever}): the fusion only depends on the ranks
+ * of the {@link Content}s, so the scores of the retrievers do not need to be comparable.
+ * A {@link Content} retrieved by several retrievers is returned once, with the metadata of the first retriever.
+ * <br>
+ * <br>
+ * Configurable parameters (optional):
+ * <br>
+ * - {@code k}: The ranking constant of the fusion, see {@link ReciprocalRankFuser#fuse(Collection, int)}.
+ * Default: 60.
+ * <br>
+ * - {@code maxResults}: The maximum number of fused {@link Content}s to return. Default: all of them.
+ * <br>
+ * - {@code executor}: The {@link Executor} used to query the retrievers concurrently.
+ * Default: none, they are queried one after another on the calling thread.
+ */
+public class HybridContentRetriever implements ContentRetriever {
+
+    public static final int DEFAULT_K = 60;
+
+    private final List<ContentRetriever> retrievers;
+    private final int k;
+    private final Integer maxResults;
+    private final Executor executor;
+
+    public HybridContentRetriever(ContentRetriever... retrievers) {
+        this(asList(retrievers), null, null, null);
+    }
+
+    private HybridContentRetriever(List<ContentRetriever> retrievers,
+                                   Integer k,
+                                   Integer maxResults,
+                                   Executor executor) {
+        this.retrievers = new ArrayList<>(ensureNotEmpty(retrievers, "retrievers"));
+        this.k = ensureBetween(getOrDefault(k, DEFAULT_K), 1, Integer.MAX_VALUE, "k");
+        this.maxResults = maxResults == null ? null : ensureGreaterThanZero(maxResults, "maxResults");
+        this.executor = executor;
+    }
+
+    public static HybridContentRetrieverBuilder builder() {
+        return new HybridContentRetrieverBuilder();
+    }
+
+    @Override
+    public List<Content> retrieve(Query query) {
+        List<List<Content>> results;
+        if (executor == null || retrievers.size() == 1) {
+            results = retrievers.stream()
+                    .map(retriever -> retriever.retrieve(query))
+                    .collect(toList());
+        } else {
+            List<CompletableFuture<List<Content>>> futures = retrievers.stream()
+                    .map(retriever -> supplyAsync(() -> retriever.retrieve(query), executor))
+                    .collect(toList());
+            results = futures.stream()
+                    .map(CompletableFuture::join)
+                    .collect(toList());
+        }
+
+        List<Content> fused = ReciprocalRankFuser.fuse(results, k);
+        return maxResults == null || fused.size() <= maxResults ? fused : fused.subList(0, maxResults);
+    }
+
+    @Override
+    public String toString() {
+        return "HybridContentRetriever{" +
+                "retrievers=" + retrievers +
+                '}';
+    }
+
+    public static class HybridContentRetrieverBuilder {
+
+        private List<ContentRetriever> retrievers;
+        private Integer k;
+        private Integer maxResults;
+        private Executor executor;
+
+        HybridContentRetrieverBuilder() {
+        }
+
+        public HybridContentRetrieverBuilder retrievers(List<ContentRetriever> retrievers) {
+            this.retrievers = retrievers;
+            return this;
+        }
+
+        public HybridContentRetrieverBuilder retrievers(ContentRetriever... retrievers) {
+            return retrievers(asList(retrievers));
+        }
+
+        public HybridContentRetrieverBuilder k(Integer k) {
+            this.k = k;
+            return this;
+        }
+
+        public HybridContentRetrieverBuilder maxResults(Integer maxResults) {
+            this.maxResults = maxResults;
+            return this;
+        }
+
+        public HybridContentRetrieverBuilder executor(Executor executor) {
+            this.executor = executor;
+            return this;
+        }
+
+        public HybridContentRetriever build() {
+            return new HybridContentRetriever(retrievers, k, maxResults, executor);
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package dev.langchain4j.rag.content.retriever.bm25;
+
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.rag.content.Content;
+import dev.langchain4j.rag.content.ContentMetadata;
+import dev.langchain4j.rag.content.retriever.ContentRetriever;
+import dev.langchain4j.rag.content.retriever.EmbeddingStoreContentRetriever;
+import dev.langchain4j.rag.content.retriever.HybridContentRetriever;
+import dev.langchain4j.rag.query.Query;
+import dev.langchain4j.store.embedding.filter.Filter;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import static dev.langchain4j.internal.Utils.getOrDefault;
+import static dev.langchain4j.internal.ValidationUtils.ensureBetween;
+import static dev.langchain4j.internal.ValidationUtils.ensureGreaterThanZero;
+import static dev.langchain4j.internal.ValidationUtils.ensureNotNull;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * A {@link ContentRetriever} that retrieves {@link TextSegment}s by keywords, ranked with Okapi BM25.
+ * <br>
+ * The segments are kept in an in-memory inverted index, so retrieval does not involve any network call
+ * nor any embedding model. Lexical retrieval complements semantic retrieval
+ * (e.g. {@link EmbeddingStoreContentRetriever}) for queries whose meaning is carried by exact tokens,
+ * such as product codes, error identifiers or names, which embedding models tend to blur.
+ * The two can be combined with a {@link HybridContentRetriever}.
+ * <br>
+ * The {@link ContentMetadata#SCORE} of the retrieved {@link Content}s is their BM25 score. Unlike relevance scores
+ * of embedding stores, it is not normalized: it is only comparable between results of the same query.
+ * <br>
+ * <br>
+ * Configurable parameters (optional):
+ * <br>
+ * - {@code analyzer}: The {@link TextAnalyzer} splitting segments and queries into terms.
+ * Default: {@link StandardTextAnalyzer} with its default settings.
+ * <br>
+ * - {@code k1}: Controls how quickly the score saturates as a term repeats in a segment. Default: 1.2.
+ * <br>
+ * - {@code b}: Controls how much the score is normalized by the length of the segment, between 0 and 1.
+ * Default: 0.75.
+ * <br>
+ * - {@code maxResults}: The maximum number of {@link Content}s to retrieve. Default: 3.
+ * <br>
+ * - {@code dynamicMaxResults}: It is a {@link Function} that accepts a {@link Query} and returns
+ * a {@code maxResults} value.
+ * <br>
+ * - {@code filter}: The {@link Filter} that will be applied to the {@link dev.langchain4j.data.document.Metadata}
+ * of the segments.
+ * <br>
+ * - {@code segments}: The segments to index initially. More can be added with {@link #addAll(Collection)}.
+ */
+public class Bm25ContentRetriever implements ContentRetriever {
+
+    public static final double DEFAULT_K1 = 1.2;
+    public static final double DEFAULT_B = 0.75;
+    public static final Function<Query, Integer> DEFAULT_MAX_RESULTS = (query) -> 3;
+
+    private final TextAnalyzer analyzer;
+    private final Bm25Index index;
+    private final Function<Query, Integer> maxResultsProvider;
+    private final Filter filter;
+
+    private Bm25ContentRetriever(TextAnalyzer analyzer,
+                                 Double k1,
+                                 Double b,
+                                 Function<Query, Integer> dynamicMaxResults,
+                                 Filter filter,
+                                 Collection<TextSegment> segments) {
+        this.analyzer = getOrDefault(analyzer, StandardTextAnalyzer::new);
+        this.index = new Bm25Index(
+                ensureBetween(getOrDefault(k1, DEFAULT_K1), 0, Double.MAX_VALUE, "k1"),
+                ensureBetween(getOrDefault(b, DEFAULT_B), 0, 1, "b"));
+        this.maxResultsProvider = getOrDefault(dynamicMaxResults, DEFAULT_MAX_RESULTS);
+        this.filter = filter;
+        if (segments != null) {
+            addAll(segments);
+        }
+    }
+
+    public static Bm25ContentRetrieverBuilder builder() {
+        return new Bm25ContentRetrieverBuilder();
+    }
+
+    /**
+     * Creates a {@code Bm25ContentRetriever} with the default settings, indexing the given segments.
+     */
+    public static Bm25ContentRetriever from(Collection<TextSegment> segments) {
+        return builder().segments(segments).build();
+    }
+
+    /**
+     * Indexes the given segment.
+     */
+    public void add(TextSegment segment) {
+        addAll(List.of(ensureNotNull(segment, "segment")));
+    }
+
+    /**
+     * Indexes the given segments. They are visible to the retrievals that start after this method returns.
+     */
+    public void addAll(Collection<TextSegment> segments) {
+        index.addAll(ensureNotNull(segments, "segments"), analyzer);
+    }
+
+    /**
+     * @return The number of indexed segments.
+     */
+    public int size() {
+        return index.size();
+    }
+
+    @Override
+    public List<Content> retrieve(Query query) {
+        int maxResults = ensureGreaterThanZero(maxResultsProvider.apply(query), "maxResults");
+        return index.search(analyzer.analyze(query.text()), maxResults, filter).stream()
+                .map(scored -> Content.from(scored.segment, Map.of(ContentMetadata.SCORE, scored.score)))
+                .collect(toList());
+    }
+
+    @Override
+    public String toString() {
+        return "Bm25ContentRetriever{" +
+                "size=" + index.size() +
+                '}';
+    }
+
+    public static class Bm25ContentRetrieverBuilder {
+
+        private TextAnalyzer analyzer;
+        private Double k1;
+        private Double b;
+        private Function<Query, Integer> dynamicMaxResults;
+        private Filter filter;
+        private Collection<TextSegment> segments;
+
+        Bm25ContentRetrieverBuilder() {
+        }
+
+        public Bm25ContentRetrieverBuilder analyzer(TextAnalyzer analyzer) {
+            this.analyzer = analyzer;
+            return this;
+        }
+
+        public Bm25ContentRetrieverBuilder k1(Double k1) {
+            this.k1 = k1;
+            return this;
+        }
+
+        public Bm25ContentRetrieverBuilder b(Double b) {
+            this.b = b;
+            return this;
+        }
+
+        public Bm25ContentRetrieverBuilder maxResults(Integer maxResults) {
+            if (maxResults != null) {
+                dynamicMaxResults = (query) -> ensureGreaterThanZero(maxResults, "maxResults");
+            }
+            return this;
+        }
+
+        public Bm25ContentRetrieverBuilder dynamicMaxResults(Function<Query, Integer> dynamicMaxResults) {
+            this.dynamicMaxResults = dynamicMaxResults;
+            return this;
+        }
+
+        public Bm25ContentRetrieverBuilder filter(Filter filter) {
+            this.filter = filter;
+            return this;
+        }
+
+        public Bm25ContentRetrieverBuilder segments(Collection<TextSegment> segments) {
+            this.segments = segments;
+            return this;
+        }
+
+        public Bm25ContentRetriever build() {
+            return new Bm25ContentRetriever(analyzer, k1, b, dynamicMaxResults, filter, segments);
+        }
+    }
+}
@@ -0,0 +1,271 @@
+package dev.langchain4j.rag.content.retriever.bm25;
+
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.store.embedding.filter.Filter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * An in-memory inverted index of {@link TextSegment}s, scored with Okapi BM25.
+ * <br>
+ * Top-k searches use the MaxScore algorithm: query terms are sorted by the upper bound of their score,
+ * and once the k-th best score found so far exceeds the sum of the bounds of the least significant terms,
+ * documents that only contain those terms can no longer enter the top k. They are therefore never enumerated,
+ * and the posting lists of those terms are only probed, by skipping, for the candidates found through the others.
+ * This makes queries mixing rare and very frequent terms much cheaper than scoring every matching document.
+ * <br>
+ * This class is thread-safe: searches run concurrently, additions are exclusive.
+ */
+class Bm25Index {
+
+    private static final int NO_MORE_DOCUMENTS = Integer.MAX_VALUE;
+
+    private final double k1;
+    private final double b;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, PostingList> postingLists = new HashMap<>();
+    private final List<TextSegment> segments = new ArrayList<>();
+    private int[] documentLengths = new int[16];
+    private long totalLength;
+
+    Bm25Index(double k1, double b) {
+        this.k1 = k1;
+        this.b = b;
+    }
+
+    void addAll(Collection<TextSegment> newSegments, TextAnalyzer analyzer) {
+        // analysis is the expensive part, it is done before taking the lock
+        List<Map<String, int[]>> frequencies = new ArrayList<>(newSegments.size());
+        List<Integer> lengths = new ArrayList<>(newSegments.size());
+        for (TextSegment segment : newSegments) {
+            List<String> terms = analyzer.analyze(segment.text());
+            Map<String, int[]> termFrequencies = new HashMap<>();
+            for (String term : terms) {
+                termFrequencies.computeIfAbsent(term, ignored -> new int[1])[0]++;
+            }
+            frequencies.add(termFrequencies);
+            lengths.add(terms.size());
+        }
+
+        lock.writeLock().lock();
+        try {
+            int i = 0;
+            for (TextSegment segment : newSegments) {
+                int document = segments.size();
+                int length = lengths.get(i);
+                segments.add(segment);
+                if (document == documentLengths.length) {
+                    documentLengths = Arrays.copyOf(documentLengths, document * 2);
+                }
+                documentLengths[document] = length;
+                totalLength += length;
+                for (Map.Entry<String, int[]> entry : frequencies.get(i).entrySet()) {
+                    postingLists.computeIfAbsent(entry.getKey(), ignored -> new PostingList())
+                            .add(document, entry.getValue()[0], length);
+                }
+                i++;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return segments.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @param queryTerms the terms of the query, duplicates are ignored
+     * @param maxResults the maximum number of results
+     * @param filter     the filter the metadata of the segments must match, can be {@code null}
+     * @return the best scoring segments, best first
+     */
+    List<ScoredSegment> search(List<String> queryTerms, int maxResults, Filter filter) {
+        lock.readLock().lock();
+        try {
+            if (segments.isEmpty()) {
+                return List.of();
+            }
+            double averageLength = Math.max((double) totalLength / segments.size(), 1);
+
+            List<TermCursor> cursors = new ArrayList<>();
+            for (String term : new LinkedHashSet<>(queryTerms)) {
+                PostingList postingList = postingLists.get(term);
+                if (postingList != null) {
+                    cursors.add(new TermCursor(postingList, idf(postingList.size()), averageLength));
+                }
+            }
+            if (cursors.isEmpty()) {
+                return List.of();
+            }
+            return maxScore(cursors, maxResults, filter);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<ScoredSegment> maxScore(List<TermCursor> cursors, int maxResults, Filter filter) {
+        cursors.sort(Comparator.comparingDouble(cursor -> cursor.upperBound));
+        int n = cursors.size();
+        // cumulativeUpperBounds[i] is the highest score a document can get from the terms 0..i
+        double[] cumulativeUpperBounds = new double[n];
+        double sum = 0;
+        for (int i = 0; i < n; i++) {
+            sum += cursors.get(i).upperBound;
+            cumulativeUpperBounds[i] = sum;
+        }
+
+        // the worst of the best results found so far is at the head, ties are broken in favour of older documents
+        PriorityQueue<ScoredDocument> best = new PriorityQueue<>(maxResults + 1,
+                Comparator.comparingDouble((ScoredDocument scored) -> scored.score)
+                        .thenComparing(scored -> scored.document, Comparator.reverseOrder()));
+        double threshold = 0;
+        // the terms before this one are non-essential: they cannot make a document enter the results on their own
+        int firstEssential = 0;
+
+        while (firstEssential < n) {
+            int document = NO_MORE_DOCUMENTS;
+            for (int i = firstEssential; i < n; i++) {
+                document = Math.min(document, cursors.get(i).document());
+            }
+            if (document == NO_MORE_DOCUMENTS) {
+                break;
+            }
+
+            int documentLength = documentLengths[document];
+            double score = 0;
+            for (int i = firstEssential; i < n; i++) {
+                TermCursor cursor = cursors.get(i);
+                if (cursor.document() == document) {
+                    score += cursor.score(documentLength);
+                    cursor.next();
+                }
+            }
+            boolean competitive = true;
+            for (int i = firstEssential - 1; i >= 0; i--) {
+                if (best.size() == maxResults && score + cumulativeUpperBounds[i] <= threshold) {
+                    competitive = false;
+                    break;
+                }
+                TermCursor cursor = cursors.get(i);
+                cursor.advance(document);
+                if (cursor.document() == document) {
+                    score += cursor.score(documentLength);
+                }
+            }
+            if (!competitive || (best.size() == maxResults && score <= threshold)) {
+                continue;
+            }
+            if (filter != null && !filter.test(segments.get(document).metadata())) {
+                continue;
+            }
+
+            best.add(new ScoredDocument(document, score));
+            if (best.size() > maxResults) {
+                best.poll();
+            }
+            if (best.size() == maxResults) {
+                threshold = best.peek().score;
+                while (firstEssential < n && cumulativeUpperBounds[firstEssential] <= threshold) {
+                    firstEssential++;
+                }
+            }
+        }
+
+        List<ScoredSegment> results = new ArrayList<>(best.size());
+        while (!best.isEmpty()) {
+            ScoredDocument scored = best.poll();
+            results.add(new ScoredSegment(segments.get(scored.document), scored.score));
+        }
+        Collections.reverse(results);
+        return results;
+    }
+
+    private double idf(int documentFrequency) {
+        int documentCount = segments.size();
+        return Math.log(1 + (documentCount - documentFrequency + 0.5) / (documentFrequency + 0.5));
+    }
+
+    private double termScore(double idf, int frequency, int documentLength, double averageLength) {
+        double normalization = k1 * (1 - b + b * documentLength / averageLength);
+        return idf * frequency * (k1 + 1) / (frequency + normalization);
+    }
+
+    /**
+     * Iterates over the posting list of a query term.
+     */
+    private class TermCursor {
+
+        final PostingList postingList;
+        final double idf;
+        final double averageLength;
+        final double upperBound;
+        int position;
+
+        TermCursor(PostingList postingList, double idf, double averageLength) {
+            this.postingList = postingList;
+            this.idf = idf;
+            this.averageLength = averageLength;
+            // the score increases with the frequency and decreases with the length of the document
+            this.upperBound = termScore(
+                    idf, postingList.maxFrequency(), postingList.minDocumentLength(), averageLength);
+        }
+
+        int document() {
+            return position < postingList.size() ? postingList.document(position) : NO_MORE_DOCUMENTS;
+        }
+
+        void next() {
+            position++;
+        }
+
+        void advance(int document) {
+            if (position < postingList.size()) {
+                position = postingList.advance(position, document);
+            }
+        }
+
+        double score(int documentLength) {
+            return termScore(idf, postingList.frequency(position), documentLength, averageLength);
+        }
+    }
+
+    private static class ScoredDocument {
+
+        final int document;
+        final double score;
+
+        ScoredDocument(int document, double score) {
+            this.document = document;
+            this.score = score;
+        }
+    }
+
+    static class ScoredSegment {
+
+        final TextSegment segment;
+        final double score;
+
+        ScoredSegment(TextSegment segment, double score) {
+            this.segment = segment;
+            this.score = score;
+        }
+    }
+}
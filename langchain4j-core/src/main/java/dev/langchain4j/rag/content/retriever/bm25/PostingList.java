@@ -0,0 +1,86 @@
+package dev.langchain4j.rag.content.retriever.bm25;
+
+import java.util.Arrays;
+
+/**
+ * The documents that contain a term, in increasing order of document id, with the frequency of the term in each.
+ * <br>
+ * Ids and frequencies are kept in parallel primitive arrays rather than in a list of objects,
+ * which keeps the index compact and makes scanning and skipping over a list cache-friendly.
+ * <br>
+ * This class is not thread-safe, see {@link Bm25Index}.
+ */
+class PostingList {
+
+    private int[] documents = new int[4];
+    private int[] frequencies = new int[4];
+    private int size;
+
+    /**
+     * The highest frequency of the term and the shortest document containing it,
+     * from which an upper bound of the score of the term in any document is computed.
+     */
+    private int maxFrequency;
+    private int minDocumentLength = Integer.MAX_VALUE;
+
+    /**
+     * @param document the id of the document, greater than the ids added so far
+     */
+    void add(int document, int frequency, int documentLength) {
+        if (size == documents.length) {
+            documents = Arrays.copyOf(documents, size * 2);
+            frequencies = Arrays.copyOf(frequencies, size * 2);
+        }
+        documents[size] = document;
+        frequencies[size] = frequency;
+        size++;
+        maxFrequency = Math.max(maxFrequency, frequency);
+        minDocumentLength = Math.min(minDocumentLength, documentLength);
+    }
+
+    int size() {
+        return size;
+    }
+
+    int document(int position) {
+        return documents[position];
+    }
+
+    int frequency(int position) {
+        return frequencies[position];
+    }
+
+    int maxFrequency() {
+        return maxFrequency;
+    }
+
+    int minDocumentLength() {
+        return minDocumentLength;
+    }
+
+    /**
+     * @return the first position, not before {@code from}, of a document greater than or equal to {@code document},
+     * or {@link #size()} if there is none.
+     */
+    int advance(int from, int document) {
+        // gallop to bracket the target, then binary search within the bracket
+        int low = from;
+        int step = 1;
+        int high = from;
+        while (high < size && documents[high] < document) {
+            low = high + 1;
+            high = from + step;
+            step <<= 1;
+        }
+        high = Math.min(high, size);
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (documents[middle] < document) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,168 @@
+package dev.langchain4j.rag.content.retriever.bm25;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+import static dev.langchain4j.internal.Utils.copy;
+import static dev.langchain4j.internal.Utils.getOrDefault;
+import static dev.langchain4j.internal.ValidationUtils.ensureGreaterThanZero;
+
+/**
+ * The default {@link TextAnalyzer} of {@link Bm25ContentRetriever}.
+ * <br>
+ * It applies the following pipeline:
+ * <br>
+ * - The text is split into words, which are runs of letters and digits.
+ * <br>
+ * - Words joined by a single {@code -}, {@code _}, {@code .} or {@code /} (e.g. {@code ERR-4521} or {@code v1.2.3})
+ * are additionally kept together as one term, so that product codes and error identifiers
+ * are matched as a whole, as well as by their parts.
+ * <br>
+ * - Terms are lower-cased (optional, enabled by default).
+ * <br>
+ * - Words shorter than {@code minWordLength} or contained in {@code stopWords} are dropped.
+ * Terms made of several words are always kept.
+ */
+public class StandardTextAnalyzer implements TextAnalyzer {
+
+    /**
+     * A short list of very frequent English words, which carry little meaning on their own.
+     */
+    public static final Set<String> ENGLISH_STOP_WORDS = Set.of(
+            "a", "an", "and", "are", "as", "at", "be", "but", "by", "for", "if", "in", "into", "is", "it",
+            "no", "not", "of", "on", "or", "such", "that", "the", "their", "then", "there", "these",
+            "they", "this", "to", "was", "will", "with"
+    );
+
+    private final boolean lowerCase;
+    private final boolean keepCompoundWords;
+    private final Set<String> stopWords;
+    private final int minWordLength;
+
+    public StandardTextAnalyzer() {
+        this(builder());
+    }
+
+    private StandardTextAnalyzer(Builder builder) {
+        this.lowerCase = getOrDefault(builder.lowerCase, true);
+        this.keepCompoundWords = getOrDefault(builder.keepCompoundWords, true);
+        this.stopWords = copy(builder.stopWords);
+        this.minWordLength = ensureGreaterThanZero(getOrDefault(builder.minWordLength, 1), "minWordLength");
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    @Override
+    public List<String> analyze(String text) {
+        List<String> terms = new ArrayList<>();
+        int length = text.length();
+        int i = 0;
+        while (i < length) {
+            while (i < length && !isWordCharacter(text.codePointAt(i))) {
+                i += Character.charCount(text.codePointAt(i));
+            }
+            if (i >= length) {
+                break;
+            }
+
+            int compoundStart = i;
+            int words = 0;
+            while (true) {
+                int wordStart = i;
+                while (i < length && isWordCharacter(text.codePointAt(i))) {
+                    i += Character.charCount(text.codePointAt(i));
+                }
+                addWord(terms, text.substring(wordStart, i));
+                words++;
+                if (i + 1 < length && isConnector(text.charAt(i)) && isWordCharacter(text.codePointAt(i + 1))) {
+                    i++;
+                } else {
+                    break;
+                }
+            }
+            if (keepCompoundWords && words > 1) {
+                terms.add(normalize(text.substring(compoundStart, i)));
+            }
+        }
+        return terms;
+    }
+
+    private void addWord(List<String> terms, String word) {
+        if (word.length() < minWordLength) {
+            return;
+        }
+        String term = normalize(word);
+        if (!stopWords.contains(term)) {
+            terms.add(term);
+        }
+    }
+
+    private String normalize(String term) {
+        return lowerCase ? term.toLowerCase(Locale.ROOT) : term;
+    }
+
+    private static boolean isWordCharacter(int codePoint) {
+        return Character.isLetterOrDigit(codePoint);
+    }
+
+    private static boolean isConnector(char c) {
+        return c == '-' || c == '_' || c == '.' || c == '/';
+    }
+
+    public static class Builder {
+
+        private Boolean lowerCase;
+        private Boolean keepCompoundWords;
+        private Set<String> stopWords;
+        private Integer minWordLength;
+
+        Builder() {
+        }
+
+        /**
+         * @param lowerCase Whether terms are lower-cased. Default: {@code true}.
+         * @return builder
+         */
+        public Builder lowerCase(Boolean lowerCase) {
+            this.lowerCase = lowerCase;
+            return this;
+        }
+
+        /**
+         * @param keepCompoundWords Whether words joined by {@code -}, {@code _}, {@code .} or {@code /}
+         *                          are also kept together as one term. Default: {@code true}.
+         * @return builder
+         */
+        public Builder keepCompoundWords(Boolean keepCompoundWords) {
+            this.keepCompoundWords = keepCompoundWords;
+            return this;
+        }
+
+        /**
+         * @param stopWords The words to drop, after lower-casing if enabled.
+         *                  Default: none. See {@link #ENGLISH_STOP_WORDS}.
+         * @return builder
+         */
+        public Builder stopWords(Set<String> stopWords) {
+            this.stopWords = stopWords;
+            return this;
+        }
+
+        /**
+         * @param minWordLength The minimum length of the words to keep. Default: 1.
+         * @return builder
+         */
+        public Builder minWordLength(Integer minWordLength) {
+            this.minWordLength = minWordLength;
+            return this;
+        }
+
+        public StandardTextAnalyzer build() {
+            return new StandardTextAnalyzer(this);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package dev.langchain4j.rag.content.retriever.bm25;
+
+import java.util.List;
+
+/**
+ * Splits a text into the terms that are indexed and searched by a {@link Bm25ContentRetriever}.
+ * <br>
+ * The same analyzer is applied to the indexed {@link dev.langchain4j.data.segment.TextSegment}s
+ * and to the {@link dev.langchain4j.rag.query.Query}, so that they produce comparable terms.
+ *
+ * @see StandardTextAnalyzer
+ */
+@FunctionalInterface
+public interface TextAnalyzer {
+
+    /**
+     * @param text The text to analyze.
+     * @return The terms of the text, in order. A term can occur several times.
+     */
+    List<String> analyze(String text);
+}
@@ -7,6 +7,8 @@ import static dev.langchain4j.internal.ValidationUtils.ensureNotNull;
 
 /**
  * Utility class for calculating cosine similarity between two vectors.
+ * <p>
+ * To score one query against many vectors, see the batch kernels in {@link VectorSimilarity}.
  */
 public class CosineSimilarity {
     private CosineSimilarity() {}
@@ -49,18 +51,11 @@ public class CosineSimilarity {
                     vectorA.length, vectorB.length);
         }
 
-        double dotProduct = 0.0;
-        double normA = 0.0;
-        double normB = 0.0;
-
-        for (int i = 0; i < vectorA.length; i++) {
-            dotProduct += vectorA[i] * vectorB[i];
-            normA += vectorA[i] * vectorA[i];
-            normB += vectorB[i] * vectorB[i];
-        }
-
-        // Avoid division by zero.
-        return dotProduct / Math.max(Math.sqrt(normA) * Math.sqrt(normB), EPSILON);
+        return VectorSimilarity.cosineSimilarity(
+                VectorSimilarity.dotProduct(vectorA, vectorB, 0),
+                VectorSimilarity.norm(vectorA),
+                VectorSimilarity.norm(vectorB)
+        );
     }
 
     /**
@@ -12,6 +12,7 @@ import java.util.List;
 
 import static dev.langchain4j.internal.Utils.randomUUID;
 import static dev.langchain4j.internal.ValidationUtils.ensureNotBlank;
+import static dev.langchain4j.internal.ValidationUtils.ensureNotNull;
 import static java.util.Collections.singletonList;
 
 /**
@@ -140,4 +141,23 @@ public interface EmbeddingStore<Embedded> {
      * @return An {@link EmbeddingSearchResult} containing all found {@link Embedding}s.
      */
     EmbeddingSearchResult<Embedded> search(EmbeddingSearchRequest request);
+
+    /**
+     * Performs several searches at once, for example for all queries produced by a query transformer.
+     * <br>
+     * The default implementation calls {@link #search(EmbeddingSearchRequest)} for each request, one by one.
+     * Implementations can override it to serve all requests with a single scan of the stored embeddings
+     * or a single round trip to the database.
+     *
+     * @param requests Requests to search in an {@link EmbeddingStore}.
+     * @return One {@link EmbeddingSearchResult} per request, in the order of the requests.
+     */
+    default List<EmbeddingSearchResult<Embedded>> searchAll(List<EmbeddingSearchRequest> requests) {
+        ensureNotNull(requests, "requests");
+        List<EmbeddingSearchResult<Embedded>> results = new ArrayList<>(requests.size());
+        for (EmbeddingSearchRequest request : requests) {
+            results.add(search(request));
+        }
+        return results;
+    }
 }
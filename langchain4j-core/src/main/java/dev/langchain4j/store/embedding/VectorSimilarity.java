@@ -0,0 +1,311 @@
+package dev.langchain4j.store.embedding;
+
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.embedding.HalfPrecisionEmbedding;
+
+import static dev.langchain4j.internal.Exceptions.illegalArgument;
+import static dev.langchain4j.internal.ValidationUtils.ensureNotNull;
+
+/**
+ * Low-level similarity kernels over {@code float[]} vectors.
+ * <p>
+ * The kernels accumulate into four independent {@code float} lanes, which removes the loop-carried dependency
+ * of a naive loop and lets the JIT keep several multiply-adds in flight.
+ * All kernels use the same lane layout, so the same inputs always produce exactly the same result,
+ * regardless of whether they are scored one by one or in a batch.
+ * <p>
+ * Batch methods score one query against {@code count} vectors stored row by row in a single contiguous array,
+ * which is the layout used by in-memory stores and classifiers that keep many vectors of the same dimension.
+ */
+public class VectorSimilarity {
+    private VectorSimilarity() {}
+
+    /**
+     * Calculates the dot product of two vectors of the same length.
+     *
+     * @param a first vector
+     * @param b second vector
+     * @return dot product
+     */
+    public static float dotProduct(float[] a, float[] b) {
+        ensureSameLength(a, b);
+        return dotProduct(a, b, 0);
+    }
+
+    /**
+     * Calculates the dot product of {@code a} and the {@code a.length} elements of {@code b}
+     * starting at {@code bOffset}.
+     *
+     * @param a       first vector
+     * @param b       array containing the second vector
+     * @param bOffset offset of the second vector in {@code b}
+     * @return dot product
+     */
+    public static float dotProduct(float[] a, float[] b, int bOffset) {
+        int length = a.length;
+        int bound = length & ~3;
+        float s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+        int i = 0;
+        for (; i < bound; i += 4) {
+            int j = bOffset + i;
+            s0 += a[i] * b[j];
+            s1 += a[i + 1] * b[j + 1];
+            s2 += a[i + 2] * b[j + 2];
+            s3 += a[i + 3] * b[j + 3];
+        }
+        for (; i < length; i++) {
+            s0 += a[i] * b[bOffset + i];
+        }
+        return (s0 + s1) + (s2 + s3);
+    }
+
+    /**
+     * Calculates the dot product of an embedding and a vector of the same length.
+     * The values of a {@link HalfPrecisionEmbedding} are widened one at a time, without copying them.
+     *
+     * @param embedding first vector
+     * @param vector    second vector
+     * @return dot product
+     */
+    public static float dotProduct(Embedding embedding, float[] vector) {
+        ensureNotNull(embedding, "embedding");
+        if (embedding instanceof HalfPrecisionEmbedding halfPrecisionEmbedding) {
+            ensureNotNull(vector, "vector");
+            return halfPrecisionEmbedding.dotProduct(vector);
+        }
+        return dotProduct(embedding.vector(), vector);
+    }
+
+    /**
+     * Calculates the dot product of two embeddings of the same dimension.
+     * The values of {@link HalfPrecisionEmbedding}s are widened one at a time, without copying them.
+     *
+     * @param a first embedding
+     * @param b second embedding
+     * @return dot product
+     */
+    public static float dotProduct(Embedding a, Embedding b) {
+        ensureNotNull(a, "a");
+        ensureNotNull(b, "b");
+        if (!(a instanceof HalfPrecisionEmbedding halfA)) {
+            return dotProduct(b, a.vector());
+        }
+        if (!(b instanceof HalfPrecisionEmbedding halfB)) {
+            return halfA.dotProduct(b.vector());
+        }
+        if (halfA.dimension() != halfB.dimension()) {
+            throw illegalArgument("Length of vector a (%s) must be equal to the length of vector b (%s)",
+                    halfA.dimension(), halfB.dimension());
+        }
+        int length = halfA.dimension();
+        int bound = length & ~3;
+        float s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+        int i = 0;
+        for (; i < bound; i += 4) {
+            s0 += halfA.get(i) * halfB.get(i);
+            s1 += halfA.get(i + 1) * halfB.get(i + 1);
+            s2 += halfA.get(i + 2) * halfB.get(i + 2);
+            s3 += halfA.get(i + 3) * halfB.get(i + 3);
+        }
+        for (; i < length; i++) {
+            s0 += halfA.get(i) * halfB.get(i);
+        }
+        return (s0 + s1) + (s2 + s3);
+    }
+
+    /**
+     * Calculates the squared Euclidean distance between two vectors of the same length.
+     *
+     * @param a first vector
+     * @param b second vector
+     * @return squared Euclidean distance
+     */
+    public static float squaredEuclideanDistance(float[] a, float[] b) {
+        ensureSameLength(a, b);
+        return squaredEuclideanDistance(a, b, 0);
+    }
+
+    /**
+     * Calculates the squared Euclidean distance between {@code a} and the {@code a.length} elements of {@code b}
+     * starting at {@code bOffset}.
+     *
+     * @param a       first vector
+     * @param b       array containing the second vector
+     * @param bOffset offset of the second vector in {@code b}
+     * @return squared Euclidean distance
+     */
+    public static float squaredEuclideanDistance(float[] a, float[] b, int bOffset) {
+        int length = a.length;
+        int bound = length & ~3;
+        float s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+        int i = 0;
+        for (; i < bound; i += 4) {
+            int j = bOffset + i;
+            float d0 = a[i] - b[j];
+            float d1 = a[i + 1] - b[j + 1];
+            float d2 = a[i + 2] - b[j + 2];
+            float d3 = a[i + 3] - b[j + 3];
+            s0 += d0 * d0;
+            s1 += d1 * d1;
+            s2 += d2 * d2;
+            s3 += d3 * d3;
+        }
+        for (; i < length; i++) {
+            float d = a[i] - b[bOffset + i];
+            s0 += d * d;
+        }
+        return (s0 + s1) + (s2 + s3);
+    }
+
+    /**
+     * Calculates the Euclidean (L2) norm of a vector.
+     *
+     * @param vector vector
+     * @return norm
+     */
+    public static double norm(float[] vector) {
+        return norm(vector, 0, vector.length);
+    }
+
+    /**
+     * Calculates the Euclidean (L2) norm of an embedding.
+     * The values of a {@link HalfPrecisionEmbedding} are widened one at a time, without copying them.
+     *
+     * @param embedding embedding
+     * @return norm
+     */
+    public static double norm(Embedding embedding) {
+        ensureNotNull(embedding, "embedding");
+        if (embedding instanceof HalfPrecisionEmbedding halfPrecisionEmbedding) {
+            return halfPrecisionEmbedding.norm();
+        }
+        return norm(embedding.vector());
+    }
+
+    /**
+     * Calculates the Euclidean (L2) norm of the {@code length} elements of {@code vectors} starting at {@code offset}.
+     *
+     * @param vectors array containing the vector
+     * @param offset  offset of the vector in {@code vectors}
+     * @param length  length of the vector
+     * @return norm
+     */
+    public static double norm(float[] vectors, int offset, int length) {
+        int bound = length & ~3;
+        float s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+        int i = 0;
+        for (; i < bound; i += 4) {
+            int j = offset + i;
+            s0 += vectors[j] * vectors[j];
+            s1 += vectors[j + 1] * vectors[j + 1];
+            s2 += vectors[j + 2] * vectors[j + 2];
+            s3 += vectors[j + 3] * vectors[j + 3];
+        }
+        for (; i < length; i++) {
+            s0 += vectors[offset + i] * vectors[offset + i];
+        }
+        return Math.sqrt((s0 + s1) + (s2 + s3));
+    }
+
+    /**
+     * Calculates the Euclidean (L2) norms of {@code count} vectors of the given dimension
+     * stored row by row in {@code vectors}.
+     *
+     * @param vectors   contiguous vectors
+     * @param dimension dimension of each vector
+     * @param count     number of vectors
+     * @return norms, one per vector
+     */
+    public static double[] norms(float[] vectors, int dimension, int count) {
+        double[] norms = new double[count];
+        for (int r = 0; r < count; r++) {
+            norms[r] = norm(vectors, r * dimension, dimension);
+        }
+        return norms;
+    }
+
+    /**
+     * Calculates cosine similarity from a dot product and precomputed norms.
+     * All-zeros vectors are considered orthogonal to all other vectors, see {@link CosineSimilarity#between}.
+     *
+     * @param dotProduct dot product of the two vectors
+     * @param normA      norm of the first vector
+     * @param normB      norm of the second vector
+     * @return cosine similarity in the range [-1..1]
+     */
+    public static double cosineSimilarity(float dotProduct, double normA, double normB) {
+        return dotProduct / Math.max(normA * normB, CosineSimilarity.EPSILON);
+    }
+
+    /**
+     * Scores the query against {@code count} contiguous vectors by cosine similarity.
+     *
+     * @param query   query vector; its length is the dimension of each vector
+     * @param vectors contiguous vectors, row by row
+     * @param norms   precomputed norms of the vectors, see {@link #norms(float[], int, int)}
+     * @param count   number of vectors to score
+     * @param scores  output array receiving one cosine similarity per vector
+     */
+    public static void cosineSimilarities(float[] query, float[] vectors, double[] norms, int count, double[] scores) {
+        ensureBatch(query, vectors, count, scores.length);
+        double queryNorm = norm(query);
+        int dimension = query.length;
+        for (int r = 0; r < count; r++) {
+            scores[r] = cosineSimilarity(dotProduct(query, vectors, r * dimension), norms[r], queryNorm);
+        }
+    }
+
+    /**
+     * Scores the query against {@code count} contiguous vectors by dot product.
+     * For unit vectors this is equal to cosine similarity.
+     *
+     * @param query   query vector; its length is the dimension of each vector
+     * @param vectors contiguous vectors, row by row
+     * @param count   number of vectors to score
+     * @param scores  output array receiving one dot product per vector
+     */
+    public static void dotProducts(float[] query, float[] vectors, int count, float[] scores) {
+        ensureBatch(query, vectors, count, scores.length);
+        int dimension = query.length;
+        for (int r = 0; r < count; r++) {
+            scores[r] = dotProduct(query, vectors, r * dimension);
+        }
+    }
+
+    /**
+     * Calculates the squared Euclidean distances between the query and {@code count} contiguous vectors.
+     *
+     * @param query     query vector; its length is the dimension of each vector
+     * @param vectors   contiguous vectors, row by row
+     * @param count     number of vectors
+     * @param distances output array receiving one squared distance per vector
+     */
+    public static void squaredEuclideanDistances(float[] query, float[] vectors, int count, float[] distances) {
+        ensureBatch(query, vectors, count, distances.length);
+        int dimension = query.length;
+        for (int r = 0; r < count; r++) {
+            distances[r] = squaredEuclideanDistance(query, vectors, r * dimension);
+        }
+    }
+
+    private static void ensureSameLength(float[] a, float[] b) {
+        ensureNotNull(a, "a");
+        ensureNotNull(b, "b");
+        if (a.length != b.length) {
+            throw illegalArgument("Length of vector a (%s) must be equal to the length of vector b (%s)",
+                    a.length, b.length);
+        }
+    }
+
+    private static void ensureBatch(float[] query, float[] vectors, int count, int outputLength) {
+        ensureNotNull(query, "query");
+        ensureNotNull(vectors, "vectors");
+        if ((long) count * query.length > vectors.length) {
+            throw illegalArgument("vectors must contain %s vectors of dimension %s, but has only %s elements",
+                    count, query.length, vectors.length);
+        }
+        if (outputLength < count) {
+            throw illegalArgument("output array must have at least %s elements, but has %s", count, outputLength);
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package dev.langchain4j.store.embedding.filter;
 
+import dev.langchain4j.data.document.Metadata;
 import dev.langchain4j.store.embedding.EmbeddingStore;
 import dev.langchain4j.store.embedding.filter.comparison.ContainsString;
 import dev.langchain4j.store.embedding.filter.comparison.IsEqualTo;
@@ -14,6 +15,8 @@ import dev.langchain4j.store.embedding.filter.logical.And;
 import dev.langchain4j.store.embedding.filter.logical.Not;
 import dev.langchain4j.store.embedding.filter.logical.Or;
 
+import java.util.function.Predicate;
+
 /**
  * This class represents a filter that can be applied during search in an {@link EmbeddingStore}.
  * <br>
@@ -49,6 +52,24 @@ public interface Filter {
      */
     boolean test(Object object);
 
+    /**
+     * Compiles this {@link Filter} into a {@link Predicate} over {@link Metadata}.
+     * <br>
+     * This is meant for {@link EmbeddingStore}s that test the same filter against the metadata of many entries
+     * in Java: comparison values are converted once instead of for every tested {@link Metadata},
+     * values of {@link IsIn} and {@link IsNotIn} are looked up in hash sets, and the operands of {@link And}
+     * and {@link Or} are reordered so that the operand more likely to decide the result is tested first.
+     * <br>
+     * The predicate returns the same results as {@link #test(Object)}. Because of the reordering,
+     * a type mismatch between a metadata value and a comparison value can be reported for an entry
+     * that {@link #test(Object)} would have rejected without looking at that value, or vice versa.
+     *
+     * @return a predicate equivalent to this filter.
+     */
+    default Predicate<Metadata> toPredicate() {
+        return this::test;
+    }
+
     default Filter and(Filter filter) {
         return and(this, filter);
     }
@@ -2,8 +2,10 @@ package dev.langchain4j.store.embedding.filter.comparison;
 
 import dev.langchain4j.data.document.Metadata;
 import dev.langchain4j.store.embedding.filter.Filter;
+import dev.langchain4j.store.embedding.filter.comparison.NumberComparator.CompiledNumber;
 
 import java.util.Objects;
+import java.util.function.Predicate;
 
 import static dev.langchain4j.internal.ValidationUtils.ensureNotBlank;
 import static dev.langchain4j.internal.ValidationUtils.ensureNotNull;
@@ -38,7 +40,7 @@ public class IsLessThanOrEqualTo implements Filter {
             return false;
         }
 
-        Object actualValue = metadata.toMap().get(key);
+        Object actualValue = metadata.getObject(key);
         ensureTypesAreCompatible(actualValue, comparisonValue, key);
 
         if (actualValue instanceof Number) {
@@ -48,6 +50,35 @@ public class IsLessThanOrEqualTo implements Filter {
         return ((Comparable) actualValue).compareTo(comparisonValue) <= 0;
     }
 
+    @Override
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    public Predicate<Metadata> toPredicate() {
+        CompiledNumber number = null;
+        if (comparisonValue instanceof Number) {
+            try {
+                number = new CompiledNumber(comparisonValue);
+            } catch (NumberFormatException e) {
+                return this::test;
+            }
+        }
+        CompiledNumber compiledNumber = number;
+        return metadata -> {
+            Object actualValue = metadata.getObject(key);
+            if (actualValue == null) {
+                return false;
+            }
+            ensureTypesAreCompatible(actualValue, comparisonValue, key);
+
+            if (actualValue instanceof Number) {
+                return compiledNumber != null
+                        ? compiledNumber.compareActual(actualValue) <= 0
+                        : compareAsBigDecimals(actualValue, comparisonValue) <= 0;
+            }
+
+            return ((Comparable) actualValue).compareTo(comparisonValue) <= 0;
+        };
+    }
+
 
     public boolean equals(final Object o) {
         if (o == this) return true;
@@ -2,9 +2,11 @@ package dev.langchain4j.store.embedding.filter.comparison;
 
 import dev.langchain4j.data.document.Metadata;
 import dev.langchain4j.store.embedding.filter.Filter;
+import dev.langchain4j.store.embedding.filter.comparison.NumberComparator.CompiledNumber;
 
 import java.util.Objects;
 import java.util.UUID;
+import java.util.function.Predicate;
 
 import static dev.langchain4j.internal.ValidationUtils.ensureNotBlank;
 import static dev.langchain4j.internal.ValidationUtils.ensureNotNull;
@@ -39,7 +41,7 @@ public class IsNotEqualTo implements Filter {
             return true;
         }
 
-        Object actualValue = metadata.toMap().get(key);
+        Object actualValue = metadata.getObject(key);
         ensureTypesAreCompatible(actualValue, comparisonValue, key);
 
         if (actualValue instanceof Number) {
@@ -53,6 +55,39 @@ public class IsNotEqualTo implements Filter {
         return !actualValue.equals(comparisonValue);
     }
 
+    @Override
+    public Predicate<Metadata> toPredicate() {
+        if (comparisonValue instanceof Number) {
+            CompiledNumber number;
+            try {
+                number = new CompiledNumber(comparisonValue);
+            } catch (NumberFormatException e) {
+                return this::test;
+            }
+            return metadata -> {
+                Object actualValue = metadata.getObject(key);
+                if (actualValue == null) {
+                    return true;
+                }
+                ensureTypesAreCompatible(actualValue, comparisonValue, key);
+                return number.compareActual(actualValue) != 0;
+            };
+        }
+
+        String comparisonUUID = comparisonValue instanceof UUID ? comparisonValue.toString() : null;
+        return metadata -> {
+            Object actualValue = metadata.getObject(key);
+            if (actualValue == null) {
+                return true;
+            }
+            ensureTypesAreCompatible(actualValue, comparisonValue, key);
+            if (comparisonUUID != null && actualValue instanceof String) {
+                return !actualValue.equals(comparisonUUID);
+            }
+            return !actualValue.equals(comparisonValue);
+        };
+    }
+
     public boolean equals(final Object o) {
         if (o == this) return true;
         if (!(o instanceof IsNotEqualTo other)) return false;
@@ -8,13 +8,16 @@ import java.util.HashSet;
 import java.util.Objects;
 import java.util.Set;
 import java.util.UUID;
+import java.util.function.Predicate;
 
 import static dev.langchain4j.internal.ValidationUtils.ensureNotBlank;
 import static dev.langchain4j.internal.ValidationUtils.ensureNotEmpty;
 import static dev.langchain4j.internal.ValidationUtils.ensureNotNull;
+import static dev.langchain4j.store.embedding.filter.comparison.NumberComparator.compileContainsAsBigDecimals;
 import static dev.langchain4j.store.embedding.filter.comparison.NumberComparator.containsAsBigDecimals;
 import static dev.langchain4j.store.embedding.filter.comparison.TypeChecker.ensureTypesAreCompatible;
 import static dev.langchain4j.store.embedding.filter.comparison.UUIDComparator.containsAsUUID;
+import static dev.langchain4j.store.embedding.filter.comparison.UUIDComparator.toUUID;
 import static java.util.Collections.unmodifiableSet;
 
 public class IsNotIn implements Filter {
@@ -47,7 +50,7 @@ public class IsNotIn implements Filter {
             return true;
         }
 
-        Object actualValue = metadata.toMap().get(key);
+        Object actualValue = metadata.getObject(key);
         ensureTypesAreCompatible(actualValue, comparisonValues.iterator().next(), key);
 
         if (comparisonValues.iterator().next() instanceof Number) {
@@ -60,6 +63,34 @@ public class IsNotIn implements Filter {
         return !comparisonValues.contains(actualValue);
     }
 
+    @Override
+    public Predicate<Metadata> toPredicate() {
+        Object firstComparisonValue = comparisonValues.iterator().next();
+        Predicate<Object> contains;
+        try {
+            if (firstComparisonValue instanceof Number) {
+                contains = compileContainsAsBigDecimals(comparisonValues);
+            } else if (firstComparisonValue instanceof UUID) {
+                Set<UUID> uuids = new HashSet<>();
+                comparisonValues.forEach(comparisonValue -> uuids.add(toUUID(comparisonValue)));
+                contains = actualValue -> uuids.contains(toUUID(actualValue));
+            } else {
+                contains = comparisonValues::contains;
+            }
+        } catch (IllegalArgumentException e) {
+            return this::test;
+        }
+
+        return metadata -> {
+            Object actualValue = metadata.getObject(key);
+            if (actualValue == null) {
+                return true;
+            }
+            ensureTypesAreCompatible(actualValue, firstComparisonValue, key);
+            return !contains.test(actualValue);
+        };
+    }
+
     public boolean equals(final Object o) {
         if (o == this) return true;
         if (!(o instanceof IsNotIn other)) return false;
@@ -4,6 +4,9 @@ import dev.langchain4j.Internal;
 
 import java.math.BigDecimal;
 import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.Predicate;
 
 @Internal
 class NumberComparator {
@@ -20,6 +23,37 @@ class NumberComparator {
                         comparisonNumberAsBigDecimal.compareTo(actualNumberAsBigDecimal) == 0);
     }
 
+    /**
+     * Converts the comparison values of {@link IsIn} and {@link IsNotIn} once,
+     * so that {@link #containsAsBigDecimals} can be answered with a hash lookup.
+     *
+     * @throws IllegalArgumentException if a comparison value is not a supported number
+     */
+    static Predicate<Object> compileContainsAsBigDecimals(Collection<?> comparisonNumbers) {
+        Set<BigDecimal> decimals = new HashSet<>();
+        Set<Long> longs = new HashSet<>();
+        boolean allIntegral = true;
+        for (Object comparisonNumber : comparisonNumbers) {
+            BigDecimal decimal = toBigDecimal(comparisonNumber);
+            decimals.add(decimal.stripTrailingZeros());
+            if (comparisonNumber instanceof Integer || comparisonNumber instanceof Long) {
+                longs.add(((Number) comparisonNumber).longValue());
+            } else {
+                allIntegral = false;
+            }
+        }
+        if (allIntegral) {
+            return actualNumber -> isIntegral(actualNumber)
+                    ? longs.contains(((Number) actualNumber).longValue())
+                    : decimals.contains(toBigDecimal(actualNumber).stripTrailingZeros());
+        }
+        return actualNumber -> decimals.contains(toBigDecimal(actualNumber).stripTrailingZeros());
+    }
+
+    private static boolean isIntegral(Object number) {
+        return number instanceof Integer || number instanceof Long;
+    }
+
     private static BigDecimal toBigDecimal(Object actualNumber) {
         if (actualNumber instanceof Integer integer) {
             return BigDecimal.valueOf(integer);
@@ -33,4 +67,45 @@ class NumberComparator {
 
         throw new IllegalArgumentException("Unsupported type: " + actualNumber.getClass().getName());
     }
+
+    /**
+     * A comparison number converted once, to be compared with many actual numbers
+     * exactly like {@link #compareAsBigDecimals} does.
+     */
+    static class CompiledNumber {
+
+        private final BigDecimal decimal;
+        private final boolean integral;
+        private final long longValue;
+
+        /**
+         * @throws NumberFormatException if the comparison number has no decimal representation (e.g. {@code NaN})
+         */
+        CompiledNumber(Object comparisonNumber) {
+            this.decimal = new BigDecimal(comparisonNumber.toString());
+            long exactLongValue = 0;
+            boolean isIntegral;
+            try {
+                exactLongValue = decimal.longValueExact();
+                isIntegral = true;
+            } catch (ArithmeticException e) {
+                isIntegral = false;
+            }
+            this.integral = isIntegral;
+            this.longValue = exactLongValue;
+        }
+
+        /**
+         * @return the same as {@code compareAsBigDecimals(actualNumber, comparisonNumber)}
+         */
+        int compareActual(Object actualNumber) {
+            if (isIntegral(actualNumber)) {
+                long actualLong = ((Number) actualNumber).longValue();
+                return integral
+                        ? Long.compare(actualLong, longValue)
+                        : BigDecimal.valueOf(actualLong).compareTo(decimal);
+            }
+            return new BigDecimal(actualNumber.toString()).compareTo(decimal);
+        }
+    }
 }
@@ -16,7 +16,7 @@ class UUIDComparator {
                         comparisonUUID.compareTo(uuid) == 0);
     }
 
-    private static UUID toUUID(Object actualUUID) {
+    static UUID toUUID(Object actualUUID) {
         if (actualUUID instanceof String) {
             return UUID.fromString(actualUUID.toString());
         } else if (actualUUID instanceof UUID iD) {
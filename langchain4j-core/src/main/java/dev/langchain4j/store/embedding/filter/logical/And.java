@@ -1,8 +1,10 @@
 package dev.langchain4j.store.embedding.filter.logical;
 
+import dev.langchain4j.data.document.Metadata;
 import dev.langchain4j.store.embedding.filter.Filter;
 
 import java.util.Objects;
+import java.util.function.Predicate;
 
 import static dev.langchain4j.internal.ValidationUtils.ensureNotNull;
 
@@ -29,6 +31,17 @@ public class And implements Filter {
         return left().test(object) && right().test(object);
     }
 
+    @Override
+    public Predicate<Metadata> toPredicate() {
+        Predicate<Metadata> leftPredicate = left.toPredicate();
+        Predicate<Metadata> rightPredicate = right.toPredicate();
+        // the operand that is more likely to be false is tested first
+        if (Selectivity.estimate(right) < Selectivity.estimate(left)) {
+            return metadata -> rightPredicate.test(metadata) && leftPredicate.test(metadata);
+        }
+        return metadata -> leftPredicate.test(metadata) && rightPredicate.test(metadata);
+    }
+
     public boolean equals(final Object o) {
         if (o == this) return true;
         if (!(o instanceof And other)) return false;
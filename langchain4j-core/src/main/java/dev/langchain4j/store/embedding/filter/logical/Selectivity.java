@@ -0,0 +1,58 @@
+package dev.langchain4j.store.embedding.filter.logical;
+
+import dev.langchain4j.Internal;
+import dev.langchain4j.store.embedding.filter.Filter;
+import dev.langchain4j.store.embedding.filter.comparison.ContainsString;
+import dev.langchain4j.store.embedding.filter.comparison.IsEqualTo;
+import dev.langchain4j.store.embedding.filter.comparison.IsGreaterThan;
+import dev.langchain4j.store.embedding.filter.comparison.IsGreaterThanOrEqualTo;
+import dev.langchain4j.store.embedding.filter.comparison.IsIn;
+import dev.langchain4j.store.embedding.filter.comparison.IsLessThan;
+import dev.langchain4j.store.embedding.filter.comparison.IsLessThanOrEqualTo;
+import dev.langchain4j.store.embedding.filter.comparison.IsNotEqualTo;
+import dev.langchain4j.store.embedding.filter.comparison.IsNotIn;
+
+/**
+ * Estimates which fraction of entries a {@link Filter} accepts, without looking at any data.
+ * The estimates only need to rank the operands of {@link And} and {@link Or} sensibly:
+ * equality is assumed to be more selective than a range, and a range more selective than an inequality.
+ */
+@Internal
+class Selectivity {
+
+    private static final double EQUALITY = 0.1;
+    private static final double RANGE = 1.0 / 3;
+    private static final double CONTAINS_STRING = 0.25;
+    private static final double UNKNOWN = 0.5;
+
+    private Selectivity() {
+    }
+
+    static double estimate(Filter filter) {
+        if (filter instanceof IsEqualTo) {
+            return EQUALITY;
+        } else if (filter instanceof IsNotEqualTo) {
+            return 1 - EQUALITY;
+        } else if (filter instanceof IsIn isIn) {
+            return Math.min(1, EQUALITY * isIn.comparisonValues().size());
+        } else if (filter instanceof IsNotIn isNotIn) {
+            return Math.max(0, 1 - EQUALITY * isNotIn.comparisonValues().size());
+        } else if (filter instanceof IsGreaterThan
+                || filter instanceof IsGreaterThanOrEqualTo
+                || filter instanceof IsLessThan
+                || filter instanceof IsLessThanOrEqualTo) {
+            return RANGE;
+        } else if (filter instanceof ContainsString) {
+            return CONTAINS_STRING;
+        } else if (filter instanceof And and) {
+            return estimate(and.left()) * estimate(and.right());
+        } else if (filter instanceof Or or) {
+            double left = estimate(or.left());
+            double right = estimate(or.right());
+            return left + right - left * right;
+        } else if (filter instanceof Not not) {
+            return 1 - estimate(not.expression());
+        }
+        return UNKNOWN;
+    }
+}
@@ -30,6 +30,10 @@ class EmbeddingTest implements WithAssertions {
         assertThat(e1.vectorAsList()).containsExactly(1.0f, 2.0f, 3.0f);
 
         assertThat(e1).hasToString("Embedding { vector = [1.0, 2.0, 3.0] }");
+
+        float[] destination = new float[3];
+        e1.copyTo(1, destination, 0, 2);
+        assertThat(destination).containsExactly(2.0f, 3.0f, 0.0f);
     }
 
     @Test
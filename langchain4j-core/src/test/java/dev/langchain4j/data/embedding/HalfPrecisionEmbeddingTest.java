@@ -0,0 +1,115 @@
+package dev.langchain4j.data.embedding;
+
+import static dev.langchain4j.data.embedding.HalfPrecisionEmbedding.Format.BFLOAT16;
+import static dev.langchain4j.data.embedding.HalfPrecisionEmbedding.Format.FLOAT16;
+import static org.assertj.core.data.Offset.offset;
+
+import dev.langchain4j.data.embedding.HalfPrecisionEmbedding.Format;
+import java.util.Random;
+import org.assertj.core.api.WithAssertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+class HalfPrecisionEmbeddingTest implements WithAssertions {
+
+    @Test
+    void should_narrow_exactly_representable_values_without_loss() {
+        float[] vector = {0f, -0f, 1f, -2.5f, 0.099975586f, 65504f, 0x1p-24f, Float.POSITIVE_INFINITY};
+
+        HalfPrecisionEmbedding embedding = HalfPrecisionEmbedding.from(vector, FLOAT16);
+
+        assertThat(embedding.vector()).containsExactly(vector);
+        assertThat(embedding.bits()[2]).isEqualTo((short) 0x3C00);
+        assertThat(embedding.bits()[5]).isEqualTo((short) 0x7BFF);
+        assertThat(embedding.bits()[6]).isEqualTo((short) 0x0001);
+    }
+
+    @Test
+    void should_round_float16_to_nearest_even() {
+        float ulpOfOne = 0x1p-10f;
+
+        assertThat(HalfPrecisionEmbedding.from(new float[] {1 + ulpOfOne / 2}, FLOAT16).get(0)).isEqualTo(1f);
+        assertThat(HalfPrecisionEmbedding.from(new float[] {1 + ulpOfOne * 1.5f}, FLOAT16).get(0))
+                .isEqualTo(1 + 2 * ulpOfOne);
+        assertThat(HalfPrecisionEmbedding.from(new float[] {1 + ulpOfOne * 0.51f}, FLOAT16).get(0))
+                .isEqualTo(1 + ulpOfOne);
+        assertThat(HalfPrecisionEmbedding.from(new float[] {70000f}, FLOAT16).get(0))
+                .isEqualTo(Float.POSITIVE_INFINITY);
+        assertThat(HalfPrecisionEmbedding.from(new float[] {0x1p-26f}, FLOAT16).get(0)).isZero();
+        assertThat(HalfPrecisionEmbedding.from(new float[] {Float.NaN}, FLOAT16).get(0)).isNaN();
+    }
+
+    @Test
+    void should_round_bfloat16_to_nearest_even() {
+        float ulpOfOne = 0x1p-7f;
+
+        assertThat(HalfPrecisionEmbedding.from(new float[] {1 + ulpOfOne / 2}, BFLOAT16).get(0)).isEqualTo(1f);
+        assertThat(HalfPrecisionEmbedding.from(new float[] {1 + ulpOfOne * 1.5f}, BFLOAT16).get(0))
+                .isEqualTo(1 + 2 * ulpOfOne);
+        assertThat(HalfPrecisionEmbedding.from(new float[] {1e30f}, BFLOAT16).get(0))
+                .isCloseTo(1e30f, offset(1e28f));
+        assertThat(HalfPrecisionEmbedding.from(new float[] {Float.NaN}, BFLOAT16).get(0)).isNaN();
+    }
+
+    @ParameterizedTest
+    @EnumSource(Format.class)
+    void should_approximate_dot_product_and_norm(Format format) {
+        Random random = new Random(42);
+        float[] a = new float[385];
+        float[] b = new float[385];
+        for (int i = 0; i < a.length; i++) {
+            a[i] = (float) random.nextGaussian();
+            b[i] = (float) random.nextGaussian();
+        }
+        HalfPrecisionEmbedding embedding = HalfPrecisionEmbedding.from(a, format);
+
+        double dotProduct = 0;
+        double norm = 0;
+        for (int i = 0; i < a.length; i++) {
+            dotProduct += a[i] * b[i];
+            norm += a[i] * a[i];
+        }
+        assertThat(embedding.dotProduct(b)).isCloseTo((float) dotProduct, offset(0.5f));
+        assertThat(embedding.norm()).isCloseTo(Math.sqrt(norm), offset(0.1));
+
+        embedding.normalize();
+        assertThat(embedding.norm()).isCloseTo(1.0, offset(0.01));
+    }
+
+    @Test
+    void should_widen_into_new_array() {
+        HalfPrecisionEmbedding embedding = HalfPrecisionEmbedding.from(new float[] {1f, 2f}, FLOAT16);
+
+        embedding.vector()[0] = 5f;
+
+        assertThat(embedding.vector()).containsExactly(1f, 2f);
+        assertThat(embedding.vectorAsList()).containsExactly(1f, 2f);
+        assertThat(embedding.dimension()).isEqualTo(2);
+        assertThat(embedding).hasToString("HalfPrecisionEmbedding { format = FLOAT16, vector = [1.0, 2.0] }");
+    }
+
+    @Test
+    void should_widen_into_given_array() {
+        HalfPrecisionEmbedding embedding = HalfPrecisionEmbedding.from(new float[] {1f, 2f, 3f}, FLOAT16);
+        float[] destination = new float[4];
+
+        embedding.copyTo(1, destination, 2, 2);
+
+        assertThat(destination).containsExactly(0f, 0f, 2f, 3f);
+        assertThatExceptionOfType(IndexOutOfBoundsException.class)
+                .isThrownBy(() -> embedding.copyTo(2, destination, 0, 2));
+    }
+
+    @Test
+    void equals_hash() {
+        HalfPrecisionEmbedding e1 = HalfPrecisionEmbedding.from(new float[] {1f, 2f}, FLOAT16);
+        HalfPrecisionEmbedding e2 = HalfPrecisionEmbedding.from(Embedding.from(new float[] {1f, 2f}), FLOAT16);
+
+        assertThat(e1)
+                .isEqualTo(e2)
+                .hasSameHashCodeAs(e2)
+                .isNotEqualTo(HalfPrecisionEmbedding.from(new float[] {1f, 2f}, BFLOAT16))
+                .isNotEqualTo(Embedding.from(new float[] {1f, 2f}));
+    }
+}
@@ -0,0 +1,125 @@
+package dev.langchain4j.internal;
+
+import static dev.langchain4j.internal.EmbeddingBatchUtils.embedInBatches;
+import static dev.langchain4j.internal.EmbeddingBatchUtils.partition;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.TokenCountEstimator;
+import dev.langchain4j.model.output.Response;
+import dev.langchain4j.model.output.TokenUsage;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class EmbeddingBatchUtilsTest {
+
+    @Test
+    void should_partition() {
+        assertThat(partition(List.of(1, 2, 3, 4, 5), 2)).containsExactly(List.of(1, 2), List.of(3, 4), List.of(5));
+        assertThat(partition(List.of(1, 2), 2)).containsExactly(List.of(1, 2));
+        assertThat(partition(List.of(), 2)).isEmpty();
+    }
+
+    @Test
+    void should_partition_by_count_and_tokens() {
+
+        // given
+        TokenCountEstimator estimator = new TokenCountEstimator() {
+
+            @Override
+            public int estimateTokenCountInText(String text) {
+                return text.length();
+            }
+
+            @Override
+            public int estimateTokenCountInMessage(ChatMessage message) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public int estimateTokenCountInMessages(Iterable<ChatMessage> messages) {
+                throw new UnsupportedOperationException();
+            }
+        };
+        List<TextSegment> segments = Stream.of("aaa", "bb", "c", "dddddddd", "e", "f", "g", "h")
+                .map(TextSegment::from)
+                .toList();
+
+        // when
+        List<List<TextSegment>> batches = partition(segments, 3, 5, estimator);
+
+        // then
+        assertThat(batches)
+                .extracting(batch -> batch.stream().map(TextSegment::text).toList())
+                .containsExactly(
+                        List.of("aaa", "bb"),
+                        List.of("c"),
+                        List.of("dddddddd"), // exceeds the budget on its own
+                        List.of("e", "f", "g"),
+                        List.of("h"));
+        assertThat(partition(segments, 3, null, null)).hasSize(3);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 3, 8})
+    void should_embed_in_batches_keeping_order(int maxConcurrency) {
+
+        // given
+        List<Integer> inputs = IntStream.range(0, 95).boxed().toList();
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        Function<List<Integer>, Response<List<Embedding>>> embedBatch = batch -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(5);
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+            inFlight.decrementAndGet();
+            return Response.from(
+                    batch.stream().map(i -> Embedding.from(new float[] {i})).toList(), new TokenUsage(batch.size()));
+        };
+
+        // when
+        Response<List<Embedding>> response = embedInBatches(inputs, 10, maxConcurrency, null, embedBatch);
+
+        // then
+        assertThat(response.content()).extracting(embedding -> (int) embedding.vector()[0]).isEqualTo(inputs);
+        assertThat(response.tokenUsage()).isEqualTo(new TokenUsage(95));
+        assertThat(maxInFlight.get()).isLessThanOrEqualTo(maxConcurrency);
+    }
+
+    @Test
+    void should_stop_at_first_failed_batch() {
+
+        // given
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        AtomicInteger calls = new AtomicInteger();
+        Function<List<Integer>, Response<List<Embedding>>> embedBatch = batch -> {
+            calls.incrementAndGet();
+            throw new IllegalStateException("failed batch " + batch.get(0));
+        };
+
+        try {
+            // when-then
+            assertThatThrownBy(() -> embedInBatches(
+                            IntStream.range(0, 100).boxed().toList(), 1, 2, executor, embedBatch))
+                    .isExactlyInstanceOf(IllegalStateException.class)
+                    .hasMessageStartingWith("failed batch");
+            assertThat(calls.get()).isLessThan(100);
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package dev.langchain4j.model.embedding;
+
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.output.Response;
+import org.assertj.core.api.WithAssertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static java.util.stream.Collectors.toList;
+
+class BatchingEmbeddingModelTest implements WithAssertions {
+
+    static class RecordingEmbeddingModel implements EmbeddingModel {
+
+        final Queue<Integer> batchSizes = new ConcurrentLinkedQueue<>();
+
+        @Override
+        public Response<List<Embedding>> embedAll(List<TextSegment> textSegments) {
+            batchSizes.add(textSegments.size());
+            return Response.from(textSegments.stream()
+                    .map(segment -> Embedding.from(new float[] {Float.parseFloat(segment.text())}))
+                    .collect(toList()));
+        }
+    }
+
+    @Test
+    void should_coalesce_concurrent_calls() throws Exception {
+
+        // given
+        RecordingEmbeddingModel delegate = new RecordingEmbeddingModel();
+        int threads = 32;
+        ExecutorService callers = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+
+        try (BatchingEmbeddingModel model = BatchingEmbeddingModel.builder()
+                .embeddingModel(delegate)
+                .maxBatchSize(8)
+                .maxWait(Duration.ofMillis(200))
+                .build()) {
+
+            // when
+            List<Future<Embedding>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                String text = String.valueOf(i);
+                futures.add(callers.submit(() -> {
+                    start.await();
+                    return model.embed(text).content();
+                }));
+            }
+            start.countDown();
+
+            // then
+            for (int i = 0; i < threads; i++) {
+                assertThat(futures.get(i).get().vector()).containsExactly(i);
+            }
+            assertThat(delegate.batchSizes).allSatisfy(size -> assertThat(size).isBetween(1, 8));
+            assertThat(delegate.batchSizes.stream().mapToInt(Integer::intValue).sum()).isEqualTo(threads);
+            assertThat(delegate.batchSizes.size()).isLessThan(threads);
+        } finally {
+            callers.shutdown();
+        }
+    }
+
+    @Test
+    void should_not_wait_longer_than_max_wait() {
+
+        RecordingEmbeddingModel delegate = new RecordingEmbeddingModel();
+        try (BatchingEmbeddingModel model = BatchingEmbeddingModel.builder()
+                .embeddingModel(delegate)
+                .maxWait(Duration.ofMillis(20))
+                .build()) {
+
+            assertThat(model.embed("1").content().vector()).containsExactly(1);
+            assertThat(model.embed("2").content().vector()).containsExactly(2);
+            assertThat(delegate.batchSizes).containsExactly(1, 1);
+        }
+    }
+
+    @Test
+    void should_propagate_failures_to_callers() {
+
+        EmbeddingModel failing = textSegments -> {
+            throw new IllegalArgumentException("boom");
+        };
+        try (BatchingEmbeddingModel model = BatchingEmbeddingModel.builder()
+                .embeddingModel(failing)
+                .build()) {
+
+            assertThatThrownBy(() -> model.embed("1"))
+                    .isExactlyInstanceOf(IllegalArgumentException.class)
+                    .hasMessage("boom");
+        }
+    }
+
+    @Test
+    void should_fail_when_closed() {
+
+        BatchingEmbeddingModel model = BatchingEmbeddingModel.builder()
+                .embeddingModel(new RecordingEmbeddingModel())
+                .build();
+        model.close();
+
+        assertThatThrownBy(() -> model.embed("1"))
+                .isExactlyInstanceOf(IllegalStateException.class)
+                .hasMessage("The embedding model is closed");
+    }
+}
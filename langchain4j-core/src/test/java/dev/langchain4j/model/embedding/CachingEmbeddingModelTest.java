@@ -0,0 +1,138 @@
+package dev.langchain4j.model.embedding;
+
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.embedding.cache.InMemoryEmbeddingCache;
+import dev.langchain4j.model.output.Response;
+import dev.langchain4j.model.output.TokenUsage;
+import org.assertj.core.api.WithAssertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.util.stream.Collectors.toList;
+
+class CachingEmbeddingModelTest implements WithAssertions {
+
+    static class CountingEmbeddingModel implements EmbeddingModel {
+
+        final List<List<String>> calls = new ArrayList<>();
+        final int offset;
+
+        CountingEmbeddingModel(int offset) {
+            this.offset = offset;
+        }
+
+        @Override
+        public Response<List<Embedding>> embedAll(List<TextSegment> textSegments) {
+            calls.add(textSegments.stream().map(TextSegment::text).collect(toList()));
+            List<Embedding> embeddings = textSegments.stream()
+                    .map(TextSegment::text)
+                    .map(text -> Embedding.from(new float[] {text.length() + offset, text.hashCode()}))
+                    .collect(toList());
+            return Response.from(embeddings, new TokenUsage(textSegments.size()));
+        }
+
+        @Override
+        public int dimension() {
+            return 2;
+        }
+    }
+
+    @Test
+    void should_embed_only_misses_in_a_single_call_and_keep_order() {
+
+        // given
+        CountingEmbeddingModel delegate = new CountingEmbeddingModel(0);
+        CachingEmbeddingModel model = CachingEmbeddingModel.builder()
+                .embeddingModel(delegate)
+                .build();
+        model.embed("b");
+
+        // when
+        Response<List<Embedding>> response = model.embedAll(segments("a", "b", "cc", "a", "b"));
+
+        // then
+        assertThat(delegate.calls).containsExactly(List.of("b"), List.of("a", "cc"));
+        assertThat(response.content()).containsExactly(
+                expected("a"), expected("b"), expected("cc"), expected("a"), expected("b"));
+        assertThat(response.tokenUsage()).isEqualTo(new TokenUsage(2));
+        assertThat(model.hitCount()).isEqualTo(2);
+        assertThat(model.missCount()).isEqualTo(4);
+        assertThat(model.dimension()).isEqualTo(2);
+    }
+
+    @Test
+    void should_not_call_delegate_when_everything_is_cached() {
+
+        // given
+        CountingEmbeddingModel delegate = new CountingEmbeddingModel(0);
+        CachingEmbeddingModel model = CachingEmbeddingModel.builder()
+                .embeddingModel(delegate)
+                .build();
+        model.embedAll(segments("a", "b"));
+
+        // when
+        Response<List<Embedding>> response = model.embedAll(segments("b", "a"));
+
+        // then
+        assertThat(delegate.calls).hasSize(1);
+        assertThat(response.content()).containsExactly(expected("b"), expected("a"));
+        assertThat(response.tokenUsage()).isNull();
+        assertThat(model.hitCount()).isEqualTo(2);
+        assertThat(model.missCount()).isEqualTo(2);
+    }
+
+    @Test
+    void should_not_share_embeddings_between_models() {
+
+        // given
+        InMemoryEmbeddingCache cache = new InMemoryEmbeddingCache(10);
+        CountingEmbeddingModel first = new CountingEmbeddingModel(0);
+        CountingEmbeddingModel second = new CountingEmbeddingModel(100);
+        CachingEmbeddingModel firstModel = CachingEmbeddingModel.builder()
+                .embeddingModel(first)
+                .modelId("first")
+                .cache(cache)
+                .build();
+        CachingEmbeddingModel secondModel = CachingEmbeddingModel.builder()
+                .embeddingModel(second)
+                .modelId("second")
+                .cache(cache)
+                .build();
+
+        // when
+        firstModel.embed("a");
+        Embedding embedding = secondModel.embed("a").content();
+
+        // then
+        assertThat(embedding.vector()[0]).isEqualTo(101);
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(second.calls).containsExactly(List.of("a"));
+    }
+
+    @Test
+    void should_require_model_id_when_a_cache_is_given() {
+
+        CachingEmbeddingModel.Builder builder = CachingEmbeddingModel.builder()
+                .embeddingModel(new CountingEmbeddingModel(0))
+                .cache(new InMemoryEmbeddingCache(10));
+
+        assertThatThrownBy(builder::build)
+                .isExactlyInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("modelId");
+    }
+
+    private static List<TextSegment> segments(String... texts) {
+        List<TextSegment> segments = new ArrayList<>();
+        for (String text : texts) {
+            segments.add(TextSegment.from(text));
+        }
+        return segments;
+    }
+
+    private static Embedding expected(String text) {
+        return Embedding.from(new float[] {text.length(), text.hashCode()});
+    }
+}
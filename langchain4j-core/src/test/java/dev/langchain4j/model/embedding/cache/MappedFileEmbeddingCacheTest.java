@@ -0,0 +1,129 @@
+package dev.langchain4j.model.embedding.cache;
+
+import dev.langchain4j.data.embedding.Embedding;
+import org.assertj.core.api.WithAssertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+class MappedFileEmbeddingCacheTest implements WithAssertions {
+
+    // header (12 bytes) + two records of 3 floats (48 bytes each)
+    private static final int REGION_SIZE = 128;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void should_get_embeddings_after_reopening() {
+
+        // given
+        Path file = tempDir.resolve("embeddings.bin");
+        try (MappedFileEmbeddingCache cache = new MappedFileEmbeddingCache(file, Long.MAX_VALUE, REGION_SIZE)) {
+            for (int i = 0; i < 5; i++) {
+                cache.put("key" + i, embedding(i));
+            }
+            assertThat(cache.get("key3")).isEqualTo(embedding(3));
+            assertThat(cache.get("missing")).isNull();
+        }
+
+        // when
+        try (MappedFileEmbeddingCache cache = new MappedFileEmbeddingCache(file, Long.MAX_VALUE, REGION_SIZE)) {
+
+            // then
+            assertThat(cache.size()).isEqualTo(5);
+            for (int i = 0; i < 5; i++) {
+                assertThat(cache.get("key" + i)).isEqualTo(embedding(i));
+            }
+
+            cache.put("key5", embedding(5));
+            assertThat(cache.get("key5")).isEqualTo(embedding(5));
+        }
+    }
+
+    @Test
+    void should_ignore_a_record_that_was_not_completely_written() throws IOException {
+
+        // given
+        Path file = tempDir.resolve("embeddings.bin");
+        try (MappedFileEmbeddingCache cache = new MappedFileEmbeddingCache(file, Long.MAX_VALUE, REGION_SIZE)) {
+            cache.put("key0", embedding(0));
+            cache.put("key1", embedding(1));
+        }
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            raf.seek(12 + 48); // the dimension of the second record
+            raf.writeInt(0);
+        }
+
+        // when
+        try (MappedFileEmbeddingCache cache = new MappedFileEmbeddingCache(file, Long.MAX_VALUE, REGION_SIZE)) {
+
+            // then
+            assertThat(cache.size()).isEqualTo(1);
+            assertThat(cache.get("key1")).isNull();
+
+            cache.put("key2", embedding(2));
+            assertThat(cache.get("key2")).isEqualTo(embedding(2));
+        }
+    }
+
+    @Test
+    void should_stop_caching_when_max_bytes_is_reached() {
+
+        Path file = tempDir.resolve("embeddings.bin");
+        try (MappedFileEmbeddingCache cache = new MappedFileEmbeddingCache(file, 2 * REGION_SIZE, REGION_SIZE)) {
+            for (int i = 0; i < 10; i++) {
+                cache.put("key" + i, embedding(i));
+            }
+
+            assertThat(cache.size()).isEqualTo(4);
+            assertThat(cache.get("key3")).isEqualTo(embedding(3));
+            assertThat(cache.get("key4")).isNull();
+        }
+        assertThat(file.toFile().length()).isEqualTo(2 * REGION_SIZE);
+    }
+
+    @Test
+    void should_fail_on_a_file_that_is_not_a_cache() throws IOException {
+
+        Path file = tempDir.resolve("embeddings.bin");
+        Files.write(file, new byte[REGION_SIZE]);
+
+        assertThatThrownBy(() -> new MappedFileEmbeddingCache(file, Long.MAX_VALUE, REGION_SIZE))
+                .isExactlyInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void should_not_grow_a_file_that_is_not_a_cache() throws IOException {
+
+        Path file = tempDir.resolve("notes.txt");
+        Files.writeString(file, "hello");
+
+        assertThatThrownBy(() -> new MappedFileEmbeddingCache(file, Long.MAX_VALUE, REGION_SIZE))
+                .isExactlyInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Not an embedding cache file");
+        assertThat(Files.readString(file)).isEqualTo("hello");
+    }
+
+    @Test
+    void should_fail_on_a_cache_written_with_another_region_size() {
+
+        Path file = tempDir.resolve("embeddings.bin");
+        try (MappedFileEmbeddingCache cache = new MappedFileEmbeddingCache(file, Long.MAX_VALUE, REGION_SIZE)) {
+            cache.put("key0", embedding(0));
+        }
+
+        assertThatThrownBy(() -> new MappedFileEmbeddingCache(file, Long.MAX_VALUE, 2 * REGION_SIZE))
+                .isExactlyInstanceOf(IllegalArgumentException.class)
+                .hasMessage("The embedding cache file was written with regions of 128 bytes, not 256");
+        assertThat(file.toFile().length()).isEqualTo(REGION_SIZE);
+    }
+
+    private static Embedding embedding(int i) {
+        return Embedding.from(new float[] {i, i + 0.5f, -i});
+    }
+}
@@ -0,0 +1,64 @@
+package dev.langchain4j.model.embedding.cache;
+
+import dev.langchain4j.data.embedding.Embedding;
+import org.assertj.core.api.WithAssertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+class TieredEmbeddingCacheTest implements WithAssertions {
+
+    @Test
+    void in_memory_cache_should_evict_least_recently_used() {
+
+        InMemoryEmbeddingCache cache = new InMemoryEmbeddingCache(2);
+        cache.put("a", embedding(1));
+        cache.put("b", embedding(2));
+        cache.get("a");
+
+        cache.put("c", embedding(3));
+
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.get("a")).isEqualTo(embedding(1));
+        assertThat(cache.get("b")).isNull();
+        assertThat(cache.get("c")).isEqualTo(embedding(3));
+    }
+
+    @Test
+    void in_memory_cache_should_expire_embeddings() throws InterruptedException {
+
+        InMemoryEmbeddingCache cache = new InMemoryEmbeddingCache(10, Duration.ofMillis(20));
+        cache.put("a", embedding(1));
+        assertThat(cache.get("a")).isEqualTo(embedding(1));
+
+        Thread.sleep(50);
+
+        assertThat(cache.get("a")).isNull();
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void should_promote_embeddings_from_second_tier() {
+
+        // given
+        InMemoryEmbeddingCache first = new InMemoryEmbeddingCache(1);
+        InMemoryEmbeddingCache second = new InMemoryEmbeddingCache(10);
+        TieredEmbeddingCache cache = new TieredEmbeddingCache(first, second);
+        cache.put("a", embedding(1));
+        cache.put("b", embedding(2));
+        assertThat(first.get("a")).isNull();
+
+        // when
+        Embedding embedding = cache.get("a");
+
+        // then
+        assertThat(embedding).isEqualTo(embedding(1));
+        assertThat(first.get("a")).isEqualTo(embedding(1));
+        assertThat(second.size()).isEqualTo(2);
+        assertThat(cache.get("missing")).isNull();
+    }
+
+    private static Embedding embedding(int i) {
+        return Embedding.from(new float[] {i});
+    }
+}
@@ -13,12 +13,15 @@ import dev.langchain4j.store.embedding.filter.Filter;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.time.Duration;
+
 import static dev.langchain4j.store.embedding.filter.MetadataFilterBuilder.metadataKey;
 import static java.util.Arrays.asList;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
@@ -315,6 +318,49 @@ class EmbeddingStoreContentRetrieverTest {
         assertThat(result).contains(displayName);
     }
 
+    @Test
+    void should_embed_repeated_queries_once_with_query_embedding_cache() {
+
+        // given
+        ContentRetriever contentRetriever = EmbeddingStoreContentRetriever.builder()
+                .embeddingStore(EMBEDDING_STORE)
+                .embeddingModel(EMBEDDING_MODEL)
+                .queryEmbeddingCacheSize(10)
+                .build();
+
+        // when
+        contentRetriever.retrieve(QUERY);
+        contentRetriever.retrieve(QUERY);
+        contentRetriever.retrieve(Query.from("another query"));
+
+        // then
+        verify(EMBEDDING_STORE, times(3)).search(any());
+        verify(EMBEDDING_MODEL).embed(QUERY.text());
+        verify(EMBEDDING_MODEL).embed("another query");
+        verifyNoMoreInteractions(EMBEDDING_MODEL);
+    }
+
+    @Test
+    void should_embed_query_again_when_cached_query_embedding_expired() throws InterruptedException {
+
+        // given
+        ContentRetriever contentRetriever = EmbeddingStoreContentRetriever.builder()
+                .embeddingStore(EMBEDDING_STORE)
+                .embeddingModel(EMBEDDING_MODEL)
+                .queryEmbeddingCacheSize(10)
+                .queryEmbeddingCacheTtl(Duration.ofMillis(20))
+                .build();
+        contentRetriever.retrieve(QUERY);
+
+        // when
+        Thread.sleep(50);
+        contentRetriever.retrieve(QUERY);
+
+        // then
+        verify(EMBEDDING_MODEL, times(2)).embed(QUERY.text());
+        verifyNoMoreInteractions(EMBEDDING_MODEL);
+    }
+
     @Test
     void should_include_implicit_display_name_in_to_string() {
 
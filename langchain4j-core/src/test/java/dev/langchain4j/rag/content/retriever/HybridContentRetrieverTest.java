@@ -0,0 +1,70 @@
+package dev.langchain4j.rag.content.retriever;
+
+import dev.langchain4j.rag.content.Content;
+import dev.langchain4j.rag.query.Query;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class HybridContentRetrieverTest {
+
+    private static final Content A = Content.from("A");
+    private static final Content B = Content.from("B");
+    private static final Content C = Content.from("C");
+    private static final Content D = Content.from("D");
+
+    @Test
+    void should_fuse_results_of_all_retrievers() {
+
+        // given
+        ContentRetriever lexical = query -> List.of(A, B, C);
+        ContentRetriever semantic = query -> List.of(C, D, A);
+
+        HybridContentRetriever retriever = new HybridContentRetriever(lexical, semantic);
+
+        // when
+        List<Content> contents = retriever.retrieve(Query.from("query"));
+
+        // then
+        assertThat(contents).containsExactly(A, C, B, D);
+    }
+
+    @Test
+    void should_limit_results_and_query_retrievers_concurrently() {
+
+        // given
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            ContentRetriever lexical = query -> List.of(A, B);
+            ContentRetriever semantic = query -> List.of(B, C);
+
+            HybridContentRetriever retriever = HybridContentRetriever.builder()
+                    .retrievers(lexical, semantic)
+                    .k(1)
+                    .maxResults(2)
+                    .executor(executor)
+                    .build();
+
+            // when
+            List<Content> contents = retriever.retrieve(Query.from("query"));
+
+            // then
+            assertThat(contents).containsExactly(B, A);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void should_require_retrievers() {
+
+        assertThatThrownBy(() -> HybridContentRetriever.builder().build())
+                .isExactlyInstanceOf(IllegalArgumentException.class)
+                .hasMessage("retrievers cannot be null or empty");
+    }
+}
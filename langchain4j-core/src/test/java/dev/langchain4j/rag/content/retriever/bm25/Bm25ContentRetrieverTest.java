@@ -0,0 +1,176 @@
+package dev.langchain4j.rag.content.retriever.bm25;
+
+import dev.langchain4j.data.document.Metadata;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.rag.content.Content;
+import dev.langchain4j.rag.content.ContentMetadata;
+import dev.langchain4j.rag.query.Query;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static dev.langchain4j.store.embedding.filter.MetadataFilterBuilder.metadataKey;
+import static java.util.stream.Collectors.toList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class Bm25ContentRetrieverTest {
+
+    @Test
+    void should_retrieve_by_keywords() {
+
+        // given
+        Bm25ContentRetriever retriever = Bm25ContentRetriever.builder()
+                .maxResults(2)
+                .segments(List.of(
+                        TextSegment.from("The payment failed with error ERR-4521."),
+                        TextSegment.from("The payment succeeded."),
+                        TextSegment.from("Error ERR-1234 means the disk is full."),
+                        TextSegment.from("Cats and dogs.")))
+                .build();
+
+        // when
+        List<Content> contents = retriever.retrieve(Query.from("what does ERR-4521 mean?"));
+
+        // then
+        assertThat(texts(contents)).containsExactly(
+                "The payment failed with error ERR-4521.",
+                "Error ERR-1234 means the disk is full.");
+        assertThat((Double) contents.get(0).metadata().get(ContentMetadata.SCORE))
+                .isGreaterThan((Double) contents.get(1).metadata().get(ContentMetadata.SCORE));
+    }
+
+    @Test
+    void should_return_nothing_when_no_term_matches() {
+
+        Bm25ContentRetriever retriever = Bm25ContentRetriever.from(List.of(TextSegment.from("hello world")));
+
+        assertThat(retriever.retrieve(Query.from("goodbye"))).isEmpty();
+        assertThat(Bm25ContentRetriever.builder().build().retrieve(Query.from("hello"))).isEmpty();
+    }
+
+    @Test
+    void should_apply_filter() {
+
+        // given
+        Bm25ContentRetriever retriever = Bm25ContentRetriever.builder()
+                .filter(metadataKey("lang").isEqualTo("en"))
+                .build();
+        retriever.add(TextSegment.from("invoice invoice invoice", Metadata.from("lang", "fr")));
+        retriever.add(TextSegment.from("invoice overdue", Metadata.from("lang", "en")));
+        retriever.add(TextSegment.from("invoice paid", Metadata.from("lang", "en")));
+
+        // when
+        List<Content> contents = retriever.retrieve(Query.from("invoice overdue"));
+
+        // then
+        assertThat(texts(contents)).containsExactly("invoice overdue", "invoice paid");
+    }
+
+    @Test
+    void should_return_same_results_as_exhaustive_scoring() {
+
+        // given a Zipf-like vocabulary, so that queries mix frequent and rare terms
+        Random random = new Random(42);
+        List<TextSegment> segments = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            StringBuilder text = new StringBuilder();
+            int length = 5 + random.nextInt(40);
+            for (int j = 0; j < length; j++) {
+                text.append(" t").append(zipf(random));
+            }
+            segments.add(TextSegment.from(text.toString()));
+        }
+        Bm25ContentRetriever retriever = Bm25ContentRetriever.builder()
+                .segments(segments.subList(0, 1_000))
+                .maxResults(10)
+                .build();
+        retriever.addAll(segments.subList(1_000, segments.size()));
+        assertThat(retriever.size()).isEqualTo(2_000);
+
+        for (int q = 0; q < 50; q++) {
+            StringBuilder query = new StringBuilder();
+            for (int j = 0, terms = 1 + random.nextInt(5); j < terms; j++) {
+                query.append(" t").append(zipf(random));
+            }
+
+            // when
+            List<Content> contents = retriever.retrieve(Query.from(query.toString()));
+
+            // then
+            List<Double> expected = exhaustiveScores(segments, query.toString(), 10);
+            assertThat(contents).hasSameSizeAs(expected);
+            for (int i = 0; i < expected.size(); i++) {
+                assertThat((Double) contents.get(i).metadata().get(ContentMetadata.SCORE))
+                        .isCloseTo(expected.get(i), within(1e-9));
+            }
+        }
+    }
+
+    @Test
+    void should_validate_parameters() {
+
+        assertThatThrownBy(() -> Bm25ContentRetriever.builder().b(1.5).build())
+                .isExactlyInstanceOf(IllegalArgumentException.class)
+                .hasMessage("b must be between 0.0 and 1.0, but is: 1.5");
+
+        assertThatThrownBy(() -> Bm25ContentRetriever.builder().maxResults(0).build().retrieve(Query.from("x")))
+                .isExactlyInstanceOf(IllegalArgumentException.class)
+                .hasMessage("maxResults must be greater than zero, but is: 0");
+    }
+
+    private static int zipf(Random random) {
+        return (int) Math.floor(Math.exp(random.nextDouble() * Math.log(500)));
+    }
+
+    private static List<Double> exhaustiveScores(List<TextSegment> segments, String query, int maxResults) {
+        StandardTextAnalyzer analyzer = new StandardTextAnalyzer();
+        List<Map<String, Integer>> frequencies = new ArrayList<>();
+        List<Integer> lengths = new ArrayList<>();
+        Map<String, Integer> documentFrequencies = new HashMap<>();
+        for (TextSegment segment : segments) {
+            List<String> terms = analyzer.analyze(segment.text());
+            Map<String, Integer> termFrequencies = new HashMap<>();
+            terms.forEach(term -> termFrequencies.merge(term, 1, Integer::sum));
+            termFrequencies.keySet().forEach(term -> documentFrequencies.merge(term, 1, Integer::sum));
+            frequencies.add(termFrequencies);
+            lengths.add(terms.size());
+        }
+        double averageLength = lengths.stream().mapToInt(Integer::intValue).average().orElse(0);
+
+        List<Double> scores = new ArrayList<>();
+        for (int i = 0; i < segments.size(); i++) {
+            double score = 0;
+            boolean matches = false;
+            for (String term : new HashSet<>(analyzer.analyze(query))) {
+                Integer frequency = frequencies.get(i).get(term);
+                if (frequency == null) {
+                    continue;
+                }
+                matches = true;
+                int documentFrequency = documentFrequencies.get(term);
+                double idf = Math.log(1 + (segments.size() - documentFrequency + 0.5) / (documentFrequency + 0.5));
+                score += idf * frequency * 2.2
+                        / (frequency + 1.2 * (1 - 0.75 + 0.75 * lengths.get(i) / averageLength));
+            }
+            if (matches) {
+                scores.add(score);
+            }
+        }
+        return scores.stream()
+                .sorted(Comparator.reverseOrder())
+                .limit(maxResults)
+                .collect(toList());
+    }
+
+    private static List<String> texts(List<Content> contents) {
+        return contents.stream().map(content -> content.textSegment().text()).collect(toList());
+    }
+}
@@ -0,0 +1,50 @@
+package dev.langchain4j.rag.content.retriever.bm25;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StandardTextAnalyzerTest {
+
+    @Test
+    void should_split_into_lower_cased_words() {
+        StandardTextAnalyzer analyzer = new StandardTextAnalyzer();
+
+        assertThat(analyzer.analyze("Hello, World! Ça va?  42"))
+                .containsExactly("hello", "world", "ça", "va", "42");
+        assertThat(analyzer.analyze(" ,;- ")).isEmpty();
+    }
+
+    @Test
+    void should_keep_compound_words() {
+        StandardTextAnalyzer analyzer = new StandardTextAnalyzer();
+
+        assertThat(analyzer.analyze("Error ERR-4521 in v1.2.3 (see a/b), end-"))
+                .containsExactly("error", "err", "4521", "err-4521", "in", "v1", "2", "3", "v1.2.3",
+                        "see", "a", "b", "a/b", "end");
+    }
+
+    @Test
+    void should_apply_options() {
+        StandardTextAnalyzer analyzer = StandardTextAnalyzer.builder()
+                .lowerCase(false)
+                .keepCompoundWords(false)
+                .stopWords(Set.of("the", "of"))
+                .minWordLength(2)
+                .build();
+
+        assertThat(analyzer.analyze("The state of X-Ray the art"))
+                .containsExactly("The", "state", "Ray", "art");
+    }
+
+    @Test
+    void should_keep_compound_words_made_of_stop_words() {
+        StandardTextAnalyzer analyzer = StandardTextAnalyzer.builder()
+                .stopWords(StandardTextAnalyzer.ENGLISH_STOP_WORDS)
+                .build();
+
+        assertThat(analyzer.analyze("the to-do list")).containsExactly("do", "to-do", "list");
+    }
+}
@@ -0,0 +1,103 @@
+package dev.langchain4j.store.embedding;
+
+import static dev.langchain4j.data.embedding.HalfPrecisionEmbedding.Format.BFLOAT16;
+import static org.assertj.core.data.Offset.offset;
+
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.embedding.HalfPrecisionEmbedding;
+import java.util.Random;
+import org.assertj.core.api.WithAssertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class VectorSimilarityTest implements WithAssertions {
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 3, 4, 7, 384})
+    void should_calculate_dot_product_and_distance(int dimension) {
+        Random random = new Random(dimension);
+        float[] a = randomVector(random, dimension);
+        float[] b = randomVector(random, dimension);
+
+        double dotProduct = 0;
+        double squaredDistance = 0;
+        for (int i = 0; i < dimension; i++) {
+            dotProduct += (double) a[i] * b[i];
+            squaredDistance += ((double) a[i] - b[i]) * ((double) a[i] - b[i]);
+        }
+
+        assertThat(VectorSimilarity.dotProduct(a, b)).isCloseTo((float) dotProduct, offset(1e-4f));
+        assertThat(VectorSimilarity.squaredEuclideanDistance(a, b)).isCloseTo((float) squaredDistance, offset(1e-3f));
+        assertThat(VectorSimilarity.norm(a)).isCloseTo(Math.sqrt(VectorSimilarity.dotProduct(a, a)), offset(1e-9));
+    }
+
+    @Test
+    void should_score_batch_exactly_like_single_vectors() {
+        Random random = new Random(42);
+        int dimension = 13;
+        int count = 50;
+        float[] query = randomVector(random, dimension);
+        float[] vectors = randomVector(random, dimension * count);
+        double[] norms = VectorSimilarity.norms(vectors, dimension, count);
+
+        double[] cosineSimilarities = new double[count];
+        float[] dotProducts = new float[count];
+        float[] distances = new float[count];
+        VectorSimilarity.cosineSimilarities(query, vectors, norms, count, cosineSimilarities);
+        VectorSimilarity.dotProducts(query, vectors, count, dotProducts);
+        VectorSimilarity.squaredEuclideanDistances(query, vectors, count, distances);
+
+        for (int r = 0; r < count; r++) {
+            float[] row = new float[dimension];
+            System.arraycopy(vectors, r * dimension, row, 0, dimension);
+
+            assertThat(cosineSimilarities[r]).isEqualTo(CosineSimilarity.between(Embedding.from(row), Embedding.from(query)));
+            assertThat(dotProducts[r]).isEqualTo(VectorSimilarity.dotProduct(query, row));
+            assertThat(distances[r]).isEqualTo(VectorSimilarity.squaredEuclideanDistance(query, row));
+        }
+    }
+
+    @Test
+    void should_score_half_precision_embeddings_without_widening_copies() {
+        Random random = new Random(42);
+        float[] query = randomVector(random, 13);
+        HalfPrecisionEmbedding embedding = HalfPrecisionEmbedding.from(randomVector(random, 13), BFLOAT16);
+        float[] widened = embedding.vector();
+
+        assertThat(VectorSimilarity.dotProduct(embedding, query)).isEqualTo(VectorSimilarity.dotProduct(widened, query));
+        assertThat(VectorSimilarity.norm(embedding)).isCloseTo(VectorSimilarity.norm(widened), offset(1e-6));
+        assertThat(VectorSimilarity.dotProduct(Embedding.from(widened), query))
+                .isEqualTo(VectorSimilarity.dotProduct(widened, query));
+
+        HalfPrecisionEmbedding other = HalfPrecisionEmbedding.from(query, BFLOAT16);
+        float expected = VectorSimilarity.dotProduct(widened, other.vector());
+        assertThat(VectorSimilarity.dotProduct(embedding, other)).isEqualTo(expected);
+        assertThat(VectorSimilarity.dotProduct(embedding, Embedding.from(other.vector()))).isEqualTo(expected);
+        assertThat(VectorSimilarity.dotProduct(Embedding.from(widened), other)).isEqualTo(expected);
+    }
+
+    @Test
+    void should_fail_when_lengths_differ() {
+        assertThatExceptionOfType(IllegalArgumentException.class)
+                .isThrownBy(() -> VectorSimilarity.dotProduct(new float[3], new float[4]))
+                .withMessage("Length of vector a (3) must be equal to the length of vector b (4)");
+
+        assertThatExceptionOfType(IllegalArgumentException.class)
+                .isThrownBy(() -> VectorSimilarity.dotProducts(new float[3], new float[5], 2, new float[2]))
+                .withMessage("vectors must contain 2 vectors of dimension 3, but has only 5 elements");
+    }
+
+    @Test
+    void should_treat_zero_vectors_as_orthogonal() {
+        assertThat(VectorSimilarity.cosineSimilarity(0, 0, 0)).isZero();
+    }
+
+    private static float[] randomVector(Random random, int dimension) {
+        float[] vector = new float[dimension];
+        for (int i = 0; i < dimension; i++) {
+            vector[i] = (float) random.nextGaussian();
+        }
+        return vector;
+    }
+}
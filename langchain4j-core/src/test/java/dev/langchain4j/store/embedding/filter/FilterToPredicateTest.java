@@ -0,0 +1,111 @@
+package dev.langchain4j.store.embedding.filter;
+
+import static dev.langchain4j.store.embedding.filter.MetadataFilterBuilder.metadataKey;
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import dev.langchain4j.data.document.Metadata;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.function.Predicate;
+import org.junit.jupiter.api.Test;
+
+class FilterToPredicateTest {
+
+    static final UUID ID = UUID.fromString("f4b5b6a2-7c1d-4c8e-9d0a-1b2c3d4e5f60");
+
+    @Test
+    void should_give_same_results_as_filter() {
+
+        // given
+        List<Metadata> metadata = randomMetadata(new Random(42), 500);
+
+        List<Filter> filters = asList(
+                metadataKey("number").isEqualTo(3),
+                metadataKey("number").isEqualTo(3.0),
+                metadataKey("number").isEqualTo(3.5f),
+                metadataKey("number").isNotEqualTo(4L),
+                metadataKey("number").isGreaterThan(2),
+                metadataKey("number").isGreaterThan(2.5),
+                metadataKey("number").isGreaterThanOrEqualTo(Long.MAX_VALUE),
+                metadataKey("number").isLessThan(-1.25f),
+                metadataKey("number").isLessThanOrEqualTo(0),
+                metadataKey("number").isIn(1, 2L, 3),
+                metadataKey("number").isIn(1.0, 3.5f),
+                metadataKey("number").isNotIn(0, 5),
+                metadataKey("number").isNotIn(0.5, 3.5),
+                metadataKey("name").isEqualTo("b"),
+                metadataKey("name").isNotEqualTo("b"),
+                metadataKey("name").isGreaterThan("b"),
+                metadataKey("name").isLessThanOrEqualTo("c"),
+                metadataKey("name").isIn("a", "c"),
+                metadataKey("name").isNotIn("a", "c"),
+                metadataKey("name").containsString("b"),
+                metadataKey("id").isEqualTo(ID),
+                metadataKey("id").isNotEqualTo(ID),
+                metadataKey("id").isIn(ID, UUID.randomUUID()),
+                metadataKey("id").isNotIn(ID),
+                metadataKey("name").isEqualTo("a").and(metadataKey("number").isIn(1, 2, 3, 4, 5)),
+                metadataKey("name").isNotEqualTo("a").or(metadataKey("number").isEqualTo(1)),
+                Filter.not(metadataKey("name").isIn("a", "b").and(metadataKey("number").isGreaterThan(1)))
+        );
+
+        for (Filter filter : filters) {
+
+            // when
+            Predicate<Metadata> predicate = filter.toPredicate();
+
+            // then
+            for (Metadata m : metadata) {
+                assertThat(predicate.test(m)).as("%s on %s", filter, m).isEqualTo(filter.test(m));
+            }
+        }
+    }
+
+    @Test
+    void should_test_more_selective_operand_first() {
+
+        // given
+        Metadata metadata = new Metadata().put("name", "y").put("number", "not a number");
+        Filter and = metadataKey("number").isNotEqualTo(1).and(metadataKey("name").isEqualTo("x"));
+        Filter or = metadataKey("number").isEqualTo(1).or(metadataKey("name").isNotEqualTo("x"));
+
+        // when-then
+        // the filters test the left operand first, which fails on the type mismatch
+        assertThatThrownBy(() -> and.test(metadata)).isExactlyInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> or.test(metadata)).isExactlyInstanceOf(IllegalArgumentException.class);
+
+        // the predicates test the operand deciding the result first
+        assertThat(and.toPredicate().test(metadata)).isFalse();
+        assertThat(or.toPredicate().test(metadata)).isTrue();
+    }
+
+    private static List<Metadata> randomMetadata(Random random, int count) {
+        List<Metadata> metadata = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Metadata m = new Metadata();
+            switch (random.nextInt(5)) {
+                case 0 -> m.put("number", random.nextInt(7) - 1);
+                case 1 -> m.put("number", (long) random.nextInt(7));
+                case 2 -> m.put("number", random.nextInt(8) / 2.0f - 1);
+                case 3 -> m.put("number", random.nextInt(8) / 2.0);
+                default -> {
+                    // no number
+                }
+            }
+            if (random.nextBoolean()) {
+                m.put("name", String.valueOf((char) ('a' + random.nextInt(4))));
+            }
+            switch (random.nextInt(3)) {
+                case 0 -> m.put("id", ID);
+                case 1 -> m.put("id", ID.toString());
+                default -> m.put("id", UUID.randomUUID());
+            }
+            metadata.add(m);
+        }
+        return metadata;
+    }
+}
@@ -3,6 +3,7 @@ package dev.langchain4j.store.embedding.elasticsearch;
 import co.elastic.clients.elasticsearch.ElasticsearchClient;
 import co.elastic.clients.elasticsearch._types.ElasticsearchException;
 import co.elastic.clients.elasticsearch.core.SearchResponse;
+import co.elastic.clients.elasticsearch.core.msearch.MultisearchBody;
 import dev.langchain4j.store.embedding.EmbeddingSearchRequest;
 
 import java.io.IOException;
@@ -12,4 +13,10 @@ public abstract class ElasticsearchConfiguration {
                                             String indexName,
                                             EmbeddingSearchRequest embeddingSearchRequest)
             throws ElasticsearchException, IOException;
+
+    /**
+     * Builds the same search as {@link #internalSearch(ElasticsearchClient, String, EmbeddingSearchRequest)},
+     * as one search of a multi-search ({@code _msearch}) request.
+     */
+    abstract MultisearchBody internalSearchBody(EmbeddingSearchRequest embeddingSearchRequest) throws IOException;
 }
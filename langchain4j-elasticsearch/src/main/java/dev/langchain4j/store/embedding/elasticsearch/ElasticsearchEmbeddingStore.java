@@ -8,8 +8,13 @@ import co.elastic.clients.elasticsearch._types.query_dsl.Query;
 import co.elastic.clients.elasticsearch.core.BulkRequest;
 import co.elastic.clients.elasticsearch.core.BulkResponse;
 import co.elastic.clients.elasticsearch.core.DeleteByQueryResponse;
+import co.elastic.clients.elasticsearch.core.MsearchRequest;
+import co.elastic.clients.elasticsearch.core.MsearchResponse;
 import co.elastic.clients.elasticsearch.core.SearchResponse;
 import co.elastic.clients.elasticsearch.core.bulk.BulkResponseItem;
+import co.elastic.clients.elasticsearch.core.msearch.MultiSearchResponseItem;
+import co.elastic.clients.elasticsearch.core.msearch.MultisearchBody;
+import co.elastic.clients.elasticsearch.core.search.HitsMetadata;
 import co.elastic.clients.json.JsonpMapper;
 import co.elastic.clients.json.jackson.JacksonJsonpMapper;
 import co.elastic.clients.transport.ElasticsearchTransport;
@@ -35,6 +40,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
@@ -289,7 +295,7 @@ public class ElasticsearchEmbeddingStore implements EmbeddingStore<TextSegment>
             SearchResponse<Document> response = configuration.internalSearch(client, indexName, embeddingSearchRequest);
             log.trace("found [{}] results", response);
 
-            List<EmbeddingMatch<TextSegment>> results = toMatches(response);
+            List<EmbeddingMatch<TextSegment>> results = toMatches(response.hits());
             results.forEach(em -> log.debug("doc [{}] scores [{}]", em.embeddingId(), em.score()));
             return new EmbeddingSearchResult<>(results);
         } catch (ElasticsearchException | IOException e) {
@@ -297,6 +303,41 @@ public class ElasticsearchEmbeddingStore implements EmbeddingStore<TextSegment>
         }
     }
 
+    /**
+     * Sends all requests to Elasticsearch in a single multi-search ({@code _msearch}) call.
+     */
+    @Override
+    public List<EmbeddingSearchResult<TextSegment>> searchAll(List<EmbeddingSearchRequest> embeddingSearchRequests) {
+        ensureNotNull(embeddingSearchRequests, "embeddingSearchRequests");
+        if (embeddingSearchRequests.isEmpty()) {
+            return new ArrayList<>();
+        }
+        log.debug("searchAll([{} requests])", embeddingSearchRequests.size());
+        try {
+            MsearchRequest.Builder msearchBuilder = new MsearchRequest.Builder();
+            for (EmbeddingSearchRequest embeddingSearchRequest : embeddingSearchRequests) {
+                MultisearchBody body = configuration.internalSearchBody(embeddingSearchRequest);
+                msearchBuilder.searches(search -> search
+                        .header(header -> header.index(indexName))
+                        .body(body));
+            }
+
+            MsearchResponse<Document> response = client.msearch(msearchBuilder.build(), Document.class);
+            log.trace("found [{}] results", response);
+
+            List<EmbeddingSearchResult<TextSegment>> results = new ArrayList<>(embeddingSearchRequests.size());
+            for (MultiSearchResponseItem<Document> item : response.responses()) {
+                if (item.isFailure()) {
+                    throwIfError(item.failure().error());
+                }
+                results.add(new EmbeddingSearchResult<>(toMatches(item.result().hits())));
+            }
+            return results;
+        } catch (ElasticsearchException | IOException e) {
+            throw new ElasticsearchRequestFailedException(e);
+        }
+    }
+
     @Override
     public void removeAll(Collection<String> ids) {
         ensureNotEmpty(ids, "ids");
@@ -418,8 +459,8 @@ public class ElasticsearchEmbeddingStore implements EmbeddingStore<TextSegment>
         handleBulkResponseErrors(response);
     }
 
-    private List<EmbeddingMatch<TextSegment>> toMatches(SearchResponse<Document> response) {
-        return response.hits().hits().stream()
+    private List<EmbeddingMatch<TextSegment>> toMatches(HitsMetadata<Document> hits) {
+        return hits.hits().stream()
                 .map(hit -> Optional.ofNullable(hit.source())
                         .map(document -> new EmbeddingMatch<>(
                                 hit.score(),
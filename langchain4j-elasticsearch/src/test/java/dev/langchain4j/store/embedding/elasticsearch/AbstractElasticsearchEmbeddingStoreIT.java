@@ -1,18 +1,24 @@
 package dev.langchain4j.store.embedding.elasticsearch;
 
+import dev.langchain4j.data.embedding.Embedding;
 import dev.langchain4j.data.segment.TextSegment;
 import dev.langchain4j.model.embedding.EmbeddingModel;
 import dev.langchain4j.model.embedding.onnx.allminilml6v2q.AllMiniLmL6V2QuantizedEmbeddingModel;
+import dev.langchain4j.store.embedding.EmbeddingSearchRequest;
+import dev.langchain4j.store.embedding.EmbeddingSearchResult;
 import dev.langchain4j.store.embedding.EmbeddingStore;
 import dev.langchain4j.store.embedding.EmbeddingStoreWithFilteringIT;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
+import java.util.List;
 
 import static dev.langchain4j.internal.Utils.randomUUID;
+import static dev.langchain4j.store.embedding.TestUtils.awaitUntilAsserted;
 import static org.assertj.core.api.Assertions.assertThat;
 
 /**
@@ -76,6 +82,37 @@ abstract class AbstractElasticsearchEmbeddingStoreIT extends EmbeddingStoreWithF
         return embeddingModel;
     }
 
+    @Test
+    void should_search_all_in_one_multi_search() {
+
+        // given
+        List<TextSegment> segments = List.of(
+                TextSegment.from("The cat sleeps on the sofa"),
+                TextSegment.from("The dog barks at the mailman"),
+                TextSegment.from("The car needs new tyres"));
+        List<Embedding> embeddings = embeddingModel.embedAll(segments).content();
+        embeddingStore.addAll(embeddings, segments);
+        awaitUntilAsserted(() -> assertThat(getAllEmbeddings()).hasSize(segments.size()));
+
+        List<EmbeddingSearchRequest> requests = embeddings.stream()
+                .map(embedding -> EmbeddingSearchRequest.builder()
+                        .queryEmbedding(embedding)
+                        .maxResults(2)
+                        .build())
+                .toList();
+
+        // when
+        List<EmbeddingSearchResult<TextSegment>> results = embeddingStore.searchAll(requests);
+
+        // then
+        assertThat(results).hasSize(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            assertThat(results.get(i).matches()).hasSize(2);
+            assertThat(results.get(i).matches().get(0).embedded()).isEqualTo(segments.get(i));
+            assertThat(results.get(i).matches()).isEqualTo(embeddingStore.search(requests.get(i)).matches());
+        }
+    }
+
     @Override
     protected void ensureStoreIsEmpty() {
         // TODO fix
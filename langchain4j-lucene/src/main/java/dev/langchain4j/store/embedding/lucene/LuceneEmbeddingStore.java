@@ -0,0 +1,529 @@
+package dev.langchain4j.store.embedding.lucene;
+
+import dev.langchain4j.data.document.Metadata;
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.store.embedding.CosineSimilarity;
+import dev.langchain4j.store.embedding.EmbeddingMatch;
+import dev.langchain4j.store.embedding.EmbeddingSearchRequest;
+import dev.langchain4j.store.embedding.EmbeddingSearchResult;
+import dev.langchain4j.store.embedding.EmbeddingStore;
+import dev.langchain4j.store.embedding.RelevanceScore;
+import dev.langchain4j.store.embedding.filter.Filter;
+import org.apache.lucene.codecs.KnnVectorsFormat;
+import org.apache.lucene.codecs.KnnVectorsReader;
+import org.apache.lucene.codecs.KnnVectorsWriter;
+import org.apache.lucene.codecs.lucene912.Lucene912Codec;
+import org.apache.lucene.codecs.lucene99.Lucene99HnswVectorsFormat;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.DoublePoint;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.KnnFloatVectorField;
+import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.index.FloatVectorValues;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.IndexableField;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.ReaderUtil;
+import org.apache.lucene.index.SegmentReadState;
+import org.apache.lucene.index.SegmentWriteState;
+import org.apache.lucene.index.StoredFields;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.index.VectorSimilarityFunction;
+import org.apache.lucene.search.ControlledRealTimeReopenThread;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.KnnFloatVectorQuery;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static dev.langchain4j.internal.Utils.getOrDefault;
+import static dev.langchain4j.internal.Utils.randomUUID;
+import static dev.langchain4j.internal.ValidationUtils.ensureBetween;
+import static dev.langchain4j.internal.ValidationUtils.ensureGreaterThanZero;
+import static dev.langchain4j.internal.ValidationUtils.ensureNotEmpty;
+import static dev.langchain4j.internal.ValidationUtils.ensureNotNull;
+import static dev.langchain4j.internal.ValidationUtils.ensureTrue;
+import static java.util.Collections.singletonList;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * An {@link EmbeddingStore} backed by a Lucene index.
+ * <p>
+ * Embeddings are indexed in a {@link KnnFloatVectorField} using cosine similarity, and searched
+ * with the HNSW graph Lucene builds for each segment. When the store is created with a {@link Path},
+ * the index is opened with {@link FSDirectory#open(Path)}, which memory-maps the segment files,
+ * so that the index does not have to fit in the heap and survives restarts.
+ * <p>
+ * Metadata is indexed so that a {@link Filter} is translated into a Lucene query and applied
+ * during the approximate nearest neighbour search, rather than on its results.
+ * <p>
+ * Writes are buffered by an {@link IndexWriter} and become visible to searches when the reader is refreshed:
+ * after every write by default, or periodically if {@link Builder#refreshInterval(Duration)} is set,
+ * which is much cheaper for write-heavy workloads. Writes are durable once {@link #commit()} or {@link #close()}
+ * has been called.
+ */
+public class LuceneEmbeddingStore implements EmbeddingStore<TextSegment>, Closeable {
+
+    static final String ID_FIELD = "id";
+    static final String TEXT_FIELD = "text";
+    static final String EMBEDDING_FIELD = "embedding";
+    static final String KEYWORD_PREFIX = "metadata.keyword.";
+    static final String LONG_PREFIX = "metadata.long.";
+    static final String DOUBLE_PREFIX = "metadata.double.";
+    static final String VALUE_PREFIX = "metadata.value.";
+    static final String UUID_PREFIX = "metadata.uuid.";
+
+    /**
+     * Lucene rejects vectors with more than 1024 dimensions by default,
+     * which is less than what many embedding models produce.
+     */
+    static final int MAX_DIMENSIONS = 4096;
+
+    private final Directory directory;
+    private final boolean closeDirectory;
+    private final IndexWriter indexWriter;
+    private final SearcherManager searcherManager;
+    private final ControlledRealTimeReopenThread<IndexSearcher> reopenThread;
+
+    /**
+     * Creates a new LuceneEmbeddingStore.
+     *
+     * @param directory       The directory of the index. If it already contains an index, it is opened.
+     * @param closeDirectory  Whether {@link #close()} closes the directory.
+     * @param maxConnections  The maximum number of connections of a node in the HNSW graph.
+     *                        Default: {@value Lucene99HnswVectorsFormat#DEFAULT_MAX_CONN}.
+     * @param beamWidth       The number of candidates considered when inserting a node into the HNSW graph.
+     *                        Default: {@value Lucene99HnswVectorsFormat#DEFAULT_BEAM_WIDTH}.
+     * @param ramBufferSizeMb The amount of memory the index writer buffers documents in before flushing a segment.
+     *                        Default: {@value IndexWriterConfig#DEFAULT_RAM_BUFFER_SIZE_MB}.
+     * @param refreshInterval How often searches are refreshed to see the latest writes.
+     *                        Default: {@code null}, searches see the writes as soon as they complete.
+     */
+    public LuceneEmbeddingStore(Directory directory,
+                                boolean closeDirectory,
+                                Integer maxConnections,
+                                Integer beamWidth,
+                                Double ramBufferSizeMb,
+                                Duration refreshInterval) {
+        this.directory = ensureNotNull(directory, "directory");
+        this.closeDirectory = closeDirectory;
+
+        KnnVectorsFormat vectorsFormat = new HighDimensionalVectorsFormat(new Lucene99HnswVectorsFormat(
+                ensureBetween(getOrDefault(maxConnections, Lucene99HnswVectorsFormat.DEFAULT_MAX_CONN),
+                        1, Lucene99HnswVectorsFormat.MAXIMUM_MAX_CONN, "maxConnections"),
+                ensureBetween(getOrDefault(beamWidth, Lucene99HnswVectorsFormat.DEFAULT_BEAM_WIDTH),
+                        1, Lucene99HnswVectorsFormat.MAXIMUM_BEAM_WIDTH, "beamWidth")));
+        IndexWriterConfig config = new IndexWriterConfig()
+                .setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND)
+                .setRAMBufferSizeMB(ensureGreaterThanZero(
+                        getOrDefault(ramBufferSizeMb, IndexWriterConfig.DEFAULT_RAM_BUFFER_SIZE_MB), "ramBufferSizeMb"))
+                .setCodec(new Lucene912Codec() {
+
+                    @Override
+                    public KnnVectorsFormat getKnnVectorsFormatForField(String field) {
+                        return vectorsFormat;
+                    }
+                });
+        ensureTrue(refreshInterval == null || !refreshInterval.isNegative() && !refreshInterval.isZero(),
+                "refreshInterval must be positive");
+
+        try {
+            this.indexWriter = new IndexWriter(directory, config);
+            this.searcherManager = new SearcherManager(indexWriter, null);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+
+        if (refreshInterval == null) {
+            this.reopenThread = null;
+        } else {
+            double seconds = refreshInterval.toNanos() / 1e9;
+            this.reopenThread = new ControlledRealTimeReopenThread<>(indexWriter, searcherManager, seconds, seconds);
+            this.reopenThread.setName("langchain4j-lucene-refresh");
+            this.reopenThread.setDaemon(true);
+            this.reopenThread.start();
+        }
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    @Override
+    public String add(Embedding embedding) {
+        String id = randomUUID();
+        addInternal(singletonList(id), singletonList(embedding), null, false);
+        return id;
+    }
+
+    @Override
+    public void add(String id, Embedding embedding) {
+        addAll(singletonList(id), singletonList(embedding), null);
+    }
+
+    @Override
+    public String add(Embedding embedding, TextSegment textSegment) {
+        String id = randomUUID();
+        addInternal(singletonList(id), singletonList(embedding), singletonList(textSegment), false);
+        return id;
+    }
+
+    @Override
+    public List<String> addAll(List<Embedding> embeddings) {
+        List<String> ids = generateIds(embeddings.size());
+        addInternal(ids, embeddings, null, false);
+        return ids;
+    }
+
+    @Override
+    public List<String> addAll(List<Embedding> embeddings, List<TextSegment> textSegments) {
+        List<String> ids = generateIds(embeddings.size());
+        addInternal(ids, embeddings, textSegments, false);
+        return ids;
+    }
+
+    /**
+     * Adds the given embeddings, replacing the entries that already exist with the same ids.
+     */
+    @Override
+    public void addAll(List<String> ids, List<Embedding> embeddings, List<TextSegment> textSegments) {
+        addInternal(ids, embeddings, textSegments, true);
+    }
+
+    private void addInternal(List<String> ids, List<Embedding> embeddings, List<TextSegment> textSegments,
+                             boolean replaceExisting) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        ensureTrue(ids.size() == embeddings.size(), "ids size is not equal to embeddings size");
+        ensureTrue(textSegments == null || embeddings.size() == textSegments.size(),
+                "embeddings size is not equal to embedded size");
+
+        List<Document> documents = new ArrayList<>(ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+            documents.add(toDocument(ids.get(i), embeddings.get(i), textSegments == null ? null : textSegments.get(i)));
+        }
+
+        try {
+            if (replaceExisting) {
+                for (int i = 0; i < ids.size(); i++) {
+                    indexWriter.updateDocument(new Term(ID_FIELD, ids.get(i)), documents.get(i));
+                }
+            } else {
+                // the ids were just generated, there is nothing to replace
+                indexWriter.addDocuments(documents);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        refresh();
+    }
+
+    @Override
+    public void removeAll(Collection<String> ids) {
+        ensureNotEmpty(ids, "ids");
+        try {
+            indexWriter.deleteDocuments(ids.stream().map(id -> new Term(ID_FIELD, id)).toArray(Term[]::new));
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        refresh();
+    }
+
+    @Override
+    public void removeAll(Filter filter) {
+        ensureNotNull(filter, "filter");
+        try {
+            indexWriter.deleteDocuments(LuceneFilterMapper.map(filter));
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        refresh();
+    }
+
+    @Override
+    public void removeAll() {
+        try {
+            indexWriter.deleteAll();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        refresh();
+    }
+
+    @Override
+    public EmbeddingSearchResult<TextSegment> search(EmbeddingSearchRequest request) {
+        Embedding referenceEmbedding = request.queryEmbedding();
+        KnnFloatVectorQuery query = new KnnFloatVectorQuery(
+                EMBEDDING_FIELD, referenceEmbedding.vector(), request.maxResults(),
+                LuceneFilterMapper.map(request.filter()));
+
+        List<EmbeddingMatch<TextSegment>> matches = new ArrayList<>();
+        try {
+            IndexSearcher searcher = searcherManager.acquire();
+            try {
+                TopDocs topDocs = searcher.search(query, request.maxResults());
+                StoredFields storedFields = searcher.storedFields();
+                for (ScoreDoc scoreDoc : topDocs.scoreDocs) {
+                    Embedding embedding = readEmbedding(searcher, scoreDoc.doc);
+                    // computed again from the vectors rather than taken from the float score of Lucene,
+                    // to be consistent with the other stores
+                    double score = RelevanceScore.fromCosineSimilarity(
+                            CosineSimilarity.between(embedding, referenceEmbedding));
+                    if (score < request.minScore()) {
+                        continue;
+                    }
+                    Document document = storedFields.document(scoreDoc.doc);
+                    matches.add(new EmbeddingMatch<>(
+                            score, document.get(ID_FIELD), embedding, toTextSegment(document)));
+                }
+            } finally {
+                searcherManager.release(searcher);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        return new EmbeddingSearchResult<>(matches);
+    }
+
+    /**
+     * Makes all the writes so far durable.
+     */
+    public void commit() {
+        try {
+            indexWriter.commit();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Commits the writes so far and releases the index.
+     */
+    @Override
+    public void close() {
+        try {
+            if (reopenThread != null) {
+                reopenThread.close();
+            }
+            searcherManager.close();
+            indexWriter.close();
+            if (closeDirectory) {
+                directory.close();
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private void refresh() {
+        if (reopenThread != null) {
+            // the reopen thread makes the writes visible within the refresh interval
+            return;
+        }
+        try {
+            searcherManager.maybeRefreshBlocking();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static Document toDocument(String id, Embedding embedding, TextSegment textSegment) {
+        Document document = new Document();
+        document.add(new StringField(ID_FIELD, id, Field.Store.YES));
+        document.add(new KnnFloatVectorField(EMBEDDING_FIELD, embedding.vector(), VectorSimilarityFunction.COSINE));
+        if (textSegment != null) {
+            document.add(new StoredField(TEXT_FIELD, textSegment.text()));
+            textSegment.metadata().toMap().forEach((key, value) -> addMetadata(document, key, value));
+        }
+        return document;
+    }
+
+    private static void addMetadata(Document document, String key, Object value) {
+        if (value instanceof String string) {
+            document.add(new StringField(KEYWORD_PREFIX + key, string, Field.Store.NO));
+            document.add(new StoredField(VALUE_PREFIX + key, string));
+        } else if (value instanceof UUID uuid) {
+            document.add(new StringField(KEYWORD_PREFIX + key, LuceneFilterMapper.keyword(uuid), Field.Store.NO));
+            document.add(new StoredField(UUID_PREFIX + key, uuid.toString()));
+        } else if (value instanceof Integer integer) {
+            document.add(new LongPoint(LONG_PREFIX + key, integer));
+            document.add(new StoredField(VALUE_PREFIX + key, integer));
+        } else if (value instanceof Long longValue) {
+            document.add(new LongPoint(LONG_PREFIX + key, longValue));
+            document.add(new StoredField(VALUE_PREFIX + key, longValue));
+        } else if (value instanceof Float floatValue) {
+            document.add(new DoublePoint(DOUBLE_PREFIX + key, LuceneFilterMapper.toDouble(floatValue)));
+            document.add(new StoredField(VALUE_PREFIX + key, floatValue));
+        } else if (value instanceof Double doubleValue) {
+            document.add(new DoublePoint(DOUBLE_PREFIX + key, doubleValue));
+            document.add(new StoredField(VALUE_PREFIX + key, doubleValue));
+        } else {
+            throw new IllegalArgumentException("Unsupported metadata value type: " + value.getClass().getName());
+        }
+    }
+
+    private static TextSegment toTextSegment(Document document) {
+        String text = document.get(TEXT_FIELD);
+        if (text == null) {
+            return null;
+        }
+        Map<String, Object> metadata = new HashMap<>();
+        for (IndexableField field : document.getFields()) {
+            String name = field.name();
+            if (name.startsWith(VALUE_PREFIX)) {
+                Object value = field.numericValue() != null ? field.numericValue() : field.stringValue();
+                metadata.put(name.substring(VALUE_PREFIX.length()), value);
+            } else if (name.startsWith(UUID_PREFIX)) {
+                metadata.put(name.substring(UUID_PREFIX.length()), UUID.fromString(field.stringValue()));
+            }
+        }
+        return TextSegment.from(text, new Metadata(metadata));
+    }
+
+    private static Embedding readEmbedding(IndexSearcher searcher, int doc) throws IOException {
+        List<LeafReaderContext> leaves = searcher.getIndexReader().leaves();
+        LeafReaderContext leaf = leaves.get(ReaderUtil.subIndex(doc, leaves));
+        FloatVectorValues vectorValues = leaf.reader().getFloatVectorValues(EMBEDDING_FIELD);
+        vectorValues.advance(doc - leaf.docBase);
+        // the array returned by vectorValue() is reused by the next call
+        return Embedding.from(vectorValues.vectorValue().clone());
+    }
+
+    /**
+     * Delegates to the HNSW vectors format, allowing up to {@link #MAX_DIMENSIONS} dimensions.
+     * It uses the name of the delegate, so that the index is read back by the delegate itself.
+     */
+    private static class HighDimensionalVectorsFormat extends KnnVectorsFormat {
+
+        private final KnnVectorsFormat delegate;
+
+        HighDimensionalVectorsFormat(KnnVectorsFormat delegate) {
+            super(delegate.getName());
+            this.delegate = delegate;
+        }
+
+        @Override
+        public KnnVectorsWriter fieldsWriter(SegmentWriteState state) throws IOException {
+            return delegate.fieldsWriter(state);
+        }
+
+        @Override
+        public KnnVectorsReader fieldsReader(SegmentReadState state) throws IOException {
+            return delegate.fieldsReader(state);
+        }
+
+        @Override
+        public int getMaxDimensions(String fieldName) {
+            return MAX_DIMENSIONS;
+        }
+
+        @Override
+        public String toString() {
+            return delegate.toString();
+        }
+    }
+
+    public static class Builder {
+
+        private Directory directory;
+        private boolean closeDirectory;
+        private Integer maxConnections;
+        private Integer beamWidth;
+        private Double ramBufferSizeMb;
+        private Duration refreshInterval;
+
+        /**
+         * @param path The directory of the index, opened with {@link FSDirectory#open(Path)}
+         *             and closed by {@link LuceneEmbeddingStore#close()}.
+         *             If it already contains an index, it is opened.
+         * @return builder
+         */
+        public Builder directory(Path path) {
+            try {
+                this.directory = FSDirectory.open(ensureNotNull(path, "path"));
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+            this.closeDirectory = true;
+            return this;
+        }
+
+        /**
+         * @param directory The directory of the index. It is not closed by {@link LuceneEmbeddingStore#close()}.
+         *                  If it already contains an index, it is opened.
+         * @return builder
+         */
+        public Builder directory(Directory directory) {
+            this.directory = directory;
+            this.closeDirectory = false;
+            return this;
+        }
+
+        /**
+         * @param maxConnections The maximum number of connections of a node in the HNSW graph.
+         *                       Higher values improve recall at the cost of memory and indexing time.
+         *                       Default: {@value Lucene99HnswVectorsFormat#DEFAULT_MAX_CONN}.
+         * @return builder
+         */
+        public Builder maxConnections(Integer maxConnections) {
+            this.maxConnections = maxConnections;
+            return this;
+        }
+
+        /**
+         * @param beamWidth The number of candidates considered when inserting a node into the HNSW graph.
+         *                  Higher values improve recall at the cost of indexing time.
+         *                  Default: {@value Lucene99HnswVectorsFormat#DEFAULT_BEAM_WIDTH}.
+         * @return builder
+         */
+        public Builder beamWidth(Integer beamWidth) {
+            this.beamWidth = beamWidth;
+            return this;
+        }
+
+        /**
+         * @param ramBufferSizeMb The amount of memory the index writer buffers documents in before flushing
+         *                        a segment. Larger buffers produce fewer, larger segments when adding in bulk.
+         *                        Default: {@value IndexWriterConfig#DEFAULT_RAM_BUFFER_SIZE_MB}.
+         * @return builder
+         */
+        public Builder ramBufferSizeMb(Double ramBufferSizeMb) {
+            this.ramBufferSizeMb = ramBufferSizeMb;
+            return this;
+        }
+
+        /**
+         * @param refreshInterval How often searches are refreshed to see the latest writes.
+         *                        By default, searches see the writes as soon as they complete, which makes each
+         *                        write more expensive. When set, writes become visible within this interval.
+         * @return builder
+         */
+        public Builder refreshInterval(Duration refreshInterval) {
+            this.refreshInterval = refreshInterval;
+            return this;
+        }
+
+        public LuceneEmbeddingStore build() {
+            return new LuceneEmbeddingStore(
+                    directory, closeDirectory, maxConnections, beamWidth, ramBufferSizeMb, refreshInterval);
+        }
+    }
+}
@@ -0,0 +1,239 @@
+package dev.langchain4j.store.embedding.lucene;
+
+import dev.langchain4j.store.embedding.filter.Filter;
+import dev.langchain4j.store.embedding.filter.comparison.ContainsString;
+import dev.langchain4j.store.embedding.filter.comparison.IsEqualTo;
+import dev.langchain4j.store.embedding.filter.comparison.IsGreaterThan;
+import dev.langchain4j.store.embedding.filter.comparison.IsGreaterThanOrEqualTo;
+import dev.langchain4j.store.embedding.filter.comparison.IsIn;
+import dev.langchain4j.store.embedding.filter.comparison.IsLessThan;
+import dev.langchain4j.store.embedding.filter.comparison.IsLessThanOrEqualTo;
+import dev.langchain4j.store.embedding.filter.comparison.IsNotEqualTo;
+import dev.langchain4j.store.embedding.filter.comparison.IsNotIn;
+import dev.langchain4j.store.embedding.filter.logical.And;
+import dev.langchain4j.store.embedding.filter.logical.Not;
+import dev.langchain4j.store.embedding.filter.logical.Or;
+import org.apache.lucene.document.DoublePoint;
+import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause.Occur;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.MatchNoDocsQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.TermInSetQuery;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TermRangeQuery;
+import org.apache.lucene.search.WildcardQuery;
+import org.apache.lucene.util.BytesRef;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+import static dev.langchain4j.store.embedding.lucene.LuceneEmbeddingStore.DOUBLE_PREFIX;
+import static dev.langchain4j.store.embedding.lucene.LuceneEmbeddingStore.KEYWORD_PREFIX;
+import static dev.langchain4j.store.embedding.lucene.LuceneEmbeddingStore.LONG_PREFIX;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Translates a {@link Filter} into a Lucene {@link Query} over the metadata fields
+ * written by {@link LuceneEmbeddingStore}.
+ * <p>
+ * Strings and UUIDs are matched against the keyword field of the key.
+ * Numbers are matched against both numeric fields of the key, so that, like with the other stores,
+ * a value stored as an {@code Integer} matches a {@code Double} comparison value and vice versa.
+ * Entries that do not have the key match {@link IsNotEqualTo}, {@link IsNotIn} and {@link Not}
+ * of any other filter, consistently with {@link Filter#test(Object)}.
+ */
+class LuceneFilterMapper {
+
+    LuceneFilterMapper() {
+        // no instance possible
+    }
+
+    static Query map(Filter filter) {
+        if (filter == null) {
+            return null;
+        } else if (filter instanceof IsEqualTo isEqualTo) {
+            return mapEqual(isEqualTo.key(), isEqualTo.comparisonValue());
+        } else if (filter instanceof IsNotEqualTo isNotEqualTo) {
+            return not(mapEqual(isNotEqualTo.key(), isNotEqualTo.comparisonValue()));
+        } else if (filter instanceof IsGreaterThan isGreaterThan) {
+            return mapRange(isGreaterThan.key(), isGreaterThan.comparisonValue(), false, null, false);
+        } else if (filter instanceof IsGreaterThanOrEqualTo isGreaterThanOrEqualTo) {
+            return mapRange(isGreaterThanOrEqualTo.key(), isGreaterThanOrEqualTo.comparisonValue(), true, null, false);
+        } else if (filter instanceof IsLessThan isLessThan) {
+            return mapRange(isLessThan.key(), null, false, isLessThan.comparisonValue(), false);
+        } else if (filter instanceof IsLessThanOrEqualTo isLessThanOrEqualTo) {
+            return mapRange(isLessThanOrEqualTo.key(), null, false, isLessThanOrEqualTo.comparisonValue(), true);
+        } else if (filter instanceof IsIn isIn) {
+            return mapIn(isIn.key(), isIn.comparisonValues());
+        } else if (filter instanceof IsNotIn isNotIn) {
+            return not(mapIn(isNotIn.key(), isNotIn.comparisonValues()));
+        } else if (filter instanceof ContainsString containsString) {
+            return mapContains(containsString);
+        } else if (filter instanceof And and) {
+            return new BooleanQuery.Builder()
+                    .add(map(and.left()), Occur.FILTER)
+                    .add(map(and.right()), Occur.FILTER)
+                    .build();
+        } else if (filter instanceof Or or) {
+            return new BooleanQuery.Builder()
+                    .add(map(or.left()), Occur.SHOULD)
+                    .add(map(or.right()), Occur.SHOULD)
+                    .setMinimumNumberShouldMatch(1)
+                    .build();
+        } else if (filter instanceof Not not) {
+            return not(map(not.expression()));
+        } else {
+            throw new UnsupportedOperationException("Unsupported filter type: " + filter.getClass().getName());
+        }
+    }
+
+    private static Query mapEqual(String key, Object comparisonValue) {
+        if (comparisonValue instanceof Number number) {
+            return numberRange(key, number, true, number, true);
+        }
+        return new TermQuery(new Term(KEYWORD_PREFIX + key, keyword(comparisonValue)));
+    }
+
+    private static Query mapIn(String key, Collection<?> comparisonValues) {
+        if (comparisonValues.iterator().next() instanceof Number) {
+            BooleanQuery.Builder builder = new BooleanQuery.Builder().setMinimumNumberShouldMatch(1);
+            List<Long> longs = comparisonValues.stream()
+                    .map(LuceneFilterMapper::exactLong)
+                    .filter(value -> value != null)
+                    .collect(toList());
+            if (!longs.isEmpty()) {
+                builder.add(LongPoint.newSetQuery(LONG_PREFIX + key, longs), Occur.SHOULD);
+            }
+            double[] doubles = comparisonValues.stream()
+                    .mapToDouble(value -> toDouble((Number) value))
+                    .toArray();
+            builder.add(DoublePoint.newSetQuery(DOUBLE_PREFIX + key, doubles), Occur.SHOULD);
+            return builder.build();
+        }
+        List<BytesRef> terms = comparisonValues.stream()
+                .map(value -> new BytesRef(keyword(value)))
+                .collect(toList());
+        return new TermInSetQuery(KEYWORD_PREFIX + key, terms);
+    }
+
+    private static Query mapRange(String key,
+                                  Object lower, boolean lowerInclusive,
+                                  Object upper, boolean upperInclusive) {
+        Object comparisonValue = lower != null ? lower : upper;
+        if (comparisonValue instanceof Number) {
+            return numberRange(key, (Number) lower, lowerInclusive, (Number) upper, upperInclusive);
+        }
+        if (comparisonValue instanceof UUID) {
+            throw new UnsupportedOperationException("Range filters on UUID values are not supported, key: " + key);
+        }
+        return TermRangeQuery.newStringRange(
+                KEYWORD_PREFIX + key,
+                lower == null ? null : keyword(lower),
+                upper == null ? null : keyword(upper),
+                lowerInclusive,
+                upperInclusive);
+    }
+
+    private static Query mapContains(ContainsString filter) {
+        StringBuilder pattern = new StringBuilder("*");
+        for (char c : filter.comparisonValue().toCharArray()) {
+            if (c == WildcardQuery.WILDCARD_STRING
+                    || c == WildcardQuery.WILDCARD_CHAR
+                    || c == WildcardQuery.WILDCARD_ESCAPE) {
+                pattern.append(WildcardQuery.WILDCARD_ESCAPE);
+            }
+            pattern.append(c);
+        }
+        pattern.append('*');
+        return new WildcardQuery(new Term(KEYWORD_PREFIX + filter.key(), pattern.toString()));
+    }
+
+    /**
+     * Matches the values of the key within the given bounds, whether they were stored
+     * as integral ({@code Integer}, {@code Long}) or floating point ({@code Float}, {@code Double}) numbers.
+     * A {@code null} bound is unbounded.
+     */
+    private static Query numberRange(String key,
+                                     Number lower, boolean lowerInclusive,
+                                     Number upper, boolean upperInclusive) {
+        long longLower = Long.MIN_VALUE;
+        long longUpper = Long.MAX_VALUE;
+        double doubleLower = Double.NEGATIVE_INFINITY;
+        double doubleUpper = Double.POSITIVE_INFINITY;
+        if (lower != null) {
+            BigDecimal decimal = toBigDecimal(lower);
+            BigDecimal ceiling = decimal.setScale(0, RoundingMode.CEILING);
+            if (!lowerInclusive && ceiling.compareTo(decimal) == 0) {
+                ceiling = ceiling.add(BigDecimal.ONE);
+            }
+            longLower = clamp(ceiling);
+            doubleLower = lowerInclusive ? toDouble(lower) : Math.nextUp(toDouble(lower));
+        }
+        if (upper != null) {
+            BigDecimal decimal = toBigDecimal(upper);
+            BigDecimal floor = decimal.setScale(0, RoundingMode.FLOOR);
+            if (!upperInclusive && floor.compareTo(decimal) == 0) {
+                floor = floor.subtract(BigDecimal.ONE);
+            }
+            longUpper = clamp(floor);
+            doubleUpper = upperInclusive ? toDouble(upper) : Math.nextDown(toDouble(upper));
+        }
+
+        BooleanQuery.Builder builder = new BooleanQuery.Builder().setMinimumNumberShouldMatch(1);
+        if (longLower <= longUpper) {
+            builder.add(LongPoint.newRangeQuery(LONG_PREFIX + key, longLower, longUpper), Occur.SHOULD);
+        }
+        if (doubleLower <= doubleUpper) {
+            builder.add(DoublePoint.newRangeQuery(DOUBLE_PREFIX + key, doubleLower, doubleUpper), Occur.SHOULD);
+        }
+        BooleanQuery query = builder.build();
+        return query.clauses().isEmpty() ? new MatchNoDocsQuery() : query;
+    }
+
+    private static Query not(Query query) {
+        return new BooleanQuery.Builder()
+                .add(new MatchAllDocsQuery(), Occur.FILTER)
+                .add(query, Occur.MUST_NOT)
+                .build();
+    }
+
+    static String keyword(Object value) {
+        return value.toString();
+    }
+
+    /**
+     * Converts a number the same way {@code Filter.test()} does before comparing it,
+     * i.e. a {@code Float} is converted from its decimal representation rather than widened.
+     */
+    static double toDouble(Number number) {
+        return toBigDecimal(number).doubleValue();
+    }
+
+    private static BigDecimal toBigDecimal(Number number) {
+        return new BigDecimal(number.toString());
+    }
+
+    private static Long exactLong(Object number) {
+        BigDecimal decimal = toBigDecimal((Number) number);
+        try {
+            return decimal.longValueExact();
+        } catch (ArithmeticException e) {
+            return null;
+        }
+    }
+
+    private static long clamp(BigDecimal value) {
+        if (value.compareTo(BigDecimal.valueOf(Long.MAX_VALUE)) > 0) {
+            return Long.MAX_VALUE;
+        } else if (value.compareTo(BigDecimal.valueOf(Long.MIN_VALUE)) < 0) {
+            return Long.MIN_VALUE;
+        }
+        return value.longValueExact();
+    }
+}
@@ -0,0 +1,134 @@
+package dev.langchain4j.store.embedding.lucene;
+
+import dev.langchain4j.data.document.Metadata;
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.store.embedding.EmbeddingMatch;
+import dev.langchain4j.store.embedding.EmbeddingSearchRequest;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import static dev.langchain4j.store.embedding.filter.MetadataFilterBuilder.metadataKey;
+import static java.util.Collections.singletonList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.offset;
+import static org.awaitility.Awaitility.await;
+
+class LuceneEmbeddingStorePersistenceTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void should_reopen_persisted_index() {
+
+        // given
+        UUID uuid = UUID.randomUUID();
+        TextSegment segment = TextSegment.from("hello", Metadata.from("key", "value")
+                .put("uuid", uuid)
+                .put("count", 3));
+        String id;
+        try (LuceneEmbeddingStore store = LuceneEmbeddingStore.builder().directory(directory).build()) {
+            id = store.add(Embedding.from(new float[]{1, 2, 3}), segment);
+        }
+
+        // when
+        try (LuceneEmbeddingStore store = LuceneEmbeddingStore.builder().directory(directory).build()) {
+            List<EmbeddingMatch<TextSegment>> matches = store.search(EmbeddingSearchRequest.builder()
+                    .queryEmbedding(Embedding.from(new float[]{1, 2, 3}))
+                    .filter(metadataKey("count").isGreaterThan(2.5))
+                    .build()).matches();
+
+            // then
+            assertThat(matches).hasSize(1);
+            assertThat(matches.get(0).embeddingId()).isEqualTo(id);
+            assertThat(matches.get(0).embedding().vector()).containsExactly(1, 2, 3);
+            assertThat(matches.get(0).embedded()).isEqualTo(segment);
+            assertThat(matches.get(0).embedded().metadata().getUUID("uuid")).isEqualTo(uuid);
+        }
+    }
+
+    @Test
+    void should_replace_entry_with_same_id() {
+
+        try (LuceneEmbeddingStore store = LuceneEmbeddingStore.builder()
+                .directory(new ByteBuffersDirectory())
+                .build()) {
+
+            // given
+            store.addAll(singletonList("1"), singletonList(Embedding.from(new float[]{1, 0})),
+                    singletonList(TextSegment.from("first")));
+
+            // when
+            store.addAll(singletonList("1"), singletonList(Embedding.from(new float[]{0, 1})),
+                    singletonList(TextSegment.from("second")));
+
+            // then
+            List<EmbeddingMatch<TextSegment>> matches = search(store, new float[]{1, 0}, 10);
+            assertThat(matches).hasSize(1);
+            assertThat(matches.get(0).embedded().text()).isEqualTo("second");
+        }
+    }
+
+    @Test
+    void should_make_writes_visible_within_refresh_interval() {
+
+        try (LuceneEmbeddingStore store = LuceneEmbeddingStore.builder()
+                .directory(new ByteBuffersDirectory())
+                .refreshInterval(Duration.ofMillis(50))
+                .build()) {
+
+            // when
+            store.add(Embedding.from(new float[]{1, 0}));
+
+            // then
+            await().atMost(Duration.ofSeconds(5))
+                    .untilAsserted(() -> assertThat(search(store, new float[]{1, 0}, 1)).hasSize(1));
+        }
+    }
+
+    @Test
+    void should_support_more_than_1024_dimensions() {
+
+        try (LuceneEmbeddingStore store = LuceneEmbeddingStore.builder()
+                .directory(directory)
+                .maxConnections(8)
+                .beamWidth(50)
+                .ramBufferSizeMb(1.0)
+                .build()) {
+
+            // given
+            Random random = new Random(42);
+            float[][] vectors = new float[200][1536];
+            for (float[] vector : vectors) {
+                for (int i = 0; i < vector.length; i++) {
+                    vector[i] = (float) random.nextGaussian();
+                }
+                store.add(Embedding.from(vector));
+            }
+
+            // when
+            List<EmbeddingMatch<TextSegment>> matches = search(store, vectors[17], 1);
+
+            // then
+            assertThat(matches.get(0).embedding().vector()).containsExactly(vectors[17]);
+            assertThat(matches.get(0).score()).isCloseTo(1.0, offset(1e-6));
+        }
+    }
+
+    private static List<EmbeddingMatch<TextSegment>> search(LuceneEmbeddingStore store,
+                                                            float[] vector,
+                                                            int maxResults) {
+        return store.search(EmbeddingSearchRequest.builder()
+                .queryEmbedding(Embedding.from(vector))
+                .maxResults(maxResults)
+                .build()).matches();
+    }
+}
@@ -68,12 +68,30 @@ class Mapper {
                                                                 FieldDefinition fieldDefinition,
                                                                 ConsistencyLevelEnum consistencyLevel,
                                                                 boolean queryForVectorOnSearch) {
+        return toEmbeddingMatches(milvusClient, resultsWrapper, 0, collectionName, fieldDefinition, consistencyLevel, queryForVectorOnSearch);
+    }
+
+    /**
+     * Maps the hits of the query vector at {@code queryIndex} of a (possibly multi-vector) search.
+     */
+    static List<EmbeddingMatch<TextSegment>> toEmbeddingMatches(MilvusServiceClient milvusClient,
+                                                                SearchResultsWrapper resultsWrapper,
+                                                                int queryIndex,
+                                                                String collectionName,
+                                                                FieldDefinition fieldDefinition,
+                                                                ConsistencyLevelEnum consistencyLevel,
+                                                                boolean queryForVectorOnSearch) {
         List<EmbeddingMatch<TextSegment>> matches = new ArrayList<>();
 
+        List<RowRecord> rowRecords = resultsWrapper.getRowRecords(queryIndex);
+        List<SearchResultsWrapper.IDScore> idScores = resultsWrapper.getIDScore(queryIndex);
+
         Map<String, Embedding> idToEmbedding = new HashMap<>();
-        if (queryForVectorOnSearch && !resultsWrapper.getRowRecords().isEmpty()) {
+        if (queryForVectorOnSearch && !rowRecords.isEmpty()) {
             try {
-                List<String> rowIds = (List<String>) resultsWrapper.getFieldWrapper(fieldDefinition.getIdFieldName()).getFieldData();
+                List<String> rowIds = idScores.stream()
+                        .map(SearchResultsWrapper.IDScore::getStrID)
+                        .collect(toList());
                 idToEmbedding.putAll(queryEmbeddings(milvusClient, collectionName, fieldDefinition, rowIds, consistencyLevel));
             } catch (ParamException e) {
                 // There is no way to check if the result is empty or not.
@@ -81,11 +99,11 @@ class Mapper {
             }
         }
 
-        for (int i = 0; i < resultsWrapper.getRowRecords().size(); i++) {
-            double score = resultsWrapper.getIDScore(0).get(i).getScore();
-            String rowId = resultsWrapper.getIDScore(0).get(i).getStrID();
+        for (int i = 0; i < rowRecords.size(); i++) {
+            double score = idScores.get(i).getScore();
+            String rowId = idScores.get(i).getStrID();
             Embedding embedding = idToEmbedding.get(rowId);
-            TextSegment textSegment = toTextSegment(resultsWrapper.getRowRecords().get(i), fieldDefinition);
+            TextSegment textSegment = toTextSegment(rowRecords.get(i), fieldDefinition);
             EmbeddingMatch<TextSegment> embeddingMatch = new EmbeddingMatch<>(
                     RelevanceScore.fromCosineSimilarity(score),
                     rowId,
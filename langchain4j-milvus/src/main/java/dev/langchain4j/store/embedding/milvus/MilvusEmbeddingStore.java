@@ -20,7 +20,10 @@ import io.milvus.response.SearchResultsWrapper;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import static dev.langchain4j.internal.Utils.getOrDefault;
 import static dev.langchain4j.internal.Utils.isNullOrEmpty;
@@ -33,6 +36,7 @@ import static dev.langchain4j.store.embedding.milvus.CollectionOperationsExecuto
 import static dev.langchain4j.store.embedding.milvus.CollectionOperationsExecutor.insert;
 import static dev.langchain4j.store.embedding.milvus.CollectionOperationsExecutor.loadCollectionInMemory;
 import static dev.langchain4j.store.embedding.milvus.CollectionOperationsExecutor.removeForVector;
+import static dev.langchain4j.store.embedding.milvus.CollectionRequestBuilder.buildBatchSearchRequest;
 import static dev.langchain4j.store.embedding.milvus.CollectionRequestBuilder.buildSearchRequest;
 import static dev.langchain4j.store.embedding.milvus.Generator.generateRandomIds;
 import static dev.langchain4j.store.embedding.milvus.Mapper.toEmbeddingMatches;
@@ -221,6 +225,64 @@ public class MilvusEmbeddingStore implements EmbeddingStore<TextSegment> {
         return new EmbeddingSearchResult<>(result);
     }
 
+    /**
+     * Sends requests that share a filter to Milvus as a single multi-vector search,
+     * so a batch costs one round trip per distinct filter instead of one per request.
+     */
+    @Override
+    public List<EmbeddingSearchResult<TextSegment>> searchAll(List<EmbeddingSearchRequest> requests) {
+        ensureNotNull(requests, "requests");
+
+        Map<String, List<Integer>> requestIndicesByFilter = new LinkedHashMap<>();
+        for (int i = 0; i < requests.size(); i++) {
+            Filter filter = requests.get(i).filter();
+            String filterExpression = filter == null ? "" : map(filter, fieldDefinition.getMetadataFieldName());
+            requestIndicesByFilter.computeIfAbsent(filterExpression, ignored -> new ArrayList<>()).add(i);
+        }
+
+        List<EmbeddingSearchResult<TextSegment>> results = new ArrayList<>(Collections.nCopies(requests.size(), null));
+        for (List<Integer> requestIndices : requestIndicesByFilter.values()) {
+            List<List<Float>> vectors = new ArrayList<>(requestIndices.size());
+            int maxResults = 0;
+            for (int requestIndex : requestIndices) {
+                EmbeddingSearchRequest request = requests.get(requestIndex);
+                vectors.add(request.queryEmbedding().vectorAsList());
+                maxResults = Math.max(maxResults, request.maxResults());
+            }
+
+            SearchParam searchParam = buildBatchSearchRequest(
+                    collectionName,
+                    fieldDefinition,
+                    vectors,
+                    requests.get(requestIndices.get(0)).filter(),
+                    maxResults,
+                    metricType,
+                    consistencyLevel
+            );
+
+            SearchResultsWrapper resultsWrapper = CollectionOperationsExecutor.search(milvusClient, searchParam);
+
+            for (int queryIndex = 0; queryIndex < requestIndices.size(); queryIndex++) {
+                EmbeddingSearchRequest request = requests.get(requestIndices.get(queryIndex));
+                List<EmbeddingMatch<TextSegment>> matches = toEmbeddingMatches(
+                        milvusClient,
+                        resultsWrapper,
+                        queryIndex,
+                        collectionName,
+                        fieldDefinition,
+                        consistencyLevel,
+                        retrieveEmbeddingsOnSearch
+                );
+                List<EmbeddingMatch<TextSegment>> result = matches.stream()
+                        .filter(match -> match.score() >= request.minScore())
+                        .limit(request.maxResults())
+                        .collect(toList());
+                results.set(requestIndices.get(queryIndex), new EmbeddingSearchResult<>(result));
+            }
+        }
+        return results;
+    }
+
     private void addInternal(String id, Embedding embedding, TextSegment textSegment) {
         addAll(
                 singletonList(id),
@@ -6,12 +6,14 @@ import static io.milvus.common.clientenum.ConsistencyLevelEnum.STRONG;
 import static java.util.Arrays.asList;
 import static org.assertj.core.api.Assertions.assertThat;
 
+import dev.langchain4j.data.document.Metadata;
 import dev.langchain4j.data.embedding.Embedding;
 import dev.langchain4j.data.segment.TextSegment;
 import dev.langchain4j.model.embedding.EmbeddingModel;
 import dev.langchain4j.model.embedding.onnx.allminilml6v2q.AllMiniLmL6V2QuantizedEmbeddingModel;
 import dev.langchain4j.store.embedding.EmbeddingMatch;
 import dev.langchain4j.store.embedding.EmbeddingSearchRequest;
+import dev.langchain4j.store.embedding.EmbeddingSearchResult;
 import dev.langchain4j.store.embedding.EmbeddingStore;
 import dev.langchain4j.store.embedding.EmbeddingStoreWithFilteringIT;
 import dev.langchain4j.store.embedding.filter.Filter;
@@ -157,4 +159,53 @@ class MilvusEmbeddingStoreIT extends EmbeddingStoreWithFilteringIT {
 
         embeddingStore().search(searchRequest);
     }
+
+    @Test
+    void should_search_all_in_one_multi_vector_search_per_filter() {
+
+        // given
+        List<TextSegment> segments = asList(
+                TextSegment.from("The cat sleeps on the sofa", Metadata.from("animal", "yes")),
+                TextSegment.from("The dog barks at the mailman", Metadata.from("animal", "yes")),
+                TextSegment.from("The car needs new tyres", Metadata.from("animal", "no")));
+        List<Embedding> embeddings = embeddingModel().embedAll(segments).content();
+        embeddingStore().addAll(embeddings, segments);
+        awaitUntilAsserted(() -> assertThat(getAllEmbeddings()).hasSize(segments.size()));
+
+        Filter animals = metadataKey("animal").isEqualTo("yes");
+        List<EmbeddingSearchRequest> requests = asList(
+                EmbeddingSearchRequest.builder()
+                        .queryEmbedding(embeddings.get(0))
+                        .maxResults(1)
+                        .build(),
+                EmbeddingSearchRequest.builder()
+                        .queryEmbedding(embeddings.get(2))
+                        .maxResults(3)
+                        .build(),
+                EmbeddingSearchRequest.builder()
+                        .queryEmbedding(embeddings.get(2))
+                        .maxResults(3)
+                        .filter(animals)
+                        .build(),
+                EmbeddingSearchRequest.builder()
+                        .queryEmbedding(embeddings.get(1))
+                        .maxResults(1)
+                        .filter(animals)
+                        .build());
+
+        // when
+        List<EmbeddingSearchResult<TextSegment>> results = embeddingStore().searchAll(requests);
+
+        // then
+        assertThat(results).hasSize(requests.size());
+        assertThat(results.get(0).matches()).hasSize(1);
+        assertThat(results.get(1).matches()).hasSize(3);
+        assertThat(results.get(2).matches()).hasSize(2);
+        assertThat(results.get(3).matches()).hasSize(1);
+        assertThat(results.get(0).matches().get(0).embedded()).isEqualTo(segments.get(0));
+        assertThat(results.get(3).matches().get(0).embedded()).isEqualTo(segments.get(1));
+        for (int i = 0; i < requests.size(); i++) {
+            assertThat(results.get(i).matches()).isEqualTo(embeddingStore().search(requests.get(i)).matches());
+        }
+    }
 }
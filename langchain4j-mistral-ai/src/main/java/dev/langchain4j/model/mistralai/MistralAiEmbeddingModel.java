@@ -1,8 +1,12 @@
 package dev.langchain4j.model.mistralai;
 
+import static dev.langchain4j.internal.EmbeddingBatchUtils.embedBatches;
+import static dev.langchain4j.internal.EmbeddingBatchUtils.partition;
 import static dev.langchain4j.internal.RetryUtils.withRetryMappingExceptions;
 import static dev.langchain4j.internal.Utils.getOrDefault;
+import static dev.langchain4j.internal.ValidationUtils.ensureGreaterThanZero;
 import static dev.langchain4j.internal.ValidationUtils.ensureNotBlank;
+import static dev.langchain4j.internal.ValidationUtils.ensureNotNull;
 import static dev.langchain4j.model.mistralai.internal.mapper.MistralAiMapper.tokenUsageFrom;
 import static dev.langchain4j.spi.ServiceHelper.loadFactories;
 import static java.util.stream.Collectors.toList;
@@ -10,6 +14,7 @@ import static java.util.stream.Collectors.toList;
 import dev.langchain4j.data.embedding.Embedding;
 import dev.langchain4j.data.segment.TextSegment;
 import dev.langchain4j.http.client.HttpClientBuilder;
+import dev.langchain4j.model.TokenCountEstimator;
 import dev.langchain4j.model.embedding.DimensionAwareEmbeddingModel;
 import dev.langchain4j.model.mistralai.internal.api.MistralAiEmbeddingRequest;
 import dev.langchain4j.model.mistralai.internal.api.MistralAiEmbeddingResponse;
@@ -30,6 +35,9 @@ public class MistralAiEmbeddingModel extends DimensionAwareEmbeddingModel {
     private final MistralAiClient client;
     private final String modelName;
     private final Integer maxRetries;
+    private final Integer maxSegmentsPerBatch;
+    private final Integer maxTokensPerBatch;
+    private final TokenCountEstimator tokenCountEstimator;
 
     public MistralAiEmbeddingModel(MistralAiEmbeddingModelBuilder builder) {
         this.client = MistralAiClient.builder()
@@ -42,6 +50,13 @@ public class MistralAiEmbeddingModel extends DimensionAwareEmbeddingModel {
                 .build();
         this.modelName = ensureNotBlank(builder.modelName, "modelName");
         this.maxRetries = getOrDefault(builder.maxRetries, 2);
+        this.maxSegmentsPerBatch = builder.maxSegmentsPerBatch == null
+                ? null
+                : ensureGreaterThanZero(builder.maxSegmentsPerBatch, "maxSegmentsPerBatch");
+        this.maxTokensPerBatch = builder.maxTokensPerBatch;
+        this.tokenCountEstimator = builder.maxTokensPerBatch == null
+                ? null
+                : ensureNotNull(builder.tokenCountEstimator, "tokenCountEstimator");
     }
 
     /**
@@ -67,6 +82,9 @@ public class MistralAiEmbeddingModel extends DimensionAwareEmbeddingModel {
                 .build();
         this.modelName = ensureNotBlank(modelName, "modelName");
         this.maxRetries = getOrDefault(maxRetries, 2);
+        this.maxSegmentsPerBatch = null;
+        this.maxTokensPerBatch = null;
+        this.tokenCountEstimator = null;
     }
 
     /**
@@ -93,6 +111,14 @@ public class MistralAiEmbeddingModel extends DimensionAwareEmbeddingModel {
     @Override
     public Response<List<Embedding>> embedAll(List<TextSegment> textSegments) {
 
+        int maxSegments = maxSegmentsPerBatch == null ? Math.max(textSegments.size(), 1) : maxSegmentsPerBatch;
+        List<List<TextSegment>> batches = partition(textSegments, maxSegments, maxTokensPerBatch, tokenCountEstimator);
+
+        return embedBatches(batches, 1, null, this::embedBatch);
+    }
+
+    private Response<List<Embedding>> embedBatch(List<TextSegment> textSegments) {
+
         MistralAiEmbeddingRequest request = MistralAiEmbeddingRequest.builder()
                 .model(modelName)
                 .input(textSegments.stream().map(TextSegment::text).collect(toList()))
@@ -126,6 +152,9 @@ public class MistralAiEmbeddingModel extends DimensionAwareEmbeddingModel {
         private Boolean logResponses;
         private Integer maxRetries;
         private HttpClientBuilder httpClientBuilder;
+        private Integer maxSegmentsPerBatch;
+        private Integer maxTokensPerBatch;
+        private TokenCountEstimator tokenCountEstimator;
 
         public MistralAiEmbeddingModelBuilder() {}
 
@@ -203,6 +232,36 @@ public class MistralAiEmbeddingModel extends DimensionAwareEmbeddingModel {
             return this;
         }
 
+        /**
+         * @param maxSegmentsPerBatch the maximum number of text segments sent in a single request.
+         *                            By default, all the segments are sent in a single request
+         * @return {@code this}.
+         */
+        public MistralAiEmbeddingModelBuilder maxSegmentsPerBatch(Integer maxSegmentsPerBatch) {
+            this.maxSegmentsPerBatch = maxSegmentsPerBatch;
+            return this;
+        }
+
+        /**
+         * @param maxTokensPerBatch the maximum number of tokens sent in a single request, as estimated by
+         *                          the {@code tokenCountEstimator}, which is then required. Not limited by default
+         * @return {@code this}.
+         */
+        public MistralAiEmbeddingModelBuilder maxTokensPerBatch(Integer maxTokensPerBatch) {
+            this.maxTokensPerBatch = maxTokensPerBatch;
+            return this;
+        }
+
+        /**
+         * @param tokenCountEstimator the estimator of the number of tokens of the text segments,
+         *                            used to enforce {@code maxTokensPerBatch}
+         * @return {@code this}.
+         */
+        public MistralAiEmbeddingModelBuilder tokenCountEstimator(TokenCountEstimator tokenCountEstimator) {
+            this.tokenCountEstimator = tokenCountEstimator;
+            return this;
+        }
+
         public MistralAiEmbeddingModel build() {
             return new MistralAiEmbeddingModel(this);
         }
@@ -2,17 +2,20 @@ package dev.langchain4j.model.nomic;
 
 import dev.langchain4j.data.embedding.Embedding;
 import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.TokenCountEstimator;
 import dev.langchain4j.model.embedding.DimensionAwareEmbeddingModel;
 import dev.langchain4j.model.output.Response;
 import dev.langchain4j.model.output.TokenUsage;
 
 import java.time.Duration;
-import java.util.ArrayList;
 import java.util.List;
 
+import static dev.langchain4j.internal.EmbeddingBatchUtils.embedBatches;
+import static dev.langchain4j.internal.EmbeddingBatchUtils.partition;
 import static dev.langchain4j.internal.RetryUtils.withRetryMappingExceptions;
 import static dev.langchain4j.internal.Utils.getOrDefault;
 import static dev.langchain4j.internal.ValidationUtils.ensureNotBlank;
+import static dev.langchain4j.internal.ValidationUtils.ensureNotNull;
 import static java.time.Duration.ofSeconds;
 import static java.util.stream.Collectors.toList;
 
@@ -29,6 +32,8 @@ public class NomicEmbeddingModel extends DimensionAwareEmbeddingModel {
     private final String taskType;
     private final Integer maxSegmentsPerBatch;
     private final Integer maxRetries;
+    private final Integer maxTokensPerBatch;
+    private final TokenCountEstimator tokenCountEstimator;
 
     public NomicEmbeddingModel(
             String baseUrl,
@@ -40,6 +45,23 @@ public class NomicEmbeddingModel extends DimensionAwareEmbeddingModel {
             Integer maxRetries,
             Boolean logRequests,
             Boolean logResponses
+    ) {
+        this(baseUrl, apiKey, modelName, taskType, maxSegmentsPerBatch, timeout, maxRetries, logRequests, logResponses,
+                null, null);
+    }
+
+    public NomicEmbeddingModel(
+            String baseUrl,
+            String apiKey,
+            String modelName,
+            String taskType,
+            Integer maxSegmentsPerBatch,
+            Duration timeout,
+            Integer maxRetries,
+            Boolean logRequests,
+            Boolean logResponses,
+            Integer maxTokensPerBatch,
+            TokenCountEstimator tokenCountEstimator
     ) {
         this.client = NomicClient.builder()
                 .baseUrl(getOrDefault(baseUrl, DEFAULT_BASE_URL))
@@ -52,6 +74,10 @@ public class NomicEmbeddingModel extends DimensionAwareEmbeddingModel {
         this.taskType = taskType;
         this.maxSegmentsPerBatch = getOrDefault(maxSegmentsPerBatch, 500);
         this.maxRetries = getOrDefault(maxRetries, 2);
+        this.maxTokensPerBatch = maxTokensPerBatch;
+        this.tokenCountEstimator = maxTokensPerBatch == null
+                ? null
+                : ensureNotNull(tokenCountEstimator, "tokenCountEstimator");
     }
 
     public static NomicEmbeddingModelBuilder builder() {
@@ -61,34 +87,25 @@ public class NomicEmbeddingModel extends DimensionAwareEmbeddingModel {
     @Override
     public Response<List<Embedding>> embedAll(List<TextSegment> textSegments) {
 
-        List<String> texts = textSegments.stream()
-                .map(TextSegment::text)
-                .collect(toList());
+        List<List<TextSegment>> batches =
+                partition(textSegments, maxSegmentsPerBatch, maxTokensPerBatch, tokenCountEstimator);
 
-        return embedTexts(texts);
+        return embedBatches(batches, 1, null, batch -> embedTexts(batch.stream()
+                .map(TextSegment::text)
+                .collect(toList())));
     }
 
     private Response<List<Embedding>> embedTexts(List<String> texts) {
 
-        List<Embedding> embeddings = new ArrayList<>();
-        int inputTokenCount = 0;
-
-        for (int i = 0; i < texts.size(); i += maxSegmentsPerBatch) {
-            List<String> batch = texts.subList(i, Math.min(i + maxSegmentsPerBatch, texts.size()));
-
-            EmbeddingRequest request = EmbeddingRequest.builder()
-                    .model(modelName)
-                    .texts(batch)
-                    .taskType(taskType)
-                    .build();
-
-            EmbeddingResponse response = withRetryMappingExceptions(() -> this.client.embed(request), maxRetries);
+        EmbeddingRequest request = EmbeddingRequest.builder()
+                .model(modelName)
+                .texts(texts)
+                .taskType(taskType)
+                .build();
 
-            embeddings.addAll(getEmbeddings(response));
-            inputTokenCount += getTokenUsage(response);
-        }
+        EmbeddingResponse response = withRetryMappingExceptions(() -> this.client.embed(request), maxRetries);
 
-        return Response.from(embeddings, new TokenUsage(inputTokenCount, 0));
+        return Response.from(getEmbeddings(response), new TokenUsage(getTokenUsage(response), 0));
     }
 
     private List<Embedding> getEmbeddings(EmbeddingResponse response) {
@@ -114,6 +131,8 @@ public class NomicEmbeddingModel extends DimensionAwareEmbeddingModel {
         private Integer maxRetries;
         private Boolean logRequests;
         private Boolean logResponses;
+        private Integer maxTokensPerBatch;
+        private TokenCountEstimator tokenCountEstimator;
 
         NomicEmbeddingModelBuilder() {
         }
@@ -163,12 +182,34 @@ public class NomicEmbeddingModel extends DimensionAwareEmbeddingModel {
             return this;
         }
 
+        /**
+         * Maximum number of tokens sent in a single request, in addition to {@code maxSegmentsPerBatch}.
+         * Defaults to null: batches are only limited by their size.
+         * When set, a {@link #tokenCountEstimator(TokenCountEstimator)} is required.
+         *
+         * @param maxTokensPerBatch Maximum number of tokens per request.
+         */
+        public NomicEmbeddingModelBuilder maxTokensPerBatch(Integer maxTokensPerBatch) {
+            this.maxTokensPerBatch = maxTokensPerBatch;
+            return this;
+        }
+
+        /**
+         * Estimator of the number of tokens of the input texts, used to enforce {@code maxTokensPerBatch}.
+         *
+         * @param tokenCountEstimator Estimator of the number of tokens.
+         */
+        public NomicEmbeddingModelBuilder tokenCountEstimator(TokenCountEstimator tokenCountEstimator) {
+            this.tokenCountEstimator = tokenCountEstimator;
+            return this;
+        }
+
         public NomicEmbeddingModel build() {
-            return new NomicEmbeddingModel(this.baseUrl, this.apiKey, this.modelName, this.taskType, this.maxSegmentsPerBatch, this.timeout, this.maxRetries, this.logRequests, this.logResponses);
+            return new NomicEmbeddingModel(this.baseUrl, this.apiKey, this.modelName, this.taskType, this.maxSegmentsPerBatch, this.timeout, this.maxRetries, this.logRequests, this.logResponses, this.maxTokensPerBatch, this.tokenCountEstimator);
         }
 
         public String toString() {
-            return "NomicEmbeddingModel.NomicEmbeddingModelBuilder(baseUrl=" + this.baseUrl + ", apiKey=" + this.apiKey + ", modelName=" + this.modelName + ", taskType=" + this.taskType + ", maxSegmentsPerBatch=" + this.maxSegmentsPerBatch + ", timeout=" + this.timeout + ", maxRetries=" + this.maxRetries + ", logRequests=" + this.logRequests + ", logResponses=" + this.logResponses + ")";
+            return "NomicEmbeddingModel.NomicEmbeddingModelBuilder(baseUrl=" + this.baseUrl + ", apiKey=" + this.apiKey + ", modelName=" + this.modelName + ", taskType=" + this.taskType + ", maxSegmentsPerBatch=" + this.maxSegmentsPerBatch + ", timeout=" + this.timeout + ", maxRetries=" + this.maxRetries + ", logRequests=" + this.logRequests + , logResponses=" + this.logResponses + ", maxTokensPerBatch=" + this.maxTokensPerBatch + ")";
         }
     }
 }
@@ -1,14 +1,19 @@
 package dev.langchain4j.model.ollama;
 
+import static dev.langchain4j.internal.EmbeddingBatchUtils.embedBatches;
+import static dev.langchain4j.internal.EmbeddingBatchUtils.partition;
 import static dev.langchain4j.internal.RetryUtils.withRetryMappingExceptions;
 import static dev.langchain4j.internal.Utils.getOrDefault;
+import static dev.langchain4j.internal.ValidationUtils.ensureGreaterThanZero;
 import static dev.langchain4j.internal.ValidationUtils.ensureNotBlank;
+import static dev.langchain4j.internal.ValidationUtils.ensureNotNull;
 import static dev.langchain4j.spi.ServiceHelper.loadFactories;
 
 import dev.langchain4j.data.embedding.Embedding;
 import dev.langchain4j.data.segment.TextSegment;
 import dev.langchain4j.http.client.HttpClient;
 import dev.langchain4j.http.client.HttpClientBuilder;
+import dev.langchain4j.model.TokenCountEstimator;
 import dev.langchain4j.model.embedding.DimensionAwareEmbeddingModel;
 import dev.langchain4j.model.ollama.spi.OllamaEmbeddingModelBuilderFactory;
 import dev.langchain4j.model.output.Response;
@@ -25,6 +30,9 @@ public class OllamaEmbeddingModel extends DimensionAwareEmbeddingModel {
     private final OllamaClient client;
     private final String modelName;
     private final Integer maxRetries;
+    private final Integer maxSegmentsPerBatch;
+    private final Integer maxTokensPerBatch;
+    private final TokenCountEstimator tokenCountEstimator;
 
     public OllamaEmbeddingModel(OllamaEmbeddingModelBuilder builder) {
         this.client = OllamaClient.builder()
@@ -37,6 +45,13 @@ public class OllamaEmbeddingModel extends DimensionAwareEmbeddingModel {
                 .build();
         this.modelName = ensureNotBlank(builder.modelName, "modelName");
         this.maxRetries = getOrDefault(builder.maxRetries, 2);
+        this.maxSegmentsPerBatch = builder.maxSegmentsPerBatch == null
+                ? null
+                : ensureGreaterThanZero(builder.maxSegmentsPerBatch, "maxSegmentsPerBatch");
+        this.maxTokensPerBatch = builder.maxTokensPerBatch;
+        this.tokenCountEstimator = builder.maxTokensPerBatch == null
+                ? null
+                : ensureNotNull(builder.tokenCountEstimator, "tokenCountEstimator");
     }
 
     public static OllamaEmbeddingModelBuilder builder() {
@@ -48,6 +63,13 @@ public class OllamaEmbeddingModel extends DimensionAwareEmbeddingModel {
 
     @Override
     public Response<List<Embedding>> embedAll(List<TextSegment> textSegments) {
+        int maxSegments = maxSegmentsPerBatch == null ? Math.max(textSegments.size(), 1) : maxSegmentsPerBatch;
+        List<List<TextSegment>> batches = partition(textSegments, maxSegments, maxTokensPerBatch, tokenCountEstimator);
+
+        return embedBatches(batches, 1, null, this::embedBatch);
+    }
+
+    private Response<List<Embedding>> embedBatch(List<TextSegment> textSegments) {
         List<String> input = textSegments.stream().map(TextSegment::text).collect(Collectors.toList());
 
         EmbeddingRequest request =
@@ -69,6 +91,9 @@ public class OllamaEmbeddingModel extends DimensionAwareEmbeddingModel {
         private Boolean logRequests;
         private Boolean logResponses;
         private Map<String, String> customHeaders;
+        private Integer maxSegmentsPerBatch;
+        private Integer maxTokensPerBatch;
+        private TokenCountEstimator tokenCountEstimator;
 
         public OllamaEmbeddingModelBuilder() {
             // This is public so it can be extended
@@ -121,6 +146,33 @@ public class OllamaEmbeddingModel extends DimensionAwareEmbeddingModel {
             return this;
         }
 
+        /**
+         * Sets the maximum number of text segments sent in a single request.
+         * By default, all the segments are sent in a single request.
+         */
+        public OllamaEmbeddingModelBuilder maxSegmentsPerBatch(Integer maxSegmentsPerBatch) {
+            this.maxSegmentsPerBatch = maxSegmentsPerBatch;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of tokens sent in a single request, as estimated by
+         * the {@link #tokenCountEstimator(TokenCountEstimator)}, which is then required.
+         * Not limited by default.
+         */
+        public OllamaEmbeddingModelBuilder maxTokensPerBatch(Integer maxTokensPerBatch) {
+            this.maxTokensPerBatch = maxTokensPerBatch;
+            return this;
+        }
+
+        /**
+         * Sets the {@link TokenCountEstimator} used to enforce {@link #maxTokensPerBatch(Integer)}.
+         */
+        public OllamaEmbeddingModelBuilder tokenCountEstimator(TokenCountEstimator tokenCountEstimator) {
+            this.tokenCountEstimator = tokenCountEstimator;
+            return this;
+        }
+
         public OllamaEmbeddingModel build() {
             return new OllamaEmbeddingModel(this);
         }
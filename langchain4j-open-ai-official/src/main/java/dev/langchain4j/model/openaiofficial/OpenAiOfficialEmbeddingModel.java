@@ -1,11 +1,13 @@
 package dev.langchain4j.model.openaiofficial;
 
+import static dev.langchain4j.internal.EmbeddingBatchUtils.embedBatches;
+import static dev.langchain4j.internal.EmbeddingBatchUtils.partition;
 import static dev.langchain4j.internal.Utils.getOrDefault;
 import static dev.langchain4j.internal.ValidationUtils.ensureGreaterThanZero;
+import static dev.langchain4j.internal.ValidationUtils.ensureNotNull;
 import static dev.langchain4j.model.openaiofficial.InternalOpenAiOfficialHelper.detectModelHost;
 import static dev.langchain4j.model.openaiofficial.InternalOpenAiOfficialHelper.setupSyncClient;
 import static dev.langchain4j.model.openaiofficial.InternalOpenAiOfficialHelper.tokenUsageFrom;
-import static java.util.stream.Collectors.toList;
 
 import com.openai.azure.AzureOpenAIServiceVersion;
 import com.openai.client.OpenAIClient;
@@ -15,15 +17,13 @@ import com.openai.models.embeddings.EmbeddingCreateParams;
 import com.openai.models.embeddings.EmbeddingModel;
 import dev.langchain4j.data.embedding.Embedding;
 import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.TokenCountEstimator;
 import dev.langchain4j.model.embedding.DimensionAwareEmbeddingModel;
 import dev.langchain4j.model.output.Response;
-import dev.langchain4j.model.output.TokenUsage;
 import java.net.Proxy;
 import java.time.Duration;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 
 public class OpenAiOfficialEmbeddingModel extends DimensionAwareEmbeddingModel {
 
@@ -33,6 +33,8 @@ public class OpenAiOfficialEmbeddingModel extends DimensionAwareEmbeddingModel {
     private final Integer dimensions;
     private final String user;
     private final Integer maxSegmentsPerBatch;
+    private final Integer maxTokensPerBatch;
+    private final TokenCountEstimator tokenCountEstimator;
 
     public OpenAiOfficialEmbeddingModel(Builder builder) {
 
@@ -62,42 +64,20 @@ public class OpenAiOfficialEmbeddingModel extends DimensionAwareEmbeddingModel {
         this.user = builder.user;
         this.maxSegmentsPerBatch = getOrDefault(builder.maxSegmentsPerBatch, 2048);
         ensureGreaterThanZero(this.maxSegmentsPerBatch, "maxSegmentsPerBatch");
+        this.maxTokensPerBatch = builder.maxTokensPerBatch;
+        this.tokenCountEstimator = builder.maxTokensPerBatch == null
+                ? null
+                : ensureNotNull(builder.tokenCountEstimator, "tokenCountEstimator");
     }
 
     @Override
     public Response<List<Embedding>> embedAll(List<TextSegment> textSegments) {
 
-        List<String> texts = textSegments.stream().map(TextSegment::text).collect(toList());
+        List<List<TextSegment>> batches =
+                partition(textSegments, maxSegmentsPerBatch, maxTokensPerBatch, tokenCountEstimator);
 
-        List<List<String>> textBatches = partition(texts, maxSegmentsPerBatch);
-
-        return embedBatchedTexts(textBatches);
-    }
-
-    private List<List<String>> partition(List<String> inputList, int size) {
-        List<List<String>> result = new ArrayList<>();
-        for (int i = 0; i < inputList.size(); i += size) {
-            int toIndex = Math.min(i + size, inputList.size());
-            result.add(inputList.subList(i, toIndex));
-        }
-        return result;
-    }
-
-    private Response<List<Embedding>> embedBatchedTexts(List<List<String>> textBatches) {
-        List<Response<List<Embedding>>> responses = new ArrayList<>();
-        for (List<String> batch : textBatches) {
-            Response<List<Embedding>> response = embedTexts(batch);
-            responses.add(response);
-        }
-        return Response.from(
-                responses.stream()
-                        .flatMap(response -> response.content().stream())
-                        .toList(),
-                responses.stream()
-                        .map(Response::tokenUsage)
-                        .filter(Objects::nonNull)
-                        .reduce(TokenUsage::add)
-                        .orElse(null));
+        return embedBatches(
+                batches, 1, null, batch -> embedTexts(batch.stream().map(TextSegment::text).toList()));
     }
 
     private Response<List<Embedding>> embedTexts(List<String> texts) {
@@ -152,6 +132,8 @@ public class OpenAiOfficialEmbeddingModel extends DimensionAwareEmbeddingModel {
         private Integer dimensions;
         private String user;
         private Integer maxSegmentsPerBatch;
+        private Integer maxTokensPerBatch;
+        private TokenCountEstimator tokenCountEstimator;
         private Duration timeout;
         private Integer maxRetries;
         private Proxy proxy;
@@ -227,6 +209,24 @@ public class OpenAiOfficialEmbeddingModel extends DimensionAwareEmbeddingModel {
             return this;
         }
 
+        /**
+         * Sets the maximum number of tokens sent in a single request by {@link OpenAiOfficialEmbeddingModel#embedAll(List)},
+         * in addition to {@code maxSegmentsPerBatch}. Default: none, batches are only limited by their size.
+         * When set, a {@code tokenCountEstimator} is required.
+         */
+        public Builder maxTokensPerBatch(Integer maxTokensPerBatch) {
+            this.maxTokensPerBatch = maxTokensPerBatch;
+            return this;
+        }
+
+        /**
+         * Sets the {@link TokenCountEstimator} used to enforce {@code maxTokensPerBatch}.
+         */
+        public Builder tokenCountEstimator(TokenCountEstimator tokenCountEstimator) {
+            this.tokenCountEstimator = tokenCountEstimator;
+            return this;
+        }
+
         public Builder timeout(Duration timeout) {
             this.timeout = timeout;
             return this;
@@ -3,20 +3,21 @@ package dev.langchain4j.model.openai;
 import dev.langchain4j.data.embedding.Embedding;
 import dev.langchain4j.data.segment.TextSegment;
 import dev.langchain4j.http.client.HttpClientBuilder;
+import dev.langchain4j.model.TokenCountEstimator;
 import dev.langchain4j.model.embedding.DimensionAwareEmbeddingModel;
 import dev.langchain4j.model.openai.internal.OpenAiClient;
 import dev.langchain4j.model.openai.internal.embedding.EmbeddingRequest;
 import dev.langchain4j.model.openai.internal.embedding.EmbeddingResponse;
 import dev.langchain4j.model.openai.spi.OpenAiEmbeddingModelBuilderFactory;
 import dev.langchain4j.model.output.Response;
-import dev.langchain4j.model.output.TokenUsage;
 
 import java.time.Duration;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
+import java.util.concurrent.Executor;
 
+import static dev.langchain4j.internal.EmbeddingBatchUtils.embedBatches;
+import static dev.langchain4j.internal.EmbeddingBatchUtils.partition;
 import static dev.langchain4j.internal.RetryUtils.withRetryMappingExceptions;
 import static dev.langchain4j.internal.Utils.getOrDefault;
 import static dev.langchain4j.internal.ValidationUtils.ensureGreaterThanZero;
@@ -37,6 +38,10 @@ public class OpenAiEmbeddingModel extends DimensionAwareEmbeddingModel {
     private final String user;
     private final Integer maxRetries;
     private final Integer maxSegmentsPerBatch;
+    private final Integer maxTokensPerBatch;
+    private final TokenCountEstimator tokenCountEstimator;
+    private final Integer maxConcurrentBatches;
+    private final Executor executor;
 
     public OpenAiEmbeddingModel(OpenAiEmbeddingModelBuilder builder) {
 
@@ -59,6 +64,13 @@ public class OpenAiEmbeddingModel extends DimensionAwareEmbeddingModel {
         this.maxRetries = getOrDefault(builder.maxRetries, 2);
         this.maxSegmentsPerBatch = getOrDefault(builder.maxSegmentsPerBatch, 2048);
         ensureGreaterThanZero(this.maxSegmentsPerBatch, "maxSegmentsPerBatch");
+        this.maxTokensPerBatch = builder.maxTokensPerBatch;
+        this.tokenCountEstimator = builder.maxTokensPerBatch == null
+                ? null
+                : getOrDefault(builder.tokenCountEstimator, () -> new OpenAiTokenCountEstimator(modelName));
+        this.maxConcurrentBatches = getOrDefault(builder.maxConcurrentBatches, 1);
+        ensureGreaterThanZero(this.maxConcurrentBatches, "maxConcurrentBatches");
+        this.executor = builder.executor;
     }
 
     @Override
@@ -77,38 +89,11 @@ public class OpenAiEmbeddingModel extends DimensionAwareEmbeddingModel {
     @Override
     public Response<List<Embedding>> embedAll(List<TextSegment> textSegments) {
 
-        List<String> texts = textSegments.stream().map(TextSegment::text).toList();
+        List<List<TextSegment>> batches =
+                partition(textSegments, maxSegmentsPerBatch, maxTokensPerBatch, tokenCountEstimator);
 
-        List<List<String>> textBatches = partition(texts, maxSegmentsPerBatch);
-
-        return embedBatchedTexts(textBatches);
-    }
-
-    private List<List<String>> partition(List<String> inputList, int size) {
-        List<List<String>> result = new ArrayList<>();
-        for (int i = 0; i < inputList.size(); i += size) {
-            int fromIndex = i;
-            int toIndex = Math.min(i + size, inputList.size());
-            result.add(inputList.subList(fromIndex, toIndex));
-        }
-        return result;
-    }
-
-    private Response<List<Embedding>> embedBatchedTexts(List<List<String>> textBatches) {
-        List<Response<List<Embedding>>> responses = new ArrayList<>();
-        for (List<String> batch : textBatches) {
-            Response<List<Embedding>> response = embedTexts(batch);
-            responses.add(response);
-        }
-        return Response.from(
-                responses.stream()
-                        .flatMap(response -> response.content().stream())
-                        .toList(),
-                responses.stream()
-                        .map(Response::tokenUsage)
-                        .filter(Objects::nonNull)
-                        .reduce(TokenUsage::add)
-                        .orElse(null));
+        return embedBatches(batches, maxConcurrentBatches, executor,
+                batch -> embedTexts(batch.stream().map(TextSegment::text).toList()));
     }
 
     private Response<List<Embedding>> embedTexts(List<String> texts) {
@@ -150,6 +135,10 @@ public class OpenAiEmbeddingModel extends DimensionAwareEmbeddingModel {
         private Duration timeout;
         private Integer maxRetries;
         private Integer maxSegmentsPerBatch;
+        private Integer maxTokensPerBatch;
+        private TokenCountEstimator tokenCountEstimator;
+        private Integer maxConcurrentBatches;
+        private Executor executor;
         private Boolean logRequests;
         private Boolean logResponses;
         private Map<String, String> customHeaders;
@@ -233,6 +222,44 @@ public class OpenAiEmbeddingModel extends DimensionAwareEmbeddingModel {
             return this;
         }
 
+        /**
+         * Sets the maximum number of tokens sent in a single request by {@link OpenAiEmbeddingModel#embedAll(List)},
+         * in addition to {@code maxSegmentsPerBatch}. Default: none, batches are only limited by their size.
+         * The tokens are counted with the {@code tokenCountEstimator}.
+         */
+        public OpenAiEmbeddingModelBuilder maxTokensPerBatch(Integer maxTokensPerBatch) {
+            this.maxTokensPerBatch = maxTokensPerBatch;
+            return this;
+        }
+
+        /**
+         * Sets the {@link TokenCountEstimator} used to enforce {@code maxTokensPerBatch}.
+         * Default: an {@link OpenAiTokenCountEstimator} for the {@code modelName}.
+         */
+        public OpenAiEmbeddingModelBuilder tokenCountEstimator(TokenCountEstimator tokenCountEstimator) {
+            this.tokenCountEstimator = tokenCountEstimator;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of batches of {@code maxSegmentsPerBatch} segments that are sent
+         * at the same time by {@link OpenAiEmbeddingModel#embedAll(List)}. Default: 1, batches are sent one by one.
+         * The embeddings are returned in the order of the segments in any case.
+         */
+        public OpenAiEmbeddingModelBuilder maxConcurrentBatches(Integer maxConcurrentBatches) {
+            this.maxConcurrentBatches = maxConcurrentBatches;
+            return this;
+        }
+
+        /**
+         * Sets the {@link Executor} sending the batches when {@code maxConcurrentBatches} is greater than 1.
+         * Default: virtual threads when available (Java 21+), otherwise a thread pool created for each call.
+         */
+        public OpenAiEmbeddingModelBuilder executor(Executor executor) {
+            this.executor = executor;
+            return this;
+        }
+
         public OpenAiEmbeddingModel build() {
             return new OpenAiEmbeddingModel(this);
         }
@@ -1,12 +1,17 @@
 package dev.langchain4j.store.embedding.qdrant;
 
 import static dev.langchain4j.internal.Utils.randomUUID;
+import static dev.langchain4j.store.embedding.TestUtils.awaitUntilAsserted;
 import static io.qdrant.client.grpc.Collections.Distance.Cosine;
+import static org.assertj.core.api.Assertions.assertThat;
 
 import dev.langchain4j.data.document.Metadata;
+import dev.langchain4j.data.embedding.Embedding;
 import dev.langchain4j.data.segment.TextSegment;
 import dev.langchain4j.model.embedding.EmbeddingModel;
 import dev.langchain4j.model.embedding.onnx.allminilml6v2q.AllMiniLmL6V2QuantizedEmbeddingModel;
+import dev.langchain4j.store.embedding.EmbeddingSearchRequest;
+import dev.langchain4j.store.embedding.EmbeddingSearchResult;
 import dev.langchain4j.store.embedding.EmbeddingStore;
 import dev.langchain4j.store.embedding.EmbeddingStoreWithFilteringIT;
 import dev.langchain4j.store.embedding.filter.Filter;
@@ -28,6 +33,7 @@ import java.util.concurrent.ExecutionException;
 import java.util.stream.Stream;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
@@ -74,6 +80,37 @@ class QdrantEmbeddingStoreIT extends EmbeddingStoreWithFilteringIT {
         EMBEDDING_STORE.close();
     }
 
+    @Test
+    void should_search_all_in_one_batch() {
+
+        // given
+        List<TextSegment> segments = List.of(
+                TextSegment.from("The cat sleeps on the sofa"),
+                TextSegment.from("The dog barks at the mailman"),
+                TextSegment.from("The car needs new tyres"));
+        List<Embedding> embeddings = EMBEDDING_MODEL.embedAll(segments).content();
+        EMBEDDING_STORE.addAll(embeddings, segments);
+        awaitUntilAsserted(() -> assertThat(getAllEmbeddings()).hasSize(segments.size()));
+
+        List<EmbeddingSearchRequest> requests = embeddings.stream()
+                .map(embedding -> EmbeddingSearchRequest.builder()
+                        .queryEmbedding(embedding)
+                        .maxResults(2)
+                        .build())
+                .toList();
+
+        // when
+        List<EmbeddingSearchResult<TextSegment>> results = EMBEDDING_STORE.searchAll(requests);
+
+        // then
+        assertThat(results).hasSize(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            assertThat(results.get(i).matches()).hasSize(2);
+            assertThat(results.get(i).matches().get(0).embedded()).isEqualTo(segments.get(i));
+            assertThat(results.get(i).matches()).isEqualTo(EMBEDDING_STORE.search(requests.get(i)).matches());
+        }
+    }
+
     @Override
     protected EmbeddingStore<TextSegment> embeddingStore() {
         return EMBEDDING_STORE;
@@ -66,6 +66,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 import java.util.function.Consumer;
+import java.util.function.Predicate;
 
 import static dev.langchain4j.internal.ValidationUtils.ensureNotBlank;
 import static dev.langchain4j.internal.ValidationUtils.ensureNotEmpty;
@@ -247,9 +248,10 @@ public class TablestoreEmbeddingStore implements EmbeddingStore<TextSegment> {
         if (filter == null) {
             throw Exceptions.illegalArgument("filter cannot be null");
         }
+        Predicate<Metadata> predicate = filter.toPredicate();
         forEachAllData(Collections.emptyList(), (row -> {
             Metadata metadata = rowToMetadata(row);
-            if (filter.test(metadata)) {
+            if (predicate.test(metadata)) {
                 remove(row.getPrimaryKey().getPrimaryKeyColumn(pkName).getValue().asString());
             }
         }));
@@ -1,10 +1,13 @@
 package dev.langchain4j.model.vertexai;
 
 import com.google.cloud.aiplatform.v1beta1.*;
+import com.google.protobuf.InvalidProtocolBufferException;
 import com.google.protobuf.Value;
 import com.google.protobuf.util.JsonFormat;
 import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.message.ChatMessage;
 import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.TokenCountEstimator;
 import dev.langchain4j.model.embedding.DimensionAwareEmbeddingModel;
 import dev.langchain4j.model.output.Response;
 import dev.langchain4j.model.output.TokenUsage;
@@ -12,8 +15,12 @@ import dev.langchain4j.model.vertexai.spi.VertexAiEmbeddingModelBuilderFactory;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
+import static dev.langchain4j.internal.EmbeddingBatchUtils.embedBatches;
+import static dev.langchain4j.internal.EmbeddingBatchUtils.partition;
 import static dev.langchain4j.internal.RetryUtils.withRetryMappingExceptions;
 import static dev.langchain4j.internal.Utils.getOrDefault;
 import static dev.langchain4j.internal.ValidationUtils.ensureGreaterThanZero;
@@ -127,53 +134,56 @@ public class VertexAiEmbeddingModel extends DimensionAwareEmbeddingModel {
 
         try (PredictionServiceClient client = PredictionServiceClient.create(settings)) {
 
-            List<Embedding> embeddings = new ArrayList<>();
-            int inputTokenCount = 0;
-
             List<Integer> tokensCounts = this.calculateTokensCounts(segments);
-            List<Integer> batchSizes = groupByBatches(tokensCounts);
+            List<List<TextSegment>> batches = partition(
+                    segments, maxSegmentsPerBatch, maxTokensPerBatch, new ComputedTokenCounts(segments, tokensCounts));
 
-            for (int i = 0, j = 0; i < segments.size() && j < batchSizes.size(); i += batchSizes.get(j), j++) {
-                List<TextSegment> batch = segments.subList(i, i + batchSizes.get(j));
+            return embedBatches(batches, 1, null, batch -> embedBatch(client, batch));
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
 
-                List<Value> instances = new ArrayList<>();
-                for (TextSegment segment : batch) {
-                    VertexAiEmbeddingInstance embeddingInstance = new VertexAiEmbeddingInstance(segment.text());
-                    // Specify the type of embedding task when specified
-                    if (this.taskType != null) {
-                        embeddingInstance.setTaskType(taskType);
-                        if (this.taskType.equals(TaskType.RETRIEVAL_DOCUMENT)) {
-                            // Title metadata is used for calculating embeddings for document retrieval
-                            embeddingInstance.setTitle(segment.metadata().getString(titleMetadataKey));
-                        }
+    private Response<List<Embedding>> embedBatch(PredictionServiceClient client, List<TextSegment> batch) {
+        try {
+            List<Value> instances = new ArrayList<>();
+            for (TextSegment segment : batch) {
+                VertexAiEmbeddingInstance embeddingInstance = new VertexAiEmbeddingInstance(segment.text());
+                // Specify the type of embedding task when specified
+                if (this.taskType != null) {
+                    embeddingInstance.setTaskType(taskType);
+                    if (this.taskType.equals(TaskType.RETRIEVAL_DOCUMENT)) {
+                        // Title metadata is used for calculating embeddings for document retrieval
+                        embeddingInstance.setTitle(segment.metadata().getString(titleMetadataKey));
                     }
-
-                    Value.Builder instanceBuilder = Value.newBuilder();
-                    JsonFormat.parser().merge(toJson(embeddingInstance), instanceBuilder);
-                    instances.add(instanceBuilder.build());
                 }
 
-                VertexAiEmbeddingParameters parameters = new VertexAiEmbeddingParameters(
-                    outputDimensionality, getOrDefault(autoTruncate, false));
-                Value.Builder parameterBuilder = Value.newBuilder();
-                JsonFormat.parser().merge(toJson(parameters), parameterBuilder);
+                Value.Builder instanceBuilder = Value.newBuilder();
+                JsonFormat.parser().merge(toJson(embeddingInstance), instanceBuilder);
+                instances.add(instanceBuilder.build());
+            }
+
+            VertexAiEmbeddingParameters parameters = new VertexAiEmbeddingParameters(
+                outputDimensionality, getOrDefault(autoTruncate, false));
+            Value.Builder parameterBuilder = Value.newBuilder();
+            JsonFormat.parser().merge(toJson(parameters), parameterBuilder);
 
-                PredictResponse response = withRetryMappingExceptions(() -> client.predict(endpointName, instances, parameterBuilder.build()), maxRetries);
+            PredictResponse response = withRetryMappingExceptions(() -> client.predict(endpointName, instances, parameterBuilder.build()), maxRetries);
 
-                embeddings.addAll(response.getPredictionsList().stream()
-                        .map(VertexAiEmbeddingModel::toEmbedding)
-                        .collect(toList()));
+            List<Embedding> embeddings = response.getPredictionsList().stream()
+                    .map(VertexAiEmbeddingModel::toEmbedding)
+                    .collect(toList());
 
-                for (Value prediction : response.getPredictionsList()) {
-                    inputTokenCount += extractTokenCount(prediction);
-                }
+            int inputTokenCount = 0;
+            for (Value prediction : response.getPredictionsList()) {
+                inputTokenCount += extractTokenCount(prediction);
             }
 
             return Response.from(
                     embeddings,
                     new TokenUsage(inputTokenCount)
             );
-        } catch (Exception e) {
+        } catch (InvalidProtocolBufferException e) {
             throw new RuntimeException(e);
         }
     }
@@ -226,37 +236,33 @@ public class VertexAiEmbeddingModel extends DimensionAwareEmbeddingModel {
         return VertexAiEmbeddingModelName.knownDimension(endpointName.getModel());
     }
 
-    private List<Integer> groupByBatches(List<Integer> tokensCounts) {
-        // create a list of sublists of tokens counts
-        // where the maximum number of text segments per sublist is 250
-        // and the sum of the tokens counts in each sublist is less than 20_000
-
-        List<List<Integer>> batches = new ArrayList<>();
-
-        List<Integer> currentBatch = new ArrayList<>();
-        int currentBatchSum = 0;
-        for (Integer tokensCount : tokensCounts) {
-            if (currentBatchSum + tokensCount <= maxTokensPerBatch &&
-                    currentBatch.size() < maxSegmentsPerBatch) {
-                currentBatch.add(tokensCount);
-                currentBatchSum += tokensCount;
-            } else {
-                batches.add(currentBatch);
-                currentBatch = new ArrayList<>();
-                currentBatch.add(tokensCount);
-                currentBatchSum = tokensCount;
+    /**
+     * Serves the token counts returned by the {@code computeTokens} endpoint to the batch planner.
+     */
+    private static class ComputedTokenCounts implements TokenCountEstimator {
+
+        private final Map<String, Integer> tokensCountByText = new HashMap<>();
+
+        ComputedTokenCounts(List<TextSegment> segments, List<Integer> tokensCounts) {
+            for (int i = 0; i < segments.size(); i++) {
+                tokensCountByText.put(segments.get(i).text(), tokensCounts.get(i));
             }
         }
-        if (!currentBatch.isEmpty()) {
-            batches.add(currentBatch);
+
+        @Override
+        public int estimateTokenCountInText(String text) {
+            return tokensCountByText.get(text);
         }
 
-        // returns the list of number of text segments for each batch of embedding calculations
+        @Override
+        public int estimateTokenCountInMessage(ChatMessage message) {
+            throw new UnsupportedOperationException();
+        }
 
-        return batches.stream()
-                .mapToInt(List::size)
-                .boxed()
-                .collect(toList());
+        @Override
+        public int estimateTokenCountInMessages(Iterable<ChatMessage> messages) {
+            throw new UnsupportedOperationException();
+        }
     }
 
     private static Embedding toEmbedding(Value prediction) {
@@ -1,8 +1,11 @@
 package dev.langchain4j.model.voyageai;
 
+import static dev.langchain4j.internal.EmbeddingBatchUtils.embedBatches;
+import static dev.langchain4j.internal.EmbeddingBatchUtils.partition;
 import static dev.langchain4j.internal.RetryUtils.withRetryMappingExceptions;
 import static dev.langchain4j.internal.Utils.getOrDefault;
 import static dev.langchain4j.internal.ValidationUtils.ensureNotBlank;
+import static dev.langchain4j.internal.ValidationUtils.ensureNotNull;
 import static dev.langchain4j.model.voyageai.VoyageAiClient.DEFAULT_BASE_URL;
 import static java.time.Duration.ofSeconds;
 import static java.util.stream.Collectors.toList;
@@ -10,12 +13,12 @@ import static java.util.stream.Collectors.toList;
 import dev.langchain4j.data.embedding.Embedding;
 import dev.langchain4j.data.segment.TextSegment;
 import dev.langchain4j.http.client.HttpClientBuilder;
+import dev.langchain4j.model.TokenCountEstimator;
 import dev.langchain4j.model.embedding.DimensionAwareEmbeddingModel;
 import dev.langchain4j.model.embedding.EmbeddingModel;
 import dev.langchain4j.model.output.Response;
 import dev.langchain4j.model.output.TokenUsage;
 import java.time.Duration;
-import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
@@ -33,6 +36,8 @@ public class VoyageAiEmbeddingModel extends DimensionAwareEmbeddingModel {
     private final Boolean truncation;
     private final String encodingFormat;
     private final Integer maxSegmentsPerBatch;
+    private final Integer maxTokensPerBatch;
+    private final TokenCountEstimator tokenCountEstimator;
 
     public VoyageAiEmbeddingModel(
             HttpClientBuilder httpClientBuilder,
@@ -48,9 +53,47 @@ public class VoyageAiEmbeddingModel extends DimensionAwareEmbeddingModel {
             Boolean logRequests,
             Boolean logResponses,
             Integer maxSegmentsPerBatch) {
+        this(
+                httpClientBuilder,
+                customHeaders,
+                baseUrl,
+                timeout,
+                maxRetries,
+                apiKey,
+                modelName,
+                inputType,
+                truncation,
+                encodingFormat,
+                logRequests,
+                logResponses,
+                maxSegmentsPerBatch,
+                null,
+                null);
+    }
+
+    public VoyageAiEmbeddingModel(
+            HttpClientBuilder httpClientBuilder,
+            Map<String, String> customHeaders,
+            String baseUrl,
+            Duration timeout,
+            Integer maxRetries,
+            String apiKey,
+            String modelName,
+            String inputType,
+            Boolean truncation,
+            String encodingFormat,
+            Boolean logRequests,
+            Boolean logResponses,
+            Integer maxSegmentsPerBatch,
+            Integer maxTokensPerBatch,
+            TokenCountEstimator tokenCountEstimator) {
         this.maxRetries = getOrDefault(maxRetries, 2);
         this.modelName = ensureNotBlank(modelName, "modelName");
         this.maxSegmentsPerBatch = getOrDefault(maxSegmentsPerBatch, 128);
+        this.maxTokensPerBatch = maxTokensPerBatch;
+        this.tokenCountEstimator = maxTokensPerBatch == null
+                ? null
+                : ensureNotNull(tokenCountEstimator, "tokenCountEstimator");
         this.truncation = truncation;
         this.inputType = inputType;
         this.encodingFormat = encodingFormat;
@@ -68,33 +111,25 @@ public class VoyageAiEmbeddingModel extends DimensionAwareEmbeddingModel {
 
     @Override
     public Response<List<Embedding>> embedAll(List<TextSegment> textSegments) {
-        List<String> texts = textSegments.stream().map(TextSegment::text).collect(toList());
+        List<List<TextSegment>> batches =
+                partition(textSegments, maxSegmentsPerBatch, maxTokensPerBatch, tokenCountEstimator);
 
-        return embedTexts(texts);
+        return embedBatches(
+                batches, 1, null, batch -> embedTexts(batch.stream().map(TextSegment::text).collect(toList())));
     }
 
     private Response<List<Embedding>> embedTexts(List<String> texts) {
-        List<Embedding> embeddings = new ArrayList<>();
-        int inputTokenCount = 0;
-
-        for (int i = 0; i < texts.size(); i += maxSegmentsPerBatch) {
-            List<String> batch = texts.subList(i, Math.min(i + maxSegmentsPerBatch, texts.size()));
-
-            EmbeddingRequest request = EmbeddingRequest.builder()
-                    .input(batch)
-                    .inputType(inputType)
-                    .model(modelName)
-                    .truncation(truncation)
-                    .encodingFormat(encodingFormat)
-                    .build();
-
-            EmbeddingResponse response = withRetryMappingExceptions(() -> this.client.embed(request), maxRetries);
+        EmbeddingRequest request = EmbeddingRequest.builder()
+                .input(texts)
+                .inputType(inputType)
+                .model(modelName)
+                .truncation(truncation)
+                .encodingFormat(encodingFormat)
+                .build();
 
-            embeddings.addAll(getEmbeddings(response));
-            inputTokenCount += getTokenUsage(response);
-        }
+        EmbeddingResponse response = withRetryMappingExceptions(() -> this.client.embed(request), maxRetries);
 
-        return Response.from(embeddings, new TokenUsage(inputTokenCount));
+        return Response.from(getEmbeddings(response), new TokenUsage(getTokenUsage(response)));
     }
 
     @Override
@@ -136,6 +171,8 @@ public class VoyageAiEmbeddingModel extends DimensionAwareEmbeddingModel {
         private Boolean logRequests;
         private Boolean logResponses;
         private Integer maxSegmentsPerBatch;
+        private Integer maxTokensPerBatch;
+        private TokenCountEstimator tokenCountEstimator;
 
         public Builder httpClientBuilder(HttpClientBuilder httpClientBuilder) {
             this.httpClientBuilder = httpClientBuilder;
@@ -250,6 +287,28 @@ public class VoyageAiEmbeddingModel extends DimensionAwareEmbeddingModel {
             return this;
         }
 
+        /**
+         * Maximum number of tokens sent in a single request, in addition to {@code maxSegmentsPerBatch}.
+         * Defaults to null: batches are only limited by their size.
+         * When set, a {@link #tokenCountEstimator(TokenCountEstimator)} is required.
+         *
+         * @param maxTokensPerBatch Maximum number of tokens per request.
+         */
+        public Builder maxTokensPerBatch(Integer maxTokensPerBatch) {
+            this.maxTokensPerBatch = maxTokensPerBatch;
+            return this;
+        }
+
+        /**
+         * Estimator of the number of tokens of the input texts, used to enforce {@code maxTokensPerBatch}.
+         *
+         * @param tokenCountEstimator Estimator of the number of tokens.
+         */
+        public Builder tokenCountEstimator(TokenCountEstimator tokenCountEstimator) {
+            this.tokenCountEstimator = tokenCountEstimator;
+            return this;
+        }
+
         public VoyageAiEmbeddingModel build() {
             return new VoyageAiEmbeddingModel(
                     httpClientBuilder,
@@ -264,7 +323,9 @@ public class VoyageAiEmbeddingModel extends DimensionAwareEmbeddingModel {
                     encodingFormat,
                     logRequests,
                     logResponses,
-                    maxSegmentsPerBatch);
+                    maxSegmentsPerBatch,
+                    maxTokensPerBatch,
+                    tokenCountEstimator);
         }
     }
 }
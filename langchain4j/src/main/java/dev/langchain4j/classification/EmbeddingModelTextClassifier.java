@@ -3,15 +3,19 @@ package dev.langchain4j.classification;
 import dev.langchain4j.data.embedding.Embedding;
 import dev.langchain4j.data.segment.TextSegment;
 import dev.langchain4j.model.embedding.EmbeddingModel;
-import dev.langchain4j.store.embedding.CosineSimilarity;
 import dev.langchain4j.store.embedding.RelevanceScore;
+import dev.langchain4j.store.embedding.VectorSimilarity;
 
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashMap;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 
+import static dev.langchain4j.internal.Utils.getOrDefault;
 import static dev.langchain4j.internal.ValidationUtils.ensureBetween;
 import static dev.langchain4j.internal.ValidationUtils.ensureGreaterThanZero;
 import static dev.langchain4j.internal.ValidationUtils.ensureNotNull;
@@ -43,16 +47,41 @@ import static java.util.stream.Collectors.toList;
  * List<Sentiment> sentiments = classifier.classify("Awesome!");
  * System.out.println(sentiments); // [POSITIVE]
  * }</pre>
+ * <p>
+ * The example embeddings are packed row by row into a single array, and a text is scored against all of them
+ * in one pass. {@link #classifyAll(List)} and {@link #classifyAllWithScores(List)} embed all the texts
+ * with a single {@link EmbeddingModel#embedAll(List)} call and score large batches in parallel.
+ * <p>
+ * Instead of comparing a text with every example, the classifier can compare it with the centroid
+ * (the mean of the normalized example embeddings) of each label, see {@link Builder#useCentroids(Boolean)}.
+ * This makes scoring independent of the number of examples, at the cost of some accuracy
+ * when the examples of a label are spread across several topics.
  *
  * @param <L> The type of the label (e.g., String, Enum, etc.)
  */
 public class EmbeddingModelTextClassifier<L> implements TextClassifier<L> {
 
+    /**
+     * The number of texts scored by a single task when a batch is scored in parallel.
+     */
+    static final int PARALLEL_CHUNK_SIZE = 64;
+
     private final EmbeddingModel embeddingModel;
-    private final Map<L, List<Embedding>> exampleEmbeddingsByLabel;
     private final int maxResults;
     private final double minScore;
     private final double meanToMaxScoreRatio;
+    private final Executor executor;
+
+    /**
+     * The labels, and the vectors they are compared with: the embeddings of the examples of
+     * {@code labels.get(i)} (or their centroid) are the rows {@code labelOffsets[i]} to {@code labelOffsets[i + 1]}
+     * (exclusive) of {@code vectors}.
+     */
+    private final List<L> labels;
+    private final int[] labelOffsets;
+    private final float[] vectors;
+    private final double[] norms;
+    private final int count;
 
     /**
      * Creates a classifier with the default values for {@link #maxResults} (1), {@link #minScore} (0)
@@ -93,46 +122,162 @@ public class EmbeddingModelTextClassifier<L> implements TextClassifier<L> {
                                         int maxResults,
                                         double minScore,
                                         double meanToMaxScoreRatio) {
+        this(embeddingModel, examplesByLabel, maxResults, minScore, meanToMaxScoreRatio, false, null);
+    }
+
+    private EmbeddingModelTextClassifier(EmbeddingModel embeddingModel,
+                                         Map<L, ? extends Collection<String>> examplesByLabel,
+                                         int maxResults,
+                                         double minScore,
+                                         double meanToMaxScoreRatio,
+                                         boolean useCentroids,
+                                         Executor executor) {
         this.embeddingModel = ensureNotNull(embeddingModel, "embeddingModel");
         ensureNotNull(examplesByLabel, "examplesByLabel");
-
-        this.exampleEmbeddingsByLabel = new HashMap<>();
-        examplesByLabel.forEach((label, examples) ->
-                exampleEmbeddingsByLabel.put(label, embeddingModel.embedAll(
-                        examples.stream()
-                                .map(TextSegment::from)
-                                .collect(toList())).content()
-                )
-        );
-
         this.maxResults = ensureGreaterThanZero(maxResults, "maxResults");
         this.minScore = ensureBetween(minScore, 0.0, 1.0, "minScore");
         this.meanToMaxScoreRatio = ensureBetween(meanToMaxScoreRatio, 0.0, 1.0, "meanToMaxScoreRatio");
+        this.executor = getOrDefault(executor, ForkJoinPool::commonPool);
+
+        // all the examples are embedded in a single call
+        this.labels = new ArrayList<>(examplesByLabel.keySet());
+        List<TextSegment> examples = new ArrayList<>();
+        int[] exampleOffsets = new int[labels.size() + 1];
+        for (int i = 0; i < labels.size(); i++) {
+            examplesByLabel.get(labels.get(i)).forEach(example -> examples.add(TextSegment.from(example)));
+            exampleOffsets[i + 1] = examples.size();
+        }
+        List<Embedding> exampleEmbeddings = examples.isEmpty()
+                ? List.of()
+                : embeddingModel.embedAll(examples).content();
+        int dimension = exampleEmbeddings.isEmpty() ? 0 : exampleEmbeddings.get(0).dimension();
+
+        if (useCentroids) {
+            this.labelOffsets = new int[labels.size() + 1];
+            float[] centroids = new float[labels.size() * dimension];
+            int centroidCount = 0;
+            for (int i = 0; i < labels.size(); i++) {
+                if (exampleOffsets[i + 1] > exampleOffsets[i]) {
+                    addCentroid(exampleEmbeddings.subList(exampleOffsets[i], exampleOffsets[i + 1]),
+                            centroids, centroidCount * dimension);
+                    centroidCount++;
+                }
+                labelOffsets[i + 1] = centroidCount;
+            }
+            this.vectors = centroids;
+            this.count = centroidCount;
+        } else {
+            this.labelOffsets = exampleOffsets;
+            this.vectors = new float[exampleEmbeddings.size() * dimension];
+            for (int i = 0; i < exampleEmbeddings.size(); i++) {
+                System.arraycopy(exampleEmbeddings.get(i).vector(), 0, vectors, i * dimension, dimension);
+            }
+            this.count = exampleEmbeddings.size();
+        }
+        this.norms = VectorSimilarity.norms(vectors, dimension, count);
+    }
+
+    /**
+     * Writes the mean of the normalized embeddings at the given offset of {@code centroids}.
+     * Its direction is that of the mean of the examples, but long and short example embeddings weigh the same.
+     */
+    private static void addCentroid(List<Embedding> embeddings, float[] centroids, int offset) {
+        double[] sum = new double[embeddings.get(0).dimension()];
+        for (Embedding embedding : embeddings) {
+            float[] vector = embedding.vector();
+            double norm = VectorSimilarity.norm(vector);
+            if (norm == 0) {
+                continue;
+            }
+            for (int d = 0; d < sum.length; d++) {
+                sum[d] += vector[d] / norm;
+            }
+        }
+        for (int d = 0; d < sum.length; d++) {
+            centroids[offset + d] = (float) (sum[d] / embeddings.size());
+        }
+    }
+
+    public static <L> Builder<L> builder() {
+        return new Builder<>();
     }
 
     @Override
     public ClassificationResult<L> classifyWithScores(String text) {
-
         Embedding textEmbedding = embeddingModel.embed(text).content();
+        return classify(textEmbedding, new double[count]);
+    }
+
+    /**
+     * Embeds all the texts with a single {@link EmbeddingModel#embedAll(List)} call, then scores them,
+     * in parallel when there are more than {@value #PARALLEL_CHUNK_SIZE} texts.
+     */
+    @Override
+    public List<ClassificationResult<L>> classifyAllWithScores(List<String> texts) {
+        ensureNotNull(texts, "texts");
+        if (texts.isEmpty()) {
+            return List.of();
+        }
+        List<Embedding> textEmbeddings = embeddingModel.embedAll(texts.stream()
+                        .map(TextSegment::from)
+                        .collect(toList()))
+                .content();
+
+        List<ClassificationResult<L>> results = new ArrayList<>(Collections.nCopies(textEmbeddings.size(), null));
+        if (textEmbeddings.size() <= PARALLEL_CHUNK_SIZE) {
+            classify(textEmbeddings, 0, textEmbeddings.size(), results);
+            return results;
+        }
+
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int from = 0; from < textEmbeddings.size(); from += PARALLEL_CHUNK_SIZE) {
+            int chunkFrom = from;
+            int chunkTo = Math.min(from + PARALLEL_CHUNK_SIZE, textEmbeddings.size());
+            futures.add(CompletableFuture.runAsync(
+                    () -> classify(textEmbeddings, chunkFrom, chunkTo, results), executor));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+        return results;
+    }
+
+    private void classify(List<Embedding> textEmbeddings, int from, int to, List<ClassificationResult<L>> results) {
+        double[] similarities = new double[count];
+        for (int i = from; i < to; i++) {
+            results.set(i, classify(textEmbeddings.get(i), similarities));
+        }
+    }
+
+    /**
+     * @param similarities a buffer receiving the cosine similarities of the text with each row of {@link #vectors}
+     */
+    private ClassificationResult<L> classify(Embedding textEmbedding, double[] similarities) {
+        if (count > 0) {
+            VectorSimilarity.cosineSimilarities(textEmbedding.vector(), vectors, norms, count, similarities);
+        }
 
         List<ScoredLabel<L>> scoredLabels = new ArrayList<>();
-        exampleEmbeddingsByLabel.forEach((label, exampleEmbeddings) -> {
+        for (int i = 0; i < labels.size(); i++) {
+            int from = labelOffsets[i];
+            int to = labelOffsets[i + 1];
+            if (from == to) {
+                // a label without examples cannot be scored
+                continue;
+            }
 
             double meanScore = 0;
             double maxScore = 0;
-            for (Embedding exampleEmbedding : exampleEmbeddings) {
-                double cosineSimilarity = CosineSimilarity.between(textEmbedding, exampleEmbedding);
-                double score = RelevanceScore.fromCosineSimilarity(cosineSimilarity);
+            for (int row = from; row < to; row++) {
+                double score = RelevanceScore.fromCosineSimilarity(similarities[row]);
                 meanScore += score;
                 maxScore = Math.max(score, maxScore);
             }
-            meanScore /= exampleEmbeddings.size();
+            meanScore /= to - from;
 
             double aggregateScore = aggregatedScore(meanScore, maxScore);
             if (aggregateScore >= minScore) {
-                scoredLabels.add(new ScoredLabel<>(label, aggregateScore));
+                scoredLabels.add(new ScoredLabel<>(labels.get(i), aggregateScore));
             }
-        });
+        }
 
         return new ClassificationResult<>(
                 scoredLabels.stream()
@@ -146,4 +291,95 @@ public class EmbeddingModelTextClassifier<L> implements TextClassifier<L> {
     private double aggregatedScore(double meanScore, double maxScore) {
         return (meanToMaxScoreRatio * meanScore) + ((1 - meanToMaxScoreRatio) * maxScore);
     }
+
+    public static class Builder<L> {
+
+        private EmbeddingModel embeddingModel;
+        private Map<L, ? extends Collection<String>> examplesByLabel;
+        private Integer maxResults;
+        private Double minScore;
+        private Double meanToMaxScoreRatio;
+        private Boolean useCentroids;
+        private Executor executor;
+
+        /**
+         * @param embeddingModel The embedding model used for embedding both the examples and the texts
+         *                       to be classified.
+         * @return builder
+         */
+        public Builder<L> embeddingModel(EmbeddingModel embeddingModel) {
+            this.embeddingModel = embeddingModel;
+            return this;
+        }
+
+        /**
+         * @param examplesByLabel A map containing examples of texts for each label.
+         * @return builder
+         */
+        public Builder<L> examplesByLabel(Map<L, ? extends Collection<String>> examplesByLabel) {
+            this.examplesByLabel = examplesByLabel;
+            return this;
+        }
+
+        /**
+         * @param maxResults The maximum number of labels to return for each classification. Default: 1.
+         * @return builder
+         */
+        public Builder<L> maxResults(Integer maxResults) {
+            this.maxResults = maxResults;
+            return this;
+        }
+
+        /**
+         * @param minScore The minimum similarity score required for classification, in the range [0..1].
+         *                 Default: 0.
+         * @return builder
+         */
+        public Builder<L> minScore(Double minScore) {
+            this.minScore = minScore;
+            return this;
+        }
+
+        /**
+         * @param meanToMaxScoreRatio A ratio, in the range [0..1], between the mean and max scores used
+         *                            for calculating the final score. Default: 0.5.
+         *                            It has no effect when {@link #useCentroids(Boolean)} is enabled.
+         * @return builder
+         */
+        public Builder<L> meanToMaxScoreRatio(Double meanToMaxScoreRatio) {
+            this.meanToMaxScoreRatio = meanToMaxScoreRatio;
+            return this;
+        }
+
+        /**
+         * @param useCentroids Whether texts are compared with the centroid of the examples of each label,
+         *                     rather than with every example. Default: {@code false}.
+         * @return builder
+         */
+        public Builder<L> useCentroids(Boolean useCentroids) {
+            this.useCentroids = useCentroids;
+            return this;
+        }
+
+        /**
+         * @param executor The executor used to score large batches in parallel.
+         *                 Default: {@link ForkJoinPool#commonPool()}.
+         * @return builder
+         */
+        public Builder<L> executor(Executor executor) {
+            this.executor = executor;
+            return this;
+        }
+
+        public EmbeddingModelTextClassifier<L> build() {
+            return new EmbeddingModelTextClassifier<>(
+                    embeddingModel,
+                    examplesByLabel,
+                    getOrDefault(maxResults, 1),
+                    getOrDefault(minScore, 0.0),
+                    getOrDefault(meanToMaxScoreRatio, 0.5),
+                    getOrDefault(useCentroids, false),
+                    executor);
+        }
+    }
 }
@@ -77,4 +77,34 @@ public interface TextClassifier<L> {
     default ClassificationResult<L> classifyWithScores(Document document) {
         return classifyWithScores(document.text());
     }
+
+    /**
+     * Classifies the given texts.
+     *
+     * @param texts Texts to classify.
+     * @return A list of labels for each text, in the same order as the texts.
+     * Each list can contain zero, one, or multiple labels.
+     */
+    default List<List<L>> classifyAll(List<String> texts) {
+        return classifyAllWithScores(texts).stream()
+                .map(result -> result.scoredLabels().stream()
+                        .map(ScoredLabel::label)
+                        .collect(toList()))
+                .collect(toList());
+    }
+
+    /**
+     * Classifies the given texts and returns labels with scores.
+     * <br>
+     * The default implementation calls {@link #classifyWithScores(String)} for each text, one by one.
+     * Implementations can override it to classify all the texts in a batch.
+     *
+     * @param texts Texts to classify.
+     * @return a result object for each text, in the same order as the texts.
+     */
+    default List<ClassificationResult<L>> classifyAllWithScores(List<String> texts) {
+        return texts.stream()
+                .map(this::classifyWithScores)
+                .collect(toList());
+    }
 }
@@ -0,0 +1,282 @@
+package dev.langchain4j.store.embedding.inmemory;
+
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.embedding.HalfPrecisionEmbedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.store.embedding.EmbeddingMatch;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tracks the entries of an {@link InMemoryEmbeddingStore} to decide which ones to evict
+ * according to an {@link EvictionConfig}.
+ * <p>
+ * Entries are kept in a doubly linked list in the order they were added or last moved, and in a queue
+ * in the order they were added: as all entries live equally long, this is also the order in which they expire.
+ * <p>
+ * Searches only stamp the entries they return with a use counter, without locking, as they run concurrently
+ * with each other and with modifications (which the store makes while holding its write lock).
+ * The list is ordered lazily: when {@link #evict()} finds an entry at the head of the list that was used
+ * since it was linked, the entry is moved to the tail instead of being evicted (a "second chance").
+ * This approximates least-recently-used order: entries used since the last eviction are ordered by the time
+ * they reach the head, rather than by the time of their use.
+ * Uses are not tracked at all when only a time to live is configured.
+ * <p>
+ * This class is thread-safe.
+ */
+class EntryEviction<Embedded> {
+
+    /**
+     * A rough estimate of the fixed size of an entry: the entry, embedding, text segment and metadata objects,
+     * their headers and references, and the slot of the entry in the store.
+     */
+    static final long ENTRY_OVERHEAD_BYTES = 160;
+
+    private final Integer maxEntries;
+    private final Long maxBytes;
+    private final long timeToLiveMillis;
+    private final EvictionConfig config;
+    private final boolean tracksUses;
+
+    private final Map<InMemoryEmbeddingStore.Entry<Embedded>, Node<Embedded>> nodes = new IdentityHashMap<>();
+    /**
+     * The most recently added node for each id, to record uses reported by id.
+     * Read by searches without holding the monitor.
+     */
+    private final Map<String, Node<Embedded>> nodesById = new ConcurrentHashMap<>();
+    private final ArrayDeque<Node<Embedded>> byExpiry = new ArrayDeque<>();
+    private final AtomicLong useCounter = new AtomicLong();
+    private Node<Embedded> leastRecentlyUsed;
+    private Node<Embedded> mostRecentlyUsed;
+    /**
+     * The expiry time of the first node of {@link #byExpiry}, read by searches without holding the monitor.
+     * It may be that of a removed node, in which case {@link #hasExpired()} is merely true too early.
+     */
+    private volatile long nextExpiresAt = Long.MAX_VALUE;
+
+    private long bytes;
+    private long expiredCount;
+    private long maxEntriesEvictionCount;
+    private long maxBytesEvictionCount;
+
+    EntryEviction(EvictionConfig config) {
+        this.config = config;
+        this.maxEntries = config.maxEntries();
+        this.maxBytes = config.maxBytes();
+        this.timeToLiveMillis = config.timeToLive() == null ? -1 : config.timeToLive().toMillis();
+        this.tracksUses = maxEntries != null || maxBytes != null;
+    }
+
+    synchronized void addAll(Collection<InMemoryEmbeddingStore.Entry<Embedded>> newEntries) {
+        long expiresAt = timeToLiveMillis < 0 ? Long.MAX_VALUE : config.clock().millis() + timeToLiveMillis;
+        for (InMemoryEmbeddingStore.Entry<Embedded> entry : newEntries) {
+            Node<Embedded> node = new Node<>(entry, estimatedBytes(entry), expiresAt);
+            nodes.put(entry, node);
+            nodesById.put(entry.id, node);
+            if (timeToLiveMillis >= 0) {
+                if (byExpiry.isEmpty()) {
+                    nextExpiresAt = expiresAt;
+                }
+                byExpiry.add(node);
+            }
+            linkLast(node);
+            bytes += node.bytes;
+        }
+    }
+
+    synchronized void removeAll(Collection<InMemoryEmbeddingStore.Entry<Embedded>> removedEntries) {
+        for (InMemoryEmbeddingStore.Entry<Embedded> entry : removedEntries) {
+            Node<Embedded> node = nodes.get(entry);
+            if (node != null) {
+                remove(node);
+            }
+        }
+    }
+
+    synchronized void clear() {
+        nodes.clear();
+        nodesById.clear();
+        byExpiry.clear();
+        leastRecentlyUsed = null;
+        mostRecentlyUsed = null;
+        bytes = 0;
+        nextExpiresAt = Long.MAX_VALUE;
+    }
+
+    /**
+     * Records the use of the entries returned by a search, without locking.
+     */
+    void used(Collection<? extends EmbeddingMatch<?>> matches) {
+        if (!tracksUses || matches.isEmpty()) {
+            return;
+        }
+        long stamp = useCounter.incrementAndGet();
+        for (EmbeddingMatch<?> match : matches) {
+            Node<Embedded> node = nodesById.get(match.embeddingId());
+            if (node != null) {
+                node.lastUsed = stamp;
+            }
+        }
+    }
+
+    boolean hasExpired() {
+        long next = nextExpiresAt;
+        return next != Long.MAX_VALUE && next <= config.clock().millis();
+    }
+
+    /**
+     * Stops tracking the entries that have expired or exceed the limits, and counts them as evicted.
+     * The caller must remove them from the store.
+     *
+     * @return the evicted entries.
+     */
+    synchronized List<Evicted<Embedded>> evict() {
+        List<Evicted<Embedded>> evicted = new ArrayList<>();
+        long now = config.clock().millis();
+        Node<Embedded> first;
+        while ((first = firstByExpiry()) != null && first.expiresAt <= now) {
+            remove(first);
+            evicted.add(new Evicted<>(first.entry, EvictionCause.EXPIRED));
+            expiredCount++;
+        }
+        nextExpiresAt = first == null ? Long.MAX_VALUE : first.expiresAt;
+
+        // bounded, so that searches using the entries meanwhile cannot keep this loop going
+        int secondChances = nodes.size();
+        while (leastRecentlyUsed != null && exceedsLimits()) {
+            Node<Embedded> node = leastRecentlyUsed;
+            if (node.lastUsed > node.linkedAt && secondChances-- > 0) {
+                unlink(node);
+                linkLast(node);
+            } else if (maxEntries != null && nodes.size() > maxEntries) {
+                remove(node);
+                evicted.add(new Evicted<>(node.entry, EvictionCause.MAX_ENTRIES));
+                maxEntriesEvictionCount++;
+            } else {
+                remove(node);
+                evicted.add(new Evicted<>(node.entry, EvictionCause.MAX_BYTES));
+                maxBytesEvictionCount++;
+            }
+        }
+        return evicted;
+    }
+
+    private boolean exceedsLimits() {
+        return (maxEntries != null && nodes.size() > maxEntries) || (maxBytes != null && bytes > maxBytes);
+    }
+
+    synchronized EvictionStats stats() {
+        return new EvictionStats(expiredCount, maxEntriesEvictionCount, maxBytesEvictionCount, bytes);
+    }
+
+    /**
+     * @return a rough estimate of the memory used by the entry, see {@link EvictionConfig#maxBytes()}.
+     */
+    static long estimatedBytes(InMemoryEmbeddingStore.Entry<?> entry) {
+        long estimate = ENTRY_OVERHEAD_BYTES + 2L * entry.id.length();
+        Embedding embedding = entry.embedding;
+        if (embedding == null) {
+            estimate += entry.storage.bytesPerVector();
+        } else {
+            int dimension = embedding.dimension();
+            estimate += embedding instanceof HalfPrecisionEmbedding ? 2L * dimension : 4L * dimension;
+        }
+        if (entry.embedded instanceof TextSegment segment) {
+            estimate += 2L * segment.text().length();
+            for (Map.Entry<String, Object> metadata : segment.metadata().toMap().entrySet()) {
+                // a map node, the key and the value
+                estimate += 64 + 2L * metadata.getKey().length() + 2L * String.valueOf(metadata.getValue()).length();
+            }
+        }
+        return estimate;
+    }
+
+    /**
+     * @return the first node of {@link #byExpiry} that is still tracked, discarding the removed ones before it.
+     */
+    private Node<Embedded> firstByExpiry() {
+        Node<Embedded> first;
+        while ((first = byExpiry.peekFirst()) != null && first.removed) {
+            byExpiry.pollFirst();
+        }
+        return first;
+    }
+
+    private void remove(Node<Embedded> node) {
+        nodes.remove(node.entry);
+        nodesById.remove(node.entry.id, node);
+        // the node stays in byExpiry until it reaches the head of the queue, which is bounded by the time to live
+        node.removed = true;
+        unlink(node);
+        bytes -= node.bytes;
+    }
+
+    private void linkLast(Node<Embedded> node) {
+        node.linkedAt = useCounter.get();
+        node.previous = mostRecentlyUsed;
+        node.next = null;
+        if (mostRecentlyUsed == null) {
+            leastRecentlyUsed = node;
+        } else {
+            mostRecentlyUsed.next = node;
+        }
+        mostRecentlyUsed = node;
+    }
+
+    private void unlink(Node<Embedded> node) {
+        if (node.previous == null) {
+            leastRecentlyUsed = node.next;
+        } else {
+            node.previous.next = node.next;
+        }
+        if (node.next == null) {
+            mostRecentlyUsed = node.previous;
+        } else {
+            node.next.previous = node.previous;
+        }
+        node.previous = null;
+        node.next = null;
+    }
+
+    static class Evicted<Embedded> {
+
+        final InMemoryEmbeddingStore.Entry<Embedded> entry;
+        final EvictionCause cause;
+
+        Evicted(InMemoryEmbeddingStore.Entry<Embedded> entry, EvictionCause cause) {
+            this.entry = entry;
+            this.cause = cause;
+        }
+    }
+
+    private static class Node<Embedded> {
+
+        final InMemoryEmbeddingStore.Entry<Embedded> entry;
+        final long bytes;
+        final long expiresAt;
+        Node<Embedded> previous;
+        Node<Embedded> next;
+        boolean removed;
+        /**
+         * The value of the use counter when the node was linked last; guarded by the monitor.
+         */
+        long linkedAt;
+        /**
+         * The value of the use counter when a search last returned the entry; written without locking.
+         */
+        volatile long lastUsed;
+
+        Node(InMemoryEmbeddingStore.Entry<Embedded> entry, long bytes, long expiresAt) {
+            this.entry = entry;
+            this.bytes = bytes;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
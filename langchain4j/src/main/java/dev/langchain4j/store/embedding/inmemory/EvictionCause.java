@@ -0,0 +1,26 @@
+package dev.langchain4j.store.embedding.inmemory;
+
+/**
+ * Why an entry was evicted from an {@link InMemoryEmbeddingStore}.
+ *
+ * @see EvictionConfig
+ */
+public enum EvictionCause {
+
+    /**
+     * The entry was added longer than {@link EvictionConfig#timeToLive()} ago.
+     */
+    EXPIRED,
+
+    /**
+     * The store held more than {@link EvictionConfig#maxEntries()} entries,
+     * and this was the least recently used one.
+     */
+    MAX_ENTRIES,
+
+    /**
+     * The estimated size of the store exceeded {@link EvictionConfig#maxBytes()},
+     * and this was the least recently used entry.
+     */
+    MAX_BYTES
+}
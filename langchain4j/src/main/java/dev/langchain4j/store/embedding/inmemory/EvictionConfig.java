@@ -0,0 +1,129 @@
+package dev.langchain4j.store.embedding.inmemory;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Objects;
+
+import static dev.langchain4j.internal.Utils.getOrDefault;
+import static dev.langchain4j.internal.ValidationUtils.ensureGreaterThanZero;
+
+/**
+ * Configuration of the limits an {@link InMemoryEmbeddingStore} enforces by evicting entries,
+ * so that a long-lived store (e.g. a scratch index per user session) cannot grow without bound.
+ * <p>
+ * Configurable parameters (at least one must be set):
+ * <br>
+ * - {@code maxEntries}: Once the store holds more entries, the least recently used ones are evicted.
+ * Entries are used when they are added and when they are returned by a search. Default: no limit
+ * <br>
+ * - {@code maxBytes}: Once the estimated size of all entries (ids, vectors, texts and metadata) exceeds
+ * this many bytes, the least recently used entries are evicted. The estimate does not include
+ * the HNSW index, contiguous, quantized or truncated copies of the vectors. Default: no limit
+ * <br>
+ * - {@code timeToLive}: Entries expire this long after they were added. Expired entries are evicted
+ * whenever the store is modified and before every search, so they are never returned by a search.
+ * To also release the memory of stores that are neither modified nor searched,
+ * call {@link InMemoryEmbeddingStore#evictExpired()} periodically. Default: entries do not expire
+ *
+ * @see InMemoryEmbeddingStore.Builder#eviction(EvictionConfig)
+ * @see EvictionListener
+ */
+public class EvictionConfig {
+
+    private final Integer maxEntries;
+    private final Long maxBytes;
+    private final Duration timeToLive;
+    private final Clock clock;
+
+    EvictionConfig(Integer maxEntries, Long maxBytes, Duration timeToLive, Clock clock) {
+        this.maxEntries = maxEntries == null ? null : ensureGreaterThanZero(maxEntries, "maxEntries");
+        if (maxBytes != null && maxBytes <= 0) {
+            throw new IllegalArgumentException("maxBytes must be greater than zero, but is: " + maxBytes);
+        }
+        this.maxBytes = maxBytes;
+        if (timeToLive != null && (timeToLive.isNegative() || timeToLive.isZero())) {
+            throw new IllegalArgumentException("timeToLive must be positive, but is: " + timeToLive);
+        }
+        this.timeToLive = timeToLive;
+        if (maxEntries == null && maxBytes == null && timeToLive == null) {
+            throw new IllegalArgumentException("At least one of maxEntries, maxBytes and timeToLive must be set");
+        }
+        this.clock = getOrDefault(clock, Clock.systemUTC());
+    }
+
+    public Integer maxEntries() {
+        return maxEntries;
+    }
+
+    public Long maxBytes() {
+        return maxBytes;
+    }
+
+    public Duration timeToLive() {
+        return timeToLive;
+    }
+
+    Clock clock() {
+        return clock;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        EvictionConfig that = (EvictionConfig) o;
+        return Objects.equals(this.maxEntries, that.maxEntries)
+                && Objects.equals(this.maxBytes, that.maxBytes)
+                && Objects.equals(this.timeToLive, that.timeToLive);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(maxEntries, maxBytes, timeToLive);
+    }
+
+    @Override
+    public String toString() {
+        return "EvictionConfig{" +
+                "maxEntries=" + maxEntries +
+                ", maxBytes=" + maxBytes +
+                ", timeToLive=" + timeToLive +
+                '}';
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+
+        private Integer maxEntries;
+        private Long maxBytes;
+        private Duration timeToLive;
+        private Clock clock;
+
+        public Builder maxEntries(Integer maxEntries) {
+            this.maxEntries = maxEntries;
+            return this;
+        }
+
+        public Builder maxBytes(Long maxBytes) {
+            this.maxBytes = maxBytes;
+            return this;
+        }
+
+        public Builder timeToLive(Duration timeToLive) {
+            this.timeToLive = timeToLive;
+            return this;
+        }
+
+        Builder clock(Clock clock) {
+            this.clock = clock;
+            return this;
+        }
+
+        public EvictionConfig build() {
+            return new EvictionConfig(maxEntries, maxBytes, timeToLive, clock);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package dev.langchain4j.store.embedding.inmemory;
+
+import dev.langchain4j.data.embedding.Embedding;
+
+/**
+ * Notified of every entry an {@link InMemoryEmbeddingStore} evicts because of its {@link EvictionConfig}.
+ * Entries removed explicitly (e.g. with {@link InMemoryEmbeddingStore#removeAll(java.util.Collection)})
+ * are not reported.
+ * <p>
+ * The listener is called on the thread that caused the eviction (by adding entries, searching
+ * or calling {@link InMemoryEmbeddingStore#evictExpired()}), after the entry has been removed from the store.
+ *
+ * @param <Embedded> The class of the object that has been embedded.
+ * @see InMemoryEmbeddingStore.Builder#evictionListener(EvictionListener)
+ */
+@FunctionalInterface
+public interface EvictionListener<Embedded> {
+
+    /**
+     * @param id        the id of the evicted entry
+     * @param embedding the embedding of the evicted entry
+     * @param embedded  the embedded object of the evicted entry, can be {@code null}
+     * @param cause     why the entry was evicted
+     */
+    void onEviction(String id, Embedding embedding, Embedded embedded, EvictionCause cause);
+}
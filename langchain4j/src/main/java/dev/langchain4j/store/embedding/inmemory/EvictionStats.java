@@ -0,0 +1,74 @@
+package dev.langchain4j.store.embedding.inmemory;
+
+import java.util.Objects;
+
+/**
+ * A snapshot of the eviction counters of an {@link InMemoryEmbeddingStore}.
+ *
+ * @see InMemoryEmbeddingStore#evictionStats()
+ */
+public class EvictionStats {
+
+    private final long expiredCount;
+    private final long maxEntriesEvictionCount;
+    private final long maxBytesEvictionCount;
+    private final long estimatedBytes;
+
+    EvictionStats(long expiredCount, long maxEntriesEvictionCount, long maxBytesEvictionCount, long estimatedBytes) {
+        this.expiredCount = expiredCount;
+        this.maxEntriesEvictionCount = maxEntriesEvictionCount;
+        this.maxBytesEvictionCount = maxBytesEvictionCount;
+        this.estimatedBytes = estimatedBytes;
+    }
+
+    /**
+     * @return the number of entries evicted for the given cause since the store was created.
+     */
+    public long evictionCount(EvictionCause cause) {
+        return switch (cause) {
+            case EXPIRED -> expiredCount;
+            case MAX_ENTRIES -> maxEntriesEvictionCount;
+            case MAX_BYTES -> maxBytesEvictionCount;
+        };
+    }
+
+    /**
+     * @return the number of entries evicted for any cause since the store was created.
+     */
+    public long evictionCount() {
+        return expiredCount + maxEntriesEvictionCount + maxBytesEvictionCount;
+    }
+
+    /**
+     * @return the estimated size of the entries currently in the store, see {@link EvictionConfig#maxBytes()}.
+     */
+    public long estimatedBytes() {
+        return estimatedBytes;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        EvictionStats that = (EvictionStats) o;
+        return this.expiredCount == that.expiredCount
+                && this.maxEntriesEvictionCount == that.maxEntriesEvictionCount
+                && this.maxBytesEvictionCount == that.maxBytesEvictionCount
+                && this.estimatedBytes == that.estimatedBytes;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(expiredCount, maxEntriesEvictionCount, maxBytesEvictionCount, estimatedBytes);
+    }
+
+    @Override
+    public String toString() {
+        return "EvictionStats{" +
+                "expiredCount=" + expiredCount +
+                ", maxEntriesEvictionCount=" + maxEntriesEvictionCount +
+                ", maxBytesEvictionCount=" + maxBytesEvictionCount +
+                ", estimatedBytes=" + estimatedBytes +
+                '}';
+    }
+}
@@ -0,0 +1,105 @@
+package dev.langchain4j.store.embedding.inmemory;
+
+import java.util.Objects;
+
+import static dev.langchain4j.internal.Utils.getOrDefault;
+import static dev.langchain4j.internal.ValidationUtils.ensureGreaterThanZero;
+
+/**
+ * Configuration of the HNSW (Hierarchical Navigable Small World) index
+ * that can optionally be maintained by an {@link InMemoryEmbeddingStore}.
+ * <p>
+ * Configurable parameters (optional):
+ * <br>
+ * - {@code m}: The maximum number of connections per node on the upper layers of the graph.
+ * Nodes on the bottom layer keep up to {@code 2 * m} connections. Default: 16
+ * <br>
+ * - {@code efConstruction}: The size of the dynamic candidate list used while inserting nodes.
+ * Higher values build a better graph at the cost of slower inserts. Default: 200
+ * <br>
+ * - {@code efSearch}: The size of the dynamic candidate list used while searching.
+ * Higher values give better recall at the cost of slower searches.
+ * It is never smaller than {@link dev.langchain4j.store.embedding.EmbeddingSearchRequest#maxResults()}. Default: 64
+ */
+public class HnswConfig {
+
+    static final int DEFAULT_M = 16;
+    static final int DEFAULT_EF_CONSTRUCTION = 200;
+    static final int DEFAULT_EF_SEARCH = 64;
+
+    private final int m;
+    private final int efConstruction;
+    private final int efSearch;
+
+    HnswConfig(Integer m, Integer efConstruction, Integer efSearch) {
+        this.m = ensureGreaterThanZero(getOrDefault(m, DEFAULT_M), "m");
+        this.efConstruction = ensureGreaterThanZero(getOrDefault(efConstruction, DEFAULT_EF_CONSTRUCTION), "efConstruction");
+        this.efSearch = ensureGreaterThanZero(getOrDefault(efSearch, DEFAULT_EF_SEARCH), "efSearch");
+    }
+
+    public int m() {
+        return m;
+    }
+
+    public int efConstruction() {
+        return efConstruction;
+    }
+
+    public int efSearch() {
+        return efSearch;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        HnswConfig that = (HnswConfig) o;
+        return this.m == that.m
+                && this.efConstruction == that.efConstruction
+                && this.efSearch == that.efSearch;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(m, efConstruction, efSearch);
+    }
+
+    @Override
+    public String toString() {
+        return "HnswConfig{" +
+                "m=" + m +
+                ", efConstruction=" + efConstruction +
+                ", efSearch=" + efSearch +
+                '}';
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+
+        private Integer m;
+        private Integer efConstruction;
+        private Integer efSearch;
+
+        public Builder m(Integer m) {
+            this.m = m;
+            return this;
+        }
+
+        public Builder efConstruction(Integer efConstruction) {
+            this.efConstruction = efConstruction;
+            return this;
+        }
+
+        public Builder efSearch(Integer efSearch) {
+            this.efSearch = efSearch;
+            return this;
+        }
+
+        public HnswConfig build() {
+            return new HnswConfig(m, efConstruction, efSearch);
+        }
+    }
+}
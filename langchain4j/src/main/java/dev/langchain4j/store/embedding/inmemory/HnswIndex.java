@@ -0,0 +1,367 @@
+package dev.langchain4j.store.embedding.inmemory;
+
+import dev.langchain4j.store.embedding.VectorSimilarity;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+
+import static java.util.Comparator.comparingDouble;
+
+/**
+ * An approximate nearest neighbour index based on
+ * <a href="https://arxiv.org/abs/1603.09320">Hierarchical Navigable Small World graphs</a>.
+ * <p>
+ * Nodes reference the {@link InMemoryEmbeddingStore.Entry} they were created for, so the index never copies vectors.
+ * Removed entries are only marked as deleted: they are still traversed, but never returned.
+ * Once more than half of the nodes are deleted, the graph is rebuilt from the remaining entries.
+ * <p>
+ * This class is thread-safe: searches can run concurrently, modifications are exclusive.
+ */
+class HnswIndex<Embedded> {
+
+    private final int m;
+    private final int maxM0;
+    private final int efConstruction;
+    private final int efSearch;
+    private final double levelMultiplier;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private List<Node<Embedded>> nodes = new ArrayList<>();
+    private Map<InMemoryEmbeddingStore.Entry<Embedded>, Integer> nodeIds = new IdentityHashMap<>();
+    private int entryPoint = -1;
+    private int maxLevel = -1;
+    private int deletedCount;
+
+    HnswIndex(HnswConfig config) {
+        this.m = config.m();
+        this.maxM0 = 2 * config.m();
+        this.efConstruction = config.efConstruction();
+        this.efSearch = config.efSearch();
+        this.levelMultiplier = 1 / Math.log(Math.max(config.m(), 2));
+    }
+
+    void addAll(Collection<InMemoryEmbeddingStore.Entry<Embedded>> entries) {
+        lock.writeLock().lock();
+        try {
+            for (InMemoryEmbeddingStore.Entry<Embedded> entry : entries) {
+                insert(entry);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void removeAll(Collection<InMemoryEmbeddingStore.Entry<Embedded>> entries) {
+        lock.writeLock().lock();
+        try {
+            for (InMemoryEmbeddingStore.Entry<Embedded> entry : entries) {
+                Integer id = nodeIds.remove(entry);
+                if (id != null && !nodes.get(id).deleted) {
+                    nodes.get(id).deleted = true;
+                    deletedCount++;
+                }
+            }
+            if (deletedCount > nodes.size() / 2) {
+                rebuild();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void clear() {
+        lock.writeLock().lock();
+        try {
+            nodes = new ArrayList<>();
+            nodeIds = new IdentityHashMap<>();
+            entryPoint = -1;
+            maxLevel = -1;
+            deletedCount = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Finds (approximately) the {@code maxResults} entries most similar to the given vector
+     * among the entries accepted by the given predicate.
+     *
+     * @return found entries, ordered from the most to the least similar.
+     * May contain fewer than {@code maxResults} entries when the predicate rejects many of the visited entries.
+     */
+    List<ScoredEntry<Embedded>> search(float[] vector, int maxResults, Predicate<InMemoryEmbeddingStore.Entry<Embedded>> predicate) {
+        lock.readLock().lock();
+        try {
+            if (entryPoint < 0) {
+                return new ArrayList<>();
+            }
+
+            double queryNorm = VectorSimilarity.norm(vector);
+            int current = entryPoint;
+            for (int level = maxLevel; level > 0; level--) {
+                current = greedySearch(vector, queryNorm, current, level);
+            }
+
+            // deleted nodes are still visited but never returned, so the beam is widened until it holds
+            // enough live nodes, or all of them
+            int live = nodes.size() - deletedCount;
+            int ef = Math.max(efSearch, maxResults);
+            while (true) {
+                List<Candidate> sorted = sortDescending(searchLayer(vector, queryNorm, current, ef, 0));
+                int liveFound = 0;
+                List<ScoredEntry<Embedded>> result = new ArrayList<>(maxResults);
+                for (Candidate candidate : sorted) {
+                    Node<Embedded> node = nodes.get(candidate.id);
+                    if (node.deleted) {
+                        continue;
+                    }
+                    liveFound++;
+                    if (result.size() < maxResults && predicate.test(node.entry)) {
+                        result.add(new ScoredEntry<>(node.entry, candidate.similarity));
+                    }
+                }
+                if (liveFound >= Math.min(maxResults, live) || ef >= nodes.size()) {
+                    return result;
+                }
+                ef = (int) Math.min(2L * ef, nodes.size());
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void insert(InMemoryEmbeddingStore.Entry<Embedded> entry) {
+        float[] vector = entry.embedding().vector();
+        int level = randomLevel();
+        Node<Embedded> node = new Node<>(entry, entry.norm(), level, m, maxM0);
+        int id = nodes.size();
+        nodes.add(node);
+        nodeIds.put(entry, id);
+
+        if (entryPoint < 0) {
+            entryPoint = id;
+            maxLevel = level;
+            return;
+        }
+
+        int current = entryPoint;
+        for (int l = maxLevel; l > level; l--) {
+            current = greedySearch(vector, node.norm, current, l);
+        }
+
+        for (int l = Math.min(level, maxLevel); l >= 0; l--) {
+            List<Candidate> candidates = sortDescending(searchLayer(vector, node.norm, current, efConstruction, l));
+            int maxConnections = l == 0 ? maxM0 : m;
+            for (int neighbour : selectNeighbours(candidates, m)) {
+                node.connect(l, neighbour);
+                Node<Embedded> neighbourNode = nodes.get(neighbour);
+                neighbourNode.connect(l, id);
+                if (neighbourNode.sizes[l] > maxConnections) {
+                    shrinkConnections(neighbourNode, l, maxConnections);
+                }
+            }
+            current = candidates.get(0).id;
+        }
+
+        if (level > maxLevel) {
+            entryPoint = id;
+            maxLevel = level;
+        }
+    }
+
+    private void rebuild() {
+        List<InMemoryEmbeddingStore.Entry<Embedded>> live = new ArrayList<>(nodes.size() - deletedCount);
+        for (Node<Embedded> node : nodes) {
+            if (!node.deleted) {
+                live.add(node.entry);
+            }
+        }
+        nodes = new ArrayList<>(live.size());
+        nodeIds = new IdentityHashMap<>(live.size());
+        entryPoint = -1;
+        maxLevel = -1;
+        deletedCount = 0;
+        for (InMemoryEmbeddingStore.Entry<Embedded> entry : live) {
+            insert(entry);
+        }
+    }
+
+    private int greedySearch(float[] vector, double norm, int start, int level) {
+        int current = start;
+        double currentSimilarity = similarity(vector, norm, current);
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            Node<Embedded> node = nodes.get(current);
+            for (int i = 0; i < node.sizes[level]; i++) {
+                int neighbour = node.neighbours[level][i];
+                double similarity = similarity(vector, norm, neighbour);
+                if (similarity > currentSimilarity) {
+                    current = neighbour;
+                    currentSimilarity = similarity;
+                    changed = true;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * @return a min-heap (by similarity) of at most {@code ef} nodes closest to the given vector.
+     */
+    private PriorityQueue<Candidate> searchLayer(float[] vector, double norm, int start, int ef, int level) {
+        BitSet visited = new BitSet(nodes.size());
+        visited.set(start);
+
+        Candidate first = new Candidate(start, similarity(vector, norm, start));
+        PriorityQueue<Candidate> candidates = new PriorityQueue<>(comparingDouble((Candidate c) -> c.similarity).reversed());
+        PriorityQueue<Candidate> results = new PriorityQueue<>(comparingDouble((Candidate c) -> c.similarity));
+        candidates.add(first);
+        results.add(first);
+
+        while (!candidates.isEmpty()) {
+            Candidate closest = candidates.poll();
+            if (closest.similarity < results.peek().similarity && results.size() >= ef) {
+                break;
+            }
+            Node<Embedded> node = nodes.get(closest.id);
+            for (int i = 0; i < node.sizes[level]; i++) {
+                int neighbour = node.neighbours[level][i];
+                if (visited.get(neighbour)) {
+                    continue;
+                }
+                visited.set(neighbour);
+                double similarity = similarity(vector, norm, neighbour);
+                if (results.size() < ef || similarity > results.peek().similarity) {
+                    Candidate candidate = new Candidate(neighbour, similarity);
+                    candidates.add(candidate);
+                    results.add(candidate);
+                    if (results.size() > ef) {
+                        results.poll();
+                    }
+                }
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Selects neighbours using the heuristic from the HNSW paper: a candidate is preferred
+     * when it is closer to the inserted node than to any neighbour selected so far,
+     * which keeps the graph navigable across clusters.
+     * Pruned candidates fill the remaining slots, so nodes keep as many connections as possible.
+     */
+    private int[] selectNeighbours(List<Candidate> candidatesDescending, int maxConnections) {
+        List<Candidate> selected = new ArrayList<>(maxConnections);
+        List<Candidate> pruned = new ArrayList<>();
+        for (Candidate candidate : candidatesDescending) {
+            if (selected.size() == maxConnections) {
+                break;
+            }
+            Node<Embedded> candidateNode = nodes.get(candidate.id);
+            boolean good = true;
+            for (Candidate s : selected) {
+                if (similarity(candidateNode, s.id) > candidate.similarity) {
+                    good = false;
+                    break;
+                }
+            }
+            if (good) {
+                selected.add(candidate);
+            } else {
+                pruned.add(candidate);
+            }
+        }
+        for (int i = 0; i < pruned.size() && selected.size() < maxConnections; i++) {
+            selected.add(pruned.get(i));
+        }
+
+        int[] ids = new int[selected.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = selected.get(i).id;
+        }
+        return ids;
+    }
+
+    private void shrinkConnections(Node<Embedded> node, int level, int maxConnections) {
+        List<Candidate> candidates = new ArrayList<>(node.sizes[level]);
+        for (int i = 0; i < node.sizes[level]; i++) {
+            int neighbour = node.neighbours[level][i];
+            candidates.add(new Candidate(neighbour, similarity(node, neighbour)));
+        }
+        candidates.sort(comparingDouble((Candidate c) -> c.similarity).reversed());
+        int[] selected = selectNeighbours(candidates, maxConnections);
+        System.arraycopy(selected, 0, node.neighbours[level], 0, selected.length);
+        node.sizes[level] = selected.length;
+    }
+
+    private double similarity(float[] vector, double norm, int id) {
+        Node<Embedded> node = nodes.get(id);
+        return VectorSimilarity.cosineSimilarity(node.entry.dotProduct(vector), node.norm, norm);
+    }
+
+    /**
+     * Compares the embeddings of two nodes directly, without widening half-precision embeddings into copies.
+     */
+    private double similarity(Node<Embedded> node, int id) {
+        Node<Embedded> other = nodes.get(id);
+        float dotProduct = VectorSimilarity.dotProduct(node.entry.embedding(), other.entry.embedding());
+        return VectorSimilarity.cosineSimilarity(dotProduct, node.norm, other.norm);
+    }
+
+    private int randomLevel() {
+        double random = 1.0 - ThreadLocalRandom.current().nextDouble(); // (0..1]
+        return (int) (-Math.log(random) * levelMultiplier);
+    }
+
+    private static List<Candidate> sortDescending(PriorityQueue<Candidate> minHeap) {
+        List<Candidate> sorted = new ArrayList<>(minHeap);
+        sorted.sort(comparingDouble((Candidate c) -> c.similarity).reversed());
+        return sorted;
+    }
+
+    private static class Node<Embedded> {
+
+        final InMemoryEmbeddingStore.Entry<Embedded> entry;
+        final double norm;
+        final int[][] neighbours;
+        final int[] sizes;
+        boolean deleted;
+
+        Node(InMemoryEmbeddingStore.Entry<Embedded> entry, double norm, int level, int m, int maxM0) {
+            this.entry = entry;
+            this.norm = norm;
+            this.neighbours = new int[level + 1][];
+            this.sizes = new int[level + 1];
+            for (int l = 0; l <= level; l++) {
+                // one extra slot, so that a connection can be added before shrinking
+                neighbours[l] = new int[(l == 0 ? maxM0 : m) + 1];
+            }
+        }
+
+        void connect(int level, int id) {
+            neighbours[level][sizes[level]++] = id;
+        }
+    }
+
+    private static class Candidate {
+
+        final int id;
+        final double similarity;
+
+        Candidate(int id, double similarity) {
+            this.id = id;
+            this.similarity = similarity;
+        }
+    }
+}
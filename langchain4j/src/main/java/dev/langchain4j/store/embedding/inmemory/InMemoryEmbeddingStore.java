@@ -2,62 +2,230 @@ package dev.langchain4j.store.embedding.inmemory;
 
 import dev.langchain4j.data.document.Metadata;
 import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.embedding.HalfPrecisionEmbedding;
 import dev.langchain4j.data.segment.TextSegment;
 import dev.langchain4j.spi.store.embedding.inmemory.InMemoryEmbeddingStoreJsonCodecFactory;
-import dev.langchain4j.store.embedding.CosineSimilarity;
 import dev.langchain4j.store.embedding.EmbeddingMatch;
 import dev.langchain4j.store.embedding.EmbeddingSearchRequest;
 import dev.langchain4j.store.embedding.EmbeddingSearchResult;
 import dev.langchain4j.store.embedding.EmbeddingStore;
 import dev.langchain4j.store.embedding.RelevanceScore;
+import dev.langchain4j.store.embedding.VectorSimilarity;
 import dev.langchain4j.store.embedding.filter.Filter;
 
 import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Objects;
 import java.util.PriorityQueue;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.function.Predicate;
 
+import static dev.langchain4j.internal.Exceptions.illegalArgument;
+import static dev.langchain4j.internal.Utils.getOrDefault;
+import static dev.langchain4j.internal.Utils.isNullOrEmpty;
 import static dev.langchain4j.internal.Utils.randomUUID;
 import static dev.langchain4j.internal.ValidationUtils.ensureNotBlank;
+import static dev.langchain4j.internal.ValidationUtils.ensureGreaterThanZero;
 import static dev.langchain4j.internal.ValidationUtils.ensureNotEmpty;
 import static dev.langchain4j.internal.ValidationUtils.ensureNotNull;
 import static dev.langchain4j.spi.ServiceHelper.loadFactories;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
 import static java.nio.file.StandardOpenOption.CREATE;
 import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
 import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
 import static java.util.Comparator.comparingDouble;
 import static java.util.stream.Collectors.toList;
 
 /**
  * An {@link EmbeddingStore} that stores embeddings in memory.
  * <p>
- * Uses a brute force approach by iterating over all embeddings to find the best matches.
+ * By default, uses a brute force approach by iterating over all embeddings to find the best matches.
+ * Optionally, an approximate HNSW index can be maintained (see {@link Builder#hnswConfig(HnswConfig)}),
+ * trading a small loss of recall for sub-linear search time.
+ * <p>
+ * Brute force search can also sweep over all vectors kept in a single contiguous array
+ * (see {@link Builder#contiguousStorage(Boolean)}), which is considerably more cache-friendly for large stores,
+ * or over {@link Quantization quantized} codes of all vectors (see {@link Builder#quantization(Quantization)}),
+ * which then replace the vectors in memory, rescoring only the best candidates,
+ * with full precision if the vectors are kept in a file (see {@link Builder#rescoringFile(Path)}).
+ * For embedding models trained with Matryoshka representation learning, the first pass can instead scan
+ * truncated prefixes of the vectors (see {@link Builder#prefixDimension(Integer)}), rescoring only the best
+ * candidates with the full vectors.
+ * Embeddings can also be normalized when added (see {@link Builder#normalizeEmbeddings(Boolean)}),
+ * so that brute force search ranks by dot product.
+ * Brute force search over large stores can be spread across several threads
+ * (see {@link Builder#searchExecutor(java.util.concurrent.Executor)}),
+ * and searches with selective {@link Filter}s can be answered from secondary metadata indexes
+ * (see {@link Builder#indexedMetadataKeys(Collection)}).
+ * <p>
+ * The number, estimated size and age of the entries can be limited (see {@link Builder#eviction(EvictionConfig)}),
+ * in which case expired and least recently used entries are evicted.
  * <p>
  * This store can be persisted using the {@link #serializeToJson()} and {@link #serializeToFile(Path)} methods.
  * <p>
  * It can also be recreated from JSON or a file using the {@link #fromJson(String)} and {@link #fromFile(Path)} methods.
+ * Files, as well as {@link #serializeToJson(Writer)} and {@link #fromJson(Reader)}, are written and read
+ * one entry at a time, without holding the whole JSON document in memory.
+ * <p>
+ * For large stores, the binary snapshot format ({@link #serializeToBinaryFile(Path)} and {@link #fromBinaryFile(Path)})
+ * is much faster to write and load, and avoids building the whole JSON document in memory.
+ * To persist every modification as it happens, configure a write-ahead log
+ * (see {@link Builder#writeAheadLog(WriteAheadLogConfig)}). Such a store must be {@link #close() closed}.
  *
  * @param <Embedded> The class of the object that has been embedded.
  *                   Typically, it is {@link dev.langchain4j.data.segment.TextSegment}.
  */
-public class InMemoryEmbeddingStore<Embedded> implements EmbeddingStore<Embedded> {
+public class InMemoryEmbeddingStore<Embedded> implements EmbeddingStore<Embedded>, AutoCloseable {
+
+    static final int DEFAULT_INT8_OVERSAMPLING = 4;
+    static final int DEFAULT_BINARY_OVERSAMPLING = 10;
+    static final int DEFAULT_PREFIX_OVERSAMPLING = 4;
+    static final int DEFAULT_PARALLEL_SEARCH_THRESHOLD = 10_000;
+
+    /**
+     * The number of entries {@link #searchAll(List)} scores against all queries before moving on,
+     * small enough for their vectors to stay in the CPU cache while they are compared to every query.
+     */
+    static final int SEARCH_ALL_BLOCK_SIZE = 64;
+
+    /**
+     * When the store maintains an HNSW index, a contiguous, quantized or truncated copy of the vectors,
+     * candidates found by the {@link MetadataIndex} are scored directly only if they are at most
+     * {@code 1 / SELECTIVE_FILTER_DIVISOR} of all entries.
+     */
+    static final int SELECTIVE_FILTER_DIVISOR = 10;
 
-    final CopyOnWriteArrayList<Entry<Embedded>> entries;
+    final SegmentedEntries<Embedded> entries;
+    private final HnswConfig hnswConfig;
+
+    private final transient Object writeLock = new Object();
+    private final transient HnswIndex<Embedded> hnswIndex;
+    private final transient VectorSlab<Embedded> vectorSlab;
+    private final transient QuantizedVectors<Embedded> quantizedVectors;
+    private final transient PrefixVectors<Embedded> prefixVectors;
+    private final transient MetadataIndex<Embedded> metadataIndex;
+    private transient WriteAheadLog writeAheadLog;
+    private final transient Executor searchExecutor;
+    private final transient int parallelSearchThreshold;
+    private final transient boolean normalizeEmbeddings;
+    private final transient EntryEviction<Embedded> eviction;
+    private final transient EvictionListener<? super Embedded> evictionListener;
+    /**
+     * The configuration this store was built with, without the files that cannot be shared with another store,
+     * so that {@link #merge(Collection)} can build a store with the same configuration.
+     */
+    private final transient Builder<Embedded> configuration;
 
     public InMemoryEmbeddingStore() {
-        this.entries = new CopyOnWriteArrayList<>();
+        this(new Builder<>());
+    }
+
+    private InMemoryEmbeddingStore(Builder<Embedded> builder) {
+        this.configuration = builder.withoutFiles();
+        this.entries = new SegmentedEntries<>();
+        this.hnswConfig = builder.hnswConfig;
+        this.hnswIndex = builder.hnswConfig == null ? null : new HnswIndex<>(builder.hnswConfig);
+        this.vectorSlab = getOrDefault(builder.contiguousStorage, false) ? new VectorSlab<>() : null;
+        if (builder.hnswConfig != null && vectorSlab != null) {
+            throw illegalArgument("hnswConfig and contiguousStorage cannot be used together");
+        }
+        this.metadataIndex = isNullOrEmpty(builder.indexedMetadataKeys)
+                ? null
+                : new MetadataIndex<>(builder.indexedMetadataKeys);
+        this.searchExecutor = builder.searchExecutor;
+        this.parallelSearchThreshold = ensureGreaterThanZero(
+                getOrDefault(builder.parallelSearchThreshold, DEFAULT_PARALLEL_SEARCH_THRESHOLD), "parallelSearchThreshold");
+        this.normalizeEmbeddings = getOrDefault(builder.normalizeEmbeddings, false);
+        if (builder.quantization != null) {
+            if (builder.hnswConfig != null) {
+                throw illegalArgument("hnswConfig and quantization cannot be used together");
+            }
+            if (vectorSlab != null) {
+                throw illegalArgument("quantization and contiguousStorage cannot be used together");
+            }
+            int defaultOversampling = builder.quantization == Quantization.BINARY
+                    ? DEFAULT_BINARY_OVERSAMPLING
+                    : DEFAULT_INT8_OVERSAMPLING;
+            int oversampling = ensureGreaterThanZero(getOrDefault(builder.oversampling, defaultOversampling), "oversampling");
+            this.quantizedVectors = new QuantizedVectors<>(builder.quantization, oversampling, builder.rescoringFile);
+        } else {
+            if (builder.rescoringFile != null) {
+                throw illegalArgument("rescoringFile cannot be used without quantization");
+            }
+            this.quantizedVectors = null;
+        }
+        if (builder.prefixDimension != null) {
+            if (builder.hnswConfig != null || builder.quantization != null || vectorSlab != null) {
+                throw illegalArgument(
+                        "prefixDimension cannot be used together with hnswConfig, quantization or contiguousStorage");
+            }
+            int prefixDimension = ensureGreaterThanZero(builder.prefixDimension, "prefixDimension");
+            int oversampling = ensureGreaterThanZero(
+                    getOrDefault(builder.oversampling, DEFAULT_PREFIX_OVERSAMPLING), "oversampling");
+            this.prefixVectors = new PrefixVectors<>(prefixDimension, oversampling);
+        } else {
+            this.prefixVectors = null;
+        }
+        if (builder.evictionListener != null && builder.evictionConfig == null) {
+            throw illegalArgument("evictionListener cannot be used without eviction");
+        }
+        this.eviction = builder.evictionConfig == null ? null : new EntryEviction<>(builder.evictionConfig);
+        this.evictionListener = builder.evictionListener;
+        if (builder.writeAheadLogConfig != null) {
+            openWriteAheadLog(builder.writeAheadLogConfig);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void openWriteAheadLog(WriteAheadLogConfig config) {
+        WriteAheadLog log = new WriteAheadLog(config, hnswConfig);
+        List<Entry<TextSegment>> recovered;
+        try {
+            recovered = log.open();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        this.writeAheadLog = log;
+        // recovered entries are not logged again, but the removal of those evicted right away is
+        add((List<Entry<Embedded>>) (List<?>) recovered, false);
+    }
+
+    /**
+     * Forces the {@link Builder#writeAheadLog(WriteAheadLogConfig) write-ahead log} to the storage device,
+     * closes it and unlocks its directory. The store can still be searched, but no longer modified.
+     * Also deletes the {@link Builder#rescoringFile(Path) rescoring file}, after which quantized candidates
+     * are rescored against the vectors decoded from their codes.
+     * Does nothing if the store has neither.
+     */
+    @Override
+    public void close() {
+        synchronized (writeLock) {
+            if (writeAheadLog != null) {
+                writeAheadLog.close();
+            }
+            if (quantizedVectors != null) {
+                quantizedVectors.close();
+            }
+        }
     }
 
-    private InMemoryEmbeddingStore(Collection<Entry<Embedded>> entries) {
-        this.entries = new CopyOnWriteArrayList<>(entries);
+    public static <Embedded> Builder<Embedded> builder() {
+        return new Builder<>();
     }
 
     @Override
@@ -80,7 +248,7 @@ public class InMemoryEmbeddingStore<Embedded> implements EmbeddingStore<Embedded
     }
 
     public void add(String id, Embedding embedding, Embedded embedded) {
-        entries.add(new Entry<>(id, embedding, embedded));
+        add(singletonList(new Entry<>(id, embedding, embedded)));
     }
 
     @Override
@@ -108,8 +276,47 @@ public class InMemoryEmbeddingStore<Embedded> implements EmbeddingStore<Embedded
     }
 
     private List<String> add(List<Entry<Embedded>> newEntries) {
+        return add(newEntries, true);
+    }
+
+    private List<String> add(List<Entry<Embedded>> newEntries, boolean logged) {
 
-        entries.addAll(newEntries);
+        if (normalizeEmbeddings) {
+            newEntries = newEntries.stream()
+                    .map(entry -> new Entry<>(entry.id, normalized(entry.embedding()), entry.embedded))
+                    .collect(toList());
+        }
+
+        List<EntryEviction.Evicted<Embedded>> evicted = List.of();
+        synchronized (writeLock) {
+            byte[] logRecord = logged && writeAheadLog != null ? writeAheadLog.encodeAdd(newEntries) : null;
+            if (quantizedVectors != null) {
+                quantizedVectors.addAll(newEntries);
+            }
+            if (prefixVectors != null) {
+                prefixVectors.addAll(newEntries);
+            }
+            if (metadataIndex != null) {
+                metadataIndex.addAll(newEntries);
+            }
+            if (vectorSlab != null) {
+                // last, as the slab takes over the vectors of the entries
+                vectorSlab.addAll(newEntries);
+            }
+            entries.addAll(newEntries);
+            if (hnswIndex != null) {
+                hnswIndex.addAll(newEntries);
+            }
+            if (logRecord != null) {
+                writeAheadLog.append(logRecord, entries);
+            }
+            if (eviction != null) {
+                eviction.addAll(newEntries);
+                evicted = evict();
+            }
+        }
+        compactWriteAheadLog();
+        notifyEvicted(evicted);
 
         return newEntries.stream()
                 .map(entry -> entry.id)
@@ -120,16 +327,20 @@ public class InMemoryEmbeddingStore<Embedded> implements EmbeddingStore<Embedded
     public void removeAll(Collection<String> ids) {
         ensureNotEmpty(ids, "ids");
 
-        entries.removeIf(entry -> ids.contains(entry.id));
+        synchronized (writeLock) {
+            removed(entries.removeIds(ids));
+        }
+        compactWriteAheadLog();
     }
 
     @Override
     public void removeAll(Filter filter) {
         ensureNotNull(filter, "filter");
 
-        entries.removeIf(entry -> {
+        Predicate<Metadata> predicate = filter.toPredicate();
+        removeIf(entry -> {
             if (entry.embedded instanceof TextSegment) {
-                return filter.test(((TextSegment) entry.embedded).metadata());
+                return predicate.test(((TextSegment) entry.embedded).metadata());
             } else if (entry.embedded == null) {
                 return false;
             } else {
@@ -140,30 +351,393 @@ public class InMemoryEmbeddingStore<Embedded> implements EmbeddingStore<Embedded
 
     @Override
     public void removeAll() {
-        entries.clear();
+        synchronized (writeLock) {
+            entries.clear();
+            if (hnswIndex != null) {
+                hnswIndex.clear();
+            }
+            if (vectorSlab != null) {
+                vectorSlab.clear();
+            }
+            if (quantizedVectors != null) {
+                quantizedVectors.clear();
+            }
+            if (prefixVectors != null) {
+                prefixVectors.clear();
+            }
+            if (metadataIndex != null) {
+                metadataIndex.clear();
+            }
+            if (eviction != null) {
+                eviction.clear();
+            }
+            if (writeAheadLog != null) {
+                writeAheadLog.append(writeAheadLog.encodeClear(), entries);
+            }
+        }
+        compactWriteAheadLog();
+    }
+
+    private void removeIf(Predicate<Entry<Embedded>> predicate) {
+        synchronized (writeLock) {
+            removed(entries.removeMatching(predicate));
+        }
+        compactWriteAheadLog();
+    }
+
+    /**
+     * Writes the snapshot of the {@link #writeAheadLog} if one is due, without holding the {@link #writeLock},
+     * so that the store can be searched and modified meanwhile.
+     */
+    private void compactWriteAheadLog() {
+        if (writeAheadLog != null) {
+            writeAheadLog.compact();
+        }
+    }
+
+    /**
+     * Removes the given entries, which have just been removed from {@link #entries}, from the derived structures
+     * and logs their removal. Must be called while holding the {@link #writeLock}.
+     */
+    private void removed(List<Entry<Embedded>> removed) {
+        if (removed.isEmpty()) {
+            return;
+        }
+        if (hnswIndex != null) {
+            hnswIndex.removeAll(removed);
+        }
+        if (vectorSlab != null) {
+            vectorSlab.removeAll(removed);
+        }
+        if (quantizedVectors != null) {
+            quantizedVectors.removeAll(removed);
+        }
+        if (prefixVectors != null) {
+            prefixVectors.removeAll(removed);
+        }
+        if (metadataIndex != null) {
+            metadataIndex.removeAll(removed);
+        }
+        if (eviction != null) {
+            eviction.removeAll(removed);
+        }
+        if (writeAheadLog != null) {
+            Set<String> removedIds = new LinkedHashSet<>();
+            removed.forEach(entry -> removedIds.add(entry.id));
+            writeAheadLog.append(writeAheadLog.encodeRemove(removedIds), entries);
+        }
+    }
+
+    /**
+     * Evicts the entries that have expired according to the {@link Builder#eviction(EvictionConfig)} configuration.
+     * Expired entries are also evicted whenever the store is modified and before every search,
+     * so this only needs to be called (e.g. periodically) to release the memory held by idle stores.
+     */
+    public void evictExpired() {
+        if (eviction == null || !eviction.hasExpired()) {
+            return;
+        }
+        List<EntryEviction.Evicted<Embedded>> evicted;
+        synchronized (writeLock) {
+            evicted = evict();
+        }
+        compactWriteAheadLog();
+        notifyEvicted(evicted);
+    }
+
+    /**
+     * @return the eviction counters and the estimated size of the entries,
+     * or {@code null} if no {@link Builder#eviction(EvictionConfig)} is configured.
+     */
+    public EvictionStats evictionStats() {
+        return eviction == null ? null : eviction.stats();
+    }
+
+    /**
+     * Removes the entries selected by the {@link #eviction} policy.
+     * Must be called while holding the {@link #writeLock}.
+     */
+    private List<EntryEviction.Evicted<Embedded>> evict() {
+        List<EntryEviction.Evicted<Embedded>> evicted = eviction.evict();
+        if (!evicted.isEmpty()) {
+            List<Entry<Embedded>> evictedEntries = new ArrayList<>(evicted.size());
+            evicted.forEach(e -> evictedEntries.add(e.entry));
+            removed(entries.removeEntries(evictedEntries));
+        }
+        return evicted;
+    }
+
+    private void notifyEvicted(List<EntryEviction.Evicted<Embedded>> evicted) {
+        if (evictionListener == null) {
+            return;
+        }
+        for (EntryEviction.Evicted<Embedded> e : evicted) {
+            evictionListener.onEviction(e.entry.id, e.entry.embedding(), e.entry.embedded, e.cause);
+        }
     }
 
     @Override
     public EmbeddingSearchResult<Embedded> search(EmbeddingSearchRequest embeddingSearchRequest) {
+        if (eviction == null) {
+            return searchEntries(embeddingSearchRequest);
+        }
+        evictExpired();
+        EmbeddingSearchResult<Embedded> result = searchEntries(embeddingSearchRequest);
+        eviction.used(result.matches());
+        return result;
+    }
+
+    private EmbeddingSearchResult<Embedded> searchEntries(EmbeddingSearchRequest embeddingSearchRequest) {
+
+        // the filter is compiled once, rather than interpreted for every entry
+        Predicate<Metadata> filter = embeddingSearchRequest.filter() == null
+                ? null
+                : embeddingSearchRequest.filter().toPredicate();
+
+        if (metadataIndex != null && filter != null) {
+            List<Entry<Embedded>> candidates = metadataIndex.candidates(embeddingSearchRequest.filter());
+            if (candidates != null && isSelectiveEnough(candidates)) {
+                if (quantizedVectors != null) {
+                    List<ScoredEntry<Embedded>> found = quantizedVectors.search(
+                            embeddingSearchRequest.queryEmbedding().vector(),
+                            embeddingSearchRequest.maxResults(),
+                            candidates,
+                            entry -> matches(filter, entry)
+                    );
+                    return toSearchResult(found, embeddingSearchRequest.minScore());
+                }
+                return bruteForceSearch(candidates, filter, embeddingSearchRequest);
+            }
+        }
+
+        if (hnswIndex != null) {
+            EmbeddingSearchResult<Embedded> result = approximateSearch(hnswIndex, filter, embeddingSearchRequest);
+            if (result != null) {
+                return result;
+            }
+        }
+
+        if (quantizedVectors != null) {
+            List<ScoredEntry<Embedded>> found = quantizedVectors.search(
+                    embeddingSearchRequest.queryEmbedding().vector(),
+                    embeddingSearchRequest.maxResults(),
+                    entry -> matches(filter, entry)
+            );
+            return toSearchResult(found, embeddingSearchRequest.minScore());
+        }
+
+        if (prefixVectors != null) {
+            List<ScoredEntry<Embedded>> found = prefixVectors.search(
+                    queryVector(embeddingSearchRequest),
+                    embeddingSearchRequest.maxResults(),
+                    entry -> matches(filter, entry),
+                    searchExecutor,
+                    parallelSearchThreshold
+            );
+            return toSearchResult(found, embeddingSearchRequest.minScore());
+        }
+
+        return exactSearch(filter, embeddingSearchRequest);
+    }
+
+    /**
+     * Performs all searches with a single pass over the vectors: the vectors are scored in blocks,
+     * and each block is compared to all queries while its vectors are in the CPU cache,
+     * so that each stored vector is read from memory once rather than once per query.
+     * The pass sweeps the contiguous storage, if any, and is split into parallel chunks on the search executor,
+     * if any, like a single search.
+     * <p>
+     * Searches that do not scan all vectors (with an HNSW index, quantization or prefixes,
+     * or with a filter when metadata indexes are maintained) are performed one by one.
+     */
+    @Override
+    public List<EmbeddingSearchResult<Embedded>> searchAll(List<EmbeddingSearchRequest> embeddingSearchRequests) {
+        ensureNotNull(embeddingSearchRequests, "embeddingSearchRequests");
+
+        evictExpired();
+
+        boolean scansAllVectors = hnswIndex == null && quantizedVectors == null && prefixVectors == null;
+        List<EmbeddingSearchResult<Embedded>> results = new ArrayList<>(embeddingSearchRequests.size());
+        List<Integer> scanned = new ArrayList<>();
+        for (int i = 0; i < embeddingSearchRequests.size(); i++) {
+            EmbeddingSearchRequest embeddingSearchRequest = embeddingSearchRequests.get(i);
+            if (!scansAllVectors || (metadataIndex != null && embeddingSearchRequest.filter() != null)) {
+                results.add(search(embeddingSearchRequest));
+            } else {
+                results.add(null);
+                scanned.add(i);
+            }
+        }
+        if (scanned.size() == 1) {
+            results.set(scanned.get(0), search(embeddingSearchRequests.get(scanned.get(0))));
+        } else if (!scanned.isEmpty()) {
+            List<EmbeddingSearchRequest> scannedRequests = new ArrayList<>(scanned.size());
+            scanned.forEach(i -> scannedRequests.add(embeddingSearchRequests.get(i)));
+            List<EmbeddingSearchResult<Embedded>> scannedResults = blockedSearch(scannedRequests);
+            for (int i = 0; i < scanned.size(); i++) {
+                results.set(scanned.get(i), scannedResults.get(i));
+                if (eviction != null) {
+                    eviction.used(scannedResults.get(i).matches());
+                }
+            }
+        }
+        return results;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<EmbeddingSearchResult<Embedded>> blockedSearch(List<EmbeddingSearchRequest> embeddingSearchRequests) {
+
+        int queryCount = embeddingSearchRequests.size();
+        float[][] queryVectors = new float[queryCount][];
+        double[] queryNorms = new double[queryCount];
+        int[] maxResults = new int[queryCount];
+        List<Predicate<Metadata>> filters = new ArrayList<>(queryCount);
+        for (int q = 0; q < queryCount; q++) {
+            EmbeddingSearchRequest embeddingSearchRequest = embeddingSearchRequests.get(q);
+            queryVectors[q] = queryVector(embeddingSearchRequest);
+            queryNorms[q] = VectorSimilarity.norm(queryVectors[q]);
+            maxResults[q] = embeddingSearchRequest.maxResults();
+            filters.add(embeddingSearchRequest.filter() == null ? null : embeddingSearchRequest.filter().toPredicate());
+        }
+
+        List<List<ScoredEntry<Embedded>>> found;
+        if (vectorSlab != null) {
+            // like a single search, the slab is searched with the query vectors as given
+            float[][] vectors = new float[queryCount][];
+            List<Predicate<Entry<Embedded>>> predicates = new ArrayList<>(queryCount);
+            for (int q = 0; q < queryCount; q++) {
+                vectors[q] = embeddingSearchRequests.get(q).queryEmbedding().vector();
+                Predicate<Metadata> filter = filters.get(q);
+                predicates.add(entry -> matches(filter, entry));
+            }
+            found = vectorSlab.searchAll(vectors, maxResults, predicates, searchExecutor, parallelSearchThreshold);
+        } else if (searchExecutor != null && entries.size() >= parallelSearchThreshold) {
+            // all chunks score the same snapshot of the entries
+            List<Entry<Embedded>> snapshot = (List<Entry<Embedded>>) (List<?>) Arrays.asList(entries.toArray());
+            found = PartitionedSearch.searchAll(snapshot.size(), maxResults, searchExecutor, parallelSearchThreshold,
+                    (from, to, max) -> scoreBlocks(snapshot.subList(from, to).iterator(),
+                            queryVectors, queryNorms, filters, max));
+        } else {
+            found = new ArrayList<>(queryCount);
+            for (PartitionedSearch.TopEntries<Embedded> top :
+                    scoreBlocks(entries.iterator(), queryVectors, queryNorms, filters, maxResults)) {
+                found.add(top.toSortedList());
+            }
+        }
+
+        List<EmbeddingSearchResult<Embedded>> results = new ArrayList<>(queryCount);
+        for (int q = 0; q < queryCount; q++) {
+            results.add(toSearchResult(found.get(q), embeddingSearchRequests.get(q).minScore()));
+        }
+        return results;
+    }
+
+    private List<PartitionedSearch.TopEntries<Embedded>> scoreBlocks(Iterator<Entry<Embedded>> iterator,
+                                                                     float[][] queryVectors,
+                                                                     double[] queryNorms,
+                                                                     List<Predicate<Metadata>> filters,
+                                                                     int[] maxResults) {
+        int queryCount = queryVectors.length;
+        List<PartitionedSearch.TopEntries<Embedded>> tops = new ArrayList<>(queryCount);
+        for (int q = 0; q < queryCount; q++) {
+            tops.add(new PartitionedSearch.TopEntries<>(maxResults[q]));
+        }
+
+        List<Entry<Embedded>> block = new ArrayList<>(SEARCH_ALL_BLOCK_SIZE);
+        double[] norms = new double[SEARCH_ALL_BLOCK_SIZE];
+        while (iterator.hasNext()) {
+            block.clear();
+            while (iterator.hasNext() && block.size() < SEARCH_ALL_BLOCK_SIZE) {
+                Entry<Embedded> entry = iterator.next();
+                norms[block.size()] = normalizeEmbeddings ? 1 : entry.norm();
+                block.add(entry);
+            }
+            for (int q = 0; q < queryCount; q++) {
+                Predicate<Metadata> filter = filters.get(q);
+                PartitionedSearch.TopEntries<Embedded> top = tops.get(q);
+                for (int i = 0; i < block.size(); i++) {
+                    Entry<Embedded> entry = block.get(i);
+                    if (!matches(filter, entry)) {
+                        continue;
+                    }
+                    float dotProduct = entry.dotProduct(queryVectors[q]);
+                    top.add(entry, normalizeEmbeddings
+                            ? dotProduct
+                            : VectorSimilarity.cosineSimilarity(dotProduct, norms[i], queryNorms[q]));
+                }
+            }
+        }
+        return tops;
+    }
+
+    /**
+     * @return search result, or {@code null} if the index could not find enough entries matching the filter
+     * and an exact search should be performed instead.
+     */
+    private EmbeddingSearchResult<Embedded> approximateSearch(HnswIndex<Embedded> index,
+                                                              Predicate<Metadata> filter,
+                                                              EmbeddingSearchRequest embeddingSearchRequest) {
+        List<ScoredEntry<Embedded>> found = index.search(
+                embeddingSearchRequest.queryEmbedding().vector(),
+                embeddingSearchRequest.maxResults(),
+                entry -> matches(filter, entry)
+        );
+        if (filter != null && found.size() < embeddingSearchRequest.maxResults()) {
+            return null;
+        }
+
+        return toSearchResult(found, embeddingSearchRequest.minScore());
+    }
+
+    private EmbeddingSearchResult<Embedded> exactSearch(Predicate<Metadata> filter,
+                                                        EmbeddingSearchRequest embeddingSearchRequest) {
+
+        if (vectorSlab != null) {
+            List<ScoredEntry<Embedded>> found = vectorSlab.search(
+                    embeddingSearchRequest.queryEmbedding().vector(),
+                    embeddingSearchRequest.maxResults(),
+                    entry -> matches(filter, entry),
+                    searchExecutor,
+                    parallelSearchThreshold
+            );
+            return toSearchResult(found, embeddingSearchRequest.minScore());
+        }
+
+        if (searchExecutor != null && entries.size() >= parallelSearchThreshold) {
+            return parallelSearch(filter, embeddingSearchRequest);
+        }
+
+        return bruteForceSearch(entries, filter, embeddingSearchRequest);
+    }
+
+    private boolean isSelectiveEnough(List<Entry<Embedded>> candidates) {
+        if (hnswConfig == null && vectorSlab == null && quantizedVectors == null && prefixVectors == null) {
+            // scoring the candidates is never more work than scanning all entries
+            return true;
+        }
+        return (long) candidates.size() * SELECTIVE_FILTER_DIVISOR <= entries.size();
+    }
+
+    private EmbeddingSearchResult<Embedded> bruteForceSearch(Iterable<Entry<Embedded>> entries,
+                                                             Predicate<Metadata> filter,
+                                                             EmbeddingSearchRequest embeddingSearchRequest) {
 
         Comparator<EmbeddingMatch<Embedded>> comparator = comparingDouble(EmbeddingMatch::score);
         PriorityQueue<EmbeddingMatch<Embedded>> matches = new PriorityQueue<>(comparator);
 
-        Filter filter = embeddingSearchRequest.filter();
+        float[] queryVector = queryVector(embeddingSearchRequest);
+        double queryNorm = VectorSimilarity.norm(queryVector);
 
         for (Entry<Embedded> entry : entries) {
 
-            if (filter != null && entry.embedded instanceof TextSegment) {
-                Metadata metadata = ((TextSegment) entry.embedded).metadata();
-                if (!filter.test(metadata)) {
-                    continue;
-                }
+            if (!matches(filter, entry)) {
+                continue;
             }
 
-            double cosineSimilarity = CosineSimilarity.between(entry.embedding, embeddingSearchRequest.queryEmbedding());
+            double cosineSimilarity = cosineSimilarity(entry, queryVector, queryNorm);
             double score = RelevanceScore.fromCosineSimilarity(cosineSimilarity);
             if (score >= embeddingSearchRequest.minScore()) {
-                matches.add(new EmbeddingMatch<>(score, entry.id, entry.embedding, entry.embedded));
+                matches.add(new EmbeddingMatch<>(score, entry.id, entry.embedding(), entry.embedded));
                 if (matches.size() > embeddingSearchRequest.maxResults()) {
                     matches.poll();
                 }
@@ -177,14 +751,100 @@ public class InMemoryEmbeddingStore<Embedded> implements EmbeddingStore<Embedded
         return new EmbeddingSearchResult<>(result);
     }
 
+    @SuppressWarnings("unchecked")
+    private EmbeddingSearchResult<Embedded> parallelSearch(Predicate<Metadata> filter,
+                                                           EmbeddingSearchRequest embeddingSearchRequest) {
+
+        float[] queryVector = queryVector(embeddingSearchRequest);
+        double queryNorm = VectorSimilarity.norm(queryVector);
+
+        // all chunks score the same snapshot of the entries
+        Object[] snapshot = entries.toArray();
+
+        List<ScoredEntry<Embedded>> found = PartitionedSearch.search(
+                snapshot.length,
+                embeddingSearchRequest.maxResults(),
+                searchExecutor,
+                parallelSearchThreshold,
+                (from, to, maxResults) -> {
+                    PartitionedSearch.TopEntries<Embedded> top = new PartitionedSearch.TopEntries<>(maxResults);
+                    for (int i = from; i < to; i++) {
+                        Entry<Embedded> entry = (Entry<Embedded>) snapshot[i];
+                        if (!matches(filter, entry)) {
+                            continue;
+                        }
+                        top.add(entry, cosineSimilarity(entry, queryVector, queryNorm));
+                    }
+                    return top;
+                }
+        );
+        return toSearchResult(found, embeddingSearchRequest.minScore());
+    }
+
+    /**
+     * When embeddings are normalized on insert, the query is normalized once per search,
+     * so that the cosine similarity of each entry is just the dot product.
+     */
+    private float[] queryVector(EmbeddingSearchRequest embeddingSearchRequest) {
+        float[] queryVector = embeddingSearchRequest.queryEmbedding().vector();
+        return normalizeEmbeddings ? normalized(Embedding.from(queryVector)).vector() : queryVector;
+    }
+
+    private double cosineSimilarity(Entry<Embedded> entry, float[] queryVector, double queryNorm) {
+        float dotProduct = entry.dotProduct(queryVector);
+        if (normalizeEmbeddings) {
+            return dotProduct;
+        }
+        return VectorSimilarity.cosineSimilarity(dotProduct, entry.norm(), queryNorm);
+    }
+
+    /**
+     * @return a normalized copy of the given embedding, in the same representation.
+     */
+    private static Embedding normalized(Embedding embedding) {
+        Embedding normalized = embedding instanceof HalfPrecisionEmbedding halfPrecisionEmbedding
+                ? HalfPrecisionEmbedding.from(halfPrecisionEmbedding, halfPrecisionEmbedding.format())
+                : Embedding.from(embedding.vector().clone());
+        normalized.normalize();
+        return normalized;
+    }
+
+    private static <Embedded> EmbeddingSearchResult<Embedded> toSearchResult(List<ScoredEntry<Embedded>> found,
+                                                                             double minScore) {
+        List<EmbeddingMatch<Embedded>> result = new ArrayList<>(found.size());
+        for (ScoredEntry<Embedded> scoredEntry : found) {
+            double score = RelevanceScore.fromCosineSimilarity(scoredEntry.cosineSimilarity);
+            if (score >= minScore) {
+                Entry<Embedded> entry = scoredEntry.entry;
+                result.add(new EmbeddingMatch<>(score, entry.id, entry.embedding(), entry.embedded));
+            }
+        }
+        return new EmbeddingSearchResult<>(result);
+    }
+
+    private static boolean matches(Predicate<Metadata> filter, Entry<?> entry) {
+        if (filter != null && entry.embedded instanceof TextSegment) {
+            Metadata metadata = ((TextSegment) entry.embedded).metadata();
+            return filter.test(metadata);
+        }
+        return true;
+    }
+
     public String serializeToJson() {
         return loadCodec().toJson(this);
     }
 
+    /**
+     * Writes this store as JSON to the given writer, one entry at a time,
+     * without building the whole document in memory. The writer is flushed, but not closed.
+     */
+    public void serializeToJson(Writer writer) {
+        loadCodec().toJson(this, writer);
+    }
+
     public void serializeToFile(Path filePath) {
-        try {
-            String json = serializeToJson();
-            Files.write(filePath, json.getBytes(), CREATE, TRUNCATE_EXISTING);
+        try (Writer writer = Files.newBufferedWriter(filePath, UTF_8, CREATE, TRUNCATE_EXISTING)) {
+            serializeToJson(writer);
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
@@ -198,10 +858,17 @@ public class InMemoryEmbeddingStore<Embedded> implements EmbeddingStore<Embedded
         return loadCodec().fromJson(json);
     }
 
+    /**
+     * Recreates a store from the JSON provided by the given reader, reading one entry at a time,
+     * without materializing the whole document. The reader is not closed.
+     */
+    public static InMemoryEmbeddingStore<TextSegment> fromJson(Reader reader) {
+        return loadCodec().fromJson(reader);
+    }
+
     public static InMemoryEmbeddingStore<TextSegment> fromFile(Path filePath) {
-        try {
-            String json = new String(Files.readAllBytes(filePath));
-            return fromJson(json);
+        try (Reader reader = Files.newBufferedReader(filePath, UTF_8)) {
+            return fromJson(reader);
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
@@ -211,33 +878,336 @@ public class InMemoryEmbeddingStore<Embedded> implements EmbeddingStore<Embedded
         return fromFile(Paths.get(filePath));
     }
 
+    /**
+     * Writes this store into a file in the binary snapshot format.
+     * All embeddings must have the same dimension, and only {@link TextSegment}s are supported as embedded content.
+     * The {@link HnswConfig} (if any) is written as well.
+     * <p>
+     * The snapshot is written to a temporary file that then replaces the given file,
+     * so that the given file is never truncated while the vectors of a store loaded from it are mapped.
+     *
+     * @param filePath the file to write to; it is created or replaced.
+     */
+    public void serializeToBinaryFile(Path filePath) {
+        Path tempFile = filePath.resolveSibling(filePath.getFileName() + ".tmp");
+        try {
+            InMemoryEmbeddingStoreSnapshot.write(new ArrayList<>(entries), hnswConfig, tempFile);
+            Files.move(tempFile, filePath, REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public void serializeToBinaryFile(String filePath) {
+        serializeToBinaryFile(Paths.get(filePath));
+    }
+
+    /**
+     * Recreates a store from a file written by {@link #serializeToBinaryFile(Path)}.
+     * Vectors are not copied to the heap: they are read in place from memory-mapped windows of the file,
+     * which must therefore not be modified while the store is in use.
+     */
+    public static InMemoryEmbeddingStore<TextSegment> fromBinaryFile(Path filePath) {
+        try {
+            InMemoryEmbeddingStoreSnapshot.Snapshot snapshot = InMemoryEmbeddingStoreSnapshot.read(filePath);
+            return restore(snapshot.entries, snapshot.hnswConfig);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public static InMemoryEmbeddingStore<TextSegment> fromBinaryFile(String filePath) {
+        return fromBinaryFile(Paths.get(filePath));
+    }
+
+    static InMemoryEmbeddingStore<TextSegment> restore(List<Entry<TextSegment>> entries, HnswConfig hnswConfig) {
+        InMemoryEmbeddingStore<TextSegment> store = InMemoryEmbeddingStore.<TextSegment>builder()
+                .hnswConfig(hnswConfig)
+                .build();
+        store.add(entries);
+        return store;
+    }
+
+    HnswConfig hnswConfig() {
+        return hnswConfig;
+    }
+
     /**
      * Merges given {@code InMemoryEmbeddingStore}s into a single {@code InMemoryEmbeddingStore},
      * copying all entries from each store.
+     * The merged store is configured like the first store, except for its write-ahead log and rescoring file,
+     * which belong to the first store only.
      */
     public static <Embedded> InMemoryEmbeddingStore<Embedded> merge(Collection<InMemoryEmbeddingStore<Embedded>> stores) {
         ensureNotNull(stores, "stores");
         List<Entry<Embedded>> entries = new ArrayList<>();
         for (InMemoryEmbeddingStore<Embedded> store : stores) {
-            entries.addAll(store.entries);
+            for (Entry<Embedded> entry : store.entries) {
+                // entries whose vectors are held by the storage of a store cannot be shared
+                entries.add(new Entry<>(entry.id, entry.embedding(), entry.embedded));
+            }
         }
-        return new InMemoryEmbeddingStore<>(entries);
+        Builder<Embedded> configuration = stores.isEmpty() ? new Builder<>() : stores.iterator().next().configuration;
+        InMemoryEmbeddingStore<Embedded> merged = new InMemoryEmbeddingStore<>(configuration);
+        merged.add(entries, false);
+        return merged;
     }
 
     /**
      * Merges given {@code InMemoryEmbeddingStore}s into a single {@code InMemoryEmbeddingStore},
      * copying all entries from each store.
+     * The merged store is configured like the first store, except for its write-ahead log and rescoring file.
      */
     public static <Embedded> InMemoryEmbeddingStore<Embedded> merge(InMemoryEmbeddingStore<Embedded> first,
                                                                     InMemoryEmbeddingStore<Embedded> second) {
         return merge(asList(first, second));
     }
 
+    public static class Builder<Embedded> {
+
+        private HnswConfig hnswConfig;
+        private Boolean contiguousStorage;
+        private Quantization quantization;
+        private Path rescoringFile;
+        private Integer oversampling;
+        private Integer prefixDimension;
+        private WriteAheadLogConfig writeAheadLogConfig;
+        private Executor searchExecutor;
+        private Integer parallelSearchThreshold;
+        private Set<String> indexedMetadataKeys;
+        private Boolean normalizeEmbeddings;
+        private EvictionConfig evictionConfig;
+        private EvictionListener<? super Embedded> evictionListener;
+
+        Builder() {
+        }
+
+        /**
+         * @param hnswConfig When set, an approximate HNSW index is maintained and used for searching.
+         *                   The configuration is persisted together with the store,
+         *                   the index itself is rebuilt while the store is restored.
+         *                   Default: no index, brute force search.
+         */
+        public Builder<Embedded> hnswConfig(HnswConfig hnswConfig) {
+            this.hnswConfig = hnswConfig;
+            return this;
+        }
+
+        /**
+         * @param contiguousStorage When {@code true}, vectors are moved into a single contiguous
+         *                          {@code float[]} (with precomputed norms) that brute force search sweeps over,
+         *                          instead of being kept in one {@link Embedding} per entry.
+         *                          All embeddings must then have the same dimension.
+         *                          Cannot be used together with {@link #hnswConfig(HnswConfig)}.
+         *                          This is a runtime setting: it is not persisted together with the store.
+         *                          Default: {@code false}
+         */
+        public Builder<Embedded> contiguousStorage(Boolean contiguousStorage) {
+            this.contiguousStorage = contiguousStorage;
+            return this;
+        }
+
+        /**
+         * @param quantization When set, a quantized code of every vector is kept in place of the vector,
+         *                     and searches scan the codes first, then rescore the best
+         *                     {@code maxResults * oversampling} candidates, against the full-precision vectors
+         *                     if {@link #rescoringFile(Path)} is set, otherwise against the vectors decoded from the codes.
+         *                     Embeddings returned by the store are decoded the same way.
+         *                     All embeddings must then have the same dimension.
+         *                     Cannot be combined with {@link #hnswConfig(HnswConfig)} or {@link #contiguousStorage(Boolean)}.
+         *                     This is a runtime setting: it is not persisted together with the store.
+         *                     Default: no quantization
+         */
+        public Builder<Embedded> quantization(Quantization quantization) {
+            this.quantization = quantization;
+            return this;
+        }
+
+        /**
+         * @param rescoringFile When set, the full-precision vectors of a {@link #quantization(Quantization) quantized}
+         *                      store are kept in this file instead of in memory, so that candidates are rescored
+         *                      exactly and embeddings are returned unchanged.
+         *                      The file is overwritten, and deleted when the store is closed or cleared.
+         *                      This is a runtime setting: it is not persisted together with the store.
+         *                      Default: no file, the full-precision vectors are dropped
+         */
+        public Builder<Embedded> rescoringFile(Path rescoringFile) {
+            this.rescoringFile = rescoringFile;
+            return this;
+        }
+
+        /**
+         * @param oversampling How many times more candidates than {@code maxResults} the quantized
+         *                     or truncated scan selects for rescoring.
+         *                     Higher values give better recall at the cost of more rescoring.
+         *                     Default: 4 for {@link Quantization#INT8}, 10 for {@link Quantization#BINARY},
+         *                     4 for {@link #prefixDimension(Integer)}
+         */
+        public Builder<Embedded> oversampling(Integer oversampling) {
+            this.oversampling = oversampling;
+            return this;
+        }
+
+        /**
+         * @param prefixDimension When set, the first {@code prefixDimension} components of every vector are
+         *                        additionally copied into a contiguous array, and searches scan these truncated
+         *                        vectors first, then rescore the best {@code maxResults * oversampling} candidates
+         *                        against the full vectors. This only preserves recall for embedding models trained
+         *                        with Matryoshka representation learning (e.g. OpenAI {@code text-embedding-3-*}
+         *                        or {@code nomic-embed-text-v1.5}), where a prefix is itself a meaningful embedding.
+         *                        For example, scanning 256 of 1536 dimensions reads a sixth of the memory.
+         *                        All embeddings must then have the same dimension.
+         *                        Cannot be combined with {@link #hnswConfig(HnswConfig)},
+         *                        {@link #quantization(Quantization)} or {@link #contiguousStorage(Boolean)}.
+         *                        This is a runtime setting: it is not persisted together with the store.
+         *                        Default: no truncation, the full vectors are scanned
+         */
+        public Builder<Embedded> prefixDimension(Integer prefixDimension) {
+            this.prefixDimension = prefixDimension;
+            return this;
+        }
+
+        /**
+         * @param writeAheadLogConfig When set, every modification of the store is appended to a write-ahead log
+         *                            in the configured directory, and the store is recreated from that directory
+         *                            when it is built. Only {@link TextSegment}s are supported as embedded content.
+         *                            Removals by {@link Filter} are logged as removals of the matching ids.
+         *                            The directory is locked until the store is
+         *                            {@link InMemoryEmbeddingStore#close() closed}.
+         *                            This is a runtime setting: it is not persisted together with the store.
+         *                            Default: no write-ahead log
+         */
+        public Builder<Embedded> writeAheadLog(WriteAheadLogConfig writeAheadLogConfig) {
+            this.writeAheadLogConfig = writeAheadLogConfig;
+            return this;
+        }
+
+        /**
+         * @param searchExecutor When set, brute force searches over large stores split the entries into chunks,
+         *                       score the chunks concurrently on this executor and merge their top results.
+         *                       {@link java.util.concurrent.ForkJoinPool#commonPool()} is a reasonable choice;
+         *                       for a {@link java.util.concurrent.ForkJoinPool}, one chunk per thread of the pool is used,
+         *                       otherwise one chunk per available processor.
+         *                       This is a runtime setting: it is not persisted together with the store.
+         *                       Default: no executor, searches run on the calling thread.
+         */
+        public Builder<Embedded> searchExecutor(Executor searchExecutor) {
+            this.searchExecutor = searchExecutor;
+            return this;
+        }
+
+        /**
+         * @param parallelSearchThreshold The minimum number of entries for a search to be run in parallel
+         *                                on the {@link #searchExecutor(Executor)}. Smaller stores are searched
+         *                                on the calling thread, which is cheaper than scheduling tasks.
+         *                                Default: 10000
+         */
+        public Builder<Embedded> parallelSearchThreshold(Integer parallelSearchThreshold) {
+            this.parallelSearchThreshold = parallelSearchThreshold;
+            return this;
+        }
+
+        /**
+         * @param indexedMetadataKeys Metadata keys to maintain secondary indexes for.
+         *                            Searches with a {@link Filter} on these keys (equality, {@code IsIn},
+         *                            range comparisons and their {@code And}/{@code Or}/{@code Not} combinations)
+         *                            look up the matching entries in the indexes and score only those,
+         *                            instead of testing the filter against every entry.
+         *                            With an HNSW index, contiguous storage, quantization or truncated prefixes,
+         *                            the indexes are used only for filters matching at most a tenth of the entries.
+         *                            This is a runtime setting: it is not persisted together with the store.
+         *                            Default: no indexes
+         */
+        public Builder<Embedded> indexedMetadataKeys(Collection<String> indexedMetadataKeys) {
+            this.indexedMetadataKeys = indexedMetadataKeys == null ? null : new LinkedHashSet<>(indexedMetadataKeys);
+            return this;
+        }
+
+        /**
+         * @see #indexedMetadataKeys(Collection)
+         */
+        public Builder<Embedded> indexedMetadataKeys(String... indexedMetadataKeys) {
+            return indexedMetadataKeys(asList(indexedMetadataKeys));
+        }
+
+        /**
+         * @param normalizeEmbeddings When {@code true}, embeddings are normalized to unit length when added,
+         *                            and the query embedding is normalized once per search, so that brute force
+         *                            search ranks entries by dot product instead of computing both norms
+         *                            for every entry. Scores are the same as without normalization
+         *                            (up to floating-point rounding), but the embeddings returned in
+         *                            {@link EmbeddingMatch}es are the normalized ones.
+         *                            This is a runtime setting: it is not persisted together with the store
+         *                            (a restored store holds the normalized embeddings, for which
+         *                            cosine similarity gives the same scores).
+         *                            Default: {@code false}
+         */
+        public Builder<Embedded> normalizeEmbeddings(Boolean normalizeEmbeddings) {
+            this.normalizeEmbeddings = normalizeEmbeddings;
+            return this;
+        }
+
+        /**
+         * @param evictionConfig When set, the number, estimated size and age of the entries are limited:
+         *                       expired entries and, beyond the limits, least recently used entries
+         *                       are evicted (see {@link EvictionConfig}). Entries recovered from a
+         *                       {@link #writeAheadLog(WriteAheadLogConfig)} count as added when the store is built.
+         *                       This is a runtime setting: it is not persisted together with the store.
+         *                       Default: no limits
+         */
+        public Builder<Embedded> eviction(EvictionConfig evictionConfig) {
+            this.evictionConfig = evictionConfig;
+            return this;
+        }
+
+        /**
+         * @param evictionListener Notified of every entry evicted because of the {@link #eviction(EvictionConfig)}
+         *                         configuration, e.g. to delete the documents they were created from.
+         *                         Default: no listener
+         */
+        public Builder<Embedded> evictionListener(EvictionListener<? super Embedded> evictionListener) {
+            this.evictionListener = evictionListener;
+            return this;
+        }
+
+        public InMemoryEmbeddingStore<Embedded> build() {
+            return new InMemoryEmbeddingStore<>(this);
+        }
+
+        /**
+         * @return a copy of this builder without the write-ahead log and the rescoring file,
+         * which cannot be shared by two stores.
+         */
+        private Builder<Embedded> withoutFiles() {
+            Builder<Embedded> copy = new Builder<>();
+            copy.hnswConfig = hnswConfig;
+            copy.contiguousStorage = contiguousStorage;
+            copy.quantization = quantization;
+            copy.oversampling = oversampling;
+            copy.prefixDimension = prefixDimension;
+            copy.searchExecutor = searchExecutor;
+            copy.parallelSearchThreshold = parallelSearchThreshold;
+            copy.indexedMetadataKeys = indexedMetadataKeys;
+            copy.normalizeEmbeddings = normalizeEmbeddings;
+            copy.evictionConfig = evictionConfig;
+            copy.evictionListener = evictionListener;
+            return copy;
+        }
+    }
+
     static class Entry<Embedded> {
 
         String id;
-        Embedding embedding;
+        /**
+         * {@code null} while the vector is held by a {@link VectorStorage}, see {@link #embedding()}.
+         */
+        volatile Embedding embedding;
         Embedded embedded;
+        /**
+         * The storage holding the vector, and the row of the vector in it (guarded by the storage).
+         */
+        transient VectorStorage storage;
+        transient int row;
 
         Entry(String id, Embedding embedding) {
             this(id, embedding, null);
@@ -249,19 +1219,65 @@ public class InMemoryEmbeddingStore<Embedded> implements EmbeddingStore<Embedded
             this.embedded = embedded;
         }
 
+        Entry(String id, VectorStorage storage, int row, Embedded embedded) {
+            this.id = ensureNotBlank(id, "id");
+            this.storage = ensureNotNull(storage, "storage");
+            this.row = row;
+            this.embedded = embedded;
+        }
+
+        /**
+         * @return the embedding of this entry, or a new one with its vector if the vector is held by a storage.
+         */
+        Embedding embedding() {
+            Embedding embedding = this.embedding;
+            if (embedding != null) {
+                return embedding;
+            }
+            // the storage is set before the embedding is cleared
+            return storage.embedding(this);
+        }
+
+        int dimension() {
+            Embedding embedding = this.embedding;
+            return embedding != null ? embedding.dimension() : storage.dimension();
+        }
+
+        /**
+         * Copies the first {@code length} values of the vector of this entry into the given array.
+         */
+        void copyTo(float[] destination, int destinationOffset, int length) {
+            Embedding embedding = this.embedding;
+            if (embedding != null) {
+                embedding.copyTo(0, destination, destinationOffset, length);
+            } else {
+                storage.copyTo(this, destination, destinationOffset, length);
+            }
+        }
+
+        float dotProduct(float[] vector) {
+            Embedding embedding = this.embedding;
+            return embedding != null ? VectorSimilarity.dotProduct(embedding, vector) : storage.dotProduct(this, vector);
+        }
+
+        double norm() {
+            Embedding embedding = this.embedding;
+            return embedding != null ? VectorSimilarity.norm(embedding) : storage.norm(this);
+        }
+
         @Override
         public boolean equals(Object o) {
             if (this == o) return true;
             if (o == null || getClass() != o.getClass()) return false;
             Entry<?> that = (Entry<?>) o;
             return Objects.equals(this.id, that.id)
-                    && Objects.equals(this.embedding, that.embedding)
+                    && Objects.equals(this.embedding(), that.embedding())
                     && Objects.equals(this.embedded, that.embedded);
         }
 
         @Override
         public int hashCode() {
-            return Objects.hash(id, embedding, embedded);
+            return Objects.hash(id, embedding(), embedded);
         }
     }
 
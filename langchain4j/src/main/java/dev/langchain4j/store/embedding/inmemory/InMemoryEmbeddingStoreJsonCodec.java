@@ -3,10 +3,46 @@ package dev.langchain4j.store.embedding.inmemory;
 import dev.langchain4j.Internal;
 import dev.langchain4j.data.segment.TextSegment;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.io.Writer;
+
 @Internal
 public interface InMemoryEmbeddingStoreJsonCodec {
 
     InMemoryEmbeddingStore<TextSegment> fromJson(String json);
 
     String toJson(InMemoryEmbeddingStore<?> store);
+
+    /**
+     * Reads a store from the JSON document provided by the given reader. The reader is not closed.
+     * <p>
+     * The default implementation reads the whole document into a {@code String};
+     * implementations should override it to read the entries one at a time.
+     */
+    default InMemoryEmbeddingStore<TextSegment> fromJson(Reader reader) {
+        try {
+            StringWriter json = new StringWriter();
+            reader.transferTo(json);
+            return fromJson(json.toString());
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Writes the store as a JSON document to the given writer. The writer is flushed, but not closed.
+     * <p>
+     * The default implementation builds the whole document as a {@code String};
+     * implementations should override it to write the entries one at a time.
+     */
+    default void toJson(InMemoryEmbeddingStore<?> store, Writer writer) {
+        try {
+            writer.write(toJson(store));
+            writer.flush();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
 }
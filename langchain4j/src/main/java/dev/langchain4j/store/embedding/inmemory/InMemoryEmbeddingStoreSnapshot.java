@@ -0,0 +1,378 @@
+package dev.langchain4j.store.embedding.inmemory;
+
+import dev.langchain4j.data.document.Metadata;
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.embedding.HalfPrecisionEmbedding;
+import dev.langchain4j.data.segment.TextSegment;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static dev.langchain4j.internal.Exceptions.illegalArgument;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * Reads and writes the versioned binary snapshot format of an {@link InMemoryEmbeddingStore}.
+ * <p>
+ * Layout (all numbers are big-endian):
+ * <pre>
+ * header    (64 bytes)  magic, version, HNSW config, dimension, count, the offsets of the blocks below
+ *                       and the vector format
+ * vectors   count * dimension floats (or 16-bit values, see {@link HalfPrecisionEmbedding}), row by row
+ * entries   per entry: id, embedded text (if any) and typed metadata
+ * offsets   count longs, the absolute file offset of each entry record
+ * </pre>
+ * Vectors are not copied when a snapshot is read: the entries keep reading them from
+ * {@link FileChannel#map memory-mapped} windows of the file (see {@link MappedVectors}).
+ * <p>
+ * When all embeddings are {@link HalfPrecisionEmbedding}s of the same format, vectors are written in that format
+ * and read back as {@link HalfPrecisionEmbedding}s. Otherwise, they are written as floats.
+ */
+class InMemoryEmbeddingStoreSnapshot {
+
+    static final int MAGIC = 0x4C344A53; // "L4JS"
+    static final int VERSION = 2;
+    static final int HEADER_SIZE = 64;
+
+    private static final byte NO_EMBEDDED = 0;
+    private static final byte TEXT_SEGMENT = 1;
+
+    private static final byte STRING = 0;
+    private static final byte UUID_TYPE = 1;
+    private static final byte INTEGER = 2;
+    private static final byte LONG = 3;
+    private static final byte FLOAT = 4;
+    private static final byte DOUBLE = 5;
+
+    private static final byte FLOAT32 = 0;
+    private static final byte FLOAT16 = 1;
+    private static final byte BFLOAT16 = 2;
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private InMemoryEmbeddingStoreSnapshot() {
+    }
+
+    static void write(List<? extends InMemoryEmbeddingStore.Entry<?>> entries, HnswConfig hnswConfig, Path filePath) throws IOException {
+        int dimension = entries.isEmpty() ? 0 : entries.get(0).embedding().dimension();
+        for (InMemoryEmbeddingStore.Entry<?> entry : entries) {
+            if (entry.embedding().dimension() != dimension) {
+                throw illegalArgument("All embeddings must have the same dimension (%s) to be written to a snapshot, " +
+                        "but embedding with id '%s' has dimension %s", dimension, entry.id, entry.embedding().dimension());
+            }
+            if (entry.embedded != null && !(entry.embedded instanceof TextSegment)) {
+                throw illegalArgument("Only TextSegment can be written to a snapshot, but found: %s",
+                        entry.embedded.getClass().getName());
+            }
+        }
+
+        byte vectorFormat = vectorFormat(entries);
+
+        try (FileChannel channel = FileChannel.open(filePath, CREATE, WRITE, TRUNCATE_EXISTING)) {
+            channel.position(HEADER_SIZE);
+            CountingOutputStream counter = new CountingOutputStream(channel, HEADER_SIZE);
+            DataOutputStream out = new DataOutputStream(counter);
+
+            long vectorsOffset = counter.position();
+            if (vectorFormat == FLOAT32) {
+                ByteBuffer row = ByteBuffer.allocate(dimension * Float.BYTES);
+                float[] vector = new float[dimension];
+                for (InMemoryEmbeddingStore.Entry<?> entry : entries) {
+                    entry.copyTo(vector, 0, dimension);
+                    row.clear();
+                    row.asFloatBuffer().put(vector);
+                    out.write(row.array());
+                }
+            } else {
+                ByteBuffer row = ByteBuffer.allocate(dimension * Short.BYTES);
+                for (InMemoryEmbeddingStore.Entry<?> entry : entries) {
+                    row.clear();
+                    row.asShortBuffer().put(((HalfPrecisionEmbedding) entry.embedding()).bits());
+                    out.write(row.array());
+                }
+            }
+
+            long entriesOffset = counter.position();
+            long[] entryOffsets = new long[entries.size()];
+            for (int i = 0; i < entries.size(); i++) {
+                entryOffsets[i] = counter.position();
+                writeEntry(out, entries.get(i));
+            }
+
+            long offsetsOffset = counter.position();
+            for (long entryOffset : entryOffsets) {
+                out.writeLong(entryOffset);
+            }
+            out.flush();
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(MAGIC);
+            header.putInt(VERSION);
+            header.putInt(hnswConfig == null ? 0 : hnswConfig.m());
+            header.putInt(hnswConfig == null ? 0 : hnswConfig.efConstruction());
+            header.putInt(hnswConfig == null ? 0 : hnswConfig.efSearch());
+            header.putInt(dimension);
+            header.putLong(entries.size());
+            header.putLong(vectorsOffset);
+            header.putLong(entriesOffset);
+            header.putLong(offsetsOffset);
+            header.put(vectorFormat);
+            header.clear(); // the remaining bytes of the header are reserved and written as zeros
+            channel.write(header, 0);
+        }
+    }
+
+    static Snapshot read(Path filePath) throws IOException {
+        try (FileChannel channel = FileChannel.open(filePath, READ)) {
+            if (channel.size() < HEADER_SIZE) {
+                throw illegalArgument("'%s' is not an embedding store snapshot", filePath);
+            }
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+            if (header.getInt() != MAGIC) {
+                throw illegalArgument("'%s' is not an embedding store snapshot", filePath);
+            }
+            int version = header.getInt();
+            if (version != VERSION) {
+                throw illegalArgument("Unsupported embedding store snapshot version %s, expected %s", version, VERSION);
+            }
+            int m = header.getInt();
+            int efConstruction = header.getInt();
+            int efSearch = header.getInt();
+            int dimension = header.getInt();
+            int count = Math.toIntExact(header.getLong());
+            long vectorsOffset = header.getLong();
+            long entriesOffset = header.getLong();
+            header.getLong(); // offsets of the entry records, not needed to read all entries
+            HalfPrecisionEmbedding.Format format = halfPrecisionFormat(header.get());
+
+            HnswConfig hnswConfig = m > 0 ? new HnswConfig(m, efConstruction, efSearch) : null;
+
+            long vectorsSize = (long) count * dimension * (format == null ? Float.BYTES : Short.BYTES);
+            if (vectorsOffset < HEADER_SIZE || vectorsOffset + vectorsSize > channel.size()) {
+                throw illegalArgument("Corrupted embedding store snapshot: vectors exceed the size of '%s'", filePath);
+            }
+            // the mapping stays valid after the channel is closed
+            MappedVectors vectors = MappedVectors.map(channel, vectorsOffset, dimension, count, format);
+
+            List<InMemoryEmbeddingStore.Entry<TextSegment>> entries = new ArrayList<>(count);
+            channel.position(entriesOffset);
+            DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel), BUFFER_SIZE));
+            for (int row = 0; row < count; row++) {
+                entries.add(new InMemoryEmbeddingStore.Entry<>(readString(in), vectors, row, readEmbedded(in)));
+            }
+            return new Snapshot(entries, hnswConfig);
+        }
+    }
+
+    /**
+     * @return the format all embeddings can be written in without loss.
+     */
+    private static byte vectorFormat(List<? extends InMemoryEmbeddingStore.Entry<?>> entries) {
+        HalfPrecisionEmbedding.Format format = null;
+        for (InMemoryEmbeddingStore.Entry<?> entry : entries) {
+            if (!(entry.embedding() instanceof HalfPrecisionEmbedding halfPrecisionEmbedding)
+                    || (format != null && halfPrecisionEmbedding.format() != format)) {
+                return FLOAT32;
+            }
+            format = halfPrecisionEmbedding.format();
+        }
+        return vectorFormat(format);
+    }
+
+    private static byte vectorFormat(HalfPrecisionEmbedding.Format format) {
+        if (format == null) {
+            return FLOAT32;
+        }
+        return format == HalfPrecisionEmbedding.Format.FLOAT16 ? FLOAT16 : BFLOAT16;
+    }
+
+    private static HalfPrecisionEmbedding.Format halfPrecisionFormat(byte vectorFormat) {
+        return switch (vectorFormat) {
+            case FLOAT32 -> null;
+            case FLOAT16 -> HalfPrecisionEmbedding.Format.FLOAT16;
+            case BFLOAT16 -> HalfPrecisionEmbedding.Format.BFLOAT16;
+            default -> throw illegalArgument("Corrupted embedding store snapshot: unknown vector format %s", vectorFormat);
+        };
+    }
+
+    /**
+     * Writes the embedding with its own dimension and format, for records that are not part of a snapshot.
+     */
+    static void writeEmbedding(DataOutputStream out, Embedding embedding) throws IOException {
+        if (embedding instanceof HalfPrecisionEmbedding halfPrecisionEmbedding) {
+            out.writeByte(vectorFormat(halfPrecisionEmbedding.format()));
+            out.writeInt(halfPrecisionEmbedding.dimension());
+            for (short bits : halfPrecisionEmbedding.bits()) {
+                out.writeShort(bits);
+            }
+        } else {
+            float[] vector = embedding.vector();
+            out.writeByte(FLOAT32);
+            out.writeInt(vector.length);
+            for (float v : vector) {
+                out.writeFloat(v);
+            }
+        }
+    }
+
+    static Embedding readEmbedding(DataInputStream in) throws IOException {
+        HalfPrecisionEmbedding.Format format = halfPrecisionFormat(in.readByte());
+        int dimension = in.readInt();
+        if (format == null) {
+            float[] vector = new float[dimension];
+            for (int i = 0; i < dimension; i++) {
+                vector[i] = in.readFloat();
+            }
+            return Embedding.from(vector);
+        }
+        short[] bits = new short[dimension];
+        for (int i = 0; i < dimension; i++) {
+            bits[i] = in.readShort();
+        }
+        return new HalfPrecisionEmbedding(bits, format);
+    }
+
+    static void writeEntry(DataOutputStream out, InMemoryEmbeddingStore.Entry<?> entry) throws IOException {
+        writeString(out, entry.id);
+        if (entry.embedded == null) {
+            out.writeByte(NO_EMBEDDED);
+            return;
+        }
+        if (!(entry.embedded instanceof TextSegment)) {
+            throw illegalArgument("Only TextSegment can be written to a snapshot, but found: %s",
+                    entry.embedded.getClass().getName());
+        }
+        TextSegment segment = (TextSegment) entry.embedded;
+        out.writeByte(TEXT_SEGMENT);
+        writeString(out, segment.text());
+        Map<String, Object> metadata = segment.metadata().toMap();
+        out.writeInt(metadata.size());
+        for (Map.Entry<String, Object> metadataEntry : metadata.entrySet()) {
+            writeString(out, metadataEntry.getKey());
+            Object value = metadataEntry.getValue();
+            if (value instanceof String) {
+                out.writeByte(STRING);
+                writeString(out, (String) value);
+            } else if (value instanceof UUID) {
+                out.writeByte(UUID_TYPE);
+                out.writeLong(((UUID) value).getMostSignificantBits());
+                out.writeLong(((UUID) value).getLeastSignificantBits());
+            } else if (value instanceof Integer) {
+                out.writeByte(INTEGER);
+                out.writeInt((Integer) value);
+            } else if (value instanceof Long) {
+                out.writeByte(LONG);
+                out.writeLong((Long) value);
+            } else if (value instanceof Float) {
+                out.writeByte(FLOAT);
+                out.writeFloat((Float) value);
+            } else if (value instanceof Double) {
+                out.writeByte(DOUBLE);
+                out.writeDouble((Double) value);
+            } else {
+                throw illegalArgument("Unsupported metadata value type: %s", value.getClass().getName());
+            }
+        }
+    }
+
+    static InMemoryEmbeddingStore.Entry<TextSegment> readEntry(DataInputStream in, Embedding embedding) throws IOException {
+        String id = readString(in);
+        return new InMemoryEmbeddingStore.Entry<>(id, embedding, readEmbedded(in));
+    }
+
+    private static TextSegment readEmbedded(DataInputStream in) throws IOException {
+        byte embeddedType = in.readByte();
+        if (embeddedType == NO_EMBEDDED) {
+            return null;
+        }
+        if (embeddedType != TEXT_SEGMENT) {
+            throw illegalArgument("Corrupted embedding store snapshot: unknown embedded type %s", embeddedType);
+        }
+        String text = readString(in);
+        int metadataSize = in.readInt();
+        Map<String, Object> metadata = new LinkedHashMap<>(Math.max(4, metadataSize * 2));
+        for (int i = 0; i < metadataSize; i++) {
+            String key = readString(in);
+            byte type = in.readByte();
+            switch (type) {
+                case STRING -> metadata.put(key, readString(in));
+                case UUID_TYPE -> metadata.put(key, new UUID(in.readLong(), in.readLong()));
+                case INTEGER -> metadata.put(key, in.readInt());
+                case LONG -> metadata.put(key, in.readLong());
+                case FLOAT -> metadata.put(key, in.readFloat());
+                case DOUBLE -> metadata.put(key, in.readDouble());
+                default -> throw illegalArgument("Corrupted embedding store snapshot: unknown metadata type %s", type);
+            }
+        }
+        return TextSegment.from(text, Metadata.from(metadata));
+    }
+
+    static void writeString(DataOutputStream out, String string) throws IOException {
+        byte[] bytes = string.getBytes(UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, UTF_8);
+    }
+
+    static class Snapshot {
+
+        final List<InMemoryEmbeddingStore.Entry<TextSegment>> entries;
+        final HnswConfig hnswConfig;
+
+        Snapshot(List<InMemoryEmbeddingStore.Entry<TextSegment>> entries, HnswConfig hnswConfig) {
+            this.entries = entries;
+            this.hnswConfig = hnswConfig;
+        }
+    }
+
+    /**
+     * Buffers writes to the channel and keeps track of the absolute file position.
+     */
+    private static class CountingOutputStream extends BufferedOutputStream {
+
+        private long position;
+
+        CountingOutputStream(FileChannel channel, long position) {
+            super(Channels.newOutputStream(channel), BUFFER_SIZE);
+            this.position = position;
+        }
+
+        long position() {
+            return position;
+        }
+
+        @Override
+        public synchronized void write(int b) throws IOException {
+            super.write(b);
+            position++;
+        }
+
+        @Override
+        public synchronized void write(byte[] b, int off, int len) throws IOException {
+            super.write(b, off, len);
+            position += len;
+        }
+    }
+}
@@ -0,0 +1,869 @@
+package dev.langchain4j.store.embedding.inmemory;
+
+import dev.langchain4j.data.document.Metadata;
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.store.embedding.EmbeddingMatch;
+import dev.langchain4j.store.embedding.EmbeddingSearchRequest;
+import dev.langchain4j.store.embedding.EmbeddingSearchResult;
+import dev.langchain4j.store.embedding.EmbeddingStore;
+import dev.langchain4j.store.embedding.RelevanceScore;
+import dev.langchain4j.store.embedding.VectorSimilarity;
+import dev.langchain4j.store.embedding.filter.Filter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+
+import static dev.langchain4j.internal.Exceptions.illegalArgument;
+import static dev.langchain4j.internal.Utils.getOrDefault;
+import static dev.langchain4j.internal.Utils.randomUUID;
+import static dev.langchain4j.internal.ValidationUtils.ensureGreaterThanZero;
+import static dev.langchain4j.internal.ValidationUtils.ensureNotEmpty;
+import static dev.langchain4j.internal.ValidationUtils.ensureNotNull;
+import static java.util.Collections.singletonList;
+import static java.util.Comparator.comparingDouble;
+
+/**
+ * An {@link EmbeddingStore} that keeps compressed embeddings in memory, for collections too large
+ * to keep every embedding as a {@code float[]} (tens of millions of embeddings and more).
+ * <p>
+ * Embeddings are indexed with an inverted file (IVF) and compressed with product quantization (PQ):
+ * <br>
+ * - A coarse quantizer clusters the embeddings into {@code nlist} lists. A search only scans
+ * the {@code nprobe} lists whose centroids are nearest to the query.
+ * <br>
+ * - The residual of each embedding (its difference to the centroid of its list) is split into
+ * {@code subQuantizers} sub-vectors, each encoded in one byte, so that each embedding takes
+ * {@code subQuantizers} bytes (see {@link #bytesPerVector()}).
+ * <br>
+ * - The query is compared to the codes through per-list tables of precomputed distances
+ * (asymmetric distance computation), so scanning a list costs {@code subQuantizers} table lookups per embedding.
+ * <p>
+ * Both quantizers are trained with k-means on a random sample of the embeddings. Until then, embeddings are kept
+ * uncompressed and searched exactly. Training starts automatically in the background once {@code trainingSampleSize}
+ * embeddings have been added (see {@link Builder#trainingExecutor(Executor)}), or explicitly with {@link #train()}.
+ * Training does not block additions, removals or searches, which are exact until it completes.
+ * <p>
+ * Embeddings are normalized to unit length when added, so that the Euclidean distances used by the quantizers
+ * rank like cosine similarity, which scores are computed from (see {@link RelevanceScore#fromCosineSimilarity}).
+ * Scores of compressed embeddings are approximate, unless re-ranking is enabled
+ * (see {@link Builder#reranking(Boolean)}). The {@link EmbeddingMatch#embedding()} of a match
+ * is the normalized embedding when re-ranking is enabled, and an approximate reconstruction otherwise.
+ * <p>
+ * This store is not persisted.
+ */
+public class IvfPqEmbeddingStore implements EmbeddingStore<TextSegment> {
+
+    static final int DEFAULT_NLIST = 256;
+    static final int DEFAULT_NPROBE = 8;
+    static final int DEFAULT_SUB_QUANTIZERS = 8;
+    static final int DEFAULT_TRAINING_SAMPLE_SIZE = 65_536;
+    static final int DEFAULT_K_MEANS_ITERATIONS = 10;
+    static final int DEFAULT_RERANKING_OVERSAMPLING = 4;
+
+    private final int nlist;
+    private final int nprobe;
+    private final int subQuantizers;
+    private final int trainingSampleSize;
+    private final int kMeansIterations;
+    private final boolean reranking;
+    private final int oversampling;
+    private final Random random;
+    private final Executor trainingExecutor;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Held for the whole training, so that only one training runs at a time.
+     * Never acquired while holding {@link #lock}.
+     */
+    private final Object trainingLock = new Object();
+
+    private int dimension = -1;
+    /**
+     * Entries added before the quantizers are trained, with normalized embeddings.
+     */
+    private List<InMemoryEmbeddingStore.Entry<TextSegment>> untrained = new ArrayList<>();
+    private boolean trainingScheduled;
+    private float[][] coarseCentroids;
+    private ProductQuantizer productQuantizer;
+    private InvertedList[] lists;
+    /**
+     * The inverted lists containing the embeddings with each id, once the store is trained.
+     * Ids are usually unique, so most arrays have a single element.
+     */
+    private Map<String, int[]> listsById = new HashMap<>();
+
+    private IvfPqEmbeddingStore(Builder builder) {
+        this.nlist = ensureGreaterThanZero(getOrDefault(builder.nlist, DEFAULT_NLIST), "nlist");
+        this.nprobe = ensureGreaterThanZero(getOrDefault(builder.nprobe, DEFAULT_NPROBE), "nprobe");
+        this.subQuantizers = ensureGreaterThanZero(
+                getOrDefault(builder.subQuantizers, DEFAULT_SUB_QUANTIZERS), "subQuantizers");
+        this.trainingSampleSize = ensureGreaterThanZero(
+                getOrDefault(builder.trainingSampleSize, DEFAULT_TRAINING_SAMPLE_SIZE), "trainingSampleSize");
+        this.kMeansIterations = ensureGreaterThanZero(
+                getOrDefault(builder.kMeansIterations, DEFAULT_K_MEANS_ITERATIONS), "kMeansIterations");
+        this.reranking = getOrDefault(builder.reranking, false);
+        this.oversampling = ensureGreaterThanZero(
+                getOrDefault(builder.oversampling, DEFAULT_RERANKING_OVERSAMPLING), "oversampling");
+        this.random = builder.seed == null ? new Random() : new Random(builder.seed);
+        this.trainingExecutor = builder.trainingExecutor == null
+                ? IvfPqEmbeddingStore::startTrainingThread
+                : builder.trainingExecutor;
+    }
+
+    private static void startTrainingThread(Runnable training) {
+        Thread thread = new Thread(training, "ivf-pq-training");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    @Override
+    public String add(Embedding embedding) {
+        String id = randomUUID();
+        add(id, embedding);
+        return id;
+    }
+
+    @Override
+    public void add(String id, Embedding embedding) {
+        add(id, embedding, null);
+    }
+
+    @Override
+    public String add(Embedding embedding, TextSegment textSegment) {
+        String id = randomUUID();
+        add(id, embedding, textSegment);
+        return id;
+    }
+
+    public void add(String id, Embedding embedding, TextSegment textSegment) {
+        add(singletonList(new InMemoryEmbeddingStore.Entry<>(id, embedding, textSegment)));
+    }
+
+    @Override
+    public List<String> addAll(List<Embedding> embeddings) {
+        List<InMemoryEmbeddingStore.Entry<TextSegment>> newEntries = new ArrayList<>(embeddings.size());
+        for (Embedding embedding : embeddings) {
+            newEntries.add(new InMemoryEmbeddingStore.Entry<>(randomUUID(), embedding));
+        }
+        return add(newEntries);
+    }
+
+    @Override
+    public void addAll(List<String> ids, List<Embedding> embeddings, List<TextSegment> embedded) {
+        if (ids.size() != embeddings.size() || embeddings.size() != embedded.size()) {
+            throw new IllegalArgumentException("The list of ids and embeddings and embedded must have the same size");
+        }
+
+        List<InMemoryEmbeddingStore.Entry<TextSegment>> newEntries = new ArrayList<>(ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+            newEntries.add(new InMemoryEmbeddingStore.Entry<>(ids.get(i), embeddings.get(i), embedded.get(i)));
+        }
+        add(newEntries);
+    }
+
+    private List<String> add(List<InMemoryEmbeddingStore.Entry<TextSegment>> newEntries) {
+        List<String> ids = new ArrayList<>(newEntries.size());
+        boolean scheduleTraining = false;
+        lock.writeLock().lock();
+        try {
+            ensureDimension(newEntries);
+            for (InMemoryEmbeddingStore.Entry<TextSegment> entry : newEntries) {
+                float[] vector = normalized(entry.embedding);
+                if (lists == null) {
+                    untrained.add(new InMemoryEmbeddingStore.Entry<>(entry.id, Embedding.from(vector), entry.embedded));
+                } else {
+                    add(entry.id, entry.embedded, encode(vector));
+                }
+                ids.add(entry.id);
+            }
+            if (lists == null && !trainingScheduled && untrained.size() >= trainingSampleSize) {
+                trainingScheduled = true;
+                scheduleTraining = true;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (scheduleTraining) {
+            scheduleTraining();
+        }
+        return ids;
+    }
+
+    private void scheduleTraining() {
+        try {
+            trainingExecutor.execute(() -> {
+                try {
+                    train();
+                } finally {
+                    trainingFinished();
+                }
+            });
+        } catch (RuntimeException e) {
+            trainingFinished();
+            throw e;
+        }
+    }
+
+    /**
+     * Allows the next addition to schedule training again, in case this training failed.
+     */
+    private void trainingFinished() {
+        lock.writeLock().lock();
+        try {
+            trainingScheduled = false;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void ensureDimension(List<InMemoryEmbeddingStore.Entry<TextSegment>> newEntries) {
+        int expectedDimension = dimension;
+        for (InMemoryEmbeddingStore.Entry<TextSegment> entry : newEntries) {
+            int entryDimension = entry.embedding.dimension();
+            if (expectedDimension < 0) {
+                if (entryDimension % subQuantizers != 0) {
+                    throw illegalArgument("Embedding dimension (%s) must be divisible by subQuantizers (%s)",
+                            entryDimension, subQuantizers);
+                }
+                expectedDimension = entryDimension;
+            } else if (entryDimension != expectedDimension) {
+                throw illegalArgument("Embedding dimension (%s) must be equal to the dimension of the store (%s)",
+                        entryDimension, expectedDimension);
+            }
+        }
+        dimension = expectedDimension;
+    }
+
+    /**
+     * Trains the coarse quantizer and the product quantizer on a random sample
+     * of at most {@code trainingSampleSize} of the embeddings added so far,
+     * then compresses all of them. Embeddings added afterwards are compressed as they are added.
+     * <p>
+     * Training runs on the calling thread, without blocking additions, removals or searches:
+     * the quantizers are trained and the embeddings are compressed on a snapshot of the store,
+     * and only the embeddings added meanwhile are compressed while the store is locked.
+     * <p>
+     * Training starts automatically once {@code trainingSampleSize} embeddings have been added;
+     * this method allows to train earlier, or to wait for the automatic training to complete.
+     * It has no effect if the store is already trained.
+     *
+     * @throws IllegalStateException if no embeddings have been added yet.
+     */
+    public void train() {
+        synchronized (trainingLock) {
+            List<InMemoryEmbeddingStore.Entry<TextSegment>> snapshot;
+            lock.readLock().lock();
+            try {
+                if (lists != null) {
+                    return;
+                }
+                if (untrained.isEmpty()) {
+                    throw new IllegalStateException("Cannot train before any embedding is added");
+                }
+                snapshot = new ArrayList<>(untrained);
+            } finally {
+                lock.readLock().unlock();
+            }
+
+            float[][] sample = sample(snapshot, trainingSampleSize);
+            float[][] centroids = KMeans.train(sample, 0, dimension, nlist, kMeansIterations, random);
+            float[][] residuals = new float[sample.length][];
+            for (int i = 0; i < sample.length; i++) {
+                residuals[i] = residual(sample[i], centroids[KMeans.nearest(sample[i], centroids)]);
+            }
+            ProductQuantizer quantizer =
+                    ProductQuantizer.train(residuals, dimension, subQuantizers, kMeansIterations, random);
+
+            Map<InMemoryEmbeddingStore.Entry<TextSegment>, Code> codes = new IdentityHashMap<>(snapshot.size());
+            for (InMemoryEmbeddingStore.Entry<TextSegment> entry : snapshot) {
+                codes.put(entry, encode(entry.embedding.vector(), centroids, quantizer));
+            }
+
+            lock.writeLock().lock();
+            try {
+                coarseCentroids = centroids;
+                productQuantizer = quantizer;
+                lists = new InvertedList[centroids.length];
+                for (int i = 0; i < lists.length; i++) {
+                    lists[i] = new InvertedList(subQuantizers);
+                }
+                // entries removed during training are no longer in untrained, entries added meanwhile have no code yet
+                for (InMemoryEmbeddingStore.Entry<TextSegment> entry : untrained) {
+                    Code code = codes.get(entry);
+                    add(entry.id, entry.embedded, code != null ? code : encode(entry.embedding.vector()));
+                }
+                untrained = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    private float[][] sample(List<InMemoryEmbeddingStore.Entry<TextSegment>> entries, int maxSize) {
+        int size = Math.min(maxSize, entries.size());
+        float[][] sample = new float[size][];
+        // reservoir sampling
+        for (int i = 0; i < entries.size(); i++) {
+            if (i < size) {
+                sample[i] = entries.get(i).embedding.vector();
+            } else {
+                int j = random.nextInt(i + 1);
+                if (j < size) {
+                    sample[j] = entries.get(i).embedding.vector();
+                }
+            }
+        }
+        return sample;
+    }
+
+    private Code encode(float[] vector) {
+        return encode(vector, coarseCentroids, productQuantizer);
+    }
+
+    private Code encode(float[] vector, float[][] centroids, ProductQuantizer quantizer) {
+        int list = KMeans.nearest(vector, centroids);
+        byte[] code = new byte[subQuantizers];
+        quantizer.encode(residual(vector, centroids[list]), code, 0);
+        return new Code(list, code, reranking ? vector : null);
+    }
+
+    private void add(String id, TextSegment textSegment, Code code) {
+        lists[code.list].add(id, textSegment, code.code, code.vector);
+        int[] ids = listsById.get(id);
+        if (ids == null) {
+            listsById.put(id, new int[]{code.list});
+        } else {
+            int[] newIds = Arrays.copyOf(ids, ids.length + 1);
+            newIds[ids.length] = code.list;
+            listsById.put(id, newIds);
+        }
+    }
+
+    @Override
+    public void removeAll(Collection<String> ids) {
+        ensureNotEmpty(ids, "ids");
+
+        Set<String> idsToRemove = new HashSet<>(ids);
+        lock.writeLock().lock();
+        try {
+            if (lists == null) {
+                untrained.removeIf(entry -> idsToRemove.contains(entry.id));
+                return;
+            }
+            // only the lists containing the ids are scanned
+            Set<Integer> affectedLists = new HashSet<>();
+            for (String id : idsToRemove) {
+                int[] idLists = listsById.remove(id);
+                if (idLists != null) {
+                    for (int list : idLists) {
+                        affectedLists.add(list);
+                    }
+                }
+            }
+            for (int list : affectedLists) {
+                lists[list].removeIf((id, textSegment) -> idsToRemove.contains(id));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void removeAll(Filter filter) {
+        ensureNotNull(filter, "filter");
+
+        Predicate<Metadata> predicate = filter.toPredicate();
+        removeIf((id, textSegment) -> textSegment != null && predicate.test(textSegment.metadata()));
+    }
+
+    @Override
+    public void removeAll() {
+        lock.writeLock().lock();
+        try {
+            if (lists == null) {
+                untrained.clear();
+            } else {
+                // the trained quantizers are kept for the embeddings added later
+                for (int i = 0; i < lists.length; i++) {
+                    lists[i] = new InvertedList(subQuantizers);
+                }
+                listsById = new HashMap<>();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void removeIf(EntryPredicate predicate) {
+        lock.writeLock().lock();
+        try {
+            if (lists == null) {
+                untrained.removeIf(entry -> predicate.test(entry.id, entry.embedded));
+            } else {
+                for (int i = 0; i < lists.length; i++) {
+                    int list = i;
+                    lists[i].removeIf((id, textSegment) -> {
+                        if (!predicate.test(id, textSegment)) {
+                            return false;
+                        }
+                        unindex(id, list);
+                        return true;
+                    });
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public EmbeddingSearchResult<TextSegment> search(EmbeddingSearchRequest embeddingSearchRequest) {
+
+        Predicate<Metadata> filter = embeddingSearchRequest.filter() == null
+                ? null
+                : embeddingSearchRequest.filter().toPredicate();
+        float[] query = normalized(embeddingSearchRequest.queryEmbedding());
+
+        lock.readLock().lock();
+        try {
+            if (dimension < 0) {
+                return new EmbeddingSearchResult<>(new ArrayList<>());
+            }
+            if (query.length != dimension) {
+                throw illegalArgument("Length of vector a (%s) must be equal to the length of vector b (%s)",
+                        dimension, query.length);
+            }
+            List<Candidate> found = lists == null
+                    ? exactSearch(query, filter, embeddingSearchRequest.maxResults())
+                    : approximateSearch(query, filter, embeddingSearchRequest.maxResults());
+
+            List<EmbeddingMatch<TextSegment>> matches = new ArrayList<>(found.size());
+            for (Candidate candidate : found) {
+                double score = RelevanceScore.fromCosineSimilarity(candidate.cosineSimilarity);
+                if (score >= embeddingSearchRequest.minScore()) {
+                    matches.add(new EmbeddingMatch<>(score, candidate.id, candidate.embedding, candidate.textSegment));
+                }
+            }
+            return new EmbeddingSearchResult<>(matches);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<Candidate> exactSearch(float[] query, Predicate<Metadata> filter, int maxResults) {
+        TopCandidates top = new TopCandidates(maxResults);
+        for (InMemoryEmbeddingStore.Entry<TextSegment> entry : untrained) {
+            if (matches(filter, entry.embedded)) {
+                double cosineSimilarity = VectorSimilarity.dotProduct(entry.embedding.vector(), query);
+                top.add(new Candidate(entry.id, entry.embedding, entry.embedded, cosineSimilarity));
+            }
+        }
+        return top.toSortedList();
+    }
+
+    private List<Candidate> approximateSearch(float[] query, Predicate<Metadata> filter, int maxResults) {
+        int candidateCount = reranking ? maxResults * oversampling : maxResults;
+        TopCandidates top = new TopCandidates(candidateCount);
+        for (int listIndex : nearestLists(query)) {
+            InvertedList list = lists[listIndex];
+            float[] table = productQuantizer.distanceTable(residual(query, coarseCentroids[listIndex]));
+            for (int position = 0; position < list.size; position++) {
+                if (!matches(filter, list.textSegments[position])) {
+                    continue;
+                }
+                float squaredDistance = productQuantizer.distance(table, list.codes, position * subQuantizers);
+                // for unit vectors, |q - v|^2 = 2 - 2 * cos(q, v)
+                double cosineSimilarity = Math.max(-1, Math.min(1, 1 - squaredDistance / 2));
+                if (top.accepts(cosineSimilarity)) {
+                    top.add(new Candidate(listIndex, position, cosineSimilarity));
+                }
+            }
+        }
+
+        List<Candidate> found = top.toSortedList();
+        for (Candidate candidate : found) {
+            InvertedList list = lists[candidate.list];
+            candidate.id = list.ids[candidate.position];
+            candidate.textSegment = list.textSegments[candidate.position];
+            if (reranking) {
+                float[] vector = list.vectors[candidate.position];
+                candidate.embedding = Embedding.from(vector);
+                candidate.cosineSimilarity = VectorSimilarity.dotProduct(vector, query);
+            } else {
+                float[] vector = coarseCentroids[candidate.list].clone();
+                productQuantizer.decodeAdd(list.codes, candidate.position * subQuantizers, vector);
+                candidate.embedding = Embedding.from(vector);
+            }
+        }
+        if (reranking) {
+            found.sort(comparingDouble((Candidate c) -> c.cosineSimilarity).reversed());
+            if (found.size() > maxResults) {
+                found = new ArrayList<>(found.subList(0, maxResults));
+            }
+        }
+        return found;
+    }
+
+    private int[] nearestLists(float[] query) {
+        int probes = Math.min(nprobe, coarseCentroids.length);
+        float[] distances = new float[coarseCentroids.length];
+        Integer[] order = new Integer[coarseCentroids.length];
+        for (int i = 0; i < coarseCentroids.length; i++) {
+            distances[i] = VectorSimilarity.squaredEuclideanDistance(query, coarseCentroids[i]);
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Float.compare(distances[a], distances[b]));
+        int[] nearest = new int[probes];
+        for (int i = 0; i < probes; i++) {
+            nearest[i] = order[i];
+        }
+        return nearest;
+    }
+
+    /**
+     * Returns the number of bytes used to keep the vector of each embedding once the store is trained:
+     * one byte per sub-quantizer, plus 4 bytes per dimension for the full-precision vector kept for re-ranking.
+     * Ids and text segments are not included.
+     *
+     * @return bytes per vector.
+     */
+    public int bytesPerVector() {
+        lock.readLock().lock();
+        try {
+            return subQuantizers + (reranking ? Math.max(dimension, 0) * Float.BYTES : 0);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return {@code true} if the quantizers are trained and the embeddings are compressed.
+     */
+    public boolean isTrained() {
+        lock.readLock().lock();
+        try {
+            return lists != null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Forgets that one embedding with the given id is in the given list.
+     */
+    private void unindex(String id, int list) {
+        int[] idLists = listsById.get(id);
+        if (idLists == null) {
+            return;
+        }
+        if (idLists.length == 1) {
+            listsById.remove(id);
+            return;
+        }
+        int[] newIdLists = new int[idLists.length - 1];
+        for (int i = 0, j = 0; i < idLists.length; i++) {
+            if (idLists[i] != list || j < i) {
+                newIdLists[j++] = idLists[i];
+            }
+        }
+        listsById.put(id, newIdLists);
+    }
+
+    private static boolean matches(Predicate<Metadata> filter, TextSegment textSegment) {
+        return filter == null || textSegment == null || filter.test(textSegment.metadata());
+    }
+
+    /**
+     * @return a new, normalized vector with the values of the given embedding.
+     */
+    private static float[] normalized(Embedding embedding) {
+        float[] vector = new float[embedding.dimension()];
+        embedding.copyTo(0, vector, 0, vector.length);
+        Embedding.from(vector).normalize();
+        return vector;
+    }
+
+    private static float[] residual(float[] vector, float[] centroid) {
+        float[] residual = new float[vector.length];
+        for (int i = 0; i < vector.length; i++) {
+            residual[i] = vector[i] - centroid[i];
+        }
+        return residual;
+    }
+
+    @FunctionalInterface
+    private interface EntryPredicate {
+
+        boolean test(String id, TextSegment textSegment);
+    }
+
+    /**
+     * The compressed embeddings assigned to one centroid of the coarse quantizer, in parallel arrays.
+     */
+    private static class InvertedList {
+
+        private final int codeSize;
+
+        int size;
+        String[] ids = new String[0];
+        TextSegment[] textSegments = new TextSegment[0];
+        byte[] codes = new byte[0];
+        float[][] vectors = new float[0][];
+
+        InvertedList(int codeSize) {
+            this.codeSize = codeSize;
+        }
+
+        void add(String id, TextSegment textSegment, byte[] code, float[] vector) {
+            if (size == ids.length) {
+                int capacity = Math.max(16, size * 2);
+                ids = Arrays.copyOf(ids, capacity);
+                textSegments = Arrays.copyOf(textSegments, capacity);
+                codes = Arrays.copyOf(codes, capacity * codeSize);
+                if (vector != null) {
+                    vectors = Arrays.copyOf(vectors, capacity);
+                }
+            }
+            ids[size] = id;
+            textSegments[size] = textSegment;
+            System.arraycopy(code, 0, codes, size * codeSize, codeSize);
+            if (vector != null) {
+                vectors[size] = vector;
+            }
+            size++;
+        }
+
+        void removeIf(EntryPredicate predicate) {
+            int kept = 0;
+            for (int position = 0; position < size; position++) {
+                if (predicate.test(ids[position], textSegments[position])) {
+                    continue;
+                }
+                if (kept != position) {
+                    ids[kept] = ids[position];
+                    textSegments[kept] = textSegments[position];
+                    System.arraycopy(codes, position * codeSize, codes, kept * codeSize, codeSize);
+                    if (vectors.length > 0) {
+                        vectors[kept] = vectors[position];
+                    }
+                }
+                kept++;
+            }
+            for (int position = kept; position < size; position++) {
+                ids[position] = null;
+                textSegments[position] = null;
+                if (vectors.length > 0) {
+                    vectors[position] = null;
+                }
+            }
+            size = kept;
+        }
+    }
+
+    /**
+     * The compressed embedding: the list it is assigned to, its code in that list,
+     * and the normalized vector if it is kept for re-ranking.
+     */
+    private static class Code {
+
+        final int list;
+        final byte[] code;
+        final float[] vector;
+
+        Code(int list, byte[] code, float[] vector) {
+            this.list = list;
+            this.code = code;
+            this.vector = vector;
+        }
+    }
+
+    /**
+     * A search result, either an uncompressed entry, or a position in an inverted list
+     * whose id, text segment and embedding are resolved once it is among the best candidates.
+     */
+    private static class Candidate {
+
+        int list;
+        int position;
+        String id;
+        Embedding embedding;
+        TextSegment textSegment;
+        double cosineSimilarity;
+
+        Candidate(int list, int position, double cosineSimilarity) {
+            this.list = list;
+            this.position = position;
+            this.cosineSimilarity = cosineSimilarity;
+        }
+
+        Candidate(String id, Embedding embedding, TextSegment textSegment, double cosineSimilarity) {
+            this.id = id;
+            this.embedding = embedding;
+            this.textSegment = textSegment;
+            this.cosineSimilarity = cosineSimilarity;
+        }
+    }
+
+    /**
+     * Keeps the {@code maxSize} candidates with the highest cosine similarity in a min-heap.
+     */
+    private static class TopCandidates {
+
+        private final int maxSize;
+        private final PriorityQueue<Candidate> heap = new PriorityQueue<>(comparingDouble(c -> c.cosineSimilarity));
+
+        TopCandidates(int maxSize) {
+            this.maxSize = maxSize;
+        }
+
+        boolean accepts(double cosineSimilarity) {
+            return heap.size() < maxSize || cosineSimilarity > heap.peek().cosineSimilarity;
+        }
+
+        void add(Candidate candidate) {
+            if (heap.size() < maxSize) {
+                heap.add(candidate);
+            } else if (candidate.cosineSimilarity > heap.peek().cosineSimilarity) {
+                heap.poll();
+                heap.add(candidate);
+            }
+        }
+
+        List<Candidate> toSortedList() {
+            List<Candidate> result = new ArrayList<>(heap);
+            result.sort(comparingDouble((Candidate c) -> c.cosineSimilarity).reversed());
+            return result;
+        }
+    }
+
+    public static class Builder {
+
+        private Integer nlist;
+        private Integer nprobe;
+        private Integer subQuantizers;
+        private Integer trainingSampleSize;
+        private Integer kMeansIterations;
+        private Boolean reranking;
+        private Integer oversampling;
+        private Long seed;
+        private Executor trainingExecutor;
+
+        Builder() {
+        }
+
+        /**
+         * @param nlist The number of lists (centroids of the coarse quantizer) the embeddings are clustered into.
+         *              A common choice is around the square root of the number of embeddings.
+         *              Default: 256
+         */
+        public Builder nlist(Integer nlist) {
+            this.nlist = nlist;
+            return this;
+        }
+
+        /**
+         * @param nprobe The number of lists scanned by each search, nearest to the query first.
+         *               Higher values give better recall at the cost of slower searches.
+         *               Default: 8
+         */
+        public Builder nprobe(Integer nprobe) {
+            this.nprobe = nprobe;
+            return this;
+        }
+
+        /**
+         * @param subQuantizers The number of sub-vectors each embedding is split into, each encoded in one byte.
+         *                      The dimension of the embeddings must be divisible by it.
+         *                      Higher values give more accurate scores at the cost of more memory.
+         *                      Default: 8
+         */
+        public Builder subQuantizers(Integer subQuantizers) {
+            this.subQuantizers = subQuantizers;
+            return this;
+        }
+
+        /**
+         * @param trainingSampleSize The number of embeddings the quantizers are trained on.
+         *                           The store is trained automatically once this many embeddings have been added.
+         *                           Default: 65536
+         */
+        public Builder trainingSampleSize(Integer trainingSampleSize) {
+            this.trainingSampleSize = trainingSampleSize;
+            return this;
+        }
+
+        /**
+         * @param kMeansIterations The maximum number of k-means iterations when training each quantizer.
+         *                         Default: 10
+         */
+        public Builder kMeansIterations(Integer kMeansIterations) {
+            this.kMeansIterations = kMeansIterations;
+            return this;
+        }
+
+        /**
+         * @param reranking When {@code true}, the full-precision (normalized) embeddings are kept as well,
+         *                  and the best {@code maxResults * oversampling} candidates found with the compressed
+         *                  embeddings are rescored exactly. This gives exact scores and better recall,
+         *                  but takes 4 bytes per dimension per embedding.
+         *                  Default: {@code false}
+         */
+        public Builder reranking(Boolean reranking) {
+            this.reranking = reranking;
+            return this;
+        }
+
+        /**
+         * @param oversampling How many times more candidates than {@code maxResults} are rescored
+         *                     when {@link #reranking(Boolean)} is enabled.
+         *                     Default: 4
+         */
+        public Builder oversampling(Integer oversampling) {
+            this.oversampling = oversampling;
+            return this;
+        }
+
+        /**
+         * @param seed The seed of the random sampling and k-means initialization, for reproducible training.
+         *             Default: random
+         */
+        public Builder seed(Long seed) {
+            this.seed = seed;
+            return this;
+        }
+
+        /**
+         * @param trainingExecutor The executor on which the store is trained (see {@link #train()}) once
+         *                         {@code trainingSampleSize} embeddings have been added, without blocking
+         *                         the thread adding them. Searches are exact until training completes.
+         *                         Default: a new daemon thread for the training
+         */
+        public Builder trainingExecutor(Executor trainingExecutor) {
+            this.trainingExecutor = trainingExecutor;
+            return this;
+        }
+
+        public IvfPqEmbeddingStore build() {
+            return new IvfPqEmbeddingStore(this);
+        }
+    }
+}
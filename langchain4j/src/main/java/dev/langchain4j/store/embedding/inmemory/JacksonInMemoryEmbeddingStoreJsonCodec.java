@@ -1,39 +1,72 @@
 package dev.langchain4j.store.embedding.inmemory;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
 import com.fasterxml.jackson.databind.json.JsonMapper;
 import dev.langchain4j.Internal;
 import dev.langchain4j.data.document.Metadata;
 import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.embedding.HalfPrecisionEmbedding;
 import dev.langchain4j.data.segment.TextSegment;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+
 import static com.fasterxml.jackson.annotation.JsonAutoDetect.Visibility.ANY;
+import static com.fasterxml.jackson.annotation.JsonInclude.Include.NON_NULL;
 import static com.fasterxml.jackson.annotation.PropertyAccessor.FIELD;
+import static dev.langchain4j.internal.Exceptions.illegalArgument;
 
 @Internal
 class JacksonInMemoryEmbeddingStoreJsonCodec implements InMemoryEmbeddingStoreJsonCodec {
 
     private static final ObjectMapper OBJECT_MAPPER = JsonMapper.builder()
             .visibility(FIELD, ANY)
+            .addMixIn(InMemoryEmbeddingStore.class, StoreMixIn.class)
+            .addMixIn(HnswConfig.class, HnswConfigMixIn.class)
             .addMixIn(InMemoryEmbeddingStore.Entry.class, EntryMixIn.class)
             .addMixIn(Embedding.class, EmbeddingMixIn.class)
+            .addMixIn(HalfPrecisionEmbedding.class, HalfPrecisionEmbeddingMixIn.class)
             .addMixIn(TextSegment.class, TextSegmentMixin.class)
             .build();
 
-    private static final TypeReference<InMemoryEmbeddingStore<TextSegment>> TYPE_REFERENCE = new TypeReference<>() {
-    };
+    private static final JavaType ENTRY_TYPE = OBJECT_MAPPER.getTypeFactory()
+            .constructParametricType(InMemoryEmbeddingStore.Entry.class, TextSegment.class);
+
+    private static final ObjectReader ENTRY_READER = OBJECT_MAPPER.readerFor(ENTRY_TYPE);
+    private static final ObjectReader HNSW_CONFIG_READER = OBJECT_MAPPER.readerFor(HnswConfig.class);
+
+    /**
+     * Flushing after every entry would defeat the buffering of the underlying writer.
+     */
+    private static final ObjectWriter VALUE_WRITER = OBJECT_MAPPER.writer()
+            .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
 
+    /**
+     * Restores the store through its builder, like {@link #fromJson(Reader)},
+     * so that its HNSW index, if any, is built while it is restored.
+     */
     @Override
     public InMemoryEmbeddingStore<TextSegment> fromJson(String json) {
-        try {
-            return OBJECT_MAPPER.readValue(json, TYPE_REFERENCE);
-        } catch (JsonProcessingException e) {
-            throw new RuntimeException(e);
-        }
+        return fromJson(new StringReader(json));
     }
 
     @Override
@@ -45,6 +78,80 @@ class JacksonInMemoryEmbeddingStoreJsonCodec implements InMemoryEmbeddingStoreJs
         }
     }
 
+    /**
+     * Reads the entries one at a time, without materializing the whole document.
+     * The document has the same structure as the one read by {@link #fromJson(String)}.
+     */
+    @Override
+    public InMemoryEmbeddingStore<TextSegment> fromJson(Reader reader) {
+        try (JsonParser parser = OBJECT_MAPPER.createParser(reader)) {
+            parser.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+            expect(parser.nextToken(), JsonToken.START_OBJECT);
+            List<InMemoryEmbeddingStore.Entry<TextSegment>> entries = new ArrayList<>();
+            HnswConfig hnswConfig = null;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ("entries".equals(field) && value == JsonToken.START_ARRAY) {
+                    while (parser.nextToken() == JsonToken.START_OBJECT) {
+                        entries.add(ENTRY_READER.readValue(parser));
+                    }
+                    expect(parser.currentToken(), JsonToken.END_ARRAY);
+                } else if ("hnswConfig".equals(field) && value == JsonToken.START_OBJECT) {
+                    hnswConfig = HNSW_CONFIG_READER.readValue(parser);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            return InMemoryEmbeddingStore.restore(entries, hnswConfig);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Writes the entries one at a time, without building the whole document.
+     * The document is the same as the one returned by {@link #toJson(InMemoryEmbeddingStore)}.
+     */
+    @Override
+    public void toJson(InMemoryEmbeddingStore<?> store, Writer writer) {
+        try (JsonGenerator generator = OBJECT_MAPPER.createGenerator(writer)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.writeStartObject();
+            generator.writeArrayFieldStart("entries");
+            for (InMemoryEmbeddingStore.Entry<?> entry : store.entries) {
+                VALUE_WRITER.writeValue(generator, entry);
+            }
+            generator.writeEndArray();
+            if (store.hnswConfig() != null) {
+                generator.writeFieldName("hnswConfig");
+                VALUE_WRITER.writeValue(generator, store.hnswConfig());
+            }
+            generator.writeEndObject();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static void expect(JsonToken actual, JsonToken expected) {
+        if (actual != expected) {
+            throw illegalArgument("Expected %s but found %s", expected, actual);
+        }
+    }
+
+    @JsonInclude(NON_NULL)
+    private abstract static class StoreMixIn {
+    }
+
+    private abstract static class HnswConfigMixIn {
+        @JsonCreator
+        HnswConfigMixIn(
+                @JsonProperty("m") Integer m,
+                @JsonProperty("efConstruction") Integer efConstruction,
+                @JsonProperty("efSearch") Integer efSearch) {
+        }
+    }
+
     private abstract static class EntryMixIn<T> {
         @JsonCreator
         EntryMixIn(
@@ -52,17 +159,60 @@ class JacksonInMemoryEmbeddingStoreJsonCodec implements InMemoryEmbeddingStoreJs
                 @JsonProperty("embedding") Embedding embedding,
                 @JsonProperty("embedded") T embedded) {
         }
+
+        @JsonProperty("embedding")
+        abstract Embedding embedding();
     }
 
+    @JsonDeserialize(using = EmbeddingDeserializer.class)
     private abstract static class EmbeddingMixIn {
-        @JsonCreator
-        EmbeddingMixIn(@JsonProperty("vector") float[] vector) {
-        }
-
         @JsonProperty("vector")
         abstract float[] vector();
     }
 
+    /**
+     * A {@link HalfPrecisionEmbedding} is written with its widened vector and its format,
+     * so that documents stay readable by versions that only know {@code "vector"}.
+     */
+    private abstract static class HalfPrecisionEmbeddingMixIn {
+        @JsonIgnore
+        short[] bits;
+
+        @JsonProperty("format")
+        HalfPrecisionEmbedding.Format format;
+    }
+
+    /**
+     * Reads {@code {"vector": [...]}}, with an optional {@code "format"} for {@link HalfPrecisionEmbedding}s.
+     * Narrowing the widened vector back to its format is exact.
+     */
+    private static class EmbeddingDeserializer extends StdDeserializer<Embedding> {
+
+        private static final long serialVersionUID = 1L;
+
+        EmbeddingDeserializer() {
+            super(Embedding.class);
+        }
+
+        @Override
+        public Embedding deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+            float[] vector = null;
+            HalfPrecisionEmbedding.Format format = null;
+            JsonToken token = parser.currentToken() == JsonToken.START_OBJECT ? parser.nextToken() : parser.currentToken();
+            for (; token == JsonToken.FIELD_NAME; token = parser.nextToken()) {
+                String field = parser.currentName();
+                parser.nextToken();
+                switch (field) {
+                    case "vector" -> vector = context.readValue(parser, float[].class);
+                    case "format" -> format = HalfPrecisionEmbedding.Format.valueOf(parser.getText());
+                    default -> parser.skipChildren();
+                }
+            }
+            expect(token, JsonToken.END_OBJECT);
+            return format == null ? Embedding.from(vector) : HalfPrecisionEmbedding.from(vector, format);
+        }
+    }
+
     private abstract static class TextSegmentMixin {
 
         @JsonCreator
@@ -0,0 +1,108 @@
+package dev.langchain4j.store.embedding.inmemory;
+
+import dev.langchain4j.store.embedding.VectorSimilarity;
+
+import java.util.Random;
+
+/**
+ * Lloyd's k-means clustering by squared Euclidean distance, used to train the coarse quantizer
+ * and the sub-quantizers of an {@link IvfPqEmbeddingStore}.
+ * <p>
+ * Points are sub-vectors: {@code length} floats of each row of {@code points} starting at {@code offset},
+ * so that the sub-spaces of a product quantizer can be trained without copying the training sample.
+ */
+class KMeans {
+
+    private KMeans() {
+    }
+
+    /**
+     * Clusters the points into at most {@code k} clusters.
+     * Initial centroids are distinct points picked at random. A cluster that becomes empty is restarted
+     * from a random point, so that no centroid is wasted.
+     *
+     * @return the centroids, {@code min(k, points.length)} rows of {@code length} floats.
+     */
+    static float[][] train(float[][] points, int offset, int length, int k, int iterations, Random random) {
+        int n = points.length;
+        k = Math.min(k, n);
+        float[][] centroids = new float[k][];
+        int[] order = shuffledIndexes(n, random);
+        for (int c = 0; c < k; c++) {
+            centroids[c] = subVector(points[order[c]], offset, length);
+        }
+
+        int[] assignments = new int[n];
+        float[] sub = new float[length];
+        for (int iteration = 0; iteration < iterations; iteration++) {
+            boolean changed = false;
+            for (int i = 0; i < n; i++) {
+                System.arraycopy(points[i], offset, sub, 0, length);
+                int nearest = nearest(sub, centroids);
+                if (iteration == 0 || nearest != assignments[i]) {
+                    changed = true;
+                    assignments[i] = nearest;
+                }
+            }
+            if (!changed) {
+                break;
+            }
+
+            double[][] sums = new double[k][length];
+            int[] counts = new int[k];
+            for (int i = 0; i < n; i++) {
+                double[] sum = sums[assignments[i]];
+                for (int d = 0; d < length; d++) {
+                    sum[d] += points[i][offset + d];
+                }
+                counts[assignments[i]]++;
+            }
+            for (int c = 0; c < k; c++) {
+                if (counts[c] == 0) {
+                    centroids[c] = subVector(points[random.nextInt(n)], offset, length);
+                    continue;
+                }
+                for (int d = 0; d < length; d++) {
+                    centroids[c][d] = (float) (sums[c][d] / counts[c]);
+                }
+            }
+        }
+        return centroids;
+    }
+
+    /**
+     * @return the index of the centroid nearest to the given vector.
+     */
+    static int nearest(float[] vector, float[][] centroids) {
+        int nearest = 0;
+        float nearestDistance = Float.POSITIVE_INFINITY;
+        for (int c = 0; c < centroids.length; c++) {
+            float distance = VectorSimilarity.squaredEuclideanDistance(vector, centroids[c], 0);
+            if (distance < nearestDistance) {
+                nearestDistance = distance;
+                nearest = c;
+            }
+        }
+        return nearest;
+    }
+
+    private static float[] subVector(float[] vector, int offset, int length) {
+        float[] sub = new float[length];
+        System.arraycopy(vector, offset, sub, 0, length);
+        return sub;
+    }
+
+    private static int[] shuffledIndexes(int n, Random random) {
+        int[] indexes = new int[n];
+        for (int i = 0; i < n; i++) {
+            indexes[i] = i;
+        }
+        for (int i = n - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int tmp = indexes[i];
+            indexes[i] = indexes[j];
+            indexes[j] = tmp;
+        }
+        return indexes;
+    }
+}
@@ -0,0 +1,204 @@
+package dev.langchain4j.store.embedding.inmemory;
+
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.embedding.HalfPrecisionEmbedding;
+
+import java.io.IOException;
+import java.nio.FloatBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.ShortBuffer;
+import java.nio.channels.FileChannel;
+
+import static dev.langchain4j.internal.Exceptions.illegalArgument;
+
+/**
+ * The vectors of a snapshot (see {@link InMemoryEmbeddingStoreSnapshot}), read in place
+ * from read-only memory-mapped windows of the snapshot file.
+ * Entries read from a snapshot hold no embedding, but the row of their vector in the file,
+ * so loading a snapshot does not copy the vectors to the heap, and searches score them directly from the mapping.
+ * Only the norms of the vectors are computed once, when the snapshot is loaded, and kept in the heap,
+ * so that an exact search reads each mapped vector once.
+ * <p>
+ * The mapping is released once no entry refers to it anymore. The file must not be modified while it is mapped.
+ * <p>
+ * This class is thread-safe, as it is immutable.
+ */
+class MappedVectors implements VectorStorage {
+
+    private final int dimension;
+    /**
+     * {@code null} when the vectors are stored as floats.
+     */
+    private final HalfPrecisionEmbedding.Format format;
+    private final int rowsPerWindow;
+    private final FloatBuffer[] floatWindows;
+    private final ShortBuffer[] shortWindows;
+    private final double[] norms;
+
+    private MappedVectors(int dimension,
+                          HalfPrecisionEmbedding.Format format,
+                          int rowsPerWindow,
+                          FloatBuffer[] floatWindows,
+                          ShortBuffer[] shortWindows,
+                          int count) {
+        this.dimension = dimension;
+        this.format = format;
+        this.rowsPerWindow = rowsPerWindow;
+        this.floatWindows = floatWindows;
+        this.shortWindows = shortWindows;
+        this.norms = new double[count];
+        for (int row = 0; row < count; row++) {
+            norms[row] = computeNorm(row);
+        }
+    }
+
+    /**
+     * Maps {@code count} rows of {@code dimension} values, starting at the given offset of the file.
+     * A single mapping cannot exceed 2 GB, so the rows are mapped in windows of whole rows.
+     *
+     * @param format the format of the values, or {@code null} for floats.
+     */
+    static MappedVectors map(FileChannel channel,
+                             long offset,
+                             int dimension,
+                             int count,
+                             HalfPrecisionEmbedding.Format format) throws IOException {
+        long rowBytes = (long) dimension * (format == null ? Float.BYTES : Short.BYTES);
+        int rowsPerWindow = (int) Math.max(1, Integer.MAX_VALUE / Math.max(rowBytes, 1));
+        int windows = (int) ((count + (long) rowsPerWindow - 1) / rowsPerWindow);
+        FloatBuffer[] floatWindows = new FloatBuffer[format == null ? windows : 0];
+        ShortBuffer[] shortWindows = new ShortBuffer[format == null ? 0 : windows];
+        for (int window = 0; window < windows; window++) {
+            long first = (long) window * rowsPerWindow;
+            long rows = Math.min(rowsPerWindow, count - first);
+            MappedByteBuffer mapping = channel.map(FileChannel.MapMode.READ_ONLY, offset + first * rowBytes, rows * rowBytes);
+            if (format == null) {
+                floatWindows[window] = mapping.asFloatBuffer();
+            } else {
+                shortWindows[window] = mapping.asShortBuffer();
+            }
+        }
+        return new MappedVectors(dimension, format, rowsPerWindow, floatWindows, shortWindows, count);
+    }
+
+    @Override
+    public Embedding embedding(InMemoryEmbeddingStore.Entry<?> entry) {
+        int row = entry.row;
+        if (format == null) {
+            float[] vector = new float[dimension];
+            floatWindows[row / rowsPerWindow].get(offset(row), vector);
+            return Embedding.from(vector);
+        }
+        short[] bits = new short[dimension];
+        shortWindows[row / rowsPerWindow].get(offset(row), bits);
+        return new HalfPrecisionEmbedding(bits, format);
+    }
+
+    @Override
+    public int dimension() {
+        return dimension;
+    }
+
+    @Override
+    public void copyTo(InMemoryEmbeddingStore.Entry<?> entry, float[] destination, int destinationOffset, int length) {
+        int row = entry.row;
+        int offset = offset(row);
+        if (format == null) {
+            floatWindows[row / rowsPerWindow].get(offset, destination, destinationOffset, length);
+            return;
+        }
+        ShortBuffer window = shortWindows[row / rowsPerWindow];
+        for (int i = 0; i < length; i++) {
+            destination[destinationOffset + i] = HalfPrecisionEmbedding.widen(window.get(offset + i), format);
+        }
+    }
+
+    /**
+     * Uses the same lanes as {@link dev.langchain4j.store.embedding.VectorSimilarity#dotProduct(float[], float[])}
+     * and {@link HalfPrecisionEmbedding#dotProduct(float[])}, so that scores do not change when a store is loaded.
+     */
+    @Override
+    public float dotProduct(InMemoryEmbeddingStore.Entry<?> entry, float[] vector) {
+        if (vector.length != dimension) {
+            throw illegalArgument("Length of vector a (%s) must be equal to the length of vector b (%s)",
+                    dimension, vector.length);
+        }
+        int row = entry.row;
+        int offset = offset(row);
+        int bound = dimension & ~3;
+        float s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+        int i = 0;
+        if (format == null) {
+            FloatBuffer window = floatWindows[row / rowsPerWindow];
+            for (; i < bound; i += 4) {
+                int j = offset + i;
+                s0 += window.get(j) * vector[i];
+                s1 += window.get(j + 1) * vector[i + 1];
+                s2 += window.get(j + 2) * vector[i + 2];
+                s3 += window.get(j + 3) * vector[i + 3];
+            }
+            for (; i < dimension; i++) {
+                s0 += window.get(offset + i) * vector[i];
+            }
+        } else {
+            ShortBuffer window = shortWindows[row / rowsPerWindow];
+            for (; i < bound; i += 4) {
+                int j = offset + i;
+                s0 += HalfPrecisionEmbedding.widen(window.get(j), format) * vector[i];
+                s1 += HalfPrecisionEmbedding.widen(window.get(j + 1), format) * vector[i + 1];
+                s2 += HalfPrecisionEmbedding.widen(window.get(j + 2), format) * vector[i + 2];
+                s3 += HalfPrecisionEmbedding.widen(window.get(j + 3), format) * vector[i + 3];
+            }
+            for (; i < dimension; i++) {
+                s0 += HalfPrecisionEmbedding.widen(window.get(offset + i), format) * vector[i];
+            }
+        }
+        return (s0 + s1) + (s2 + s3);
+    }
+
+    @Override
+    public double norm(InMemoryEmbeddingStore.Entry<?> entry) {
+        return norms[entry.row];
+    }
+
+    @Override
+    public long bytesPerVector() {
+        return (long) dimension * (format == null ? Float.BYTES : Short.BYTES) + Double.BYTES;
+    }
+
+    /**
+     * Uses the same summation as {@link dev.langchain4j.store.embedding.VectorSimilarity#norm(float[])}
+     * and {@link HalfPrecisionEmbedding#norm()}, so that scores do not change when a store is loaded.
+     */
+    private double computeNorm(int row) {
+        int offset = offset(row);
+        if (format == null) {
+            FloatBuffer window = floatWindows[row / rowsPerWindow];
+            int bound = dimension & ~3;
+            float s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+            int i = 0;
+            for (; i < bound; i += 4) {
+                int j = offset + i;
+                s0 += window.get(j) * window.get(j);
+                s1 += window.get(j + 1) * window.get(j + 1);
+                s2 += window.get(j + 2) * window.get(j + 2);
+                s3 += window.get(j + 3) * window.get(j + 3);
+            }
+            for (; i < dimension; i++) {
+                s0 += window.get(offset + i) * window.get(offset + i);
+            }
+            return Math.sqrt((s0 + s1) + (s2 + s3));
+        }
+        ShortBuffer window = shortWindows[row / rowsPerWindow];
+        double sum = 0;
+        for (int i = 0; i < dimension; i++) {
+            float value = HalfPrecisionEmbedding.widen(window.get(offset + i), format);
+            sum += value * value;
+        }
+        return Math.sqrt(sum);
+    }
+
+    private int offset(int row) {
+        return (row % rowsPerWindow) * dimension;
+    }
+}
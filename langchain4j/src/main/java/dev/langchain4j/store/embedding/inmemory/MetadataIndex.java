@@ -0,0 +1,451 @@
+package dev.langchain4j.store.embedding.inmemory;
+
+import dev.langchain4j.data.document.Metadata;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.store.embedding.filter.Filter;
+import dev.langchain4j.store.embedding.filter.comparison.IsEqualTo;
+import dev.langchain4j.store.embedding.filter.comparison.IsGreaterThan;
+import dev.langchain4j.store.embedding.filter.comparison.IsGreaterThanOrEqualTo;
+import dev.langchain4j.store.embedding.filter.comparison.IsIn;
+import dev.langchain4j.store.embedding.filter.comparison.IsLessThan;
+import dev.langchain4j.store.embedding.filter.comparison.IsLessThanOrEqualTo;
+import dev.langchain4j.store.embedding.filter.logical.And;
+import dev.langchain4j.store.embedding.filter.logical.Not;
+import dev.langchain4j.store.embedding.filter.logical.Or;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Secondary indexes over the metadata values of selected keys, used to find the candidate entries of a {@link Filter}
+ * without testing the filter against every entry.
+ * <p>
+ * Each entry gets an ordinal, and each distinct value of an indexed key maps to a bitmap of the ordinals
+ * of the entries having that value. Numbers are kept sorted by their decimal value and strings in their natural order,
+ * so that both equality and range comparisons are answered by looking up a value or a range of values.
+ * {@link And}, {@link Or} and {@link Not} are answered by intersecting, uniting and complementing bitmaps.
+ * <p>
+ * Filters on keys that are not indexed, and comparisons that cannot be answered exactly from the index
+ * (e.g. {@code IsIn} with floating point values, or {@code ContainsString}), are treated as matching all entries.
+ * The candidates are thus a superset of the entries matching the filter, and must still be tested against it.
+ * If a comparison value has a type the filter cannot compare with some indexed values (e.g. a number compared with
+ * string values), the index is not used at all, so that testing the filter fails the same way as without an index.
+ * Entries without a {@link TextSegment} always match a filter in {@link InMemoryEmbeddingStore},
+ * so they are always candidates.
+ * <p>
+ * Removed ordinals are not reused. Once more than half of them are removed, the index is rebuilt.
+ * <p>
+ * This class is thread-safe: lookups can run concurrently, modifications are exclusive.
+ */
+class MetadataIndex<Embedded> {
+
+    private static final int MIN_ORDINALS_TO_REBUILD = 1024;
+
+    /**
+     * Looked up for a comparison whose value has a type that some indexed values cannot be compared with.
+     * It makes the whole filter fall back to testing every entry, since testing the filter then throws.
+     */
+    private static final Bitmap TYPE_MISMATCH = new Bitmap(new BitSet(), false);
+
+    private final List<String> keys;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private Map<String, KeyIndex> keyIndexes;
+    private Map<InMemoryEmbeddingStore.Entry<Embedded>, Integer> ordinals;
+    private Object[] entries;
+    private BitSet live;
+    private BitSet withoutTextSegment;
+    private int nextOrdinal;
+
+    MetadataIndex(Collection<String> keys) {
+        this.keys = new ArrayList<>(keys);
+        reset(16);
+    }
+
+    void addAll(Collection<InMemoryEmbeddingStore.Entry<Embedded>> newEntries) {
+        lock.writeLock().lock();
+        try {
+            for (InMemoryEmbeddingStore.Entry<Embedded> entry : newEntries) {
+                add(entry);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void removeAll(Collection<InMemoryEmbeddingStore.Entry<Embedded>> removedEntries) {
+        lock.writeLock().lock();
+        try {
+            for (InMemoryEmbeddingStore.Entry<Embedded> entry : removedEntries) {
+                remove(entry);
+            }
+            int liveCount = ordinals.size();
+            if (nextOrdinal >= MIN_ORDINALS_TO_REBUILD && liveCount < nextOrdinal / 2) {
+                rebuild();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void clear() {
+        lock.writeLock().lock();
+        try {
+            reset(16);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Finds the entries that may match the given filter.
+     *
+     * @return the candidates in insertion order, or {@code null} if the index cannot narrow them down.
+     */
+    @SuppressWarnings("unchecked")
+    List<InMemoryEmbeddingStore.Entry<Embedded>> candidates(Filter filter) {
+        lock.readLock().lock();
+        try {
+            Bitmap bitmap = lookup(filter);
+            if (bitmap == null || bitmap == TYPE_MISMATCH) {
+                return null;
+            }
+            BitSet candidates = (BitSet) bitmap.bits.clone();
+            candidates.and(live);
+            candidates.or(withoutTextSegment);
+
+            List<InMemoryEmbeddingStore.Entry<Embedded>> result = new ArrayList<>(candidates.cardinality());
+            for (int ordinal = candidates.nextSetBit(0); ordinal >= 0; ordinal = candidates.nextSetBit(ordinal + 1)) {
+                result.add((InMemoryEmbeddingStore.Entry<Embedded>) entries[ordinal]);
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return ordinals of the entries with a {@link TextSegment} that may match the filter,
+     * or {@code null} if that cannot be determined from the index.
+     */
+    private Bitmap lookup(Filter filter) {
+        if (filter instanceof And and) {
+            Bitmap left = lookup(and.left());
+            Bitmap right = lookup(and.right());
+            if (left == TYPE_MISMATCH || right == TYPE_MISMATCH) {
+                return TYPE_MISMATCH;
+            }
+            if (left == null || right == null) {
+                // a superset of one side is still a superset of the intersection, but no longer exact
+                Bitmap known = left != null ? left : right;
+                return known == null ? null : new Bitmap(known.bits, false);
+            }
+            BitSet bits = (BitSet) left.bits.clone();
+            bits.and(right.bits);
+            return new Bitmap(bits, left.exact && right.exact);
+        } else if (filter instanceof Or or) {
+            Bitmap left = lookup(or.left());
+            Bitmap right = lookup(or.right());
+            if (left == TYPE_MISMATCH || right == TYPE_MISMATCH) {
+                return TYPE_MISMATCH;
+            }
+            if (left == null || right == null) {
+                return null;
+            }
+            BitSet bits = (BitSet) left.bits.clone();
+            bits.or(right.bits);
+            return new Bitmap(bits, left.exact && right.exact);
+        } else if (filter instanceof Not not) {
+            Bitmap expression = lookup(not.expression());
+            if (expression == TYPE_MISMATCH) {
+                return TYPE_MISMATCH;
+            }
+            if (expression == null || !expression.exact) {
+                return null;
+            }
+            BitSet bits = (BitSet) live.clone();
+            bits.andNot(withoutTextSegment);
+            bits.andNot(expression.bits);
+            return new Bitmap(bits, true);
+        } else if (filter instanceof IsEqualTo isEqualTo) {
+            KeyIndex index = keyIndexes.get(isEqualTo.key());
+            return index == null ? null : index.equalTo(isEqualTo.comparisonValue());
+        } else if (filter instanceof IsIn isIn) {
+            KeyIndex index = keyIndexes.get(isIn.key());
+            return index == null ? null : index.in(isIn.comparisonValues());
+        } else if (filter instanceof IsGreaterThan isGreaterThan) {
+            KeyIndex index = keyIndexes.get(isGreaterThan.key());
+            return index == null ? null : index.range(isGreaterThan.comparisonValue(), false, null, false);
+        } else if (filter instanceof IsGreaterThanOrEqualTo isGreaterThanOrEqualTo) {
+            KeyIndex index = keyIndexes.get(isGreaterThanOrEqualTo.key());
+            return index == null ? null : index.range(isGreaterThanOrEqualTo.comparisonValue(), true, null, false);
+        } else if (filter instanceof IsLessThan isLessThan) {
+            KeyIndex index = keyIndexes.get(isLessThan.key());
+            return index == null ? null : index.range(null, false, isLessThan.comparisonValue(), false);
+        } else if (filter instanceof IsLessThanOrEqualTo isLessThanOrEqualTo) {
+            KeyIndex index = keyIndexes.get(isLessThanOrEqualTo.key());
+            return index == null ? null : index.range(null, false, isLessThanOrEqualTo.comparisonValue(), true);
+        }
+        return null;
+    }
+
+    private void add(InMemoryEmbeddingStore.Entry<Embedded> entry) {
+        int ordinal = nextOrdinal++;
+        if (ordinal == entries.length) {
+            Object[] newEntries = new Object[entries.length + (entries.length >> 1)];
+            System.arraycopy(entries, 0, newEntries, 0, entries.length);
+            entries = newEntries;
+        }
+        entries[ordinal] = entry;
+        ordinals.put(entry, ordinal);
+        live.set(ordinal);
+
+        if (!(entry.embedded instanceof TextSegment)) {
+            withoutTextSegment.set(ordinal);
+            return;
+        }
+        Metadata metadata = ((TextSegment) entry.embedded).metadata();
+        for (Map.Entry<String, KeyIndex> keyIndex : keyIndexes.entrySet()) {
+            Object value = metadata.getObject(keyIndex.getKey());
+            if (value != null) {
+                keyIndex.getValue().add(value, ordinal);
+            }
+        }
+    }
+
+    private void remove(InMemoryEmbeddingStore.Entry<Embedded> entry) {
+        Integer ordinal = ordinals.remove(entry);
+        if (ordinal == null) {
+            return;
+        }
+        entries[ordinal] = null;
+        live.clear(ordinal);
+        withoutTextSegment.clear(ordinal);
+
+        if (entry.embedded instanceof TextSegment) {
+            Metadata metadata = ((TextSegment) entry.embedded).metadata();
+            for (Map.Entry<String, KeyIndex> keyIndex : keyIndexes.entrySet()) {
+                Object value = metadata.getObject(keyIndex.getKey());
+                if (value != null) {
+                    keyIndex.getValue().remove(value, ordinal);
+                }
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void rebuild() {
+        List<InMemoryEmbeddingStore.Entry<Embedded>> remaining = new ArrayList<>(ordinals.size());
+        for (int ordinal = live.nextSetBit(0); ordinal >= 0; ordinal = live.nextSetBit(ordinal + 1)) {
+            remaining.add((InMemoryEmbeddingStore.Entry<Embedded>) entries[ordinal]);
+        }
+        reset(Math.max(16, remaining.size()));
+        for (InMemoryEmbeddingStore.Entry<Embedded> entry : remaining) {
+            add(entry);
+        }
+    }
+
+    private void reset(int capacity) {
+        keyIndexes = new LinkedHashMap<>();
+        for (String key : keys) {
+            keyIndexes.put(key, new KeyIndex());
+        }
+        ordinals = new IdentityHashMap<>();
+        entries = new Object[capacity];
+        live = new BitSet();
+        withoutTextSegment = new BitSet();
+        nextOrdinal = 0;
+    }
+
+    /**
+     * A set of ordinals. When {@code exact}, it contains exactly the entries with a {@link TextSegment}
+     * matching the filter it was looked up for; otherwise it may also contain entries that do not match.
+     */
+    private static class Bitmap {
+
+        final BitSet bits;
+        final boolean exact;
+
+        Bitmap(BitSet bits, boolean exact) {
+            this.bits = bits;
+            this.exact = exact;
+        }
+    }
+
+    /**
+     * Bitmaps of the ordinals of all entries having each value of one metadata key.
+     * Comparisons follow the semantics of the {@link Filter} implementations:
+     * numbers of any type are compared by their decimal value, and a {@link UUID} is equal to its string form.
+     * Comparisons the filters reject with an exception return {@link #TYPE_MISMATCH}.
+     */
+    private static class KeyIndex {
+
+        private final NavigableMap<BigDecimal, BitSet> numbers = new TreeMap<>();
+        private final NavigableMap<String, BitSet> strings = new TreeMap<>();
+        private final Map<UUID, BitSet> uuids = new HashMap<>();
+        /**
+         * The number of {@code NaN} and infinite values, which filters fail to compare.
+         */
+        private int uncomparableNumbers;
+
+        void add(Object value, int ordinal) {
+            if (value instanceof Number && toBigDecimal(value) == null) {
+                uncomparableNumbers++;
+                return;
+            }
+            bitsOf(value, true).set(ordinal);
+        }
+
+        void remove(Object value, int ordinal) {
+            if (value instanceof Number && toBigDecimal(value) == null) {
+                uncomparableNumbers--;
+                return;
+            }
+            BitSet bits = bitsOf(value, false);
+            if (bits == null) {
+                return;
+            }
+            bits.clear(ordinal);
+            if (bits.isEmpty()) {
+                if (value instanceof Number) {
+                    numbers.remove(toBigDecimal(value));
+                } else if (value instanceof UUID) {
+                    uuids.remove(value);
+                } else {
+                    strings.remove(value.toString());
+                }
+            }
+        }
+
+        private BitSet bitsOf(Object value, boolean create) {
+            if (value instanceof Number) {
+                BigDecimal number = toBigDecimal(value);
+                return create ? numbers.computeIfAbsent(number, n -> new BitSet()) : numbers.get(number);
+            } else if (value instanceof UUID) {
+                return create ? uuids.computeIfAbsent((UUID) value, u -> new BitSet()) : uuids.get(value);
+            } else {
+                String string = value.toString();
+                return create ? strings.computeIfAbsent(string, s -> new BitSet()) : strings.get(string);
+            }
+        }
+
+        Bitmap equalTo(Object comparisonValue) {
+            if (!comparable(comparisonValue)) {
+                return TYPE_MISMATCH;
+            }
+            BitSet bits = new BitSet();
+            if (comparisonValue instanceof Number) {
+                BigDecimal number = toBigDecimal(comparisonValue);
+                if (number == null) {
+                    return null;
+                }
+                orInto(bits, numbers.get(number));
+            } else if (comparisonValue instanceof UUID) {
+                orInto(bits, uuids.get(comparisonValue));
+                orInto(bits, strings.get(comparisonValue.toString()));
+            } else if (comparisonValue instanceof String) {
+                orInto(bits, strings.get(comparisonValue));
+            } else {
+                return null;
+            }
+            return new Bitmap(bits, true);
+        }
+
+        Bitmap in(Collection<?> comparisonValues) {
+            Object first = comparisonValues.iterator().next();
+            if (!comparable(first)) {
+                return TYPE_MISMATCH;
+            }
+            BitSet bits = new BitSet();
+            if (first instanceof Number) {
+                for (Object comparisonValue : comparisonValues) {
+                    // IsIn compares floating point values after widening them to double,
+                    // which does not match the decimal representation used by this index
+                    if (!(comparisonValue instanceof Integer || comparisonValue instanceof Long)) {
+                        return null;
+                    }
+                    orInto(bits, numbers.get(toBigDecimal(comparisonValue)));
+                }
+            } else if (first instanceof String) {
+                for (Object comparisonValue : comparisonValues) {
+                    orInto(bits, strings.get(comparisonValue.toString()));
+                }
+            } else {
+                return null;
+            }
+            return new Bitmap(bits, true);
+        }
+
+        Bitmap range(Object from, boolean fromInclusive, Object to, boolean toInclusive) {
+            Object bound = from != null ? from : to;
+            if (!comparable(bound)) {
+                return TYPE_MISMATCH;
+            }
+            BitSet bits = new BitSet();
+            if (bound instanceof Number) {
+                BigDecimal number = toBigDecimal(bound);
+                if (number == null) {
+                    return null;
+                }
+                NavigableMap<BigDecimal, BitSet> range = from != null
+                        ? numbers.tailMap(number, fromInclusive)
+                        : numbers.headMap(number, toInclusive);
+                range.values().forEach(bits::or);
+            } else if (bound instanceof String) {
+                NavigableMap<String, BitSet> range = from != null
+                        ? strings.tailMap((String) from, fromInclusive)
+                        : strings.headMap((String) to, toInclusive);
+                range.values().forEach(bits::or);
+            } else {
+                return null;
+            }
+            return new Bitmap(bits, true);
+        }
+
+        /**
+         * @return whether filters can compare all indexed values with the given comparison value without throwing,
+         * see {@code TypeChecker}. Values of other types are not indexed, so they are not checked.
+         */
+        private boolean comparable(Object comparisonValue) {
+            if (comparisonValue instanceof Number) {
+                return strings.isEmpty() && uuids.isEmpty() && uncomparableNumbers == 0;
+            } else if (comparisonValue instanceof UUID) {
+                return numbers.isEmpty() && uncomparableNumbers == 0;
+            } else if (comparisonValue instanceof String) {
+                return numbers.isEmpty() && uuids.isEmpty() && uncomparableNumbers == 0;
+            }
+            return true;
+        }
+
+        private static void orInto(BitSet bits, BitSet other) {
+            if (other != null) {
+                bits.or(other);
+            }
+        }
+
+        /**
+         * @return the same decimal value that filters compare numbers by,
+         * or {@code null} for {@code NaN} and infinities, which filters cannot compare.
+         */
+        private static BigDecimal toBigDecimal(Object number) {
+            if ((number instanceof Double && !Double.isFinite((Double) number))
+                    || (number instanceof Float && !Float.isFinite((Float) number))) {
+                return null;
+            }
+            return new BigDecimal(number.toString());
+        }
+    }
+}
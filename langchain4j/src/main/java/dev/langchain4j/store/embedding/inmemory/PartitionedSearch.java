@@ -0,0 +1,166 @@
+package dev.langchain4j.store.embedding.inmemory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+import static java.util.Comparator.comparingDouble;
+
+/**
+ * Splits a brute force search over {@code size} rows into contiguous chunks, scores the chunks concurrently
+ * on an {@link Executor} and merges the top results of all chunks.
+ * <p>
+ * Searches over fewer rows than the threshold, or without an executor, run on the calling thread,
+ * as scheduling tasks would cost more than it saves.
+ */
+class PartitionedSearch {
+
+    private PartitionedSearch() {
+    }
+
+    /**
+     * Scores the rows {@code [from, to)}.
+     */
+    interface RangeSearch<Embedded> {
+
+        /**
+         * @return at most {@code maxResults} most similar entries of the range, in any order.
+         */
+        TopEntries<Embedded> search(int from, int to, int maxResults);
+    }
+
+    /**
+     * Scores the rows {@code [from, to)} against several queries at once.
+     */
+    interface RangeSearchAll<Embedded> {
+
+        /**
+         * @return for each query, at most {@code maxResults[query]} most similar entries of the range, in any order.
+         */
+        List<TopEntries<Embedded>> search(int from, int to, int[] maxResults);
+    }
+
+    /**
+     * @return the {@code maxResults} most similar entries, ordered from the most to the least similar.
+     */
+    static <Embedded> List<ScoredEntry<Embedded>> search(int size,
+                                                         int maxResults,
+                                                         Executor executor,
+                                                         int threshold,
+                                                         RangeSearch<Embedded> rangeSearch) {
+        int chunks = executor == null || size < threshold ? 1 : Math.min(parallelism(executor), size);
+        if (chunks <= 1) {
+            return rangeSearch.search(0, size, maxResults).toSortedList();
+        }
+
+        List<CompletableFuture<TopEntries<Embedded>>> futures = new ArrayList<>(chunks);
+        for (int chunk = 0; chunk < chunks; chunk++) {
+            int from = (int) ((long) size * chunk / chunks);
+            int to = (int) ((long) size * (chunk + 1) / chunks);
+            futures.add(CompletableFuture.supplyAsync(() -> rangeSearch.search(from, to, maxResults), executor));
+        }
+
+        TopEntries<Embedded> merged = new TopEntries<>(maxResults);
+        for (CompletableFuture<TopEntries<Embedded>> future : futures) {
+            merged.addAll(join(future));
+        }
+        return merged.toSortedList();
+    }
+
+    /**
+     * Like {@link #search(int, int, Executor, int, RangeSearch)}, but for several queries scored in the same pass.
+     *
+     * @return for each query, the {@code maxResults[query]} most similar entries,
+     * ordered from the most to the least similar.
+     */
+    static <Embedded> List<List<ScoredEntry<Embedded>>> searchAll(int size,
+                                                                  int[] maxResults,
+                                                                  Executor executor,
+                                                                  int threshold,
+                                                                  RangeSearchAll<Embedded> rangeSearch) {
+        int chunks = executor == null || size < threshold ? 1 : Math.min(parallelism(executor), size);
+        List<TopEntries<Embedded>> merged;
+        if (chunks <= 1) {
+            merged = rangeSearch.search(0, size, maxResults);
+        } else {
+            List<CompletableFuture<List<TopEntries<Embedded>>>> futures = new ArrayList<>(chunks);
+            for (int chunk = 0; chunk < chunks; chunk++) {
+                int from = (int) ((long) size * chunk / chunks);
+                int to = (int) ((long) size * (chunk + 1) / chunks);
+                futures.add(CompletableFuture.supplyAsync(() -> rangeSearch.search(from, to, maxResults), executor));
+            }
+            merged = new ArrayList<>(maxResults.length);
+            for (int query = 0; query < maxResults.length; query++) {
+                merged.add(new TopEntries<>(maxResults[query]));
+            }
+            for (CompletableFuture<List<TopEntries<Embedded>>> future : futures) {
+                List<TopEntries<Embedded>> tops = join(future);
+                for (int query = 0; query < maxResults.length; query++) {
+                    merged.get(query).addAll(tops.get(query));
+                }
+            }
+        }
+
+        List<List<ScoredEntry<Embedded>>> results = new ArrayList<>(maxResults.length);
+        for (TopEntries<Embedded> top : merged) {
+            results.add(top.toSortedList());
+        }
+        return results;
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private static int parallelism(Executor executor) {
+        if (executor instanceof ForkJoinPool) {
+            return ((ForkJoinPool) executor).getParallelism();
+        }
+        return Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * A bounded min-heap keeping the {@code maxResults} most similar entries offered to it.
+     */
+    static class TopEntries<Embedded> {
+
+        private final int maxResults;
+        private final PriorityQueue<ScoredEntry<Embedded>> heap = new PriorityQueue<>(comparingDouble(s -> s.cosineSimilarity));
+
+        TopEntries(int maxResults) {
+            this.maxResults = maxResults;
+        }
+
+        void add(InMemoryEmbeddingStore.Entry<Embedded> entry, double cosineSimilarity) {
+            if (heap.size() < maxResults) {
+                heap.add(new ScoredEntry<>(entry, cosineSimilarity));
+            } else if (cosineSimilarity > heap.peek().cosineSimilarity) {
+                heap.poll();
+                heap.add(new ScoredEntry<>(entry, cosineSimilarity));
+            }
+        }
+
+        void addAll(TopEntries<Embedded> other) {
+            for (ScoredEntry<Embedded> scoredEntry : other.heap) {
+                add(scoredEntry.entry, scoredEntry.cosineSimilarity);
+            }
+        }
+
+        List<ScoredEntry<Embedded>> toSortedList() {
+            List<ScoredEntry<Embedded>> result = new ArrayList<>(heap);
+            result.sort(comparingDouble((ScoredEntry<Embedded> s) -> s.cosineSimilarity).reversed());
+            return result;
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package dev.langchain4j.store.embedding.inmemory;
+
+import dev.langchain4j.store.embedding.VectorSimilarity;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+
+import static dev.langchain4j.internal.Exceptions.illegalArgument;
+import static java.util.Comparator.comparingDouble;
+
+/**
+ * Keeps the first {@code prefixDimension} components of every {@link InMemoryEmbeddingStore.Entry}'s vector
+ * in a contiguous array, one row per entry, with the norm of each prefix precomputed.
+ * <p>
+ * Embedding models trained with Matryoshka representation learning (such as OpenAI {@code text-embedding-3-*}
+ * or {@code nomic-embed-text-v1.5}) concentrate most of the meaning in the first dimensions,
+ * so that truncated vectors rank entries almost like the full ones.
+ * A search first scans the prefixes to find {@code maxResults * oversampling} candidates,
+ * then rescores only those candidates against the full vectors of their entries.
+ * <p>
+ * This class is thread-safe: searches can run concurrently, modifications are exclusive.
+ */
+class PrefixVectors<Embedded> {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final int prefixDimension;
+    private final int oversampling;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private int dimension = -1;
+    private int rowLength;
+    private int size;
+    private float[] prefixes = new float[0];
+    private double[] norms = new double[0];
+    private Object[] entries = new Object[0];
+
+    PrefixVectors(int prefixDimension, int oversampling) {
+        this.prefixDimension = prefixDimension;
+        this.oversampling = oversampling;
+    }
+
+    void addAll(Collection<InMemoryEmbeddingStore.Entry<Embedded>> newEntries) {
+        lock.writeLock().lock();
+        try {
+            int expectedDimension = size == 0 ? -1 : dimension;
+            for (InMemoryEmbeddingStore.Entry<Embedded> entry : newEntries) {
+                int entryDimension = entry.dimension();
+                if (expectedDimension < 0) {
+                    expectedDimension = entryDimension;
+                } else if (entryDimension != expectedDimension) {
+                    throw illegalArgument("Embedding dimension (%s) must be equal to the dimension of the store (%s)",
+                            entryDimension, expectedDimension);
+                }
+            }
+            for (InMemoryEmbeddingStore.Entry<Embedded> entry : newEntries) {
+                add(entry);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void removeAll(Collection<InMemoryEmbeddingStore.Entry<Embedded>> removedEntries) {
+        lock.writeLock().lock();
+        try {
+            Set<Object> removed = Collections.newSetFromMap(new IdentityHashMap<>());
+            removed.addAll(removedEntries);
+            int kept = 0;
+            for (int row = 0; row < size; row++) {
+                if (removed.contains(entries[row])) {
+                    continue;
+                }
+                if (kept != row) {
+                    System.arraycopy(prefixes, row * rowLength, prefixes, kept * rowLength, rowLength);
+                    norms[kept] = norms[row];
+                    entries[kept] = entries[row];
+                }
+                kept++;
+            }
+            for (int row = kept; row < size; row++) {
+                entries[row] = null;
+            }
+            size = kept;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void clear() {
+        lock.writeLock().lock();
+        try {
+            dimension = -1;
+            rowLength = 0;
+            size = 0;
+            prefixes = new float[0];
+            norms = new double[0];
+            entries = new Object[0];
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Finds the {@code maxResults} entries most similar to the given vector
+     * among the entries accepted by the given predicate.
+     * The returned similarities are exact (computed on the full vectors), but an entry may be missed
+     * if its prefix ranks it below {@code maxResults * oversampling} other entries.
+     * If an executor is given and at least {@code parallelThreshold} entries are stored,
+     * the prefixes are scanned in parallel chunks on that executor.
+     *
+     * @return found entries, ordered from the most to the least similar.
+     */
+    List<ScoredEntry<Embedded>> search(float[] vector,
+                                       int maxResults,
+                                       Predicate<InMemoryEmbeddingStore.Entry<Embedded>> predicate,
+                                       Executor executor,
+                                       int parallelThreshold) {
+        lock.readLock().lock();
+        try {
+            if (size == 0) {
+                return new ArrayList<>();
+            }
+            if (vector.length != dimension) {
+                throw illegalArgument("Length of vector a (%s) must be equal to the length of vector b (%s)",
+                        dimension, vector.length);
+            }
+
+            float[] queryPrefix = new float[rowLength];
+            System.arraycopy(vector, 0, queryPrefix, 0, rowLength);
+            double queryPrefixNorm = VectorSimilarity.norm(queryPrefix);
+
+            int maxCandidates = (int) Math.min((long) maxResults * oversampling, Integer.MAX_VALUE);
+            // the read lock held by this thread keeps the arrays stable while the chunks are scanned
+            List<ScoredEntry<Embedded>> candidates = PartitionedSearch.search(
+                    size, maxCandidates, executor, parallelThreshold,
+                    (from, to, max) -> searchRange(queryPrefix, queryPrefixNorm, from, to, max, predicate));
+
+            return rescore(vector, candidates, maxResults);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private PartitionedSearch.TopEntries<Embedded> searchRange(float[] queryPrefix,
+                                                               double queryPrefixNorm,
+                                                               int from,
+                                                               int to,
+                                                               int maxResults,
+                                                               Predicate<InMemoryEmbeddingStore.Entry<Embedded>> predicate) {
+        PartitionedSearch.TopEntries<Embedded> top = new PartitionedSearch.TopEntries<>(maxResults);
+        for (int row = from; row < to; row++) {
+            InMemoryEmbeddingStore.Entry<Embedded> entry = (InMemoryEmbeddingStore.Entry<Embedded>) entries[row];
+            if (!predicate.test(entry)) {
+                continue;
+            }
+
+            float dotProduct = VectorSimilarity.dotProduct(queryPrefix, prefixes, row * rowLength);
+            top.add(entry, VectorSimilarity.cosineSimilarity(dotProduct, norms[row], queryPrefixNorm));
+        }
+        return top;
+    }
+
+    private static <Embedded> List<ScoredEntry<Embedded>> rescore(float[] vector,
+                                                                  List<ScoredEntry<Embedded>> candidates,
+                                                                  int maxResults) {
+        double queryNorm = VectorSimilarity.norm(vector);
+        List<ScoredEntry<Embedded>> rescored = new ArrayList<>(candidates.size());
+        for (ScoredEntry<Embedded> candidate : candidates) {
+            double cosineSimilarity = VectorSimilarity.cosineSimilarity(
+                    candidate.entry.dotProduct(vector),
+                    candidate.entry.norm(),
+                    queryNorm
+            );
+            rescored.add(new ScoredEntry<>(candidate.entry, cosineSimilarity));
+        }
+        rescored.sort(comparingDouble((ScoredEntry<Embedded> s) -> s.cosineSimilarity).reversed());
+        return rescored.size() > maxResults ? new ArrayList<>(rescored.subList(0, maxResults)) : rescored;
+    }
+
+    private void add(InMemoryEmbeddingStore.Entry<Embedded> entry) {
+        if (size == 0 && entry.dimension() != dimension) {
+            clear();
+            dimension = entry.dimension();
+            rowLength = Math.min(prefixDimension, dimension);
+        }
+        ensureCapacity(size + 1);
+
+        int offset = size * rowLength;
+        entry.copyTo(prefixes, offset, rowLength);
+        norms[size] = VectorSimilarity.norm(prefixes, offset, rowLength);
+        entries[size] = entry;
+        size++;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= entries.length) {
+            return;
+        }
+        int newCapacity = Math.max(INITIAL_CAPACITY, Math.max(capacity, entries.length + (entries.length >> 1)));
+        float[] newPrefixes = new float[Math.multiplyExact(newCapacity, rowLength)];
+        System.arraycopy(prefixes, 0, newPrefixes, 0, size * rowLength);
+        prefixes = newPrefixes;
+        double[] newNorms = new double[newCapacity];
+        System.arraycopy(norms, 0, newNorms, 0, size);
+        norms = newNorms;
+        Object[] newEntries = new Object[newCapacity];
+        System.arraycopy(entries, 0, newEntries, 0, size);
+        entries = newEntries;
+    }
+}
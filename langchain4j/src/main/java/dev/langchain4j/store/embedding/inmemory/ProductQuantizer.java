@@ -0,0 +1,94 @@
+package dev.langchain4j.store.embedding.inmemory;
+
+import dev.langchain4j.store.embedding.VectorSimilarity;
+
+import java.util.Random;
+
+/**
+ * Splits vectors into {@code subQuantizers} sub-vectors of equal length and encodes each sub-vector
+ * as the index of its nearest centroid in a per-sub-space codebook of at most 256 centroids,
+ * so that a vector is stored in {@code subQuantizers} bytes.
+ * <p>
+ * Distances are computed asymmetrically: the query is not quantized, instead a table of the squared distances
+ * between each query sub-vector and all centroids of its sub-space is computed once per query,
+ * and the distance to an encoded vector is the sum of {@code subQuantizers} table lookups.
+ */
+class ProductQuantizer {
+
+    static final int MAX_CENTROIDS = 256;
+
+    private final int subQuantizers;
+    private final int subDimension;
+    private final int centroids;
+    /**
+     * {@code codebooks[j][c]} is the centroid {@code c} of the sub-space {@code j}.
+     */
+    private final float[][][] codebooks;
+
+    private ProductQuantizer(int subQuantizers, int subDimension, float[][][] codebooks) {
+        this.subQuantizers = subQuantizers;
+        this.subDimension = subDimension;
+        this.centroids = codebooks[0].length;
+        this.codebooks = codebooks;
+    }
+
+    static ProductQuantizer train(float[][] sample, int dimension, int subQuantizers, int iterations, Random random) {
+        int subDimension = dimension / subQuantizers;
+        float[][][] codebooks = new float[subQuantizers][][];
+        for (int j = 0; j < subQuantizers; j++) {
+            codebooks[j] = KMeans.train(sample, j * subDimension, subDimension, MAX_CENTROIDS, iterations, random);
+        }
+        return new ProductQuantizer(subQuantizers, subDimension, codebooks);
+    }
+
+    /**
+     * Writes the code of the given vector into {@code codes}, starting at {@code offset}.
+     */
+    void encode(float[] vector, byte[] codes, int offset) {
+        float[] sub = new float[subDimension];
+        for (int j = 0; j < subQuantizers; j++) {
+            System.arraycopy(vector, j * subDimension, sub, 0, subDimension);
+            codes[offset + j] = (byte) KMeans.nearest(sub, codebooks[j]);
+        }
+    }
+
+    /**
+     * Adds the vector encoded in {@code codes}, starting at {@code offset}, to {@code vector}.
+     */
+    void decodeAdd(byte[] codes, int offset, float[] vector) {
+        for (int j = 0; j < subQuantizers; j++) {
+            float[] centroid = codebooks[j][codes[offset + j] & 0xFF];
+            for (int d = 0; d < subDimension; d++) {
+                vector[j * subDimension + d] += centroid[d];
+            }
+        }
+    }
+
+    /**
+     * @return the table of squared distances between the sub-vectors of the query and all centroids,
+     * {@code centroids} entries per sub-space.
+     */
+    float[] distanceTable(float[] query) {
+        float[] table = new float[subQuantizers * centroids];
+        float[] sub = new float[subDimension];
+        for (int j = 0; j < subQuantizers; j++) {
+            System.arraycopy(query, j * subDimension, sub, 0, subDimension);
+            for (int c = 0; c < centroids; c++) {
+                table[j * centroids + c] = VectorSimilarity.squaredEuclideanDistance(sub, codebooks[j][c], 0);
+            }
+        }
+        return table;
+    }
+
+    /**
+     * @return the approximate squared distance between the query of the given table
+     * and the vector encoded in {@code codes}, starting at {@code offset}.
+     */
+    float distance(float[] table, byte[] codes, int offset) {
+        float distance = 0;
+        for (int j = 0; j < subQuantizers; j++) {
+            distance += table[j * centroids + (codes[offset + j] & 0xFF)];
+        }
+        return distance;
+    }
+}
@@ -0,0 +1,20 @@
+package dev.langchain4j.store.embedding.inmemory;
+
+/**
+ * Compact vector encodings that an {@link InMemoryEmbeddingStore} can use for a coarse first-pass scan.
+ * Candidates found by the coarse scan are always rescored against the full-precision vectors.
+ */
+public enum Quantization {
+
+    /**
+     * Each vector is normalized and scaled into signed bytes (one byte per dimension, 4x smaller than {@code float}).
+     * Approximate cosine similarity is computed from integer dot products.
+     */
+    INT8,
+
+    /**
+     * Only the sign of each dimension is kept (one bit per dimension, 32x smaller than {@code float}).
+     * Candidates are ranked by Hamming distance, which requires a larger oversampling factor for good recall.
+     */
+    BINARY
+}
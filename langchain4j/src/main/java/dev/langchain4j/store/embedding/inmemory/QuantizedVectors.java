@@ -0,0 +1,609 @@
+package dev.langchain4j.store.embedding.inmemory;
+
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.store.embedding.VectorSimilarity;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+
+import static dev.langchain4j.internal.Exceptions.illegalArgument;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static java.util.Comparator.comparingDouble;
+
+/**
+ * Keeps a {@link Quantization quantized} code of every {@link InMemoryEmbeddingStore.Entry}'s vector
+ * in a contiguous array, one row per entry, together with the norm of the vector.
+ * <p>
+ * The codes are the only in-memory storage of the vectors: an added entry drops its {@link Embedding}
+ * and keeps the row of its code instead (see {@link VectorStorage}).
+ * If a rescoring file is given, the full-precision vectors are written to it, one row per code,
+ * and the embeddings of the entries are read back from it. Otherwise, they are decoded from the codes.
+ * <p>
+ * A search first scans the codes to find {@code maxResults * oversampling} candidates,
+ * then rescores only those candidates, against their full-precision vectors if there is a rescoring file,
+ * or against the vectors decoded from their codes.
+ * <p>
+ * A removed entry gets back an embedding, and its row becomes a tombstone.
+ * Tombstones are compacted away once they make up more than half of the rows, like in {@link VectorSlab}.
+ * <p>
+ * This class is thread-safe: searches can run concurrently, modifications are exclusive.
+ */
+class QuantizedVectors<Embedded> {
+
+    private static final int INITIAL_CAPACITY = 16;
+    private static final int MIN_ROWS_TO_COMPACT = 1024;
+
+    private final Quantization quantization;
+    private final int oversampling;
+    private final Path rescoringFile;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private Rows rows = new Rows(-1);
+
+    QuantizedVectors(Quantization quantization, int oversampling, Path rescoringFile) {
+        this.quantization = quantization;
+        this.oversampling = oversampling;
+        this.rescoringFile = rescoringFile;
+    }
+
+    /**
+     * Adds the given entries, which must not be visible to searches yet.
+     * Their vectors can be held by a read-only storage, such as {@link MappedVectors}.
+     */
+    void addAll(Collection<InMemoryEmbeddingStore.Entry<Embedded>> newEntries) {
+        lock.writeLock().lock();
+        try {
+            int expectedDimension = rows.live == 0 ? -1 : rows.dimension;
+            for (InMemoryEmbeddingStore.Entry<Embedded> entry : newEntries) {
+                int entryDimension = entry.dimension();
+                if (expectedDimension < 0) {
+                    expectedDimension = entryDimension;
+                } else if (entryDimension != expectedDimension) {
+                    throw illegalArgument("Embedding dimension (%s) must be equal to the dimension of the store (%s)",
+                            entryDimension, expectedDimension);
+                }
+            }
+            if (expectedDimension >= 0 && expectedDimension != rows.dimension) {
+                // all entries held by the current rows have been removed and got their embeddings back
+                rows.close();
+                rows = new Rows(expectedDimension);
+            }
+            for (InMemoryEmbeddingStore.Entry<Embedded> entry : newEntries) {
+                rows.add(entry);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void removeAll(Collection<InMemoryEmbeddingStore.Entry<Embedded>> removedEntries) {
+        lock.writeLock().lock();
+        try {
+            for (InMemoryEmbeddingStore.Entry<Embedded> entry : removedEntries) {
+                rows.remove(entry);
+            }
+            if (rows.size >= MIN_ROWS_TO_COMPACT && rows.live < rows.size / 2) {
+                rows.compact();
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes all rows and closes the rescoring file, if any.
+     * The cleared entries keep resolving their vectors through the rows they were held by, decoded from the codes.
+     */
+    void clear() {
+        lock.writeLock().lock();
+        try {
+            rows.close();
+            rows = new Rows(-1);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Closes and deletes the rescoring file, if any. The rows are kept, and their vectors are decoded from the codes.
+     */
+    void close() {
+        lock.writeLock().lock();
+        try {
+            rows.close();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Finds the {@code maxResults} entries most similar to the given vector
+     * among the entries accepted by the given predicate.
+     * An entry may be missed if its code ranks it below {@code maxResults * oversampling} other entries.
+     *
+     * @return found entries, ordered from the most to the least similar.
+     */
+    @SuppressWarnings("unchecked")
+    List<ScoredEntry<Embedded>> search(float[] vector, int maxResults, Predicate<InMemoryEmbeddingStore.Entry<Embedded>> predicate) {
+        lock.readLock().lock();
+        try {
+            if (rows.live == 0) {
+                return new ArrayList<>();
+            }
+            Search search = new Search(vector, maxResults);
+            for (int row = 0; row < rows.size; row++) {
+                InMemoryEmbeddingStore.Entry<Embedded> entry = (InMemoryEmbeddingStore.Entry<Embedded>) rows.entries[row];
+                if (entry != null && predicate.test(entry)) {
+                    search.score(row);
+                }
+            }
+            return search.rescore();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Like {@link #search(float[], int, Predicate)}, but scans only the codes of the given candidates.
+     */
+    List<ScoredEntry<Embedded>> search(float[] vector,
+                                       int maxResults,
+                                       Collection<InMemoryEmbeddingStore.Entry<Embedded>> candidates,
+                                       Predicate<InMemoryEmbeddingStore.Entry<Embedded>> predicate) {
+        lock.readLock().lock();
+        try {
+            if (rows.live == 0) {
+                return new ArrayList<>();
+            }
+            Search search = new Search(vector, maxResults);
+            for (InMemoryEmbeddingStore.Entry<Embedded> entry : candidates) {
+                // a candidate may have been removed concurrently
+                if (entry.storage == rows && entry.embedding == null && predicate.test(entry)) {
+                    search.score(entry.row);
+                }
+            }
+            return search.rescore();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Encodes the normalized vector into signed bytes, scaled so that its largest absolute component maps to 127.
+     *
+     * @return the scale to multiply an integer dot product with to approximate a dot product of unit vectors.
+     */
+    private static float encodeInt8(float[] vector, byte[] codes, int offset) {
+        double norm = VectorSimilarity.norm(vector);
+        float maxAbs = 0;
+        for (float v : vector) {
+            maxAbs = Math.max(maxAbs, Math.abs(v));
+        }
+        if (norm == 0 || maxAbs == 0) {
+            return 0;
+        }
+        float multiplier = 127 / maxAbs;
+        for (int i = 0; i < vector.length; i++) {
+            codes[offset + i] = (byte) Math.round(vector[i] * multiplier);
+        }
+        return (float) (maxAbs / (127 * norm));
+    }
+
+    private static void encodeBinary(float[] vector, long[] codes, int offset) {
+        for (int i = 0; i < vector.length; i++) {
+            if (vector[i] > 0) {
+                codes[offset + (i >>> 6)] |= 1L << (i & 63);
+            }
+        }
+    }
+
+    /**
+     * One search over the current rows: keeps the best candidates found by their codes, then rescores them.
+     */
+    private class Search {
+
+        private final float[] vector;
+        private final int maxResults;
+        private final int maxCandidates;
+        private final PriorityQueue<Candidate> candidates = new PriorityQueue<>(comparingDouble(c -> c.score));
+        private final byte[] queryInt8Code;
+        private final long[] queryBinaryCode;
+
+        Search(float[] vector, int maxResults) {
+            if (vector.length != rows.dimension) {
+                throw illegalArgument("Length of vector a (%s) must be equal to the length of vector b (%s)",
+                        rows.dimension, vector.length);
+            }
+            this.vector = vector;
+            this.maxResults = maxResults;
+            this.maxCandidates = (int) Math.min((long) maxResults * oversampling, Integer.MAX_VALUE);
+            if (quantization == Quantization.INT8) {
+                this.queryInt8Code = new byte[rows.rowLength];
+                this.queryBinaryCode = null;
+                encodeInt8(vector, queryInt8Code, 0);
+            } else {
+                this.queryInt8Code = null;
+                this.queryBinaryCode = new long[rows.rowLength];
+                encodeBinary(vector, queryBinaryCode, 0);
+            }
+        }
+
+        void score(int row) {
+            double score = quantization == Quantization.INT8
+                    ? rows.int8Score(queryInt8Code, row)
+                    : rows.binaryScore(queryBinaryCode, row);
+            if (candidates.size() < maxCandidates) {
+                candidates.add(new Candidate(row, score));
+            } else if (score > candidates.peek().score) {
+                candidates.poll();
+                candidates.add(new Candidate(row, score));
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        List<ScoredEntry<Embedded>> rescore() throws IOException {
+            double queryNorm = VectorSimilarity.norm(vector);
+            float[] rowVector = new float[rows.dimension];
+            List<ScoredEntry<Embedded>> rescored = new ArrayList<>(candidates.size());
+            for (Candidate candidate : candidates) {
+                rows.vector(candidate.row, rowVector, 0, rows.dimension);
+                double cosineSimilarity = VectorSimilarity.cosineSimilarity(
+                        VectorSimilarity.dotProduct(rowVector, vector),
+                        rows.norm(candidate.row),
+                        queryNorm
+                );
+                InMemoryEmbeddingStore.Entry<Embedded> entry =
+                        (InMemoryEmbeddingStore.Entry<Embedded>) rows.entries[candidate.row];
+                rescored.add(new ScoredEntry<>(entry, cosineSimilarity));
+            }
+            rescored.sort(comparingDouble((ScoredEntry<Embedded> s) -> s.cosineSimilarity).reversed());
+            return rescored.size() > maxResults ? new ArrayList<>(rescored.subList(0, maxResults)) : rescored;
+        }
+    }
+
+    /**
+     * The rows of one generation of the codes, between two {@link #clear()}s.
+     * A {@code null} entry marks a tombstone.
+     */
+    private class Rows implements VectorStorage {
+
+        private final int dimension;
+        private final int rowLength;
+        private int size;
+        private int live;
+        private byte[] int8Codes = new byte[0];
+        private float[] int8Scales = new float[0];
+        private long[] binaryCodes = new long[0];
+        /**
+         * The norms of the full-precision vectors.
+         */
+        private double[] norms = new double[0];
+        private Object[] entries = new Object[0];
+        /**
+         * The vector being encoded, reused so that encoding does not allocate.
+         */
+        private final float[] buffer;
+        /**
+         * The rescoring file, with the full-precision vector of each row, or {@code null}.
+         */
+        private FileChannel channel;
+        /**
+         * Whether the rescoring file has been closed, after which it is not reopened for these rows.
+         */
+        private boolean closed;
+
+        private Rows(int dimension) {
+            this.dimension = dimension;
+            this.rowLength = quantization == Quantization.INT8 ? dimension : (dimension + 63) / 64;
+            this.buffer = new float[Math.max(dimension, 0)];
+        }
+
+        @Override
+        public Embedding embedding(InMemoryEmbeddingStore.Entry<?> entry) {
+            lock.readLock().lock();
+            try {
+                Embedding embedding = entry.embedding;
+                if (embedding != null) {
+                    // the entry has been removed in the meantime
+                    return embedding;
+                }
+                float[] vector = new float[dimension];
+                vector(entry.row, vector, 0, dimension);
+                return Embedding.from(vector);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        @Override
+        public int dimension() {
+            return dimension;
+        }
+
+        @Override
+        public void copyTo(InMemoryEmbeddingStore.Entry<?> entry, float[] destination, int destinationOffset, int length) {
+            lock.readLock().lock();
+            try {
+                Embedding embedding = entry.embedding;
+                if (embedding != null) {
+                    embedding.copyTo(0, destination, destinationOffset, length);
+                } else {
+                    vector(entry.row, destination, destinationOffset, length);
+                }
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        @Override
+        public float dotProduct(InMemoryEmbeddingStore.Entry<?> entry, float[] vector) {
+            lock.readLock().lock();
+            try {
+                Embedding embedding = entry.embedding;
+                if (embedding != null) {
+                    return VectorSimilarity.dotProduct(embedding, vector);
+                }
+                float[] rowVector = new float[dimension];
+                vector(entry.row, rowVector, 0, dimension);
+                return VectorSimilarity.dotProduct(rowVector, vector);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        @Override
+        public double norm(InMemoryEmbeddingStore.Entry<?> entry) {
+            lock.readLock().lock();
+            try {
+                Embedding embedding = entry.embedding;
+                return embedding != null ? VectorSimilarity.norm(embedding) : norm(entry.row);
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        @Override
+        public long bytesPerVector() {
+            long codeBytes = quantization == Quantization.INT8
+                    ? rowLength + Float.BYTES
+                    : (long) rowLength * Long.BYTES;
+            return codeBytes + Double.BYTES;
+        }
+
+        /**
+         * Writes the first {@code length} values of the vector of the given row into the given array,
+         * read from the rescoring file if it is open, or decoded from the code.
+         */
+        private void vector(int row, float[] destination, int destinationOffset, int length) throws IOException {
+            if (channel != null) {
+                ByteBuffer bytes = ByteBuffer.allocate(dimension * Float.BYTES);
+                read(bytes, (long) row * bytes.capacity());
+                bytes.asFloatBuffer().get(destination, destinationOffset, length);
+                return;
+            }
+            int offset = row * rowLength;
+            if (quantization == Quantization.INT8) {
+                // the inverse of encodeInt8
+                float multiplier = (float) (int8Scales[row] * norms[row]);
+                for (int i = 0; i < length; i++) {
+                    destination[destinationOffset + i] = int8Codes[offset + i] * multiplier;
+                }
+            } else {
+                // the magnitude that preserves the norm of the vector
+                float magnitude = (float) (norms[row] / Math.sqrt(dimension));
+                for (int i = 0; i < length; i++) {
+                    boolean positive = (binaryCodes[offset + (i >>> 6)] & (1L << (i & 63))) != 0;
+                    destination[destinationOffset + i] = positive ? magnitude : -magnitude;
+                }
+            }
+        }
+
+        /**
+         * @return the norm of the vector returned by {@link #vector}.
+         */
+        private double norm(int row) {
+            if (channel != null || quantization == Quantization.BINARY) {
+                return norms[row];
+            }
+            int offset = row * rowLength;
+            int sum = 0;
+            for (int i = 0; i < rowLength; i++) {
+                sum += int8Codes[offset + i] * int8Codes[offset + i];
+            }
+            return int8Scales[row] * norms[row] * Math.sqrt(sum);
+        }
+
+        private double int8Score(byte[] query, int row) {
+            int offset = row * rowLength;
+            int s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+            int bound = rowLength & ~3;
+            int i = 0;
+            for (; i < bound; i += 4) {
+                s0 += query[i] * int8Codes[offset + i];
+                s1 += query[i + 1] * int8Codes[offset + i + 1];
+                s2 += query[i + 2] * int8Codes[offset + i + 2];
+                s3 += query[i + 3] * int8Codes[offset + i + 3];
+            }
+            for (; i < rowLength; i++) {
+                s0 += query[i] * int8Codes[offset + i];
+            }
+            // the query scale is the same for all rows, so it does not affect the ranking
+            return (double) ((s0 + s1) + (s2 + s3)) * int8Scales[row];
+        }
+
+        private double binaryScore(long[] query, int row) {
+            int offset = row * rowLength;
+            int hammingDistance = 0;
+            for (int i = 0; i < rowLength; i++) {
+                hammingDistance += Long.bitCount(query[i] ^ binaryCodes[offset + i]);
+            }
+            return -hammingDistance;
+        }
+
+        private void add(InMemoryEmbeddingStore.Entry<?> entry) throws IOException {
+            ensureCapacity(size + 1);
+
+            float[] vector = buffer;
+            entry.copyTo(vector, 0, dimension);
+            norms[size] = VectorSimilarity.norm(vector);
+            if (quantization == Quantization.INT8) {
+                int8Scales[size] = encodeInt8(vector, int8Codes, size * rowLength);
+            } else {
+                // rows freed by a compaction still hold the bits of the entry that was moved away
+                Arrays.fill(binaryCodes, size * rowLength, (size + 1) * rowLength, 0L);
+                encodeBinary(vector, binaryCodes, size * rowLength);
+            }
+            if (rescoringFile != null && !closed) {
+                if (channel == null) {
+                    channel = FileChannel.open(rescoringFile, CREATE, READ, WRITE, TRUNCATE_EXISTING);
+                }
+                ByteBuffer bytes = ByteBuffer.allocate(dimension * Float.BYTES);
+                bytes.asFloatBuffer().put(vector);
+                write(bytes, (long) size * bytes.capacity());
+            }
+            entries[size] = entry;
+            entry.storage = this;
+            entry.row = size;
+            // written last, so that a concurrent reader seeing no embedding sees the row
+            entry.embedding = null;
+            size++;
+            live++;
+        }
+
+        private void remove(InMemoryEmbeddingStore.Entry<?> entry) throws IOException {
+            if (entry.storage != this || entry.embedding != null) {
+                return;
+            }
+            int row = entry.row;
+            float[] vector = new float[dimension];
+            vector(row, vector, 0, dimension);
+            entry.embedding = Embedding.from(vector);
+            entries[row] = null;
+            live--;
+        }
+
+        private void compact() throws IOException {
+            ByteBuffer bytes = channel == null ? null : ByteBuffer.allocate(dimension * Float.BYTES);
+            int kept = 0;
+            for (int row = 0; row < size; row++) {
+                InMemoryEmbeddingStore.Entry<?> entry = (InMemoryEmbeddingStore.Entry<?>) entries[row];
+                if (entry == null) {
+                    continue;
+                }
+                if (kept != row) {
+                    if (quantization == Quantization.INT8) {
+                        System.arraycopy(int8Codes, row * rowLength, int8Codes, kept * rowLength, rowLength);
+                        int8Scales[kept] = int8Scales[row];
+                    } else {
+                        System.arraycopy(binaryCodes, row * rowLength, binaryCodes, kept * rowLength, rowLength);
+                    }
+                    norms[kept] = norms[row];
+                    if (bytes != null) {
+                        read(bytes, (long) row * bytes.capacity());
+                        write(bytes, (long) kept * bytes.capacity());
+                    }
+                    entries[kept] = entry;
+                    entry.row = kept;
+                }
+                kept++;
+            }
+            Arrays.fill(entries, kept, size, null);
+            size = kept;
+            if (channel != null) {
+                channel.truncate((long) size * dimension * Float.BYTES);
+            }
+        }
+
+        private void read(ByteBuffer bytes, long position) throws IOException {
+            bytes.clear();
+            while (bytes.hasRemaining()) {
+                if (channel.read(bytes, position + bytes.position()) < 0) {
+                    throw new IOException("Unexpected end of " + rescoringFile);
+                }
+            }
+            bytes.flip();
+        }
+
+        private void write(ByteBuffer bytes, long position) throws IOException {
+            bytes.rewind();
+            while (bytes.hasRemaining()) {
+                channel.write(bytes, position + bytes.position());
+            }
+        }
+
+        /**
+         * Closes and deletes the rescoring file. The vectors of the remaining entries are decoded from the codes.
+         */
+        private void close() throws IOException {
+            closed = true;
+            if (channel != null) {
+                channel.close();
+                channel = null;
+                Files.deleteIfExists(rescoringFile);
+            }
+        }
+
+        private void ensureCapacity(int capacity) {
+            if (capacity <= entries.length) {
+                return;
+            }
+            int newCapacity = Math.max(INITIAL_CAPACITY, Math.max(capacity, entries.length + (entries.length >> 1)));
+            if (quantization == Quantization.INT8) {
+                byte[] newCodes = new byte[Math.multiplyExact(newCapacity, rowLength)];
+                System.arraycopy(int8Codes, 0, newCodes, 0, size * rowLength);
+                int8Codes = newCodes;
+                int8Scales = Arrays.copyOf(int8Scales, newCapacity);
+            } else {
+                long[] newCodes = new long[Math.multiplyExact(newCapacity, rowLength)];
+                System.arraycopy(binaryCodes, 0, newCodes, 0, size * rowLength);
+                binaryCodes = newCodes;
+            }
+            norms = Arrays.copyOf(norms, newCapacity);
+            entries = Arrays.copyOf(entries, newCapacity);
+        }
+    }
+
+    private static class Candidate {
+
+        final int row;
+        final double score;
+
+        Candidate(int row, double score) {
+            this.row = row;
+            this.score = score;
+        }
+    }
+}
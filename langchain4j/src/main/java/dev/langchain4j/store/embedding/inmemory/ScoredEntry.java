@@ -0,0 +1,15 @@
+package dev.langchain4j.store.embedding.inmemory;
+
+/**
+ * An {@link InMemoryEmbeddingStore.Entry} together with its cosine similarity to a query.
+ */
+class ScoredEntry<Embedded> {
+
+    final InMemoryEmbeddingStore.Entry<Embedded> entry;
+    final double cosineSimilarity;
+
+    ScoredEntry(InMemoryEmbeddingStore.Entry<Embedded> entry, double cosineSimilarity) {
+        this.entry = entry;
+        this.cosineSimilarity = cosineSimilarity;
+    }
+}
@@ -0,0 +1,341 @@
+package dev.langchain4j.store.embedding.inmemory;
+
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.function.Predicate;
+
+/**
+ * The entries of an {@link InMemoryEmbeddingStore}, in insertion order.
+ * <p>
+ * Entries are appended into fixed-size segments, so adding an entry never copies the existing ones
+ * (unlike a {@link java.util.concurrent.CopyOnWriteArrayList}).
+ * An index from id to slot makes removals by id proportional to the number of removed entries.
+ * A removed entry leaves a tombstone in its slot; once tombstones make up more than half of the slots,
+ * the live entries are compacted into new segments.
+ * <p>
+ * Modifications are serialized by an internal lock. Readers never lock: they iterate over the segments
+ * that were published when the iteration started. Appends made after that are not seen,
+ * removals made after that may or may not be seen.
+ */
+class SegmentedEntries<Embedded> extends AbstractCollection<InMemoryEmbeddingStore.Entry<Embedded>> {
+
+    private static final int SEGMENT_SHIFT = 10;
+    private static final int SEGMENT_SIZE = 1 << SEGMENT_SHIFT;
+    private static final int SEGMENT_MASK = SEGMENT_SIZE - 1;
+    private static final int MIN_SLOTS_TO_COMPACT = SEGMENT_SIZE;
+
+    private final Object lock = new Object();
+
+    private volatile State state = new State(new Object[0][], 0, 0);
+
+    /**
+     * Slots of the entries with each id. Ids are usually unique, so most arrays have a single element.
+     * Guarded by {@link #lock}.
+     */
+    private Map<String, int[]> slotsById = new HashMap<>();
+
+    SegmentedEntries() {
+    }
+
+    SegmentedEntries(Collection<? extends InMemoryEmbeddingStore.Entry<Embedded>> entries) {
+        addAll(entries);
+    }
+
+    @Override
+    public boolean add(InMemoryEmbeddingStore.Entry<Embedded> entry) {
+        return addAll(List.of(entry));
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends InMemoryEmbeddingStore.Entry<Embedded>> newEntries) {
+        if (newEntries.isEmpty()) {
+            return false;
+        }
+        synchronized (lock) {
+            State current = state;
+            Object[][] segments = current.segments;
+            int slotCount = current.slotCount;
+            for (InMemoryEmbeddingStore.Entry<Embedded> entry : newEntries) {
+                int segment = slotCount >>> SEGMENT_SHIFT;
+                if (segment == segments.length) {
+                    Object[][] newSegments = new Object[Math.max(4, segments.length * 2)][];
+                    System.arraycopy(segments, 0, newSegments, 0, segments.length);
+                    segments = newSegments;
+                }
+                if (segments[segment] == null) {
+                    segments[segment] = new Object[SEGMENT_SIZE];
+                }
+                segments[segment][slotCount & SEGMENT_MASK] = entry;
+                indexSlot(entry.id, slotCount);
+                slotCount++;
+            }
+            // publishing the new state makes the appended slots visible to readers
+            state = new State(segments, slotCount, current.liveCount + newEntries.size());
+            return true;
+        }
+    }
+
+    /**
+     * Removes all entries with the given ids.
+     *
+     * @return the removed entries.
+     */
+    @SuppressWarnings("unchecked")
+    List<InMemoryEmbeddingStore.Entry<Embedded>> removeIds(Collection<String> ids) {
+        synchronized (lock) {
+            List<InMemoryEmbeddingStore.Entry<Embedded>> removed = new ArrayList<>();
+            Object[][] segments = state.segments;
+            for (String id : ids) {
+                int[] slots = slotsById.remove(id);
+                if (slots == null) {
+                    continue;
+                }
+                for (int slot : slots) {
+                    Object[] segment = segments[slot >>> SEGMENT_SHIFT];
+                    removed.add((InMemoryEmbeddingStore.Entry<Embedded>) segment[slot & SEGMENT_MASK]);
+                    segment[slot & SEGMENT_MASK] = null;
+                }
+            }
+            afterRemoval(removed.size());
+            return removed;
+        }
+    }
+
+    /**
+     * Removes the given entries, compared by identity, leaving other entries with the same ids in place.
+     *
+     * @return the removed entries.
+     */
+    List<InMemoryEmbeddingStore.Entry<Embedded>> removeEntries(Collection<InMemoryEmbeddingStore.Entry<Embedded>> entries) {
+        synchronized (lock) {
+            List<InMemoryEmbeddingStore.Entry<Embedded>> removed = new ArrayList<>(entries.size());
+            Object[][] segments = state.segments;
+            for (InMemoryEmbeddingStore.Entry<Embedded> entry : entries) {
+                int[] slots = slotsById.get(entry.id);
+                if (slots == null) {
+                    continue;
+                }
+                for (int slot : slots) {
+                    Object[] segment = segments[slot >>> SEGMENT_SHIFT];
+                    if (segment[slot & SEGMENT_MASK] == entry) {
+                        removed.add(entry);
+                        segment[slot & SEGMENT_MASK] = null;
+                        unindexSlot(entry.id, slot);
+                        break;
+                    }
+                }
+            }
+            afterRemoval(removed.size());
+            return removed;
+        }
+    }
+
+    /**
+     * Removes all entries accepted by the given predicate.
+     *
+     * @return the removed entries.
+     */
+    @SuppressWarnings("unchecked")
+    List<InMemoryEmbeddingStore.Entry<Embedded>> removeMatching(Predicate<InMemoryEmbeddingStore.Entry<Embedded>> predicate) {
+        synchronized (lock) {
+            List<InMemoryEmbeddingStore.Entry<Embedded>> removed = new ArrayList<>();
+            State current = state;
+            for (int slot = 0; slot < current.slotCount; slot++) {
+                Object[] segment = current.segments[slot >>> SEGMENT_SHIFT];
+                InMemoryEmbeddingStore.Entry<Embedded> entry =
+                        (InMemoryEmbeddingStore.Entry<Embedded>) segment[slot & SEGMENT_MASK];
+                if (entry != null && predicate.test(entry)) {
+                    removed.add(entry);
+                    segment[slot & SEGMENT_MASK] = null;
+                    unindexSlot(entry.id, slot);
+                }
+            }
+            afterRemoval(removed.size());
+            return removed;
+        }
+    }
+
+    @Override
+    public boolean removeIf(Predicate<? super InMemoryEmbeddingStore.Entry<Embedded>> filter) {
+        return !removeMatching(filter::test).isEmpty();
+    }
+
+    @Override
+    public void clear() {
+        synchronized (lock) {
+            slotsById = new HashMap<>();
+            state = new State(new Object[0][], 0, 0);
+        }
+    }
+
+    @Override
+    public int size() {
+        return state.liveCount;
+    }
+
+    @Override
+    public Iterator<InMemoryEmbeddingStore.Entry<Embedded>> iterator() {
+        return new EntryIterator(state);
+    }
+
+    @Override
+    public Object[] toArray() {
+        List<InMemoryEmbeddingStore.Entry<Embedded>> list = new ArrayList<>(size());
+        for (InMemoryEmbeddingStore.Entry<Embedded> entry : this) {
+            list.add(entry);
+        }
+        return list.toArray();
+    }
+
+    private void afterRemoval(int removedCount) {
+        if (removedCount == 0) {
+            return;
+        }
+        State current = state;
+        State updated = new State(current.segments, current.slotCount, current.liveCount - removedCount);
+        if (updated.slotCount >= MIN_SLOTS_TO_COMPACT && updated.liveCount < updated.slotCount / 2) {
+            updated = compact(updated);
+        }
+        state = updated;
+    }
+
+    /**
+     * Copies the live entries into new segments, so that readers of the old segments are not affected.
+     */
+    private State compact(State current) {
+        Object[][] segments = new Object[Math.max(4, (current.liveCount >>> SEGMENT_SHIFT) + 1)][];
+        Map<String, int[]> newSlotsById = new HashMap<>();
+        slotsById = newSlotsById;
+        int slotCount = 0;
+        for (int slot = 0; slot < current.slotCount; slot++) {
+            Object entry = current.segments[slot >>> SEGMENT_SHIFT][slot & SEGMENT_MASK];
+            if (entry == null) {
+                continue;
+            }
+            int segment = slotCount >>> SEGMENT_SHIFT;
+            if (segments[segment] == null) {
+                segments[segment] = new Object[SEGMENT_SIZE];
+            }
+            segments[segment][slotCount & SEGMENT_MASK] = entry;
+            indexSlot(((InMemoryEmbeddingStore.Entry<?>) entry).id, slotCount);
+            slotCount++;
+        }
+        return new State(segments, slotCount, slotCount);
+    }
+
+    private void indexSlot(String id, int slot) {
+        int[] slots = slotsById.get(id);
+        if (slots == null) {
+            slotsById.put(id, new int[]{slot});
+        } else {
+            int[] newSlots = new int[slots.length + 1];
+            System.arraycopy(slots, 0, newSlots, 0, slots.length);
+            newSlots[slots.length] = slot;
+            slotsById.put(id, newSlots);
+        }
+    }
+
+    private void unindexSlot(String id, int slot) {
+        int[] slots = slotsById.get(id);
+        if (slots == null) {
+            return;
+        }
+        if (slots.length == 1) {
+            slotsById.remove(id);
+            return;
+        }
+        int[] newSlots = new int[slots.length - 1];
+        int i = 0;
+        for (int s : slots) {
+            if (s != slot) {
+                newSlots[i++] = s;
+            }
+        }
+        slotsById.put(id, newSlots);
+    }
+
+    /**
+     * Equal to another {@code SegmentedEntries} with equal entries in the same order, like a {@link List}.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof SegmentedEntries<?> that)) return false;
+        Iterator<?> these = iterator();
+        Iterator<?> those = that.iterator();
+        while (these.hasNext() && those.hasNext()) {
+            if (!Objects.equals(these.next(), those.next())) {
+                return false;
+            }
+        }
+        return !these.hasNext() && !those.hasNext();
+    }
+
+    @Override
+    public int hashCode() {
+        int hashCode = 1;
+        for (InMemoryEmbeddingStore.Entry<Embedded> entry : this) {
+            hashCode = 31 * hashCode + Objects.hashCode(entry);
+        }
+        return hashCode;
+    }
+
+    /**
+     * The published segments. {@code slotCount} slots are in use, {@code liveCount} of them are not tombstones.
+     */
+    private static class State {
+
+        final Object[][] segments;
+        final int slotCount;
+        final int liveCount;
+
+        State(Object[][] segments, int slotCount, int liveCount) {
+            this.segments = segments;
+            this.slotCount = slotCount;
+            this.liveCount = liveCount;
+        }
+    }
+
+    private class EntryIterator implements Iterator<InMemoryEmbeddingStore.Entry<Embedded>> {
+
+        private final State state;
+        private int slot;
+        private InMemoryEmbeddingStore.Entry<Embedded> next;
+
+        EntryIterator(State state) {
+            this.state = state;
+            advance();
+        }
+
+        @SuppressWarnings("unchecked")
+        private void advance() {
+            next = null;
+            while (slot < state.slotCount && next == null) {
+                next = (InMemoryEmbeddingStore.Entry<Embedded>) state.segments[slot >>> SEGMENT_SHIFT][slot & SEGMENT_MASK];
+                slot++;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public InMemoryEmbeddingStore.Entry<Embedded> next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            InMemoryEmbeddingStore.Entry<Embedded> current = next;
+            advance();
+            return current;
+        }
+    }
+}
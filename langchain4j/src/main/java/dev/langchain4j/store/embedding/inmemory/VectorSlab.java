@@ -0,0 +1,373 @@
+package dev.langchain4j.store.embedding.inmemory;
+
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.store.embedding.VectorSimilarity;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+
+import static dev.langchain4j.internal.Exceptions.illegalArgument;
+
+/**
+ * Keeps the vectors of all {@link InMemoryEmbeddingStore.Entry}s in a single contiguous, growable {@code float[]},
+ * one row per entry, with the norm of each row precomputed.
+ * Entries are kept in a parallel array, so a search is a linear sweep over primitive memory
+ * instead of chasing one {@code float[]} per entry.
+ * <p>
+ * The slab is the only storage of the vectors: an added entry drops its {@link Embedding}
+ * and keeps the row of its vector instead (see {@link VectorStorage}).
+ * A removed entry gets back an embedding with a copy of its vector, and its row becomes a tombstone.
+ * Tombstones are compacted away once they make up more than half of the rows, like in {@link SegmentedEntries}.
+ * <p>
+ * This class is thread-safe: searches can run concurrently, modifications are exclusive.
+ */
+class VectorSlab<Embedded> {
+
+    private static final int INITIAL_CAPACITY = 16;
+    private static final int MIN_ROWS_TO_COMPACT = 1024;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private Rows rows = new Rows(lock);
+
+    /**
+     * Adds the given entries, which must not be visible to searches yet.
+     * Their vectors can be held by a read-only storage, such as {@link MappedVectors}, but not by another slab.
+     */
+    void addAll(Collection<InMemoryEmbeddingStore.Entry<Embedded>> newEntries) {
+        lock.writeLock().lock();
+        try {
+            int expectedDimension = rows.live == 0 ? -1 : rows.dimension;
+            for (InMemoryEmbeddingStore.Entry<Embedded> entry : newEntries) {
+                int entryDimension = entry.dimension();
+                if (expectedDimension < 0) {
+                    expectedDimension = entryDimension;
+                } else if (entryDimension != expectedDimension) {
+                    throw illegalArgument("Embedding dimension (%s) must be equal to the dimension of the store (%s)",
+                            entryDimension, expectedDimension);
+                }
+            }
+            if (expectedDimension >= 0 && expectedDimension != rows.dimension) {
+                // all entries held by the current rows have been removed and got their embeddings back
+                rows = new Rows(lock);
+                rows.dimension = expectedDimension;
+            }
+            for (InMemoryEmbeddingStore.Entry<Embedded> entry : newEntries) {
+                rows.add(entry);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void removeAll(Collection<InMemoryEmbeddingStore.Entry<Embedded>> removedEntries) {
+        lock.writeLock().lock();
+        try {
+            for (InMemoryEmbeddingStore.Entry<Embedded> entry : removedEntries) {
+                rows.remove(entry);
+            }
+            if (rows.size >= MIN_ROWS_TO_COMPACT && rows.live < rows.size / 2) {
+                rows.compact();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes all rows. The cleared entries keep resolving their vectors through the rows they were held by.
+     */
+    void clear() {
+        lock.writeLock().lock();
+        try {
+            rows = new Rows(lock);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Finds the {@code maxResults} entries most similar to the given vector
+     * among the entries accepted by the given predicate.
+     * If an executor is given and the slab holds at least {@code parallelThreshold} rows,
+     * the rows are scored in parallel chunks on that executor.
+     *
+     * @return found entries, ordered from the most to the least similar.
+     */
+    List<ScoredEntry<Embedded>> search(float[] vector,
+                                       int maxResults,
+                                       Predicate<InMemoryEmbeddingStore.Entry<Embedded>> predicate,
+                                       Executor executor,
+                                       int parallelThreshold) {
+        lock.readLock().lock();
+        try {
+            Rows rows = this.rows;
+            if (rows.live == 0) {
+                return new ArrayList<>();
+            }
+            if (vector.length != rows.dimension) {
+                throw illegalArgument("Length of vector a (%s) must be equal to the length of vector b (%s)",
+                        rows.dimension, vector.length);
+            }
+
+            double queryNorm = VectorSimilarity.norm(vector);
+
+            // the read lock held by this thread keeps the arrays stable while the chunks are scored
+            return PartitionedSearch.search(rows.size, maxResults, executor, parallelThreshold,
+                    (from, to, max) -> searchRange(rows, vector, queryNorm, from, to, max, predicate));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Performs several searches in a single pass over the rows: the rows are scored in blocks of
+     * {@link InMemoryEmbeddingStore#SEARCH_ALL_BLOCK_SIZE}, and each block is compared to all queries
+     * while it is in the CPU cache. The passes are split into parallel chunks like in
+     * {@link #search(float[], int, Predicate, Executor, int)}.
+     *
+     * @return for each query, found entries, ordered from the most to the least similar.
+     */
+    List<List<ScoredEntry<Embedded>>> searchAll(float[][] vectors,
+                                                int[] maxResults,
+                                                List<Predicate<InMemoryEmbeddingStore.Entry<Embedded>>> predicates,
+                                                Executor executor,
+                                                int parallelThreshold) {
+        lock.readLock().lock();
+        try {
+            Rows rows = this.rows;
+            if (rows.live == 0) {
+                List<List<ScoredEntry<Embedded>>> results = new ArrayList<>(vectors.length);
+                for (int q = 0; q < vectors.length; q++) {
+                    results.add(new ArrayList<>());
+                }
+                return results;
+            }
+            double[] queryNorms = new double[vectors.length];
+            for (int q = 0; q < vectors.length; q++) {
+                if (vectors[q].length != rows.dimension) {
+                    throw illegalArgument("Length of vector a (%s) must be equal to the length of vector b (%s)",
+                            rows.dimension, vectors[q].length);
+                }
+                queryNorms[q] = VectorSimilarity.norm(vectors[q]);
+            }
+
+            // the read lock held by this thread keeps the arrays stable while the chunks are scored
+            return PartitionedSearch.searchAll(rows.size, maxResults, executor, parallelThreshold,
+                    (from, to, max) -> searchRange(rows, vectors, queryNorms, from, to, max, predicates));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<PartitionedSearch.TopEntries<Embedded>> searchRange(Rows rows,
+                                                                     float[][] vectors,
+                                                                     double[] queryNorms,
+                                                                     int from,
+                                                                     int to,
+                                                                     int[] maxResults,
+                                                                     List<Predicate<InMemoryEmbeddingStore.Entry<Embedded>>> predicates) {
+        List<PartitionedSearch.TopEntries<Embedded>> tops = new ArrayList<>(vectors.length);
+        for (int q = 0; q < vectors.length; q++) {
+            tops.add(new PartitionedSearch.TopEntries<>(maxResults[q]));
+        }
+        for (int blockStart = from; blockStart < to; blockStart += InMemoryEmbeddingStore.SEARCH_ALL_BLOCK_SIZE) {
+            int blockEnd = Math.min(blockStart + InMemoryEmbeddingStore.SEARCH_ALL_BLOCK_SIZE, to);
+            for (int q = 0; q < vectors.length; q++) {
+                PartitionedSearch.TopEntries<Embedded> top = tops.get(q);
+                Predicate<InMemoryEmbeddingStore.Entry<Embedded>> predicate = predicates.get(q);
+                for (int row = blockStart; row < blockEnd; row++) {
+                    InMemoryEmbeddingStore.Entry<Embedded> entry = (InMemoryEmbeddingStore.Entry<Embedded>) rows.entries[row];
+                    if (entry == null || !predicate.test(entry)) {
+                        continue;
+                    }
+                    float dotProduct = VectorSimilarity.dotProduct(vectors[q], rows.vectors, row * rows.dimension);
+                    top.add(entry, VectorSimilarity.cosineSimilarity(dotProduct, rows.norms[row], queryNorms[q]));
+                }
+            }
+        }
+        return tops;
+    }
+
+    @SuppressWarnings("unchecked")
+    private PartitionedSearch.TopEntries<Embedded> searchRange(Rows rows,
+                                                               float[] vector,
+                                                               double queryNorm,
+                                                               int from,
+                                                               int to,
+                                                               int maxResults,
+                                                               Predicate<InMemoryEmbeddingStore.Entry<Embedded>> predicate) {
+        PartitionedSearch.TopEntries<Embedded> top = new PartitionedSearch.TopEntries<>(maxResults);
+        for (int row = from; row < to; row++) {
+            InMemoryEmbeddingStore.Entry<Embedded> entry = (InMemoryEmbeddingStore.Entry<Embedded>) rows.entries[row];
+            if (entry == null || !predicate.test(entry)) {
+                continue;
+            }
+
+            float dotProduct = VectorSimilarity.dotProduct(vector, rows.vectors, row * rows.dimension);
+            top.add(entry, VectorSimilarity.cosineSimilarity(dotProduct, rows.norms[row], queryNorm));
+        }
+        return top;
+    }
+
+    /**
+     * The rows of one generation of the slab, between two {@link #clear()}s.
+     * A {@code null} entry marks a tombstone.
+     */
+    private static final class Rows implements VectorStorage {
+
+        private final ReadWriteLock lock;
+
+        private int dimension = -1;
+        private int size;
+        private int live;
+        private float[] vectors = new float[0];
+        private double[] norms = new double[0];
+        private Object[] entries = new Object[0];
+
+        private Rows(ReadWriteLock lock) {
+            this.lock = lock;
+        }
+
+        @Override
+        public Embedding embedding(InMemoryEmbeddingStore.Entry<?> entry) {
+            lock.readLock().lock();
+            try {
+                Embedding embedding = entry.embedding;
+                if (embedding != null) {
+                    // the entry has been removed in the meantime
+                    return embedding;
+                }
+                return Embedding.from(copyOfRow(entry.row));
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        @Override
+        public int dimension() {
+            return dimension;
+        }
+
+        @Override
+        public void copyTo(InMemoryEmbeddingStore.Entry<?> entry, float[] destination, int destinationOffset, int length) {
+            lock.readLock().lock();
+            try {
+                Embedding embedding = entry.embedding;
+                if (embedding != null) {
+                    embedding.copyTo(0, destination, destinationOffset, length);
+                } else {
+                    System.arraycopy(vectors, entry.row * dimension, destination, destinationOffset, length);
+                }
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        @Override
+        public float dotProduct(InMemoryEmbeddingStore.Entry<?> entry, float[] vector) {
+            lock.readLock().lock();
+            try {
+                Embedding embedding = entry.embedding;
+                if (embedding != null) {
+                    return VectorSimilarity.dotProduct(embedding, vector);
+                }
+                if (vector.length != dimension) {
+                    throw illegalArgument("Length of vector a (%s) must be equal to the length of vector b (%s)",
+                            dimension, vector.length);
+                }
+                return VectorSimilarity.dotProduct(vector, vectors, entry.row * dimension);
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        @Override
+        public double norm(InMemoryEmbeddingStore.Entry<?> entry) {
+            lock.readLock().lock();
+            try {
+                Embedding embedding = entry.embedding;
+                return embedding != null ? VectorSimilarity.norm(embedding) : norms[entry.row];
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        @Override
+        public long bytesPerVector() {
+            return (long) Float.BYTES * dimension;
+        }
+
+        private void add(InMemoryEmbeddingStore.Entry<?> entry) {
+            ensureCapacity(size + 1);
+
+            int offset = size * dimension;
+            entry.copyTo(vectors, offset, dimension);
+            norms[size] = VectorSimilarity.norm(vectors, offset, dimension);
+            entries[size] = entry;
+            entry.storage = this;
+            entry.row = size;
+            // written last, so that a concurrent reader seeing no embedding sees the row
+            entry.embedding = null;
+            size++;
+            live++;
+        }
+
+        private void remove(InMemoryEmbeddingStore.Entry<?> entry) {
+            if (entry.storage != this || entry.embedding != null) {
+                return;
+            }
+            int row = entry.row;
+            entry.embedding = Embedding.from(copyOfRow(row));
+            entries[row] = null;
+            live--;
+        }
+
+        private void compact() {
+            int kept = 0;
+            for (int row = 0; row < size; row++) {
+                InMemoryEmbeddingStore.Entry<?> entry = (InMemoryEmbeddingStore.Entry<?>) entries[row];
+                if (entry == null) {
+                    continue;
+                }
+                if (kept != row) {
+                    System.arraycopy(vectors, row * dimension, vectors, kept * dimension, dimension);
+                    norms[kept] = norms[row];
+                    entries[kept] = entry;
+                    entry.row = kept;
+                }
+                kept++;
+            }
+            Arrays.fill(entries, kept, size, null);
+            size = kept;
+        }
+
+        private float[] copyOfRow(int row) {
+            int offset = row * dimension;
+            return Arrays.copyOfRange(vectors, offset, offset + dimension);
+        }
+
+        private void ensureCapacity(int capacity) {
+            if (capacity <= entries.length) {
+                return;
+            }
+            int newCapacity = Math.max(INITIAL_CAPACITY, Math.max(capacity, entries.length + (entries.length >> 1)));
+            float[] newVectors = new float[Math.multiplyExact(newCapacity, dimension)];
+            System.arraycopy(vectors, 0, newVectors, 0, size * dimension);
+            vectors = newVectors;
+            double[] newNorms = new double[newCapacity];
+            System.arraycopy(norms, 0, newNorms, 0, size);
+            norms = newNorms;
+            Object[] newEntries = new Object[newCapacity];
+            System.arraycopy(entries, 0, newEntries, 0, size);
+            entries = newEntries;
+        }
+    }
+}
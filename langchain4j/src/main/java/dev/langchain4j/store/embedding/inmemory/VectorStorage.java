@@ -0,0 +1,47 @@
+package dev.langchain4j.store.embedding.inmemory;
+
+import dev.langchain4j.data.embedding.Embedding;
+
+/**
+ * Holds the vectors of {@link InMemoryEmbeddingStore.Entry}s in place of their {@link Embedding}s,
+ * so that each vector is stored once, in the representation used to search it.
+ * An entry whose vector is held by a storage has no embedding, but a reference to the storage
+ * and the row of its vector in it (see {@link InMemoryEmbeddingStore.Entry#embedding()}).
+ * <p>
+ * All methods take an entry held by this storage.
+ */
+interface VectorStorage {
+
+    /**
+     * @return a new embedding with the vector of the given entry.
+     */
+    Embedding embedding(InMemoryEmbeddingStore.Entry<?> entry);
+
+    /**
+     * @return the dimension of the vectors.
+     */
+    int dimension();
+
+    /**
+     * Copies the first {@code length} values of the vector of the given entry into the given array.
+     */
+    void copyTo(InMemoryEmbeddingStore.Entry<?> entry, float[] destination, int destinationOffset, int length);
+
+    /**
+     * @return the dot product of the vector of the given entry and the given vector,
+     * equal to {@link dev.langchain4j.store.embedding.VectorSimilarity#dotProduct(Embedding, float[])}
+     * of the embedding of the entry.
+     */
+    float dotProduct(InMemoryEmbeddingStore.Entry<?> entry, float[] vector);
+
+    /**
+     * @return the norm of the vector of the given entry, equal to
+     * {@link dev.langchain4j.store.embedding.VectorSimilarity#norm(Embedding)} of the embedding of the entry.
+     */
+    double norm(InMemoryEmbeddingStore.Entry<?> entry);
+
+    /**
+     * @return the number of bytes used to store one vector.
+     */
+    long bytesPerVector();
+}
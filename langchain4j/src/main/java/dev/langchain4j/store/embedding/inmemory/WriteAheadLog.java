@@ -0,0 +1,445 @@
+package dev.langchain4j.store.embedding.inmemory;
+
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+import static dev.langchain4j.internal.Exceptions.illegalArgument;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * Persists the modifications of an {@link InMemoryEmbeddingStore} into an append-only log,
+ * so that the store can be recreated after a restart without re-serializing all entries on every change.
+ * <p>
+ * The directory contains a binary snapshot ({@code snapshot-<generation>.bin}, see {@link InMemoryEmbeddingStoreSnapshot})
+ * and the log of all modifications made since that snapshot was taken ({@code wal-<generation>.log}).
+ * The very first generation has no snapshot.
+ * The directory is locked while the log is open, so that it is not used by two stores at the same time.
+ * Each log record is framed as {@code [int length][int crc32][payload]}. When the log is replayed,
+ * a torn or corrupted record at the end (e.g. after a crash in the middle of a write) is discarded together
+ * with everything after it.
+ * <p>
+ * Once the log exceeds {@link WriteAheadLogConfig#compactionThreshold()}, a new, empty log of the next generation
+ * is started and the entries at that point are captured. {@link #compact()} then writes them into the snapshot
+ * of that generation, without blocking the store, and deletes the files of older generations.
+ * Until the snapshot is complete, the logs of all generations after the latest complete snapshot are replayed.
+ * <p>
+ * This class is not thread-safe: {@link InMemoryEmbeddingStore} calls it while holding its write lock,
+ * except for {@link #compact()}, which is called after releasing it.
+ */
+class WriteAheadLog {
+
+    private static final Pattern SNAPSHOT_FILE = Pattern.compile("snapshot-(\\d+)\\.bin");
+    private static final Pattern LOG_FILE = Pattern.compile("wal-(\\d+)\\.log");
+
+    private static final String LOCK_FILE = "lock";
+
+    private static final byte ADD = 1;
+    private static final byte REMOVE = 2;
+    private static final byte CLEAR = 3;
+
+    private static final int RECORD_HEADER_SIZE = 2 * Integer.BYTES;
+
+    private final WriteAheadLogConfig config;
+    private final HnswConfig hnswConfig;
+
+    /**
+     * Held while a snapshot is written, so that snapshots are written one at a time and in order of generation.
+     */
+    private final Lock compactionLock = new ReentrantLock();
+
+    private FileChannel lockChannel;
+    private long generation;
+    private FileChannel channel;
+    private int unsyncedRecords;
+    /**
+     * The entries to write into the snapshot of a new generation, once its log is started.
+     */
+    private final AtomicReference<PendingSnapshot> pendingSnapshot = new AtomicReference<>();
+
+    WriteAheadLog(WriteAheadLogConfig config, HnswConfig hnswConfig) {
+        this.config = config;
+        this.hnswConfig = hnswConfig;
+    }
+
+    /**
+     * Locks the directory, loads the latest snapshot, replays the logs written since then
+     * and opens the latest log for appending.
+     *
+     * @return the entries of the store, in insertion order.
+     * @throws IllegalStateException if the directory is locked by another write-ahead log.
+     */
+    List<InMemoryEmbeddingStore.Entry<TextSegment>> open() throws IOException {
+        Path directory = config.directory();
+        Files.createDirectories(directory);
+        lock(directory);
+
+        try {
+            long snapshotGeneration = latestSnapshotGeneration(directory);
+            // replayed removals look up the ids in the index of the entries
+            SegmentedEntries<TextSegment> entries = new SegmentedEntries<>();
+            if (snapshotGeneration > 0) {
+                entries.addAll(InMemoryEmbeddingStoreSnapshot.read(snapshotFile(snapshotGeneration)).entries);
+            }
+
+            generation = snapshotGeneration;
+            channel = FileChannel.open(logFile(generation), CREATE, READ, WRITE);
+            long validLength = replay(channel, entries);
+            // a compaction was interrupted before its snapshot was complete
+            while (Files.exists(logFile(generation + 1))) {
+                channel.close();
+                generation++;
+                channel = FileChannel.open(logFile(generation), READ, WRITE);
+                validLength = replay(channel, entries);
+            }
+            if (validLength < channel.size()) {
+                channel.truncate(validLength);
+                channel.force(false);
+            }
+            channel.position(validLength);
+
+            deleteGenerationsBefore(snapshotGeneration);
+            return new ArrayList<>(entries);
+        } catch (IOException | RuntimeException e) {
+            close();
+            throw e;
+        }
+    }
+
+    private void lock(Path directory) throws IOException {
+        lockChannel = FileChannel.open(directory.resolve(LOCK_FILE), CREATE, WRITE);
+        FileLock lock;
+        try {
+            lock = lockChannel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            lock = null;
+        }
+        if (lock == null) {
+            lockChannel.close();
+            lockChannel = null;
+            throw new IllegalStateException(
+                    "Write-ahead log directory " + directory + " is already used by another store");
+        }
+    }
+
+    /**
+     * Forces all appended records to the storage device, then closes the log and unlocks the directory.
+     * Waits for a snapshot being written to complete.
+     */
+    void close() {
+        compactionLock.lock();
+        try {
+            try {
+                if (channel != null) {
+                    try {
+                        channel.force(false);
+                    } finally {
+                        channel.close();
+                        channel = null;
+                    }
+                }
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            } finally {
+                releaseLock();
+            }
+        } finally {
+            compactionLock.unlock();
+        }
+    }
+
+    private void releaseLock() {
+        try {
+            if (lockChannel != null) {
+                // closing the channel releases the lock
+                lockChannel.close();
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        } finally {
+            lockChannel = null;
+        }
+    }
+
+    /**
+     * Encodes the addition of the given entries.
+     * This also validates that the entries can be logged, so it should be called before the store is modified.
+     */
+    byte[] encodeAdd(Collection<? extends InMemoryEmbeddingStore.Entry<?>> entries) {
+        return encode(out -> {
+            out.writeByte(ADD);
+            out.writeInt(entries.size());
+            for (InMemoryEmbeddingStore.Entry<?> entry : entries) {
+                InMemoryEmbeddingStoreSnapshot.writeEmbedding(out, entry.embedding());
+                InMemoryEmbeddingStoreSnapshot.writeEntry(out, entry);
+            }
+        });
+    }
+
+    byte[] encodeRemove(Collection<String> ids) {
+        return encode(out -> {
+            out.writeByte(REMOVE);
+            out.writeInt(ids.size());
+            for (String id : ids) {
+                InMemoryEmbeddingStoreSnapshot.writeString(out, id);
+            }
+        });
+    }
+
+    byte[] encodeClear() {
+        return encode(out -> out.writeByte(CLEAR));
+    }
+
+    /**
+     * Appends an encoded record to the log, forcing it to the storage device every
+     * {@link WriteAheadLogConfig#syncEvery()} records. If the log grew beyond the threshold,
+     * starts the log of the next generation, whose snapshot is then written by {@link #compact()}.
+     *
+     * @param record  the record to append
+     * @param entries all entries of the store after the modification, captured for the next snapshot
+     * @throws IllegalStateException if the log is closed.
+     */
+    void append(byte[] record, Collection<? extends InMemoryEmbeddingStore.Entry<?>> entries) {
+        if (channel == null) {
+            throw new IllegalStateException("Write-ahead log is closed");
+        }
+        try {
+            CRC32 crc = new CRC32();
+            crc.update(record);
+            ByteBuffer buffer = ByteBuffer.allocate(RECORD_HEADER_SIZE + record.length);
+            buffer.putInt(record.length);
+            buffer.putInt((int) crc.getValue());
+            buffer.put(record);
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            if (++unsyncedRecords >= config.syncEvery()) {
+                channel.force(false);
+                unsyncedRecords = 0;
+            }
+            if (channel.size() >= config.compactionThreshold() && pendingSnapshot.get() == null) {
+                startNextGeneration(entries);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private void startNextGeneration(Collection<? extends InMemoryEmbeddingStore.Entry<?>> entries) throws IOException {
+        long nextGeneration = generation + 1;
+        FileChannel nextChannel = FileChannel.open(logFile(nextGeneration), CREATE, READ, WRITE);
+        nextChannel.truncate(0);
+        // the log of the previous generation is replayed until the snapshot is complete
+        channel.force(false);
+        channel.close();
+        channel = nextChannel;
+        generation = nextGeneration;
+        unsyncedRecords = 0;
+        pendingSnapshot.set(new PendingSnapshot(nextGeneration, new ArrayList<>(entries)));
+    }
+
+    /**
+     * Writes the snapshot of the latest generation, if its log was started since the last call,
+     * and deletes the files of older generations.
+     * Does nothing if another thread is writing a snapshot: the pending one is written on a later call.
+     * Must be called without holding the write lock of the store.
+     */
+    void compact() {
+        if (pendingSnapshot.get() == null || !compactionLock.tryLock()) {
+            return;
+        }
+        try {
+            PendingSnapshot snapshot = pendingSnapshot.getAndSet(null);
+            if (snapshot == null || lockChannel == null) {
+                return;
+            }
+            try {
+                Path snapshotFile = snapshotFile(snapshot.generation);
+                Path tempFile = snapshotFile.resolveSibling(snapshotFile.getFileName() + ".tmp");
+                InMemoryEmbeddingStoreSnapshot.write(snapshot.entries, hnswConfig, tempFile);
+                try (FileChannel file = FileChannel.open(tempFile, WRITE)) {
+                    file.force(true);
+                }
+                Files.move(tempFile, snapshotFile, ATOMIC_MOVE, REPLACE_EXISTING);
+                forceDirectory();
+
+                deleteGenerationsBefore(snapshot.generation);
+            } catch (IOException e) {
+                // the logs are still replayed, and the next log is compacted once it grew beyond the threshold
+                throw new RuntimeException(e);
+            }
+        } finally {
+            compactionLock.unlock();
+        }
+    }
+
+    /**
+     * Forces the renaming of the snapshot to the storage device, so that it survives a crash of the operating system.
+     */
+    private void forceDirectory() throws IOException {
+        try (FileChannel directory = FileChannel.open(config.directory(), READ)) {
+            directory.force(true);
+        } catch (IOException e) {
+            // some platforms (e.g. Windows) cannot open directories; the rename is then left to the file system
+            if (!isWindows()) {
+                throw e;
+            }
+        }
+    }
+
+    private static boolean isWindows() {
+        return System.getProperty("os.name", "").toLowerCase().startsWith("windows");
+    }
+
+    /**
+     * Applies all intact records of the log to the given entries.
+     *
+     * @return the length of the intact part of the log.
+     */
+    private static long replay(FileChannel channel, SegmentedEntries<TextSegment> entries) throws IOException {
+        long size = channel.size();
+        long position = 0;
+        channel.position(0);
+        DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel), 1 << 16));
+        while (position + RECORD_HEADER_SIZE <= size) {
+            byte[] record;
+            try {
+                int length = in.readInt();
+                int checksum = in.readInt();
+                if (length <= 0 || position + RECORD_HEADER_SIZE + length > size) {
+                    break;
+                }
+                record = new byte[length];
+                in.readFully(record);
+                CRC32 crc = new CRC32();
+                crc.update(record);
+                if ((int) crc.getValue() != checksum) {
+                    break;
+                }
+            } catch (EOFException e) {
+                break;
+            }
+            apply(record, entries);
+            position += RECORD_HEADER_SIZE + record.length;
+        }
+        return position;
+    }
+
+    private static void apply(byte[] record, SegmentedEntries<TextSegment> entries) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(record));
+        byte operation = in.readByte();
+        switch (operation) {
+            case ADD -> {
+                int count = in.readInt();
+                for (int i = 0; i < count; i++) {
+                    Embedding embedding = InMemoryEmbeddingStoreSnapshot.readEmbedding(in);
+                    entries.add(InMemoryEmbeddingStoreSnapshot.readEntry(in, embedding));
+                }
+            }
+            case REMOVE -> {
+                int count = in.readInt();
+                List<String> ids = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    ids.add(InMemoryEmbeddingStoreSnapshot.readString(in));
+                }
+                entries.removeIds(ids);
+            }
+            case CLEAR -> entries.clear();
+            default -> throw illegalArgument("Corrupted write-ahead log: unknown operation %s", operation);
+        }
+    }
+
+    private void deleteGenerationsBefore(long generation) throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(config.directory())) {
+            for (Path file : files) {
+                long fileGeneration = generationOf(file, SNAPSHOT_FILE);
+                if (fileGeneration < 0) {
+                    fileGeneration = generationOf(file, LOG_FILE);
+                }
+                if (fileGeneration >= 0 && fileGeneration < generation) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+    }
+
+    private static long latestSnapshotGeneration(Path directory) throws IOException {
+        long latest = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                latest = Math.max(latest, generationOf(file, SNAPSHOT_FILE));
+            }
+        }
+        return latest;
+    }
+
+    private static long generationOf(Path file, Pattern pattern) {
+        Matcher matcher = pattern.matcher(file.getFileName().toString());
+        return matcher.matches() ? Long.parseLong(matcher.group(1)) : -1;
+    }
+
+    private Path snapshotFile(long generation) {
+        return config.directory().resolve("snapshot-" + generation + ".bin");
+    }
+
+    private Path logFile(long generation) {
+        return config.directory().resolve("wal-" + generation + ".log");
+    }
+
+    private static byte[] encode(RecordWriter writer) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            writer.write(out);
+            out.flush();
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private interface RecordWriter {
+
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    private static class PendingSnapshot {
+
+        final long generation;
+        final List<InMemoryEmbeddingStore.Entry<?>> entries;
+
+        PendingSnapshot(long generation, List<InMemoryEmbeddingStore.Entry<?>> entries) {
+            this.generation = generation;
+            this.entries = entries;
+        }
+    }
+}
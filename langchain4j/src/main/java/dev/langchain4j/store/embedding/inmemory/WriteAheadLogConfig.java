@@ -0,0 +1,110 @@
+package dev.langchain4j.store.embedding.inmemory;
+
+import java.nio.file.Path;
+import java.util.Objects;
+
+import static dev.langchain4j.internal.Utils.getOrDefault;
+import static dev.langchain4j.internal.ValidationUtils.ensureGreaterThanZero;
+import static dev.langchain4j.internal.ValidationUtils.ensureNotNull;
+
+/**
+ * Configuration of the write-ahead log that an {@link InMemoryEmbeddingStore} can use
+ * to persist every modification incrementally, instead of re-serializing the whole store.
+ * <p>
+ * Configurable parameters:
+ * <br>
+ * - {@code directory}: The directory containing the snapshot and the log. It is created if it does not exist.
+ * Mandatory.
+ * <br>
+ * - {@code syncEvery}: The log is written to the file system after each modification,
+ * but forced to the storage device ({@code fsync}) only once per this many modifications.
+ * Modifications that were not forced yet survive a crash of the JVM, but not of the operating system. Default: 1
+ * <br>
+ * - {@code compactionThreshold}: Once the log grows beyond this many bytes, the whole store is written
+ * into a new binary snapshot and the log is started over,
+ * so all embeddings must have the same dimension. Default: 64 MiB
+ */
+public class WriteAheadLogConfig {
+
+    static final int DEFAULT_SYNC_EVERY = 1;
+    static final long DEFAULT_COMPACTION_THRESHOLD = 64L * 1024 * 1024;
+
+    private final Path directory;
+    private final int syncEvery;
+    private final long compactionThreshold;
+
+    WriteAheadLogConfig(Path directory, Integer syncEvery, Long compactionThreshold) {
+        this.directory = ensureNotNull(directory, "directory");
+        this.syncEvery = ensureGreaterThanZero(getOrDefault(syncEvery, DEFAULT_SYNC_EVERY), "syncEvery");
+        this.compactionThreshold = getOrDefault(compactionThreshold, DEFAULT_COMPACTION_THRESHOLD);
+        if (this.compactionThreshold <= 0) {
+            throw new IllegalArgumentException("compactionThreshold must be greater than zero, but is: " + compactionThreshold);
+        }
+    }
+
+    public Path directory() {
+        return directory;
+    }
+
+    public int syncEvery() {
+        return syncEvery;
+    }
+
+    public long compactionThreshold() {
+        return compactionThreshold;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        WriteAheadLogConfig that = (WriteAheadLogConfig) o;
+        return this.syncEvery == that.syncEvery
+                && this.compactionThreshold == that.compactionThreshold
+                && Objects.equals(this.directory, that.directory);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(directory, syncEvery, compactionThreshold);
+    }
+
+    @Override
+    public String toString() {
+        return "WriteAheadLogConfig{" +
+                "directory=" + directory +
+                ", syncEvery=" + syncEvery +
+                ", compactionThreshold=" + compactionThreshold +
+                '}';
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+
+        private Path directory;
+        private Integer syncEvery;
+        private Long compactionThreshold;
+
+        public Builder directory(Path directory) {
+            this.directory = directory;
+            return this;
+        }
+
+        public Builder syncEvery(Integer syncEvery) {
+            this.syncEvery = syncEvery;
+            return this;
+        }
+
+        public Builder compactionThreshold(Long compactionThreshold) {
+            this.compactionThreshold = compactionThreshold;
+            return this;
+        }
+
+        public WriteAheadLogConfig build() {
+            return new WriteAheadLogConfig(directory, syncEvery, compactionThreshold);
+        }
+    }
+}
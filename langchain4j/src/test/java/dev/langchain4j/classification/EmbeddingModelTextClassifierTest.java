@@ -1,11 +1,17 @@
 package dev.langchain4j.classification;
 
 import dev.langchain4j.model.embedding.onnx.allminilml6v2q.AllMiniLmL6V2QuantizedEmbeddingModel;
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.embedding.EmbeddingModel;
+import dev.langchain4j.model.output.Response;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static dev.langchain4j.classification.EmbeddingModelTextClassifierTest.CustomerServiceCategory.ACCOUNT_MANAGEMENT;
 import static dev.langchain4j.classification.EmbeddingModelTextClassifierTest.CustomerServiceCategory.BILLING_AND_PAYMENTS;
@@ -291,4 +297,62 @@ class EmbeddingModelTextClassifierTest {
         assertThat(result.scoredLabels().stream().map(ScoredLabel::score).findFirst().orElse(null))
             .isCloseTo(minScore, offset(0.1));
     }
+
+    @Test
+    void should_classify_all_texts_in_one_batch() {
+
+        // given
+        AtomicInteger embedAllCalls = new AtomicInteger();
+        EmbeddingModel model = new AllMiniLmL6V2QuantizedEmbeddingModel();
+        EmbeddingModel countingModel = new EmbeddingModel() {
+
+            @Override
+            public Response<List<Embedding>> embedAll(List<TextSegment> textSegments) {
+                embedAllCalls.incrementAndGet();
+                return model.embedAll(textSegments);
+            }
+        };
+        EmbeddingModelTextClassifier<CustomerServiceCategory> classifier = EmbeddingModelTextClassifier
+            .<CustomerServiceCategory>builder()
+            .embeddingModel(countingModel)
+            .examplesByLabel(examples)
+            .maxResults(2)
+            .build();
+        assertThat(embedAllCalls).hasValue(1);
+
+        List<String> texts = new ArrayList<>();
+        List<String> distinctTexts = asList(
+            "Yo where is my order?", "Bro, this product is crap", "Can I pay with a credit card?",
+            "How do I change my password?", "The app crashes on startup");
+        for (int i = 0; i < 2 * EmbeddingModelTextClassifier.PARALLEL_CHUNK_SIZE; i++) {
+            texts.add(distinctTexts.get(i % distinctTexts.size()));
+        }
+
+        // when
+        List<ClassificationResult<CustomerServiceCategory>> results = classifier.classifyAllWithScores(texts);
+
+        // then
+        assertThat(embedAllCalls).hasValue(2);
+        assertThat(results).hasSize(texts.size());
+        for (int i = 0; i < texts.size(); i++) {
+            assertThat(results.get(i).scoredLabels())
+                .isEqualTo(classifier.classifyWithScores(texts.get(i)).scoredLabels());
+        }
+        assertThat(classifier.classifyAll(List.of("Yo where is my order?"))).containsExactly(
+            classifier.classify("Yo where is my order?"));
+    }
+
+    @Test
+    void should_classify_with_centroids() {
+
+        TextClassifier<CustomerServiceCategory> classifier = EmbeddingModelTextClassifier
+            .<CustomerServiceCategory>builder()
+            .embeddingModel(new AllMiniLmL6V2QuantizedEmbeddingModel())
+            .examplesByLabel(examples)
+            .useCentroids(true)
+            .build();
+
+        assertThat(classifier.classifyAll(asList("Yo where is my order?", "Can I pay using my credit card?")))
+            .containsExactly(List.of(ORDER_STATUS), List.of(BILLING_AND_PAYMENTS));
+    }
 }
@@ -0,0 +1,155 @@
+package dev.langchain4j.store.embedding.inmemory;
+
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.embedding.EmbeddingModel;
+import dev.langchain4j.model.embedding.onnx.allminilml6v2q.AllMiniLmL6V2QuantizedEmbeddingModel;
+import dev.langchain4j.store.embedding.EmbeddingMatch;
+import dev.langchain4j.store.embedding.EmbeddingSearchRequest;
+import dev.langchain4j.store.embedding.EmbeddingStore;
+import dev.langchain4j.store.embedding.EmbeddingStoreWithFilteringIT;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class InMemoryEmbeddingStoreContiguousStorageTest extends EmbeddingStoreWithFilteringIT {
+
+    EmbeddingStore<TextSegment> embeddingStore = InMemoryEmbeddingStore.<TextSegment>builder()
+            .contiguousStorage(true)
+            .build();
+
+    EmbeddingModel embeddingModel = new AllMiniLmL6V2QuantizedEmbeddingModel();
+
+    @Test
+    void should_find_same_matches_as_default_storage_after_removal() {
+
+        // given
+        Random random = new Random(42);
+        InMemoryEmbeddingStore<TextSegment> defaultStore = new InMemoryEmbeddingStore<>();
+        InMemoryEmbeddingStore<TextSegment> contiguousStore = InMemoryEmbeddingStore.<TextSegment>builder()
+                .contiguousStorage(true)
+                .build();
+        List<String> removed = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            Embedding embedding = randomEmbedding(random, 16);
+            defaultStore.add(String.valueOf(i), embedding);
+            contiguousStore.add(String.valueOf(i), embedding);
+            if (i % 4 == 0) {
+                removed.add(String.valueOf(i));
+            }
+        }
+        defaultStore.removeAll(removed);
+        contiguousStore.removeAll(removed);
+
+        // when
+        EmbeddingSearchRequest request = EmbeddingSearchRequest.builder()
+                .queryEmbedding(randomEmbedding(random, 16))
+                .maxResults(20)
+                .minScore(0.6)
+                .build();
+        List<EmbeddingMatch<TextSegment>> expected = defaultStore.search(request).matches();
+        List<EmbeddingMatch<TextSegment>> actual = contiguousStore.search(request).matches();
+
+        // then
+        assertThat(actual).isNotEmpty().isEqualTo(expected);
+    }
+
+    @Test
+    void should_keep_vectors_only_in_slab() {
+
+        // given
+        Random random = new Random(42);
+        InMemoryEmbeddingStore<TextSegment> defaultStore = new InMemoryEmbeddingStore<>();
+        InMemoryEmbeddingStore<TextSegment> contiguousStore = InMemoryEmbeddingStore.<TextSegment>builder()
+                .contiguousStorage(true)
+                .build();
+        Map<String, Embedding> embeddings = new HashMap<>();
+        for (int i = 0; i < 3_000; i++) {
+            Embedding embedding = randomEmbedding(random, 16);
+            embeddings.put(String.valueOf(i), embedding);
+            defaultStore.add(String.valueOf(i), embedding);
+            contiguousStore.add(String.valueOf(i), embedding);
+        }
+        assertThat(contiguousStore.entries).allSatisfy(entry -> assertThat(entry.embedding).isNull());
+        List<InMemoryEmbeddingStore.Entry<TextSegment>> entries = new ArrayList<>(contiguousStore.entries);
+
+        // when removing enough entries, one batch at a time, for the tombstones to be compacted away
+        for (int batch = 0; batch < 3; batch++) {
+            List<String> removed = new ArrayList<>();
+            for (int i = batch; i < 3_000; i += 4) {
+                removed.add(String.valueOf(i));
+            }
+            defaultStore.removeAll(removed);
+            contiguousStore.removeAll(removed);
+        }
+
+        // then
+        for (InMemoryEmbeddingStore.Entry<TextSegment> entry : entries) {
+            assertThat(entry.embedding()).isEqualTo(embeddings.get(entry.id));
+        }
+        EmbeddingSearchRequest request = EmbeddingSearchRequest.builder()
+                .queryEmbedding(randomEmbedding(random, 16))
+                .maxResults(20)
+                .build();
+        assertThat(contiguousStore.search(request).matches())
+                .hasSize(20)
+                .isEqualTo(defaultStore.search(request).matches());
+        assertThat(InMemoryEmbeddingStore.fromJson(contiguousStore.serializeToJson()).search(request).matches())
+                .isEqualTo(defaultStore.search(request).matches());
+    }
+
+    @Test
+    void should_reject_hnsw_config() {
+
+        assertThatThrownBy(() -> InMemoryEmbeddingStore.<TextSegment>builder()
+                .contiguousStorage(true)
+                .hnswConfig(HnswConfig.builder().build())
+                .build())
+                .isExactlyInstanceOf(IllegalArgumentException.class)
+                .hasMessage("hnswConfig and contiguousStorage cannot be used together");
+    }
+
+    @Test
+    void should_reject_embedding_of_different_dimension() {
+
+        InMemoryEmbeddingStore<TextSegment> store = InMemoryEmbeddingStore.<TextSegment>builder()
+                .contiguousStorage(true)
+                .build();
+        store.add(Embedding.from(new float[] {1, 2, 3}));
+
+        assertThatThrownBy(() -> store.add(Embedding.from(new float[] {1, 2})))
+                .isExactlyInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Embedding dimension (2) must be equal to the dimension of the store (3)");
+        assertThat(store.entries).hasSize(1);
+    }
+
+    private static Embedding randomEmbedding(Random random, int dimension) {
+        float[] vector = new float[dimension];
+        for (int i = 0; i < dimension; i++) {
+            vector[i] = (float) random.nextGaussian();
+        }
+        return Embedding.from(vector);
+    }
+
+    @Override
+    protected EmbeddingStore<TextSegment> embeddingStore() {
+        return embeddingStore;
+    }
+
+    @Override
+    protected EmbeddingModel embeddingModel() {
+        return embeddingModel;
+    }
+
+    @Override
+    protected boolean supportsContains() {
+        return true;
+    }
+}
@@ -0,0 +1,208 @@
+package dev.langchain4j.store.embedding.inmemory;
+
+import dev.langchain4j.data.document.Metadata;
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.embedding.EmbeddingModel;
+import dev.langchain4j.model.embedding.onnx.allminilml6v2q.AllMiniLmL6V2QuantizedEmbeddingModel;
+import dev.langchain4j.store.embedding.EmbeddingMatch;
+import dev.langchain4j.store.embedding.EmbeddingSearchRequest;
+import dev.langchain4j.store.embedding.EmbeddingStore;
+import dev.langchain4j.store.embedding.EmbeddingStoreWithFilteringIT;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static dev.langchain4j.store.embedding.inmemory.EvictionCause.EXPIRED;
+import static dev.langchain4j.store.embedding.inmemory.EvictionCause.MAX_BYTES;
+import static dev.langchain4j.store.embedding.inmemory.EvictionCause.MAX_ENTRIES;
+import static java.util.stream.Collectors.toList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class InMemoryEmbeddingStoreEvictionTest extends EmbeddingStoreWithFilteringIT {
+
+    // limits that are never reached by the common tests
+    EmbeddingStore<TextSegment> embeddingStore = InMemoryEmbeddingStore.<TextSegment>builder()
+            .eviction(EvictionConfig.builder()
+                    .maxEntries(10_000)
+                    .maxBytes(100L * 1024 * 1024)
+                    .timeToLive(Duration.ofHours(1))
+                    .build())
+            .build();
+
+    EmbeddingModel embeddingModel = new AllMiniLmL6V2QuantizedEmbeddingModel();
+
+    MutableClock clock = new MutableClock();
+
+    List<String> evictions = new ArrayList<>();
+
+    @Test
+    void should_evict_least_recently_used_entries_beyond_max_entries() {
+
+        // given
+        InMemoryEmbeddingStore<TextSegment> store = store(EvictionConfig.builder().maxEntries(3));
+        store.add("1", Embedding.from(new float[]{1, 0}));
+        store.add("2", Embedding.from(new float[]{0, 1}));
+        store.add("3", Embedding.from(new float[]{-1, 0}));
+        assertThat(ids(search(store, new float[]{1, 0.1f}))).containsExactly("1");
+
+        // when
+        store.add("4", Embedding.from(new float[]{0, -1}));
+
+        // then
+        assertThat(evictions).containsExactly("2 MAX_ENTRIES");
+        assertThat(store.entries.stream().map(entry -> entry.id).collect(toList())).containsExactly("1", "3", "4");
+        assertThat(store.evictionStats().evictionCount(MAX_ENTRIES)).isEqualTo(1);
+        assertThat(store.evictionStats().evictionCount()).isEqualTo(1);
+    }
+
+    @Test
+    void should_evict_least_recently_used_entries_beyond_max_bytes() {
+
+        // given
+        InMemoryEmbeddingStore.Entry<TextSegment> entry = new InMemoryEmbeddingStore.Entry<>(
+                "1", Embedding.from(new float[]{1, 0}), TextSegment.from("one", Metadata.from("key", "value")));
+        long entryBytes = EntryEviction.estimatedBytes(entry);
+        InMemoryEmbeddingStore<TextSegment> store = store(EvictionConfig.builder().maxBytes(entryBytes * 5 / 2));
+
+        // when
+        store.add("1", Embedding.from(new float[]{1, 0}), TextSegment.from("one", Metadata.from("key", "value")));
+        store.add("2", Embedding.from(new float[]{0, 1}), TextSegment.from("two", Metadata.from("key", "value")));
+        store.add("3", Embedding.from(new float[]{1, 1}), TextSegment.from("six", Metadata.from("key", "value")));
+
+        // then
+        assertThat(evictions).containsExactly("1 MAX_BYTES");
+        assertThat(store.evictionStats().estimatedBytes()).isEqualTo(2 * entryBytes);
+        assertThat(store.evictionStats().evictionCount(MAX_BYTES)).isEqualTo(1);
+    }
+
+    @Test
+    void should_evict_expired_entries() {
+
+        // given
+        InMemoryEmbeddingStore<TextSegment> store = store(EvictionConfig.builder().timeToLive(Duration.ofSeconds(10)));
+        store.add("1", Embedding.from(new float[]{1, 0}));
+        clock.advance(Duration.ofSeconds(5));
+        store.add("2", Embedding.from(new float[]{1, 1}));
+        clock.advance(Duration.ofSeconds(6));
+
+        // when
+        List<EmbeddingMatch<TextSegment>> matches = search(store, new float[]{1, 0});
+
+        // then
+        assertThat(ids(matches)).containsExactly("2");
+        assertThat(evictions).containsExactly("1 EXPIRED");
+
+        // when
+        clock.advance(Duration.ofSeconds(10));
+        store.evictExpired();
+
+        // then
+        assertThat(store.entries).isEmpty();
+        assertThat(evictions).containsExactly("1 EXPIRED", "2 EXPIRED");
+        assertThat(store.evictionStats().evictionCount(EXPIRED)).isEqualTo(2);
+        assertThat(store.evictionStats().estimatedBytes()).isZero();
+    }
+
+    @Test
+    void should_not_evict_entries_that_were_removed() {
+
+        // given
+        InMemoryEmbeddingStore<TextSegment> store = store(EvictionConfig.builder()
+                .maxEntries(2)
+                .timeToLive(Duration.ofSeconds(10)));
+        store.add("1", Embedding.from(new float[]{1, 0}));
+        store.add("2", Embedding.from(new float[]{0, 1}));
+        store.removeAll(List.of("1"));
+
+        // when
+        store.add("3", Embedding.from(new float[]{1, 1}));
+        store.removeAll();
+        store.add("4", Embedding.from(new float[]{1, 1}));
+        clock.advance(Duration.ofSeconds(10));
+        store.evictExpired();
+
+        // then
+        assertThat(evictions).containsExactly("4 EXPIRED");
+        assertThat(store.entries).isEmpty();
+    }
+
+    @Test
+    void should_validate_config() {
+
+        assertThatThrownBy(() -> EvictionConfig.builder().build())
+                .isExactlyInstanceOf(IllegalArgumentException.class)
+                .hasMessage("At least one of maxEntries, maxBytes and timeToLive must be set");
+
+        assertThatThrownBy(() -> InMemoryEmbeddingStore.builder()
+                .evictionListener((id, embedding, embedded, cause) -> {
+                })
+                .build())
+                .isExactlyInstanceOf(IllegalArgumentException.class)
+                .hasMessage("evictionListener cannot be used without eviction");
+    }
+
+    private InMemoryEmbeddingStore<TextSegment> store(EvictionConfig.Builder config) {
+        return InMemoryEmbeddingStore.<TextSegment>builder()
+                .eviction(config.clock(clock).build())
+                .evictionListener((id, embedding, embedded, cause) -> evictions.add(id + " " + cause))
+                .build();
+    }
+
+    private static List<EmbeddingMatch<TextSegment>> search(InMemoryEmbeddingStore<TextSegment> store, float[] vector) {
+        return store.search(EmbeddingSearchRequest.builder()
+                .queryEmbedding(Embedding.from(vector))
+                .maxResults(1)
+                .build()).matches();
+    }
+
+    private static List<String> ids(List<EmbeddingMatch<TextSegment>> matches) {
+        return matches.stream().map(EmbeddingMatch::embeddingId).collect(toList());
+    }
+
+    @Override
+    protected EmbeddingStore<TextSegment> embeddingStore() {
+        return embeddingStore;
+    }
+
+    @Override
+    protected EmbeddingModel embeddingModel() {
+        return embeddingModel;
+    }
+
+    @Override
+    protected boolean supportsContains() {
+        return true;
+    }
+
+    private static class MutableClock extends Clock {
+
+        private Instant instant = Instant.parse("2024-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package dev.langchain4j.store.embedding.inmemory;
+
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.embedding.EmbeddingModel;
+import dev.langchain4j.model.embedding.onnx.allminilml6v2q.AllMiniLmL6V2QuantizedEmbeddingModel;
+import dev.langchain4j.store.embedding.EmbeddingMatch;
+import dev.langchain4j.store.embedding.EmbeddingSearchRequest;
+import dev.langchain4j.store.embedding.EmbeddingStore;
+import dev.langchain4j.store.embedding.EmbeddingStoreWithFilteringIT;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static java.util.stream.Collectors.toSet;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InMemoryEmbeddingStoreHnswTest extends EmbeddingStoreWithFilteringIT {
+
+    EmbeddingStore<TextSegment> embeddingStore = InMemoryEmbeddingStore.<TextSegment>builder()
+            .hnswConfig(HnswConfig.builder().build())
+            .build();
+
+    EmbeddingModel embeddingModel = new AllMiniLmL6V2QuantizedEmbeddingModel();
+
+    @Test
+    void should_find_approximately_same_matches_as_brute_force() {
+
+        // given
+        Random random = new Random(42);
+        InMemoryEmbeddingStore<TextSegment> bruteForce = new InMemoryEmbeddingStore<>();
+        InMemoryEmbeddingStore<TextSegment> hnsw = InMemoryEmbeddingStore.<TextSegment>builder()
+                .hnswConfig(HnswConfig.builder().m(16).efConstruction(100).efSearch(64).build())
+                .build();
+        for (int i = 0; i < 2_000; i++) {
+            Embedding embedding = randomEmbedding(random, 32);
+            bruteForce.add(String.valueOf(i), embedding);
+            hnsw.add(String.valueOf(i), embedding);
+        }
+
+        // when
+        int found = 0;
+        int expected = 0;
+        for (int i = 0; i < 50; i++) {
+            EmbeddingSearchRequest request = EmbeddingSearchRequest.builder()
+                    .queryEmbedding(randomEmbedding(random, 32))
+                    .maxResults(10)
+                    .build();
+            Set<String> exactIds = ids(bruteForce.search(request).matches());
+            Set<String> approximateIds = ids(hnsw.search(request).matches());
+            approximateIds.retainAll(exactIds);
+            found += approximateIds.size();
+            expected += exactIds.size();
+        }
+
+        // then
+        assertThat((double) found / expected).isGreaterThan(0.9);
+    }
+
+    @Test
+    void should_not_return_removed_embeddings() {
+
+        // given
+        Random random = new Random(42);
+        InMemoryEmbeddingStore<TextSegment> store = InMemoryEmbeddingStore.<TextSegment>builder()
+                .hnswConfig(HnswConfig.builder().build())
+                .build();
+        List<String> removed = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            store.add(String.valueOf(i), randomEmbedding(random, 16));
+            if (i % 3 == 0) {
+                removed.add(String.valueOf(i));
+            }
+        }
+
+        // when
+        store.removeAll(removed);
+
+        // then
+        EmbeddingSearchRequest request = EmbeddingSearchRequest.builder()
+                .queryEmbedding(randomEmbedding(random, 16))
+                .maxResults(100)
+                .build();
+        List<EmbeddingMatch<TextSegment>> matches = store.search(request).matches();
+        assertThat(matches).hasSize(100);
+        assertThat(ids(matches)).doesNotContainAnyElementsOf(removed);
+    }
+
+    @Test
+    void should_keep_hnsw_config_after_serialization() {
+
+        // given
+        HnswConfig hnswConfig = HnswConfig.builder().m(8).efConstruction(50).efSearch(20).build();
+        InMemoryEmbeddingStore<TextSegment> store = InMemoryEmbeddingStore.<TextSegment>builder()
+                .hnswConfig(hnswConfig)
+                .build();
+        Embedding embedding = embeddingModel.embed("hello").content();
+        store.add("1", embedding, TextSegment.from("hello"));
+
+        // when
+        InMemoryEmbeddingStore<TextSegment> deserialized = InMemoryEmbeddingStore.fromJson(store.serializeToJson());
+
+        // then
+        assertThat(deserialized.serializeToJson()).contains("\"efSearch\":20");
+        List<EmbeddingMatch<TextSegment>> matches = deserialized.search(EmbeddingSearchRequest.builder()
+                .queryEmbedding(embedding)
+                .build()).matches();
+        assertThat(matches).hasSize(1);
+        assertThat(matches.get(0).embeddingId()).isEqualTo("1");
+    }
+
+    @Test
+    void should_not_serialize_hnsw_config_when_not_set() {
+
+        InMemoryEmbeddingStore<TextSegment> store = new InMemoryEmbeddingStore<>();
+
+        assertThat(store.serializeToJson()).doesNotContain("hnswConfig");
+    }
+
+    private static Embedding randomEmbedding(Random random, int dimension) {
+        float[] vector = new float[dimension];
+        for (int i = 0; i < dimension; i++) {
+            vector[i] = (float) random.nextGaussian();
+        }
+        return Embedding.from(vector);
+    }
+
+    private static Set<String> ids(List<EmbeddingMatch<TextSegment>> matches) {
+        return new HashSet<>(matches.stream().map(EmbeddingMatch::embeddingId).collect(toSet()));
+    }
+
+    @Override
+    protected EmbeddingStore<TextSegment> embeddingStore() {
+        return embeddingStore;
+    }
+
+    @Override
+    protected EmbeddingModel embeddingModel() {
+        return embeddingModel;
+    }
+
+    @Override
+    protected boolean supportsContains() {
+        return true;
+    }
+}
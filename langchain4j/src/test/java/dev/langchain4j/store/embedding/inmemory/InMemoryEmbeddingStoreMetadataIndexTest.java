@@ -0,0 +1,160 @@
+package dev.langchain4j.store.embedding.inmemory;
+
+import dev.langchain4j.data.document.Metadata;
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.embedding.EmbeddingModel;
+import dev.langchain4j.model.embedding.onnx.allminilml6v2q.AllMiniLmL6V2QuantizedEmbeddingModel;
+import dev.langchain4j.store.embedding.EmbeddingMatch;
+import dev.langchain4j.store.embedding.EmbeddingSearchRequest;
+import dev.langchain4j.store.embedding.EmbeddingStore;
+import dev.langchain4j.store.embedding.EmbeddingStoreWithFilteringIT;
+import dev.langchain4j.store.embedding.filter.Filter;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+import static dev.langchain4j.store.embedding.filter.MetadataFilterBuilder.metadataKey;
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+class InMemoryEmbeddingStoreMetadataIndexTest extends EmbeddingStoreWithFilteringIT {
+
+    EmbeddingStore<TextSegment> embeddingStore = InMemoryEmbeddingStore.<TextSegment>builder()
+            .indexedMetadataKeys("key", "name", "age")
+            .build();
+
+    EmbeddingModel embeddingModel = new AllMiniLmL6V2QuantizedEmbeddingModel();
+
+    @Test
+    void should_find_same_matches_as_full_scan() {
+
+        // given
+        Random random = new Random(42);
+        UUID tenant = UUID.randomUUID();
+        InMemoryEmbeddingStore<TextSegment> fullScan = new InMemoryEmbeddingStore<>();
+        InMemoryEmbeddingStore<TextSegment> indexed = InMemoryEmbeddingStore.<TextSegment>builder()
+                .indexedMetadataKeys("tenant", "number", "name")
+                .build();
+        List<String> removed = new ArrayList<>();
+        for (int i = 0; i < 3_000; i++) {
+            Embedding embedding = randomEmbedding(random, 16);
+            Metadata metadata = new Metadata()
+                    .put("tenant", i % 3 == 0 ? tenant : UUID.randomUUID())
+                    .put("name", "name" + (i % 7));
+            if (i % 4 == 0) {
+                metadata.put("number", (double) (i % 10));
+            } else {
+                metadata.put("number", i % 10);
+            }
+            TextSegment segment = TextSegment.from("text " + i, metadata);
+            fullScan.add(String.valueOf(i), embedding, i % 50 == 0 ? null : segment);
+            indexed.add(String.valueOf(i), embedding, i % 50 == 0 ? null : segment);
+            if (i % 3 == 1) {
+                removed.add(String.valueOf(i));
+            }
+        }
+        fullScan.removeAll(removed);
+        indexed.removeAll(removed);
+
+        List<Filter> filters = asList(
+                metadataKey("tenant").isEqualTo(tenant),
+                metadataKey("number").isEqualTo(3),
+                metadataKey("number").isEqualTo(4.0),
+                metadataKey("number").isIn(1, 2L),
+                metadataKey("number").isIn(1.0, 2.5),
+                metadataKey("number").isGreaterThan(7),
+                metadataKey("number").isLessThanOrEqualTo(2.0f),
+                metadataKey("name").isGreaterThanOrEqualTo("name5"),
+                metadataKey("name").isIn("name1", "name6"),
+                metadataKey("name").isNotIn("name1", "name6"),
+                metadataKey("tenant").isEqualTo(tenant).and(metadataKey("number").isLessThan(5)),
+                metadataKey("name").isEqualTo("name2").or(metadataKey("number").isEqualTo(9)),
+                Filter.not(metadataKey("name").isEqualTo("name2")),
+                Filter.not(metadataKey("name").isEqualTo("name2").and(metadataKey("unindexed").isEqualTo("x"))),
+                metadataKey("name").isEqualTo("name2").and(metadataKey("unindexed").isEqualTo("x").or(metadataKey("number").isGreaterThan(1)))
+        );
+
+        for (Filter filter : filters) {
+            EmbeddingSearchRequest request = EmbeddingSearchRequest.builder()
+                    .queryEmbedding(randomEmbedding(random, 16))
+                    .maxResults(10)
+                    .filter(filter)
+                    .build();
+
+            // when
+            List<EmbeddingMatch<TextSegment>> expected = fullScan.search(request).matches();
+            List<EmbeddingMatch<TextSegment>> actual = indexed.search(request).matches();
+
+            // then
+            assertThat(actual).as(filter.toString()).containsExactlyElementsOf(expected);
+        }
+    }
+
+    @Test
+    void should_fail_like_full_scan_when_comparing_mismatched_types() {
+
+        // given
+        Random random = new Random(42);
+        InMemoryEmbeddingStore<TextSegment> fullScan = new InMemoryEmbeddingStore<>();
+        InMemoryEmbeddingStore<TextSegment> indexed = InMemoryEmbeddingStore.<TextSegment>builder()
+                .indexedMetadataKeys("key")
+                .build();
+        List<Object> values = asList("a", 1, UUID.randomUUID());
+        for (int i = 0; i < values.size(); i++) {
+            Embedding embedding = randomEmbedding(random, 4);
+            TextSegment segment = TextSegment.from("text " + i, Metadata.from(Map.of("key", values.get(i))));
+            fullScan.add(embedding, segment);
+            indexed.add(embedding, segment);
+        }
+
+        for (Filter filter : asList(
+                metadataKey("key").isEqualTo(1),
+                metadataKey("key").isGreaterThan("a"),
+                metadataKey("key").isIn(1, 2),
+                Filter.not(metadataKey("key").isEqualTo(UUID.randomUUID())))) {
+            EmbeddingSearchRequest request = EmbeddingSearchRequest.builder()
+                    .queryEmbedding(randomEmbedding(random, 4))
+                    .filter(filter)
+                    .build();
+
+            // when
+            Throwable expected = catchThrowable(() -> fullScan.search(request));
+            Throwable actual = catchThrowable(() -> indexed.search(request));
+
+            // then
+            assertThat(expected).as(filter.toString()).isInstanceOf(IllegalArgumentException.class);
+            assertThat(actual).as(filter.toString())
+                    .isExactlyInstanceOf(expected.getClass())
+                    .hasMessage(expected.getMessage());
+        }
+    }
+
+    private static Embedding randomEmbedding(Random random, int dimension) {
+        float[] vector = new float[dimension];
+        for (int i = 0; i < dimension; i++) {
+            vector[i] = (float) random.nextGaussian();
+        }
+        return Embedding.from(vector);
+    }
+
+    @Override
+    protected EmbeddingStore<TextSegment> embeddingStore() {
+        return embeddingStore;
+    }
+
+    @Override
+    protected EmbeddingModel embeddingModel() {
+        return embeddingModel;
+    }
+
+    @Override
+    protected boolean supportsContains() {
+        return true;
+    }
+}
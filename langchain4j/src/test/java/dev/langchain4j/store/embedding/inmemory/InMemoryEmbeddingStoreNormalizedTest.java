@@ -0,0 +1,97 @@
+package dev.langchain4j.store.embedding.inmemory;
+
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.embedding.EmbeddingModel;
+import dev.langchain4j.model.embedding.onnx.allminilml6v2q.AllMiniLmL6V2QuantizedEmbeddingModel;
+import dev.langchain4j.store.embedding.EmbeddingMatch;
+import dev.langchain4j.store.embedding.EmbeddingSearchRequest;
+import dev.langchain4j.store.embedding.EmbeddingStore;
+import dev.langchain4j.store.embedding.EmbeddingStoreWithFilteringIT;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.data.Offset.offset;
+
+class InMemoryEmbeddingStoreNormalizedTest extends EmbeddingStoreWithFilteringIT {
+
+    EmbeddingStore<TextSegment> embeddingStore = InMemoryEmbeddingStore.<TextSegment>builder()
+            .normalizeEmbeddings(true)
+            .build();
+
+    EmbeddingModel embeddingModel = new AllMiniLmL6V2QuantizedEmbeddingModel();
+
+    @Test
+    void should_rank_and_score_like_default_store() {
+
+        // given
+        Random random = new Random(42);
+        InMemoryEmbeddingStore<TextSegment> defaultStore = new InMemoryEmbeddingStore<>();
+        InMemoryEmbeddingStore<TextSegment> normalizedStore = InMemoryEmbeddingStore.<TextSegment>builder()
+                .normalizeEmbeddings(true)
+                .build();
+        for (int i = 0; i < 1_000; i++) {
+            Embedding embedding = randomEmbedding(random, 16);
+            defaultStore.add(String.valueOf(i), embedding);
+            normalizedStore.add(String.valueOf(i), embedding);
+        }
+
+        // when
+        EmbeddingSearchRequest request = EmbeddingSearchRequest.builder()
+                .queryEmbedding(randomEmbedding(random, 16))
+                .maxResults(20)
+                .build();
+        List<EmbeddingMatch<TextSegment>> expected = defaultStore.search(request).matches();
+        List<EmbeddingMatch<TextSegment>> actual = normalizedStore.search(request).matches();
+
+        // then
+        assertThat(actual).extracting(EmbeddingMatch::embeddingId)
+                .containsExactlyElementsOf(expected.stream().map(EmbeddingMatch::embeddingId).toList());
+        for (int i = 0; i < expected.size(); i++) {
+            assertThat(actual.get(i).score()).isCloseTo(expected.get(i).score(), offset(1e-6));
+        }
+    }
+
+    @Test
+    void should_store_unit_vectors_without_modifying_added_embedding() {
+
+        // given
+        InMemoryEmbeddingStore<TextSegment> store = InMemoryEmbeddingStore.<TextSegment>builder()
+                .normalizeEmbeddings(true)
+                .build();
+        Embedding embedding = Embedding.from(new float[] {3, 4});
+
+        // when
+        store.add(embedding);
+
+        // then
+        assertThat(embedding.vector()).containsExactly(3, 4);
+        assertThat(store.entries.iterator().next().embedding.vector()).containsExactly(0.6f, 0.8f);
+    }
+
+    private static Embedding randomEmbedding(Random random, int dimension) {
+        float[] vector = new float[dimension];
+        for (int i = 0; i < dimension; i++) {
+            vector[i] = (float) random.nextGaussian();
+        }
+        return Embedding.from(vector);
+    }
+
+    @Override
+    protected EmbeddingStore<TextSegment> embeddingStore() {
+        return embeddingStore;
+    }
+
+    @Override
+    protected EmbeddingModel embeddingModel() {
+        return embeddingModel;
+    }
+
+    @Override
+    protected boolean supportsContains() {
+        return true;
+    }
+}
@@ -0,0 +1,124 @@
+package dev.langchain4j.store.embedding.inmemory;
+
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.embedding.EmbeddingModel;
+import dev.langchain4j.model.embedding.onnx.allminilml6v2q.AllMiniLmL6V2QuantizedEmbeddingModel;
+import dev.langchain4j.store.embedding.EmbeddingMatch;
+import dev.langchain4j.store.embedding.EmbeddingSearchRequest;
+import dev.langchain4j.store.embedding.EmbeddingStore;
+import dev.langchain4j.store.embedding.EmbeddingStoreWithFilteringIT;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+
+import static dev.langchain4j.store.embedding.filter.MetadataFilterBuilder.metadataKey;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class InMemoryEmbeddingStoreParallelSearchTest extends EmbeddingStoreWithFilteringIT {
+
+    static ExecutorService executor = Executors.newFixedThreadPool(3);
+
+    // a threshold of 1 makes every search of the shared test suite run in parallel
+    EmbeddingStore<TextSegment> embeddingStore = InMemoryEmbeddingStore.<TextSegment>builder()
+            .searchExecutor(ForkJoinPool.commonPool())
+            .parallelSearchThreshold(1)
+            .build();
+
+    EmbeddingModel embeddingModel = new AllMiniLmL6V2QuantizedEmbeddingModel();
+
+    @AfterAll
+    static void shutdownExecutor() {
+        executor.shutdown();
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void should_find_same_matches_as_sequential_search(boolean contiguousStorage) {
+
+        // given
+        Random random = new Random(42);
+        InMemoryEmbeddingStore<TextSegment> sequential = InMemoryEmbeddingStore.<TextSegment>builder()
+                .contiguousStorage(contiguousStorage)
+                .build();
+        InMemoryEmbeddingStore<TextSegment> parallel = InMemoryEmbeddingStore.<TextSegment>builder()
+                .contiguousStorage(contiguousStorage)
+                .searchExecutor(executor)
+                .parallelSearchThreshold(100)
+                .build();
+        for (int i = 0; i < 1_000; i++) {
+            Embedding embedding = randomEmbedding(random, 32);
+            TextSegment segment = TextSegment.from("text " + i);
+            segment.metadata().put("even", i % 2 == 0 ? "yes" : "no");
+            sequential.add(String.valueOf(i), embedding, segment);
+            parallel.add(String.valueOf(i), embedding, segment);
+        }
+
+        for (int i = 0; i < 10; i++) {
+            EmbeddingSearchRequest request = EmbeddingSearchRequest.builder()
+                    .queryEmbedding(randomEmbedding(random, 32))
+                    .maxResults(7)
+                    .minScore(0.55)
+                    .filter(i % 2 == 0 ? null : metadataKey("even").isEqualTo("yes"))
+                    .build();
+
+            // when
+            List<EmbeddingMatch<TextSegment>> expected = sequential.search(request).matches();
+            List<EmbeddingMatch<TextSegment>> actual = parallel.search(request).matches();
+
+            // then
+            assertThat(actual).isNotEmpty();
+            assertThat(actual).containsExactlyElementsOf(expected);
+        }
+    }
+
+    @Test
+    void should_propagate_failures_of_chunks() {
+
+        // given
+        InMemoryEmbeddingStore<TextSegment> store = InMemoryEmbeddingStore.<TextSegment>builder()
+                .searchExecutor(executor)
+                .parallelSearchThreshold(1)
+                .build();
+        store.add(Embedding.from(new float[]{1, 2, 3}));
+        store.add(Embedding.from(new float[]{3, 2, 1}));
+
+        // when-then
+        assertThatThrownBy(() -> store.search(EmbeddingSearchRequest.builder()
+                .queryEmbedding(Embedding.from(new float[]{1, 2}))
+                .build()))
+                .isExactlyInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Length of vector a (3) must be equal to the length of vector b (2)");
+    }
+
+    private static Embedding randomEmbedding(Random random, int dimension) {
+        float[] vector = new float[dimension];
+        for (int i = 0; i < dimension; i++) {
+            vector[i] = (float) random.nextGaussian();
+        }
+        return Embedding.from(vector);
+    }
+
+    @Override
+    protected EmbeddingStore<TextSegment> embeddingStore() {
+        return embeddingStore;
+    }
+
+    @Override
+    protected EmbeddingModel embeddingModel() {
+        return embeddingModel;
+    }
+
+    @Override
+    protected boolean supportsContains() {
+        return true;
+    }
+}
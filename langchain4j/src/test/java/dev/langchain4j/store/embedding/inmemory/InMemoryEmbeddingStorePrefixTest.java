@@ -0,0 +1,148 @@
+package dev.langchain4j.store.embedding.inmemory;
+
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.embedding.HalfPrecisionEmbedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.embedding.EmbeddingModel;
+import dev.langchain4j.model.embedding.onnx.allminilml6v2q.AllMiniLmL6V2QuantizedEmbeddingModel;
+import dev.langchain4j.store.embedding.EmbeddingMatch;
+import dev.langchain4j.store.embedding.EmbeddingSearchRequest;
+import dev.langchain4j.store.embedding.EmbeddingStore;
+import dev.langchain4j.store.embedding.EmbeddingStoreWithFilteringIT;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static java.util.stream.Collectors.toSet;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class InMemoryEmbeddingStorePrefixTest extends EmbeddingStoreWithFilteringIT {
+
+    EmbeddingStore<TextSegment> embeddingStore = InMemoryEmbeddingStore.<TextSegment>builder()
+            .prefixDimension(128)
+            .build();
+
+    EmbeddingModel embeddingModel = new AllMiniLmL6V2QuantizedEmbeddingModel();
+
+    @Test
+    void should_find_approximately_same_matches_as_full_vectors() {
+
+        // given
+        Random random = new Random(42);
+        InMemoryEmbeddingStore<TextSegment> full = new InMemoryEmbeddingStore<>();
+        InMemoryEmbeddingStore<TextSegment> truncated = InMemoryEmbeddingStore.<TextSegment>builder()
+                .prefixDimension(64)
+                .oversampling(8)
+                .build();
+        List<String> removed = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            Embedding embedding = matryoshkaEmbedding(random);
+            full.add(String.valueOf(i), embedding);
+            truncated.add(String.valueOf(i), embedding);
+            if (i % 5 == 0) {
+                removed.add(String.valueOf(i));
+            }
+        }
+        full.removeAll(removed);
+        truncated.removeAll(removed);
+
+        // when
+        int found = 0;
+        int expected = 0;
+        for (int i = 0; i < 20; i++) {
+            EmbeddingSearchRequest request = EmbeddingSearchRequest.builder()
+                    .queryEmbedding(matryoshkaEmbedding(random))
+                    .maxResults(10)
+                    .build();
+            List<EmbeddingMatch<TextSegment>> exactMatches = full.search(request).matches();
+            List<EmbeddingMatch<TextSegment>> approximateMatches = truncated.search(request).matches();
+
+            // scores are always computed with the full vectors
+            EmbeddingMatch<TextSegment> best = approximateMatches.get(0);
+            exactMatches.stream()
+                    .filter(match -> match.embeddingId().equals(best.embeddingId()))
+                    .forEach(match -> assertThat(best.score()).isEqualTo(match.score()));
+
+            Set<String> approximateIds = ids(approximateMatches);
+            approximateIds.retainAll(ids(exactMatches));
+            found += approximateIds.size();
+            expected += exactMatches.size();
+        }
+
+        // then
+        assertThat((double) found / expected).isGreaterThan(0.9);
+    }
+
+    @Test
+    void should_find_same_matches_as_full_vectors_when_prefix_is_longer_than_vectors() {
+
+        // given
+        Random random = new Random(42);
+        InMemoryEmbeddingStore<TextSegment> full = new InMemoryEmbeddingStore<>();
+        InMemoryEmbeddingStore<TextSegment> truncated = InMemoryEmbeddingStore.<TextSegment>builder()
+                .prefixDimension(1024)
+                .oversampling(1)
+                .build();
+        for (int i = 0; i < 200; i++) {
+            Embedding embedding = matryoshkaEmbedding(random);
+            full.add(String.valueOf(i), embedding);
+            truncated.add(String.valueOf(i), HalfPrecisionEmbedding.from(embedding, HalfPrecisionEmbedding.Format.FLOAT16));
+        }
+        EmbeddingSearchRequest request = EmbeddingSearchRequest.builder()
+                .queryEmbedding(matryoshkaEmbedding(random))
+                .maxResults(5)
+                .build();
+
+        // when
+        List<EmbeddingMatch<TextSegment>> exactMatches = full.search(request).matches();
+        List<EmbeddingMatch<TextSegment>> truncatedMatches = truncated.search(request).matches();
+
+        // then
+        assertThat(ids(truncatedMatches)).isEqualTo(ids(exactMatches));
+    }
+
+    @Test
+    void should_not_allow_prefix_with_quantization() {
+
+        assertThatThrownBy(() -> InMemoryEmbeddingStore.builder()
+                .prefixDimension(64)
+                .quantization(Quantization.INT8)
+                .build())
+                .isExactlyInstanceOf(IllegalArgumentException.class)
+                .hasMessage("prefixDimension cannot be used together with hnswConfig, quantization or contiguousStorage");
+    }
+
+    /**
+     * Like embeddings of a Matryoshka model, the first components carry most of the variance.
+     */
+    private static Embedding matryoshkaEmbedding(Random random) {
+        float[] vector = new float[256];
+        for (int i = 0; i < vector.length; i++) {
+            vector[i] = (float) (random.nextGaussian() / (1 + i / 16.0));
+        }
+        return Embedding.from(vector);
+    }
+
+    private static Set<String> ids(List<EmbeddingMatch<TextSegment>> matches) {
+        return matches.stream().map(EmbeddingMatch::embeddingId).collect(toSet());
+    }
+
+    @Override
+    protected EmbeddingStore<TextSegment> embeddingStore() {
+        return embeddingStore;
+    }
+
+    @Override
+    protected EmbeddingModel embeddingModel() {
+        return embeddingModel;
+    }
+
+    @Override
+    protected boolean supportsContains() {
+        return true;
+    }
+}
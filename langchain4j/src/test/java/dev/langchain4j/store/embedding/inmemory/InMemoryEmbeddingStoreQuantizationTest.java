@@ -0,0 +1,224 @@
+package dev.langchain4j.store.embedding.inmemory;
+
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.embedding.EmbeddingModel;
+import dev.langchain4j.model.embedding.onnx.allminilml6v2q.AllMiniLmL6V2QuantizedEmbeddingModel;
+import dev.langchain4j.store.embedding.EmbeddingMatch;
+import dev.langchain4j.store.embedding.EmbeddingSearchRequest;
+import dev.langchain4j.store.embedding.EmbeddingStore;
+import dev.langchain4j.store.embedding.EmbeddingStoreWithFilteringIT;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static java.util.stream.Collectors.toSet;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class InMemoryEmbeddingStoreQuantizationTest extends EmbeddingStoreWithFilteringIT {
+
+    @TempDir
+    Path tempDir;
+
+    // created lazily, as the temporary directory is not injected yet when the fields are initialized
+    InMemoryEmbeddingStore<TextSegment> embeddingStore;
+
+    EmbeddingModel embeddingModel = new AllMiniLmL6V2QuantizedEmbeddingModel();
+
+    @AfterEach
+    void closeStore() {
+        if (embeddingStore != null) {
+            embeddingStore.close();
+        }
+    }
+
+    static Stream<Arguments> quantizations() {
+        return Stream.of(
+                Arguments.of(Quantization.INT8, true),
+                Arguments.of(Quantization.INT8, false),
+                Arguments.of(Quantization.BINARY, true),
+                Arguments.of(Quantization.BINARY, false)
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource("quantizations")
+    void should_find_approximately_same_matches_as_full_precision(Quantization quantization, boolean withRescoringFile) {
+
+        // given
+        Random random = new Random(42);
+        InMemoryEmbeddingStore<TextSegment> fullPrecision = new InMemoryEmbeddingStore<>();
+        InMemoryEmbeddingStore<TextSegment> quantized = InMemoryEmbeddingStore.<TextSegment>builder()
+                .quantization(quantization)
+                .rescoringFile(withRescoringFile ? tempDir.resolve("vectors") : null)
+                // sign bits of random gaussian vectors are a much weaker signal than those of real embeddings
+                .oversampling(quantization == Quantization.BINARY ? 40 : null)
+                .build();
+        List<String> removed = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            Embedding embedding = randomEmbedding(random, 128);
+            fullPrecision.add(String.valueOf(i), embedding);
+            quantized.add(String.valueOf(i), embedding);
+            if (i % 5 == 0) {
+                removed.add(String.valueOf(i));
+            }
+        }
+        fullPrecision.removeAll(removed);
+        quantized.removeAll(removed);
+
+        // when
+        int found = 0;
+        int expected = 0;
+        for (int i = 0; i < 20; i++) {
+            EmbeddingSearchRequest request = EmbeddingSearchRequest.builder()
+                    .queryEmbedding(randomEmbedding(random, 128))
+                    .maxResults(10)
+                    .build();
+            List<EmbeddingMatch<TextSegment>> exactMatches = fullPrecision.search(request).matches();
+            List<EmbeddingMatch<TextSegment>> approximateMatches = quantized.search(request).matches();
+
+            if (withRescoringFile) {
+                // scores are computed with full precision
+                EmbeddingMatch<TextSegment> best = approximateMatches.get(0);
+                exactMatches.stream()
+                        .filter(match -> match.embeddingId().equals(best.embeddingId()))
+                        .forEach(match -> assertThat(best.score()).isEqualTo(match.score()));
+            }
+
+            Set<String> approximateIds = ids(approximateMatches);
+            approximateIds.retainAll(ids(exactMatches));
+            found += approximateIds.size();
+            expected += exactMatches.size();
+        }
+
+        // then
+        // without the full-precision vectors, binary candidates are rescored against their sign bits only
+        double minRecall = quantization == Quantization.BINARY && !withRescoringFile ? 0.3 : 0.8;
+        assertThat((double) found / expected).isGreaterThan(minRecall);
+        quantized.close();
+    }
+
+    @ParameterizedTest
+    @EnumSource(Quantization.class)
+    void should_keep_only_codes_in_memory_and_vectors_in_rescoring_file(Quantization quantization) throws Exception {
+
+        // given
+        Path rescoringFile = tempDir.resolve("vectors");
+        InMemoryEmbeddingStore<TextSegment> store = InMemoryEmbeddingStore.<TextSegment>builder()
+                .quantization(quantization)
+                .rescoringFile(rescoringFile)
+                .build();
+        Random random = new Random(42);
+        List<Embedding> embeddings = new ArrayList<>();
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 3_000; i++) {
+            Embedding embedding = randomEmbedding(random, 16);
+            embeddings.add(embedding);
+            ids.add(store.add(embedding));
+        }
+
+        // when
+        // removing more than half of the entries compacts the codes and the file
+        store.removeAll(ids.subList(0, 2_000));
+
+        // then
+        assertThat(store.entries).allSatisfy(entry -> assertThat(entry.embedding).isNull());
+        assertThat(Files.size(rescoringFile)).isEqualTo(1_000L * 16 * Float.BYTES);
+        for (int i = 2_000; i < 3_000; i += 100) {
+            EmbeddingMatch<TextSegment> match = store.search(EmbeddingSearchRequest.builder()
+                    .queryEmbedding(embeddings.get(i))
+                    .maxResults(1)
+                    .build()).matches().get(0);
+            assertThat(match.embeddingId()).isEqualTo(ids.get(i));
+            assertThat(match.embedding()).isEqualTo(embeddings.get(i));
+        }
+
+        // when
+        store.close();
+
+        // then
+        assertThat(rescoringFile).doesNotExist();
+        assertThat(store.search(EmbeddingSearchRequest.builder()
+                .queryEmbedding(embeddings.get(2_500))
+                .maxResults(1)
+                .build()).matches().get(0).embeddingId()).isEqualTo(ids.get(2_500));
+    }
+
+    @Test
+    void should_not_allow_rescoring_file_without_quantization() {
+
+        assertThatThrownBy(() -> InMemoryEmbeddingStore.builder()
+                .rescoringFile(tempDir.resolve("vectors"))
+                .build())
+                .isExactlyInstanceOf(IllegalArgumentException.class)
+                .hasMessage("rescoringFile cannot be used without quantization");
+    }
+
+    @Test
+    void should_not_allow_quantization_with_contiguous_storage() {
+
+        assertThatThrownBy(() -> InMemoryEmbeddingStore.builder()
+                .quantization(Quantization.INT8)
+                .contiguousStorage(true)
+                .build())
+                .isExactlyInstanceOf(IllegalArgumentException.class)
+                .hasMessage("quantization and contiguousStorage cannot be used together");
+    }
+
+    @Test
+    void should_not_allow_quantization_with_hnsw() {
+
+        assertThatThrownBy(() -> InMemoryEmbeddingStore.builder()
+                .quantization(Quantization.BINARY)
+                .hnswConfig(HnswConfig.builder().build())
+                .build())
+                .isExactlyInstanceOf(IllegalArgumentException.class)
+                .hasMessage("hnswConfig and quantization cannot be used together");
+    }
+
+    private static Embedding randomEmbedding(Random random, int dimension) {
+        float[] vector = new float[dimension];
+        for (int i = 0; i < dimension; i++) {
+            vector[i] = (float) random.nextGaussian();
+        }
+        return Embedding.from(vector);
+    }
+
+    private static Set<String> ids(List<EmbeddingMatch<TextSegment>> matches) {
+        return matches.stream().map(EmbeddingMatch::embeddingId).collect(toSet());
+    }
+
+    @Override
+    protected EmbeddingStore<TextSegment> embeddingStore() {
+        if (embeddingStore == null) {
+            embeddingStore = InMemoryEmbeddingStore.<TextSegment>builder()
+                    .quantization(Quantization.INT8)
+                    .rescoringFile(tempDir.resolve("rescoring"))
+                    .build();
+        }
+        return embeddingStore;
+    }
+
+    @Override
+    protected EmbeddingModel embeddingModel() {
+        return embeddingModel;
+    }
+
+    @Override
+    protected boolean supportsContains() {
+        return true;
+    }
+}
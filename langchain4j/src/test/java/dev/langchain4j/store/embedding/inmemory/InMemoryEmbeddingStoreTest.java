@@ -2,23 +2,38 @@ package dev.langchain4j.store.embedding.inmemory;
 
 import dev.langchain4j.data.document.Metadata;
 import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.embedding.HalfPrecisionEmbedding;
 import dev.langchain4j.data.segment.TextSegment;
 import dev.langchain4j.model.embedding.EmbeddingModel;
 import dev.langchain4j.model.embedding.onnx.allminilml6v2q.AllMiniLmL6V2QuantizedEmbeddingModel;
 import dev.langchain4j.store.embedding.EmbeddingMatch;
 import dev.langchain4j.store.embedding.EmbeddingSearchRequest;
+import dev.langchain4j.store.embedding.EmbeddingSearchResult;
 import dev.langchain4j.store.embedding.EmbeddingStore;
 import dev.langchain4j.store.embedding.EmbeddingStoreWithFilteringIT;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
-
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
 
+import static dev.langchain4j.data.embedding.HalfPrecisionEmbedding.Format.FLOAT16;
+import static dev.langchain4j.store.embedding.filter.MetadataFilterBuilder.metadataKey;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.assertj.core.api.Assertions.offset;
 
 class InMemoryEmbeddingStoreTest extends EmbeddingStoreWithFilteringIT {
 
@@ -39,7 +54,7 @@ class InMemoryEmbeddingStoreTest extends EmbeddingStoreWithFilteringIT {
 
         assertThat(deserializedEmbeddingStore.entries)
                 .isEqualTo(originalEmbeddingStore.entries)
-                .isInstanceOf(CopyOnWriteArrayList.class);
+                .isInstanceOf(SegmentedEntries.class);
     }
 
     @Test
@@ -68,7 +83,7 @@ class InMemoryEmbeddingStoreTest extends EmbeddingStoreWithFilteringIT {
             assertThat(deserializedEmbeddingStore.entries)
                     .isEqualTo(originalEmbeddingStore.entries)
                     .hasSameHashCodeAs(originalEmbeddingStore.entries);
-            assertThat(deserializedEmbeddingStore.entries).isInstanceOf(CopyOnWriteArrayList.class);
+            assertThat(deserializedEmbeddingStore.entries).isInstanceOf(SegmentedEntries.class);
         }
         {
             originalEmbeddingStore.serializeToFile(filePath.toString());
@@ -76,10 +91,209 @@ class InMemoryEmbeddingStoreTest extends EmbeddingStoreWithFilteringIT {
 
             assertThat(deserializedEmbeddingStore.entries)
                     .isEqualTo(originalEmbeddingStore.entries)
-                    .isInstanceOf(CopyOnWriteArrayList.class);
+                    .isInstanceOf(SegmentedEntries.class);
+        }
+    }
+
+    @Test
+    void should_stream_same_json_as_serialize_to_json() {
+
+        InMemoryEmbeddingStore<TextSegment> originalEmbeddingStore = createEmbeddingStore();
+        String json = originalEmbeddingStore.serializeToJson();
+
+        StringWriter writer = new StringWriter();
+        originalEmbeddingStore.serializeToJson(writer);
+        assertThat(writer.toString()).isEqualTo(json);
+
+        InMemoryEmbeddingStore<TextSegment> deserializedEmbeddingStore = InMemoryEmbeddingStore.fromJson(new StringReader(json));
+        assertThat(deserializedEmbeddingStore.entries)
+                .isEqualTo(originalEmbeddingStore.entries)
+                .hasSameHashCodeAs(originalEmbeddingStore.entries);
+    }
+
+    @Test
+    void should_stream_hnsw_config() {
+
+        InMemoryEmbeddingStore<TextSegment> originalEmbeddingStore = InMemoryEmbeddingStore.<TextSegment>builder()
+                .hnswConfig(HnswConfig.builder().m(8).build())
+                .build();
+        originalEmbeddingStore.add("1", Embedding.from(new float[] {1, 2}), TextSegment.from("text"));
+
+        StringWriter writer = new StringWriter();
+        originalEmbeddingStore.serializeToJson(writer);
+        assertThat(writer.toString()).isEqualTo(originalEmbeddingStore.serializeToJson());
+
+        InMemoryEmbeddingStore<TextSegment> deserializedEmbeddingStore =
+                InMemoryEmbeddingStore.fromJson(new StringReader(writer.toString()));
+        assertThat(deserializedEmbeddingStore.hnswConfig()).isEqualTo(originalEmbeddingStore.hnswConfig());
+        assertThat(deserializedEmbeddingStore.entries).isEqualTo(originalEmbeddingStore.entries);
+    }
+
+    @Test
+    void should_serialize_to_and_deserialize_from_binary_file() {
+        InMemoryEmbeddingStore<TextSegment> originalEmbeddingStore = createEmbeddingStore();
+        originalEmbeddingStore.add(embeddingModel.embed("third").content());
+        Path filePath = temporaryDirectory.resolve("embedding-store.bin");
+
+        originalEmbeddingStore.serializeToBinaryFile(filePath);
+        InMemoryEmbeddingStore<TextSegment> deserializedEmbeddingStore = InMemoryEmbeddingStore.fromBinaryFile(filePath);
+
+        assertThat(deserializedEmbeddingStore.entries)
+                .isEqualTo(originalEmbeddingStore.entries)
+                .isInstanceOf(SegmentedEntries.class);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"float", "half-precision"})
+    void should_search_vectors_in_place_in_binary_file(String type) {
+
+        // given
+        InMemoryEmbeddingStore<TextSegment> originalEmbeddingStore = new InMemoryEmbeddingStore<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 100; i++) {
+            Embedding embedding = randomEmbedding(random);
+            originalEmbeddingStore.add(String.valueOf(i),
+                    type.equals("float") ? embedding : HalfPrecisionEmbedding.from(embedding, FLOAT16));
+        }
+        Path filePath = temporaryDirectory.resolve("embedding-store.bin");
+        originalEmbeddingStore.serializeToBinaryFile(filePath);
+
+        // when
+        InMemoryEmbeddingStore<TextSegment> fromBinaryFile = InMemoryEmbeddingStore.fromBinaryFile(filePath);
+        // overwrites the file the vectors are read from
+        fromBinaryFile.serializeToBinaryFile(filePath);
+        InMemoryEmbeddingStore<TextSegment> fromRewrittenBinaryFile = InMemoryEmbeddingStore.fromBinaryFile(filePath);
+
+        // then
+        assertThat(fromBinaryFile.entries).allSatisfy(entry -> {
+            assertThat(entry.embedding).isNull();
+            assertThat(entry.storage).isInstanceOf(MappedVectors.class);
+        });
+        EmbeddingSearchRequest request = EmbeddingSearchRequest.builder()
+                .queryEmbedding(randomEmbedding(random))
+                .maxResults(10)
+                .build();
+        List<EmbeddingMatch<TextSegment>> expected = originalEmbeddingStore.search(request).matches();
+        assertThat(fromBinaryFile.search(request).matches()).hasSize(10).isEqualTo(expected);
+        assertThat(fromRewrittenBinaryFile.search(request).matches()).isEqualTo(expected);
+        assertThat(fromRewrittenBinaryFile.entries).isEqualTo(originalEmbeddingStore.entries);
+    }
+
+    @Test
+    void should_fail_to_deserialize_binary_file_of_unsupported_version() throws Exception {
+        Path filePath = temporaryDirectory.resolve("embedding-store.bin");
+        createEmbeddingStore().serializeToBinaryFile(filePath);
+        try (FileChannel channel = FileChannel.open(filePath, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(Integer.BYTES).putInt(0, 1), Integer.BYTES);
+        }
+
+        assertThatExceptionOfType(IllegalArgumentException.class)
+                .isThrownBy(() -> InMemoryEmbeddingStore.fromBinaryFile(filePath))
+                .withMessage("Unsupported embedding store snapshot version 1, expected 2");
+    }
+
+    @Test
+    void should_fail_to_deserialize_from_binary_file_that_is_not_a_snapshot() throws Exception {
+        Path filePath = temporaryDirectory.resolve("embedding-store.json");
+        createEmbeddingStore().serializeToFile(filePath);
+
+        assertThatExceptionOfType(IllegalArgumentException.class)
+                .isThrownBy(() -> InMemoryEmbeddingStore.fromBinaryFile(filePath))
+                .withMessageContaining("is not an embedding store snapshot");
+    }
+
+    @ParameterizedTest
+    @EnumSource(HalfPrecisionEmbedding.Format.class)
+    void should_serialize_half_precision_embeddings(HalfPrecisionEmbedding.Format format) {
+
+        // given
+        InMemoryEmbeddingStore<TextSegment> originalEmbeddingStore = new InMemoryEmbeddingStore<>();
+        originalEmbeddingStore.add("1", HalfPrecisionEmbedding.from(new float[] {0.1f, -2.7f, 3e-3f}, format),
+                TextSegment.from("first"));
+        originalEmbeddingStore.add("2", HalfPrecisionEmbedding.from(new float[] {1f, 0.5f, -0.25f}, format));
+        Path filePath = temporaryDirectory.resolve("embedding-store.bin");
+
+        // when
+        InMemoryEmbeddingStore<TextSegment> fromJson =
+                InMemoryEmbeddingStore.fromJson(originalEmbeddingStore.serializeToJson());
+        StringWriter writer = new StringWriter();
+        originalEmbeddingStore.serializeToJson(writer);
+        InMemoryEmbeddingStore<TextSegment> fromStreamedJson =
+                InMemoryEmbeddingStore.fromJson(new StringReader(writer.toString()));
+        originalEmbeddingStore.serializeToBinaryFile(filePath);
+        InMemoryEmbeddingStore<TextSegment> fromBinaryFile = InMemoryEmbeddingStore.fromBinaryFile(filePath);
+
+        // then
+        assertThat(fromJson.entries).isEqualTo(originalEmbeddingStore.entries);
+        assertThat(fromStreamedJson.entries).isEqualTo(originalEmbeddingStore.entries);
+        assertThat(fromBinaryFile.entries).isEqualTo(originalEmbeddingStore.entries);
+        assertThat(fromBinaryFile.entries.iterator().next().embedding()).isInstanceOf(HalfPrecisionEmbedding.class);
+    }
+
+    @Test
+    void should_write_mixed_embeddings_as_floats_to_binary_file() {
+
+        // given
+        InMemoryEmbeddingStore<TextSegment> originalEmbeddingStore = new InMemoryEmbeddingStore<>();
+        originalEmbeddingStore.add("1", HalfPrecisionEmbedding.from(new float[] {0.1f, -2.7f}, FLOAT16));
+        originalEmbeddingStore.add("2", Embedding.from(new float[] {1f, 0.5f}));
+        Path filePath = temporaryDirectory.resolve("embedding-store.bin");
+
+        // when
+        originalEmbeddingStore.serializeToBinaryFile(filePath);
+        InMemoryEmbeddingStore<TextSegment> deserializedEmbeddingStore = InMemoryEmbeddingStore.fromBinaryFile(filePath);
+
+        // then
+        List<Embedding> embeddings = new ArrayList<>();
+        deserializedEmbeddingStore.entries.forEach(entry -> embeddings.add(entry.embedding()));
+        assertThat(embeddings).containsExactly(
+                Embedding.from(HalfPrecisionEmbedding.from(new float[] {0.1f, -2.7f}, FLOAT16).vector()),
+                Embedding.from(new float[] {1f, 0.5f}));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"default", "normalized", "contiguous", "hnsw"})
+    void should_search_half_precision_embeddings_like_float_embeddings(String mode) {
+
+        // given
+        InMemoryEmbeddingStore<TextSegment> floatStore = storeFor(mode);
+        InMemoryEmbeddingStore<TextSegment> halfPrecisionStore = storeFor(mode);
+        Random random = new Random(42);
+        for (int i = 0; i < 100; i++) {
+            Embedding embedding = randomEmbedding(random);
+            floatStore.add(String.valueOf(i), embedding);
+            halfPrecisionStore.add(String.valueOf(i), HalfPrecisionEmbedding.from(embedding, FLOAT16));
+        }
+        Embedding queryEmbedding = randomEmbedding(random);
+
+        // when
+        List<EmbeddingMatch<TextSegment>> floatMatches = floatStore.search(EmbeddingSearchRequest.builder()
+                .queryEmbedding(queryEmbedding)
+                .maxResults(3)
+                .build()).matches();
+        List<EmbeddingMatch<TextSegment>> halfPrecisionMatches = halfPrecisionStore.search(EmbeddingSearchRequest.builder()
+                .queryEmbedding(HalfPrecisionEmbedding.from(queryEmbedding, FLOAT16))
+                .maxResults(3)
+                .build()).matches();
+
+        // then
+        assertThat(halfPrecisionMatches).hasSize(3);
+        for (int i = 0; i < 3; i++) {
+            assertThat(halfPrecisionMatches.get(i).embeddingId()).isEqualTo(floatMatches.get(i).embeddingId());
+            assertThat(halfPrecisionMatches.get(i).score()).isCloseTo(floatMatches.get(i).score(), offset(1e-3));
         }
     }
 
+    private static InMemoryEmbeddingStore<TextSegment> storeFor(String mode) {
+        InMemoryEmbeddingStore.Builder<TextSegment> builder = InMemoryEmbeddingStore.builder();
+        switch (mode) {
+            case "normalized" -> builder.normalizeEmbeddings(true);
+            case "contiguous" -> builder.contiguousStorage(true);
+            case "hnsw" -> builder.hnswConfig(HnswConfig.builder().build());
+        }
+        return builder.build();
+    }
+
     @Test
     void should_merge_multiple_stores() {
 
@@ -114,6 +328,89 @@ class InMemoryEmbeddingStoreTest extends EmbeddingStoreWithFilteringIT {
         assertThat(matches.get(1).embedded()).isEqualTo(segment2);
     }
 
+    @Test
+    void should_merge_stores_with_configuration_of_first_store() {
+
+        // given
+        HnswConfig hnswConfig = HnswConfig.builder().m(8).build();
+        InMemoryEmbeddingStore<TextSegment> store1 = InMemoryEmbeddingStore.<TextSegment>builder()
+                .hnswConfig(hnswConfig)
+                .build();
+        InMemoryEmbeddingStore<TextSegment> store2 = InMemoryEmbeddingStore.<TextSegment>builder()
+                .contiguousStorage(true)
+                .build();
+        Random random = new Random(42);
+        for (int i = 0; i < 10; i++) {
+            store1.add("1-" + i, randomEmbedding(random));
+            store2.add("2-" + i, randomEmbedding(random));
+        }
+
+        // when
+        InMemoryEmbeddingStore<TextSegment> merged = InMemoryEmbeddingStore.merge(store1, store2);
+
+        // then
+        assertThat(merged.hnswConfig()).isEqualTo(hnswConfig);
+        assertThat(merged.entries).hasSize(20);
+        // the entries of the second store got their own embeddings back, as the merged store has no slab
+        assertThat(merged.entries).allSatisfy(entry -> assertThat(entry.embedding).isNotNull());
+        EmbeddingSearchRequest request = EmbeddingSearchRequest.builder()
+                .queryEmbedding(randomEmbedding(random))
+                .maxResults(20)
+                .build();
+        assertThat(merged.search(request).matches()).hasSize(20);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"default", "normalized", "contiguous", "indexed", "hnsw", "parallel", "contiguous-parallel"})
+    void should_search_all_like_one_by_one(String mode) {
+
+        // given
+        InMemoryEmbeddingStore.Builder<TextSegment> builder = InMemoryEmbeddingStore.builder();
+        switch (mode) {
+            case "normalized" -> builder.normalizeEmbeddings(true);
+            case "contiguous" -> builder.contiguousStorage(true);
+            case "indexed" -> builder.indexedMetadataKeys("group");
+            case "hnsw" -> builder.hnswConfig(HnswConfig.builder().build());
+            case "parallel" -> builder.searchExecutor(ForkJoinPool.commonPool()).parallelSearchThreshold(10);
+            case "contiguous-parallel" -> builder.contiguousStorage(true)
+                    .searchExecutor(ForkJoinPool.commonPool())
+                    .parallelSearchThreshold(10);
+        }
+        InMemoryEmbeddingStore<TextSegment> store = builder.build();
+        Random random = new Random(42);
+        for (int i = 0; i < 300; i++) {
+            TextSegment segment = TextSegment.from("text " + i, new Metadata().put("group", i % 3));
+            store.add(String.valueOf(i), randomEmbedding(random), segment);
+        }
+
+        List<EmbeddingSearchRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            requests.add(EmbeddingSearchRequest.builder()
+                    .queryEmbedding(randomEmbedding(random))
+                    .maxResults(3 + i)
+                    .minScore(i == 1 ? 0.6 : 0.0)
+                    .filter(i % 2 == 0 ? metadataKey("group").isEqualTo(1) : null)
+                    .build());
+        }
+
+        // when
+        List<EmbeddingSearchResult<TextSegment>> results = store.searchAll(requests);
+
+        // then
+        assertThat(results).hasSize(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            assertThat(results.get(i).matches()).isEqualTo(store.search(requests.get(i)).matches());
+        }
+    }
+
+    private static Embedding randomEmbedding(Random random) {
+        float[] vector = new float[8];
+        for (int i = 0; i < vector.length; i++) {
+            vector[i] = (float) random.nextGaussian();
+        }
+        return Embedding.from(vector);
+    }
+
     private InMemoryEmbeddingStore<TextSegment> createEmbeddingStore() {
 
         InMemoryEmbeddingStore<TextSegment> embeddingStore = new InMemoryEmbeddingStore<>();
@@ -0,0 +1,291 @@
+package dev.langchain4j.store.embedding.inmemory;
+
+import dev.langchain4j.data.document.Metadata;
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.embedding.HalfPrecisionEmbedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.embedding.EmbeddingModel;
+import dev.langchain4j.model.embedding.onnx.allminilml6v2q.AllMiniLmL6V2QuantizedEmbeddingModel;
+import dev.langchain4j.store.embedding.EmbeddingStore;
+import dev.langchain4j.store.embedding.EmbeddingStoreWithFilteringIT;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static dev.langchain4j.data.embedding.HalfPrecisionEmbedding.Format.BFLOAT16;
+import static dev.langchain4j.store.embedding.filter.MetadataFilterBuilder.metadataKey;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static java.util.stream.Collectors.toList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests if {@link InMemoryEmbeddingStore} works correctly after being recreated from its write-ahead log.
+ */
+class InMemoryEmbeddingStoreWriteAheadLogTest extends EmbeddingStoreWithFilteringIT {
+
+    @TempDir
+    Path temporaryDirectory;
+
+    InMemoryEmbeddingStore<TextSegment> embeddingStore;
+
+    EmbeddingModel embeddingModel = new AllMiniLmL6V2QuantizedEmbeddingModel();
+
+    @AfterEach
+    void closeEmbeddingStore() {
+        if (embeddingStore != null) {
+            embeddingStore.close();
+        }
+    }
+
+    @Override
+    protected EmbeddingStore<TextSegment> embeddingStore() {
+        // reopening and compacting often exercises snapshots as well as log replay
+        closeEmbeddingStore();
+        embeddingStore = open(WriteAheadLogConfig.builder()
+                .directory(temporaryDirectory.resolve("embedding-store"))
+                .compactionThreshold(16 * 1024L)
+                .build());
+        return embeddingStore;
+    }
+
+    @Test
+    void should_recover_additions_and_removals() {
+
+        // given
+        WriteAheadLogConfig config = WriteAheadLogConfig.builder().directory(temporaryDirectory).build();
+        InMemoryEmbeddingStore<TextSegment> store = open(config);
+        store.add("1", Embedding.from(new float[]{1, 0}), TextSegment.from("one", new Metadata().put("n", 1)));
+        store.add("2", Embedding.from(new float[]{0, 1}), TextSegment.from("two", new Metadata().put("n", 2)));
+        store.add("3", Embedding.from(new float[]{1, 1}));
+        store.add("4", Embedding.from(new float[]{1, 2}), TextSegment.from("four", new Metadata().put("n", 4L)));
+        store.removeAll(metadataKey("n").isEqualTo(2));
+        store.removeAll(List.of("3"));
+        store.close();
+
+        // when
+        InMemoryEmbeddingStore<TextSegment> recovered = open(config);
+        recovered.close();
+
+        // then
+        assertThat(recovered.entries).containsExactlyElementsOf(store.entries);
+        assertThat(ids(recovered)).containsExactly("1", "4");
+    }
+
+    @Test
+    void should_recover_half_precision_embeddings() {
+
+        // given
+        WriteAheadLogConfig config = WriteAheadLogConfig.builder()
+                .directory(temporaryDirectory)
+                .compactionThreshold(256L)
+                .build();
+        InMemoryEmbeddingStore<TextSegment> store = open(config);
+        for (int i = 0; i < 20; i++) {
+            store.add(String.valueOf(i), HalfPrecisionEmbedding.from(new float[]{i / 3f, 1, 2}, BFLOAT16));
+        }
+        store.close();
+
+        // when
+        InMemoryEmbeddingStore<TextSegment> recovered = open(config);
+        recovered.close();
+
+        // then
+        assertThat(recovered.entries).containsExactlyElementsOf(store.entries);
+        assertThat(recovered.entries).allSatisfy(entry -> assertThat(entry.embedding())
+                .isInstanceOf(HalfPrecisionEmbedding.class));
+    }
+
+    @Test
+    void should_recover_after_compaction() throws IOException {
+
+        // given
+        WriteAheadLogConfig config = WriteAheadLogConfig.builder()
+                .directory(temporaryDirectory)
+                .compactionThreshold(256L)
+                .build();
+        InMemoryEmbeddingStore<TextSegment> store = open(config);
+        for (int i = 0; i < 20; i++) {
+            store.add(String.valueOf(i), Embedding.from(new float[]{i, 1, 2}), TextSegment.from("text " + i));
+        }
+        store.removeAll(List.of("0", "19"));
+        store.close();
+
+        // when
+        InMemoryEmbeddingStore<TextSegment> recovered = open(config);
+        recovered.close();
+
+        // then
+        assertThat(recovered.entries).containsExactlyElementsOf(store.entries);
+        assertThat(recovered.entries).hasSize(18);
+        try (Stream<Path> files = Files.list(temporaryDirectory)) {
+            List<String> fileNames = files.filter(Files::isRegularFile)
+                    .map(file -> file.getFileName().toString())
+                    .collect(toList());
+            assertThat(fileNames).hasSize(3);
+            assertThat(fileNames).anyMatch(fileName -> fileName.startsWith("snapshot-"));
+            assertThat(fileNames).anyMatch(fileName -> fileName.startsWith("wal-"));
+            assertThat(fileNames).contains("lock");
+        }
+    }
+
+    @Test
+    void should_replay_logs_of_interrupted_compaction() throws IOException {
+
+        // given
+        WriteAheadLogConfig config = WriteAheadLogConfig.builder().directory(temporaryDirectory).build();
+        InMemoryEmbeddingStore<TextSegment> store = open(config);
+        store.add("1", Embedding.from(new float[]{1, 0}));
+        store.add("2", Embedding.from(new float[]{0, 1}));
+        store.close();
+
+        // the log of the next generation was started, but its snapshot was not written yet
+        Path otherDirectory = Files.createDirectory(temporaryDirectory.resolve("other"));
+        InMemoryEmbeddingStore<TextSegment> other =
+                open(WriteAheadLogConfig.builder().directory(otherDirectory).build());
+        other.add("3", Embedding.from(new float[]{1, 1}));
+        other.add("4", Embedding.from(new float[]{1, 2}));
+        other.removeAll(List.of("3"));
+        other.close();
+        Files.move(otherDirectory.resolve("wal-0.log"), temporaryDirectory.resolve("wal-1.log"));
+
+        // when
+        InMemoryEmbeddingStore<TextSegment> recovered = open(config);
+        recovered.add("5", Embedding.from(new float[]{2, 1}));
+        recovered.close();
+
+        // then
+        assertThat(ids(recovered)).containsExactly("1", "2", "4", "5");
+        InMemoryEmbeddingStore<TextSegment> recoveredAgain = open(config);
+        recoveredAgain.close();
+        assertThat(ids(recoveredAgain)).containsExactly("1", "2", "4", "5");
+    }
+
+    @Test
+    void should_lock_directory_until_closed() {
+
+        // given
+        WriteAheadLogConfig config = WriteAheadLogConfig.builder().directory(temporaryDirectory).build();
+        InMemoryEmbeddingStore<TextSegment> store = open(config);
+        store.add("1", Embedding.from(new float[]{1, 0}));
+
+        // then
+        assertThatThrownBy(() -> open(config))
+                .isExactlyInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("is already used by another store");
+
+        // when
+        store.close();
+
+        // then
+        assertThatThrownBy(() -> store.add("2", Embedding.from(new float[]{0, 1})))
+                .isExactlyInstanceOf(IllegalStateException.class)
+                .hasMessage("Write-ahead log is closed");
+        InMemoryEmbeddingStore<TextSegment> recovered = open(config);
+        recovered.close();
+        assertThat(ids(recovered)).containsExactly("1");
+    }
+
+    @Test
+    void should_log_entries_evicted_during_recovery() {
+
+        // given
+        WriteAheadLogConfig config = WriteAheadLogConfig.builder().directory(temporaryDirectory).build();
+        InMemoryEmbeddingStore<TextSegment> store = open(config);
+        store.add("1", Embedding.from(new float[]{1, 0}));
+        store.add("2", Embedding.from(new float[]{0, 1}));
+        store.add("3", Embedding.from(new float[]{1, 1}));
+        store.close();
+
+        // when
+        List<String> evicted = new ArrayList<>();
+        InMemoryEmbeddingStore<TextSegment> evicting = InMemoryEmbeddingStore.<TextSegment>builder()
+                .writeAheadLog(config)
+                .eviction(EvictionConfig.builder().maxEntries(1).build())
+                .evictionListener((id, embedding, embedded, cause) -> evicted.add(id))
+                .build();
+        evicting.close();
+
+        // then
+        assertThat(evicted).containsExactly("1", "2");
+        assertThat(ids(evicting)).containsExactly("3");
+        InMemoryEmbeddingStore<TextSegment> recovered = open(config);
+        recovered.close();
+        assertThat(ids(recovered)).containsExactly("3");
+    }
+
+    @Test
+    void should_discard_torn_record_at_the_end_of_the_log() throws IOException {
+
+        // given
+        WriteAheadLogConfig config = WriteAheadLogConfig.builder().directory(temporaryDirectory).build();
+        InMemoryEmbeddingStore<TextSegment> store = open(config);
+        store.add("1", Embedding.from(new float[]{1, 0}), TextSegment.from("one"));
+        store.add("2", Embedding.from(new float[]{0, 1}), TextSegment.from("two"));
+
+        store.close();
+
+        Path log = temporaryDirectory.resolve("wal-0.log");
+        try (FileChannel channel = FileChannel.open(log, WRITE)) {
+            channel.truncate(channel.size() - 3);
+        }
+
+        // when
+        InMemoryEmbeddingStore<TextSegment> recovered = open(config);
+        recovered.add("3", Embedding.from(new float[]{1, 1}), TextSegment.from("three"));
+        recovered.close();
+
+        // then
+        assertThat(ids(recovered)).containsExactly("1", "3");
+        InMemoryEmbeddingStore<TextSegment> recoveredAgain = open(config);
+        recoveredAgain.close();
+        assertThat(ids(recoveredAgain)).containsExactly("1", "3");
+    }
+
+    @Test
+    void should_recover_empty_store_after_clear() {
+
+        // given
+        WriteAheadLogConfig config = WriteAheadLogConfig.builder().directory(temporaryDirectory).build();
+        InMemoryEmbeddingStore<TextSegment> store = open(config);
+        store.add("1", Embedding.from(new float[]{1, 0}));
+        store.removeAll();
+        store.add("2", Embedding.from(new float[]{0, 1}));
+        store.close();
+
+        // when
+        InMemoryEmbeddingStore<TextSegment> recovered = open(config);
+        recovered.close();
+
+        // then
+        assertThat(ids(recovered)).containsExactly("2");
+    }
+
+    private static InMemoryEmbeddingStore<TextSegment> open(WriteAheadLogConfig config) {
+        return InMemoryEmbeddingStore.<TextSegment>builder()
+                .writeAheadLog(config)
+                .build();
+    }
+
+    private static List<String> ids(InMemoryEmbeddingStore<TextSegment> store) {
+        return store.entries.stream().map(entry -> entry.id).collect(toList());
+    }
+
+    @Override
+    protected EmbeddingModel embeddingModel() {
+        return embeddingModel;
+    }
+
+    @Override
+    protected boolean supportsContains() {
+        return true;
+    }
+}
@@ -0,0 +1,220 @@
+package dev.langchain4j.store.embedding.inmemory;
+
+import dev.langchain4j.data.document.Metadata;
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.embedding.EmbeddingModel;
+import dev.langchain4j.model.embedding.onnx.allminilml6v2q.AllMiniLmL6V2QuantizedEmbeddingModel;
+import dev.langchain4j.store.embedding.EmbeddingMatch;
+import dev.langchain4j.store.embedding.EmbeddingSearchRequest;
+import dev.langchain4j.store.embedding.EmbeddingStore;
+import dev.langchain4j.store.embedding.EmbeddingStoreWithFilteringIT;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static dev.langchain4j.store.embedding.filter.MetadataFilterBuilder.metadataKey;
+import static java.util.stream.Collectors.toSet;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.data.Offset.offset;
+
+class IvfPqEmbeddingStoreTest extends EmbeddingStoreWithFilteringIT {
+
+    EmbeddingStore<TextSegment> embeddingStore = IvfPqEmbeddingStore.builder().build();
+
+    EmbeddingModel embeddingModel = new AllMiniLmL6V2QuantizedEmbeddingModel();
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void should_find_approximately_same_matches_as_exact_search(boolean reranking) {
+
+        // given
+        Random random = new Random(42);
+        List<float[]> centers = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            centers.add(randomVector(random, 32, 1));
+        }
+        InMemoryEmbeddingStore<TextSegment> exact = new InMemoryEmbeddingStore<>();
+        IvfPqEmbeddingStore ivfPq = IvfPqEmbeddingStore.builder()
+                .nlist(16)
+                .nprobe(4)
+                .subQuantizers(8)
+                .trainingSampleSize(2_000)
+                .reranking(reranking)
+                .seed(42L)
+                .trainingExecutor(Runnable::run)
+                .build();
+        for (int i = 0; i < 4_000; i++) {
+            Embedding embedding = clusteredEmbedding(random, centers);
+            exact.add(String.valueOf(i), embedding);
+            ivfPq.add(String.valueOf(i), embedding);
+        }
+        assertThat(ivfPq.isTrained()).isTrue();
+
+        // when
+        int found = 0;
+        int expected = 0;
+        for (int i = 0; i < 20; i++) {
+            EmbeddingSearchRequest request = EmbeddingSearchRequest.builder()
+                    .queryEmbedding(clusteredEmbedding(random, centers))
+                    .maxResults(10)
+                    .build();
+            List<EmbeddingMatch<TextSegment>> exactMatches = exact.search(request).matches();
+            List<EmbeddingMatch<TextSegment>> approximateMatches = ivfPq.search(request).matches();
+
+            if (reranking) {
+                EmbeddingMatch<TextSegment> best = approximateMatches.get(0);
+                exactMatches.stream()
+                        .filter(match -> match.embeddingId().equals(best.embeddingId()))
+                        .forEach(match -> assertThat(best.score()).isCloseTo(match.score(), offset(1e-6)));
+            }
+
+            Set<String> approximateIds = ids(approximateMatches);
+            approximateIds.retainAll(ids(exactMatches));
+            found += approximateIds.size();
+            expected += exactMatches.size();
+        }
+
+        // then
+        assertThat((double) found / expected).isGreaterThan(reranking ? 0.8 : 0.5);
+    }
+
+    @Test
+    void should_remove_and_filter_after_training() {
+
+        // given
+        Random random = new Random(42);
+        IvfPqEmbeddingStore store = IvfPqEmbeddingStore.builder()
+                .nlist(4)
+                .subQuantizers(4)
+                .seed(42L)
+                .build();
+        for (int i = 0; i < 100; i++) {
+            TextSegment segment = TextSegment.from("text " + i, new Metadata().put("even", i % 2 == 0 ? "yes" : "no"));
+            store.add(String.valueOf(i), Embedding.from(randomVector(random, 8, 1)), segment);
+        }
+        store.train();
+
+        // when
+        store.removeAll(List.of("0", "1", "2"));
+        store.removeAll(metadataKey("even").isEqualTo("no"));
+
+        // then
+        EmbeddingSearchRequest request = EmbeddingSearchRequest.builder()
+                .queryEmbedding(Embedding.from(randomVector(random, 8, 1)))
+                .maxResults(100)
+                .build();
+        List<EmbeddingMatch<TextSegment>> matches = store.search(request).matches();
+        assertThat(matches).hasSize(48);
+        assertThat(matches).allMatch(match -> match.embedded().metadata().getString("even").equals("yes"));
+        assertThat(ids(matches)).doesNotContain("0", "2");
+    }
+
+    @Test
+    void should_search_exactly_until_training_completes() {
+
+        // given
+        List<Runnable> trainings = new ArrayList<>();
+        IvfPqEmbeddingStore store = IvfPqEmbeddingStore.builder()
+                .nlist(2)
+                .subQuantizers(2)
+                .trainingSampleSize(10)
+                .seed(42L)
+                .trainingExecutor(trainings::add)
+                .build();
+        InMemoryEmbeddingStore<TextSegment> exact = new InMemoryEmbeddingStore<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 20; i++) {
+            Embedding embedding = Embedding.from(randomVector(random, 4, 1));
+            store.add(String.valueOf(i), embedding);
+            exact.add(String.valueOf(i), embedding);
+        }
+        EmbeddingSearchRequest request = EmbeddingSearchRequest.builder()
+                .queryEmbedding(Embedding.from(randomVector(random, 4, 1)))
+                .maxResults(20)
+                .build();
+
+        // then
+        assertThat(trainings).hasSize(1);
+        assertThat(store.isTrained()).isFalse();
+        List<EmbeddingMatch<TextSegment>> matches = store.search(request).matches();
+        assertThat(matches.get(0).embeddingId()).isEqualTo(exact.search(request).matches().get(0).embeddingId());
+
+        // when
+        store.removeAll(List.of("0"));
+        trainings.get(0).run();
+
+        // then
+        assertThat(store.isTrained()).isTrue();
+        assertThat(ids(store.search(request).matches())).hasSize(19).doesNotContain("0");
+
+        // when
+        store.removeAll(List.of("1"));
+
+        // then
+        assertThat(ids(store.search(request).matches())).hasSize(18).doesNotContain("0", "1");
+    }
+
+    @Test
+    void should_report_bytes_per_vector() {
+
+        IvfPqEmbeddingStore store = IvfPqEmbeddingStore.builder().subQuantizers(16).build();
+        IvfPqEmbeddingStore reranking = IvfPqEmbeddingStore.builder().subQuantizers(16).reranking(true).build();
+        reranking.add(Embedding.from(new float[384]));
+
+        assertThat(store.bytesPerVector()).isEqualTo(16);
+        assertThat(reranking.bytesPerVector()).isEqualTo(16 + 384 * 4);
+    }
+
+    @Test
+    void should_reject_dimension_not_divisible_by_sub_quantizers() {
+
+        IvfPqEmbeddingStore store = IvfPqEmbeddingStore.builder().subQuantizers(8).build();
+
+        assertThatThrownBy(() -> store.add(Embedding.from(new float[] {1, 2, 3})))
+                .isExactlyInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Embedding dimension (3) must be divisible by subQuantizers (8)");
+    }
+
+    private static Embedding clusteredEmbedding(Random random, List<float[]> centers) {
+        float[] center = centers.get(random.nextInt(centers.size()));
+        float[] noise = randomVector(random, center.length, 0.3);
+        for (int i = 0; i < center.length; i++) {
+            noise[i] += center[i];
+        }
+        return Embedding.from(noise);
+    }
+
+    private static float[] randomVector(Random random, int dimension, double deviation) {
+        float[] vector = new float[dimension];
+        for (int i = 0; i < dimension; i++) {
+            vector[i] = (float) (random.nextGaussian() * deviation);
+        }
+        return vector;
+    }
+
+    private static Set<String> ids(List<EmbeddingMatch<TextSegment>> matches) {
+        return matches.stream().map(EmbeddingMatch::embeddingId).collect(toSet());
+    }
+
+    @Override
+    protected EmbeddingStore<TextSegment> embeddingStore() {
+        return embeddingStore;
+    }
+
+    @Override
+    protected EmbeddingModel embeddingModel() {
+        return embeddingModel;
+    }
+
+    @Override
+    protected boolean supportsContains() {
+        return true;
+    }
+}
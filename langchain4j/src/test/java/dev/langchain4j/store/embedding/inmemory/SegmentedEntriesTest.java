@@ -0,0 +1,114 @@
+package dev.langchain4j.store.embedding.inmemory;
+
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static java.util.stream.Collectors.toList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SegmentedEntriesTest {
+
+    @Test
+    void should_keep_insertion_order_across_segments() {
+
+        // given
+        SegmentedEntries<TextSegment> entries = new SegmentedEntries<>();
+        List<InMemoryEmbeddingStore.Entry<TextSegment>> expected = entries(0, 5_000);
+
+        // when
+        expected.forEach(entries::add);
+
+        // then
+        assertThat(entries).hasSize(5_000);
+        assertThat(entries).containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    void should_remove_all_entries_with_given_ids() {
+
+        // given
+        SegmentedEntries<TextSegment> entries = new SegmentedEntries<>(entries(0, 10));
+        InMemoryEmbeddingStore.Entry<TextSegment> duplicate = entry(3);
+        entries.add(duplicate);
+
+        // when
+        List<InMemoryEmbeddingStore.Entry<TextSegment>> removed = entries.removeIds(List.of("3", "7", "unknown"));
+
+        // then
+        assertThat(removed).extracting(entry -> entry.id).containsExactly("3", "3", "7");
+        assertThat(entries).extracting(entry -> entry.id).containsExactly("0", "1", "2", "4", "5", "6", "8", "9");
+        assertThat(entries.removeIds(List.of("3"))).isEmpty();
+    }
+
+    @Test
+    void should_remove_given_entries_only() {
+
+        // given
+        List<InMemoryEmbeddingStore.Entry<TextSegment>> original = entries(0, 5);
+        SegmentedEntries<TextSegment> entries = new SegmentedEntries<>(original);
+        InMemoryEmbeddingStore.Entry<TextSegment> duplicate = entry(3);
+        entries.add(duplicate);
+
+        // when
+        List<InMemoryEmbeddingStore.Entry<TextSegment>> removed = entries.removeEntries(List.of(original.get(3), entry(4)));
+
+        // then
+        assertThat(removed).containsExactly(original.get(3));
+        assertThat(entries).extracting(entry -> entry.id).containsExactly("0", "1", "2", "4", "3");
+        assertThat(entries.removeIds(List.of("3"))).singleElement().isSameAs(duplicate);
+    }
+
+    @Test
+    void should_compact_and_keep_order_and_ids() {
+
+        // given
+        SegmentedEntries<TextSegment> entries = new SegmentedEntries<>(entries(0, 3_000));
+
+        // when
+        entries.removeMatching(entry -> Integer.parseInt(entry.id) % 3 != 0);
+        entries.addAll(entries(3_000, 3_010));
+
+        // then
+        List<String> expectedIds = IntStream.range(0, 3_010)
+                .filter(i -> i % 3 == 0 || i >= 3_000)
+                .mapToObj(String::valueOf)
+                .collect(toList());
+        assertThat(entries).extracting(entry -> entry.id).containsExactlyElementsOf(expectedIds);
+
+        assertThat(entries.removeIds(List.of("2997", "3005"))).hasSize(2);
+        assertThat(entries).hasSize(expectedIds.size() - 2);
+        assertThat(entries).extracting(entry -> entry.id).doesNotContain("2997", "3005");
+    }
+
+    @Test
+    void should_not_see_entries_added_after_iteration_started() {
+
+        // given
+        SegmentedEntries<TextSegment> entries = new SegmentedEntries<>(entries(0, 3));
+        Iterator<InMemoryEmbeddingStore.Entry<TextSegment>> iterator = entries.iterator();
+
+        // when
+        entries.addAll(entries(3, 6));
+        entries.clear();
+
+        // then
+        List<String> iterated = new ArrayList<>();
+        iterator.forEachRemaining(entry -> iterated.add(entry.id));
+        assertThat(iterated).containsExactly("0", "1", "2");
+        assertThat(entries).isEmpty();
+    }
+
+    private static List<InMemoryEmbeddingStore.Entry<TextSegment>> entries(int from, int to) {
+        return IntStream.range(from, to).mapToObj(SegmentedEntriesTest::entry).collect(toList());
+    }
+
+    private static InMemoryEmbeddingStore.Entry<TextSegment> entry(int i) {
+        return new InMemoryEmbeddingStore.Entry<>(String.valueOf(i), Embedding.from(new float[]{i, 1}));
+    }
+}